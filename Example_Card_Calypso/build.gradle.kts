@@ -16,6 +16,19 @@ plugins {
 //  APP CONFIGURATION
 ///////////////////////////////////////////////////////////////////////////////
 
+// Source set dedicated to the JMH performance benchmarks (see the "jmh" task).
+sourceSets {
+  create("jmh") {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+  }
+}
+
+configurations {
+  named("jmhImplementation") { extendsFrom(configurations.implementation.get()) }
+  named("jmhRuntimeOnly") { extendsFrom(configurations.runtimeOnly.get()) }
+}
+
 dependencies {
   // Begin Keyple configuration (generated by
   // 'https://keyple.org/components/overview/configuration-wizard/')
@@ -33,9 +46,14 @@ dependencies {
   implementation("org.eclipse.keyple:keyple-plugin-pcsc-java-lib")
   implementation("org.eclipse.keyple:keyple-plugin-stub-java-lib")
   // End Keyple configuration
+  implementation("org.eclipse.keypop:keypop-card-java-api")
 
   implementation("org.slf4j:slf4j-simple:1.7.32")
   implementation("com.google.code.gson:gson:2.10.1")
+
+  /* JMH benchmarks */
+  "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+  "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 val buildTimeAndDate = OffsetDateTime.now()
@@ -43,6 +61,20 @@ val buildDate = DateTimeFormatter.ISO_LOCAL_DATE.format(buildTimeAndDate)
 val buildTime = DateTimeFormatter.ofPattern("HH:mm:ss.SSSZ").format(buildTimeAndDate)
 
 tasks {
+  register("jmh", JavaExec::class.java) {
+    group = "keyple"
+    description = "Runs the JMH performance benchmarks, with the GC profiler enabled."
+    dependsOn("jmhClasses")
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val resultFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+    doFirst { resultFile.parentFile.mkdirs() }
+    args("-prof", "gc", "-rf", "json", "-rff", resultFile.absolutePath)
+    // Optional benchmark selection, e.g. -PjmhIncludes=EmbeddedValidation
+    if (project.hasProperty("jmhIncludes")) {
+      args(project.property("jmhIncludes") as String)
+    }
+  }
   register("fatJarTN313", Jar::class.java) {
     archiveClassifier.set("TN313-fat")
     duplicatesStrategy = DuplicatesStrategy.EXCLUDE
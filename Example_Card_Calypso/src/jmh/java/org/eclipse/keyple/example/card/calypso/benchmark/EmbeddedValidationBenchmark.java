@@ -0,0 +1,154 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
+import org.eclipse.keyple.core.service.Plugin;
+import org.eclipse.keyple.core.service.SmartCardService;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.LatencyInjectingCardReader;
+import org.eclipse.keyple.example.card.calypso.common.StubSmartCardFactory;
+import org.eclipse.keyple.example.card.calypso.common.ValidationTransactionUtil;
+import org.eclipse.keyple.plugin.stub.StubPluginFactoryBuilder;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.crypto.legacysam.sam.LegacySam;
+import org.eclipse.keypop.reader.CardReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of the embedded validation transaction of the Use Case Calypso 12, executed against
+ * a simulated card and a simulated SAM (Stub plugin).
+ *
+ * <p>The sample time mode makes JMH report the p50, p99 and p99.9 latencies of a complete
+ * transaction (selection included). The allocation rate per transaction is reported when the
+ * benchmark is run with the GC profiler ({@code -prof gc}), which is the case with the {@code jmh}
+ * Gradle task.
+ *
+ * <p>The {@code apduLatencyMicros} parameter adds a simulated transmission time to each APDU
+ * exchanged with the card and the SAM, in order to approach the timing of real readers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Dorg.slf4j.simpleLogger.defaultLogLevel=error"})
+public class EmbeddedValidationBenchmark {
+
+  private static final String CARD_READER_NAME = "Stub card reader";
+  private static final String SAM_READER_NAME = "Stub SAM reader";
+  private static final int COUNTER_DECREMENT = 1;
+  private static final byte[] NEW_EVENT_RECORD =
+      HexUtil.toByteArray("1122334455667788112233445566778811223344556677881122334455");
+
+  /** The simulated transmission time of each APDU, in microseconds. */
+  @Param({"0", "1000"})
+  public long apduLatencyMicros;
+
+  private Plugin plugin;
+  private CardReader cardReader;
+  private CardReader transactionCardReader;
+  private SymmetricCryptoSecuritySetting symmetricCryptoSecuritySetting;
+
+  /** Registers the Stub plugin, selects the SAM and prepares the security settings. */
+  @Setup(Level.Trial)
+  public void setUp() {
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+    plugin =
+        smartCardService.registerPlugin(
+            StubPluginFactoryBuilder.builder()
+                .withStubReader(
+                    CARD_READER_NAME, true, StubSmartCardFactory.createValidationStubCard())
+                .withStubReader(
+                    SAM_READER_NAME, false, StubSmartCardFactory.createValidationStubSam())
+                .build());
+
+    smartCardService.checkCardExtension(CalypsoExtensionService.getInstance());
+
+    cardReader = plugin.getReader(CARD_READER_NAME);
+    transactionCardReader = new LatencyInjectingCardReader(cardReader, apduLatencyMicros);
+
+    CardReader samReader = plugin.getReader(SAM_READER_NAME);
+    LegacySam sam = ValidationTransactionUtil.selectSam(samReader);
+    symmetricCryptoSecuritySetting =
+        ValidationTransactionUtil.createSecuritySetting(
+            new LatencyInjectingCardReader(samReader, apduLatencyMicros), sam);
+  }
+
+  /** Unregisters the Stub plugin. */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    SmartCardServiceProvider.getService().unregisterPlugin(plugin.getName());
+  }
+
+  /**
+   * Executes a complete validation transaction: card selection, secure session with the reading of
+   * the environment, event log, contract list, contract and counter, decrease of the counter,
+   * appending of a new event and closing of the session.
+   *
+   * @return The counter value read, to prevent dead code elimination.
+   */
+  @Benchmark
+  public int validation() {
+    CalypsoCard calypsoCard =
+        ValidationTransactionUtil.selectCard(cardReader, ValidationTransactionUtil.AID);
+    int counterValue =
+        ValidationTransactionUtil.executeValidation(
+            transactionCardReader,
+            calypsoCard,
+            symmetricCryptoSecuritySetting,
+            COUNTER_DECREMENT,
+            NEW_EVENT_RECORD);
+    symmetricCryptoSecuritySetting.initCryptoContextForNextTransaction();
+    return counterValue;
+  }
+
+  /**
+   * Executes the same validation transaction in speculative mode: all the data is read when opening
+   * the secure session, then the counter is decreased, the new event appended and the session
+   * closed in a second card exchange.
+   *
+   * @return The counter value read, to prevent dead code elimination.
+   */
+  @Benchmark
+  public int speculativeValidation() {
+    CalypsoCard calypsoCard =
+        ValidationTransactionUtil.selectCard(cardReader, ValidationTransactionUtil.AID);
+    int counterValue =
+        ValidationTransactionUtil.executeSpeculativeValidation(
+            transactionCardReader,
+            calypsoCard,
+            symmetricCryptoSecuritySetting,
+            COUNTER_DECREMENT,
+            NEW_EVENT_RECORD);
+    symmetricCryptoSecuritySetting.initCryptoContextForNextTransaction();
+    return counterValue;
+  }
+}
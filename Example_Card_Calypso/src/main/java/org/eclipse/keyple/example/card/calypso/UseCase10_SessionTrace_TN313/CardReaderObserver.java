@@ -19,10 +19,11 @@
 import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
 import org.eclipse.keyple.core.service.Plugin;
 import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.SamCryptoContextPrefetcher;
+import org.eclipse.keyple.example.card.calypso.common.SamCryptoContextPrefetcher.PrefetchedCryptoContext;
 import org.eclipse.keypop.calypso.card.CalypsoCardApiFactory;
 import org.eclipse.keypop.calypso.card.card.CalypsoCard;
 import org.eclipse.keypop.calypso.card.transaction.SecureRegularModeTransactionManager;
-import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
 import org.eclipse.keypop.reader.CardReader;
 import org.eclipse.keypop.reader.CardReaderEvent;
 import org.eclipse.keypop.reader.ChannelControl;
@@ -40,7 +41,8 @@
   private static final Logger logger = LoggerFactory.getLogger(CardReaderObserver.class);
   private final Plugin plugin;
   private final CardReader cardReader;
-  private final SymmetricCryptoSecuritySetting cardSecuritySetting;
+  private final CardReader transactionCardReader;
+  private final SamCryptoContextPrefetcher samCryptoContextPrefetcher;
   private final CardSelectionManager cardSelectionManager;
   private final byte[] newEventRecord =
       HexUtil.toByteArray("8013C8EC55667788112233445566778811223344556677881122334455");
@@ -62,23 +64,31 @@
   private static final byte SFI_CONTRACTS = (byte) 0x09;
   private static final int RECORD_SIZE = 29;
 
+  // The maximum time waited for the SAM crypto context, when the card comes before it is ready.
+  private static final long CRYPTO_CONTEXT_TIMEOUT_MILLIS = 1000;
+
   /**
    * Constructor.
    *
    * @param plugin
    * @param cardReader The card reader.
+   * @param transactionCardReader The card reader used by the transactions, decorated by the APDU
+   *     tracer.
    * @param cardSelectionManager The card selection manager.
-   * @param cardSecuritySetting The card security settings.
+   * @param samCryptoContextPrefetcher The prefetcher providing the card security settings, whose
+   *     SAM challenge is loaded in the background between the transactions.
    */
   CardReaderObserver(
       Plugin plugin,
       CardReader cardReader,
+      CardReader transactionCardReader,
       CardSelectionManager cardSelectionManager,
-      SymmetricCryptoSecuritySetting cardSecuritySetting) {
+      SamCryptoContextPrefetcher samCryptoContextPrefetcher) {
     this.plugin = plugin;
     this.cardReader = cardReader;
+    this.transactionCardReader = transactionCardReader;
     this.cardSelectionManager = cardSelectionManager;
-    this.cardSecuritySetting = cardSecuritySetting;
+    this.samCryptoContextPrefetcher = samCryptoContextPrefetcher;
     calypsoCardApiFactory = CalypsoExtensionService.getInstance().getCalypsoCardApiFactory();
   }
 
@@ -89,6 +99,7 @@ public void onReaderEvent(CardReaderEvent event) {
       case CARD_MATCHED:
         // read the current time used later to compute the transaction time
         long timeStamp = System.currentTimeMillis();
+        PrefetchedCryptoContext cryptoContext = null;
         try {
           // the selection matched, get the resulting CalypsoCard
           CalypsoCard calypsoCard =
@@ -98,6 +109,10 @@ public void onReaderEvent(CardReaderEvent event) {
                           event.getScheduledCardSelectionsResponse())
                       .getActiveSmartCard();
 
+          // get the security setting whose SAM challenge has been loaded since the previous
+          // transaction
+          cryptoContext = samCryptoContextPrefetcher.acquire(CRYPTO_CONTEXT_TIMEOUT_MILLIS);
+
           // create a transaction manager, open a Secure Session, read Environment, Event Log and
           // Contract List.
           // Specifying expected response lengths in read commands serves as a protective measure
@@ -105,7 +120,7 @@ public void onReaderEvent(CardReaderEvent event) {
           SecureRegularModeTransactionManager cardTransactionManager =
               calypsoCardApiFactory
                   .createSecureRegularModeTransactionManager(
-                      cardReader, calypsoCard, cardSecuritySetting)
+                      transactionCardReader, calypsoCard, cryptoContext.getSecuritySetting())
                   .prepareOpenSecureSession(DEBIT)
                   .prepareReadRecords(SFI_ENVIRONMENT_AND_HOLDER, 1, 1, RECORD_SIZE)
                   .processCommands(ChannelControl.KEEP_OPEN);
@@ -159,19 +174,25 @@ public void onReaderEvent(CardReaderEvent event) {
               System.currentTimeMillis() - timeStamp,
               ANSI_RESET);
 
-          // Optimization: preload the SAM challenge for the next transaction
-          cardSecuritySetting.initCryptoContextForNextTransaction();
-
         } catch (Exception e) {
+          if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+          }
           logger.error(
               "{}Transaction failed with exception: {}{}", ANSI_RED, e.getMessage(), ANSI_RESET);
+        } finally {
+          // Optimization: preload the SAM challenge for the next transaction in the background
+          if (cryptoContext != null) {
+            samCryptoContextPrefetcher.release(cryptoContext);
+          }
         }
 
         break;
 
       case CARD_INSERTED:
         logger.error(
-            "CARD_INSERTED event: should not have occurred because of the MATCHED_ONLY selection mode chosen");
+            "CARD_INSERTED event: should not have occurred because of the MATCHED_ONLY selection"
+                + " mode chosen");
         break;
 
       case CARD_REMOVED:
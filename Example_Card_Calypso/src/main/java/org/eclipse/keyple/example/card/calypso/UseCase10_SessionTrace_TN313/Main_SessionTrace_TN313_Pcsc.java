@@ -14,12 +14,16 @@
 
 import static org.eclipse.keypop.calypso.card.WriteAccessLevel.*;
 
+import java.io.IOException;
 import java.util.Scanner;
 import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
 import org.eclipse.keyple.card.calypso.crypto.legacysam.LegacySamExtensionService;
 import org.eclipse.keyple.card.calypso.crypto.legacysam.LegacySamUtil;
 import org.eclipse.keyple.core.service.*;
 import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.ApduTraceRecorder;
+import org.eclipse.keyple.example.card.calypso.common.SamCryptoContextPrefetcher;
+import org.eclipse.keyple.example.card.calypso.common.SamReaderObserver;
 import org.eclipse.keyple.plugin.pcsc.*;
 import org.eclipse.keypop.calypso.card.CalypsoCardApiFactory;
 import org.eclipse.keypop.calypso.card.transaction.*;
@@ -60,6 +64,10 @@
  * purposes. In the event of unexpected behaviors or failures, runtime exceptions are thrown,
  * providing clear indications of issues encountered during the session’s execution.
  *
+ * <p>In addition, the APDUs exchanged with the card and the SAM during the transactions are always
+ * recorded by an {@link ApduTraceRecorder} in a binary trace file, at a negligible cost compared to
+ * the TRACE log level, and can be rendered afterwards by {@link Main_SessionTrace_TN313_Report}.
+ *
  * <p>Throws IllegalStateException if an error occurs during the card authentication or secure
  * session establishment, ensuring robust error management and security adherence.
  */
@@ -83,6 +91,12 @@ public class Main_SessionTrace_TN313_Pcsc {
   private static String cardAid = AID;
   private static boolean isVerbose;
 
+  // The default APDU trace file.
+  static final String TRACE_FILE_NAME = "tn313_session_trace.bin";
+  // The number of APDUs the trace ring buffer can hold while waiting to be written.
+  private static final int TRACE_CAPACITY = 4096;
+  private static String traceFileName = TRACE_FILE_NAME;
+
   // The plugin used to manage the readers.
   private static Plugin plugin;
   // The reader used to communicate with the card.
@@ -93,10 +107,12 @@ public class Main_SessionTrace_TN313_Pcsc {
   private static ReaderApiFactory readerApiFactory;
   // The Calypso factory used to create the selection extension and transaction managers.
   private static CalypsoCardApiFactory calypsoCardApiFactory;
-  // The security settings for the card transaction.
-  private static SymmetricCryptoSecuritySetting symmetricCryptoSecuritySetting;
+  // The prefetcher providing the security settings for the card transactions.
+  private static SamCryptoContextPrefetcher samCryptoContextPrefetcher;
+  // The recorder of the APDUs exchanged during the transactions.
+  private static ApduTraceRecorder apduTraceRecorder;
 
-  public static void main(String[] args) {
+  public static void main(String[] args) throws IOException, InterruptedException {
 
     parseCommandLine(args);
 
@@ -107,8 +123,10 @@ public static void main(String[] args) {
     logger.info("  AID={}", cardAid);
     logger.info("  CARD_READER_REGEX={}", cardReaderRegex);
     logger.info("  SAM_READER_REGEX={}", samReaderRegex);
+    logger.info("  TRACE_FILE={}", traceFileName);
 
     // Initialize the context.
+    apduTraceRecorder = new ApduTraceRecorder(traceFileName, TRACE_CAPACITY);
     initKeypleService();
     initCalypsoCardExtensionService();
     initCardReader();
@@ -137,7 +155,11 @@ public static void main(String[] args) {
     // Create and add a card observer for this reader
     CardReaderObserver cardReaderObserver =
         new CardReaderObserver(
-            plugin, cardReader, cardSelectionManager, symmetricCryptoSecuritySetting);
+            plugin,
+            cardReader,
+            apduTraceRecorder.traceCardReader(cardReader),
+            cardSelectionManager,
+            samCryptoContextPrefetcher);
 
     ((ObservableCardReader) cardReader).setReaderObservationExceptionHandler(cardReaderObserver);
     ((ObservableCardReader) cardReader).addObserver(cardReaderObserver);
@@ -151,9 +173,17 @@ public static void main(String[] args) {
     sc.nextLine();
     logger.info("Exit in progress...");
 
+    samCryptoContextPrefetcher.shutdown();
+
     // unregister plugin
     SmartCardServiceProvider.getService().unregisterPlugin(plugin.getName());
 
+    apduTraceRecorder.close();
+    logger.info(
+        "APDU trace written to {} ({} APDUs lost)",
+        traceFileName,
+        apduTraceRecorder.getNbLostApdus());
+
     logger.info("Exit program");
 
     System.exit(0);
@@ -207,6 +237,8 @@ private static void parseAdditionalArguments(String arg) {
       cardReaderRegex = argValue;
     } else if (argKey.equals("-s") || argKey.equals("--sam")) {
       samReaderRegex = argValue;
+    } else if (argKey.equals("-t") || argKey.equals("--trace")) {
+      traceFileName = argValue;
     } else {
       displayUsageAndExit();
     }
@@ -226,17 +258,26 @@ private static void parseAidArgument(String aid) {
   private static void displayUsageAndExit() {
     System.out.println("Available options:");
     System.out.printf(
-        " -d, --default                  use default values (is equivalent to -a=\"%s\" -c=\"%s\" -s=\"%s\")%n",
+        " -d, --default                  use default values (is equivalent to -a=\"%s\" -c=\"%s\""
+            + " -s=\"%s\")%n",
         AID, CARD_READER_NAME_REGEX, SAM_READER_NAME_REGEX);
     System.out.println(
-        " -a, --aid=\"APPLICATION_AID\"    between 5 and 16 hex bytes (e.g. \"315449432E49434131\")");
+        " -a, --aid=\"APPLICATION_AID\"    between 5 and 16 hex bytes (e.g."
+            + " \"315449432E49434131\")");
+    System.out.println(
+        " -c, --card=\"CARD_READER_REGEX\" regular expression matching the card reader name (e.g."
+            + " \"ASK Logo.*\")");
     System.out.println(
-        " -c, --card=\"CARD_READER_REGEX\" regular expression matching the card reader name (e.g. \"ASK Logo.*\")");
+        " -s, --sam=\"SAM_READER_REGEX\"   regular expression matching the SAM reader name (e.g."
+            + " \"HID.*\")");
     System.out.println(
-        " -s, --sam=\"SAM_READER_REGEX\"   regular expression matching the SAM reader name (e.g. \"HID.*\")");
+        " -t, --trace=\"TRACE_FILE\"       file receiving the APDU trace (default \""
+            + TRACE_FILE_NAME
+            + "\")");
     System.out.println(" -v, --verbose                  set the log level to TRACE");
     System.out.println(
-        "PC/SC protocol is set to `\"ANY\" ('*') for the SAM reader, \"T1\" ('T=1') for the card reader.");
+        "PC/SC protocol is set to `\"ANY\" ('*') for the SAM reader, \"T1\" ('T=1') for the card"
+            + " reader.");
     System.exit(1);
   }
 
@@ -294,22 +335,30 @@ private static void initSamReader() {
    * Initializes the security settings for the transaction.
    *
    * <p>Prepares the SAM reader, selects the SAM, and sets up the symmetric crypto security setting
-   * for securing the transaction.
+   * for securing the transaction. The SAM commands of the transactions are sent through the APDU
+   * tracer.
+   *
+   * <p>The security setting is handed over to a {@link SamCryptoContextPrefetcher}, which loads the
+   * SAM challenge in the background before each transaction, and the SAM reader is observed so that
+   * the SAM is removed from the prefetcher when it is withdrawn.
    */
   private static void initSecuritySetting() {
     LegacySam sam = selectSam(samReader);
-    symmetricCryptoSecuritySetting =
+    SymmetricCryptoSecuritySetting symmetricCryptoSecuritySetting =
         calypsoCardApiFactory
             .createSymmetricCryptoSecuritySetting(
                 LegacySamExtensionService.getInstance()
                     .getLegacySamApiFactory()
-                    .createSymmetricCryptoCardTransactionManagerFactory(samReader, sam))
+                    .createSymmetricCryptoCardTransactionManagerFactory(
+                        apduTraceRecorder.traceSamReader(samReader), sam))
             .assignDefaultKif(PERSONALIZATION, (byte) 0x21)
             .assignDefaultKif(LOAD, (byte) 0x27)
             .assignDefaultKif(DEBIT, (byte) 0x30)
             .enableRatificationMechanism();
-    // Optimization: preload the SAM challenge for the next transaction
-    symmetricCryptoSecuritySetting.initCryptoContextForNextTransaction();
+    // Optimization: preload the SAM challenge for the next transaction in the background
+    samCryptoContextPrefetcher = new SamCryptoContextPrefetcher(1);
+    samCryptoContextPrefetcher.addSam(samReader.getName(), symmetricCryptoSecuritySetting);
+    new SamReaderObserver(samCryptoContextPrefetcher).observe((ObservableCardReader) samReader);
   }
 
   /**
@@ -0,0 +1,192 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.UseCase10_SessionTrace_TN313;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.ApduTraceFile;
+import org.eclipse.keyple.example.card.calypso.common.ApduTraceFile.TracedApdu;
+import org.eclipse.keyple.example.card.calypso.common.ApduTraceRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Renders the APDU trace file written by {@link Main_SessionTrace_TN313_Pcsc} as a session trace in
+ * the manner of Technical Note #313.
+ *
+ * <p>The APDUs are listed in chronological order with their description, command, response data and
+ * status word, and the duration of the reader exchange they belong to. Each secure session, from
+ * the Open Secure Session to the Close Secure Session sent to the card, is delimited and its
+ * duration and number of card and SAM APDUs are given, the times inside a session being relative to
+ * its opening.
+ *
+ * <p>The trace file is produced by an {@link ApduTraceRecorder} with a negligible impact on the
+ * transactions, so this tool can be used offline on traces recorded in production, where the TRACE
+ * log level is not acceptable.
+ *
+ * <p>Usage: {@code Main_SessionTrace_TN313_Report [TRACE_FILE]}, the default trace file being the
+ * one of {@link Main_SessionTrace_TN313_Pcsc}.
+ */
+public class Main_SessionTrace_TN313_Report {
+  private static final Logger logger =
+      LoggerFactory.getLogger(Main_SessionTrace_TN313_Report.class);
+
+  private static final byte INS_OPEN_SECURE_SESSION = (byte) 0x8A;
+  private static final byte INS_CLOSE_SECURE_SESSION = (byte) 0x8E;
+
+  public static void main(String[] args) throws IOException {
+
+    String traceFileName = args.length > 0 ? args[0] : Main_SessionTrace_TN313_Pcsc.TRACE_FILE_NAME;
+
+    logger.info("=============== UseCase Calypso #10: session trace TN313 report ===========");
+    logger.info("Trace file: {}", traceFileName);
+
+    ApduTraceFile.Trace trace = ApduTraceFile.read(traceFileName);
+
+    logger.info("Session trace:\n{}", render(trace));
+
+    logger.info("Exit program");
+  }
+
+  /**
+   * Renders a trace.
+   *
+   * @param trace The trace.
+   * @return A not null string.
+   */
+  private static String render(ApduTraceFile.Trace trace) {
+
+    // The records are ordered by end of exchange; the APDUs of an exchange keep their order.
+    List<TracedApdu> apdus = new ArrayList<TracedApdu>(trace.getApdus());
+    Collections.sort(
+        apdus,
+        new Comparator<TracedApdu>() {
+          @Override
+          public int compare(TracedApdu apdu1, TracedApdu apdu2) {
+            return apdu1.getStartNanos() < apdu2.getStartNanos()
+                ? -1
+                : apdu1.getStartNanos() == apdu2.getStartNanos() ? 0 : 1;
+          }
+        });
+
+    SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    StringBuilder sb = new StringBuilder();
+    sb.append(
+        String.format(
+            "Trace started on %s: %d APDUs recorded, %d lost%n",
+            dateFormat.format(new Date(trace.getOriginWallClockMillis())),
+            apdus.size(),
+            trace.getNbLostApdus()));
+
+    int nbSessions = 0;
+    long totalSessionNanos = 0;
+    long sessionStartNanos = -1;
+    int nbSessionCardApdus = 0;
+    int nbSessionSamApdus = 0;
+    for (TracedApdu apdu : apdus) {
+      boolean isSam = apdu.getReader().isSam();
+      byte ins = apdu.getCommand().length > 1 ? apdu.getCommand()[1] : 0;
+
+      if (!isSam && ins == INS_OPEN_SECURE_SESSION) {
+        nbSessions++;
+        sessionStartNanos = apdu.getStartNanos();
+        nbSessionCardApdus = 0;
+        nbSessionSamApdus = 0;
+        sb.append(
+            String.format(
+                "%n---- Session #%d on %s, reader '%s' ----%n",
+                nbSessions,
+                dateFormat.format(
+                    new Date(trace.getOriginWallClockMillis() + sessionStartNanos / 1000000)),
+                apdu.getReader().getName()));
+      }
+
+      long timeNanos =
+          sessionStartNanos >= 0 ? apdu.getStartNanos() - sessionStartNanos : apdu.getStartNanos();
+      sb.append(
+          String.format(
+              "%s%10.3f ms  %-4s %-40s (exchange %.3f ms)%n",
+              sessionStartNanos >= 0 ? "+" : " ",
+              timeNanos / 1000000.0,
+              isSam ? "SAM" : "CARD",
+              apdu.getInfo() != null ? apdu.getInfo() : String.format("INS %02X", ins),
+              apdu.getExchangeNanos() / 1000000.0));
+      sb.append("                 -> ")
+          .append(formatBytes(apdu.getCommand(), apdu.getCommandLength()))
+          .append('\n');
+      sb.append("                 <- ").append(formatResponse(apdu)).append('\n');
+
+      if (sessionStartNanos >= 0) {
+        if (isSam) {
+          nbSessionSamApdus++;
+        } else {
+          nbSessionCardApdus++;
+        }
+        if (!isSam && ins == INS_CLOSE_SECURE_SESSION) {
+          long sessionNanos = apdu.getStartNanos() + apdu.getExchangeNanos() - sessionStartNanos;
+          totalSessionNanos += sessionNanos;
+          sb.append(
+              String.format(
+                  "---- End of session #%d: %.3f ms, %d card APDUs, %d SAM APDUs ----%n%n",
+                  nbSessions, sessionNanos / 1000000.0, nbSessionCardApdus, nbSessionSamApdus));
+          sessionStartNanos = -1;
+        }
+      }
+    }
+
+    sb.append(
+        String.format(
+            "%d sessions, mean duration %.3f ms%n",
+            nbSessions, nbSessions != 0 ? totalSessionNanos / 1000000.0 / nbSessions : 0.0));
+    return sb.toString();
+  }
+
+  /**
+   * Formats the response of an APDU, separating the status word from the data.
+   *
+   * @param apdu The APDU.
+   * @return A not null string.
+   */
+  private static String formatResponse(TracedApdu apdu) {
+    byte[] response = apdu.getResponse();
+    if (response.length == 0) {
+      return "(no response)";
+    }
+    if (response.length < 2 || apdu.getResponseLength() != response.length) {
+      return formatBytes(response, apdu.getResponseLength());
+    }
+    byte[] data = new byte[response.length - 2];
+    System.arraycopy(response, 0, data, 0, data.length);
+    return (data.length != 0 ? HexUtil.toHex(data) + " " : "")
+        + HexUtil.toHex(new byte[] {response[response.length - 2], response[response.length - 1]});
+  }
+
+  /**
+   * Formats the stored bytes of a command or a response, indicating whether they were truncated.
+   *
+   * @param bytes The stored bytes.
+   * @param length The length of the APDU.
+   * @return A not null string.
+   */
+  private static String formatBytes(byte[] bytes, int length) {
+    return bytes.length == length
+        ? HexUtil.toHex(bytes)
+        : HexUtil.toHex(bytes) + "... (" + length + " bytes)";
+  }
+}
@@ -0,0 +1,192 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.UseCase12_PerformanceMeasurement_EmbeddedValidation;
+
+import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
+import org.eclipse.keyple.core.service.Plugin;
+import org.eclipse.keyple.core.service.SmartCardService;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.LatencyInjectingCardReader;
+import org.eclipse.keyple.example.card.calypso.common.SamCryptoContextPrefetcher;
+import org.eclipse.keyple.example.card.calypso.common.SamCryptoContextPrefetcher.PrefetchedCryptoContext;
+import org.eclipse.keyple.example.card.calypso.common.StubSmartCardFactory;
+import org.eclipse.keyple.example.card.calypso.common.ValidationTransactionUtil;
+import org.eclipse.keyple.plugin.stub.StubPluginFactoryBuilder;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.crypto.legacysam.sam.LegacySam;
+import org.eclipse.keypop.reader.CardReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Use Case Calypso 12 – Performance measurement: gate-to-gate time with and without SAM challenge
+ * prefetching (Stub)
+ *
+ * <p>Simulates back-to-back taps on a gate, i.e. a new card is presented as soon as the previous
+ * transaction ends, and measures the gate-to-gate time (the interval between the ends of two
+ * consecutive transactions) in two modes:
+ *
+ * <ul>
+ *   <li>synchronous: the SAM challenge of the next transaction is loaded at the end of each
+ *       transaction, before the next card can be processed, as done by the other examples,
+ *   <li>prefetched: the SAM challenge is loaded in the background by a {@link
+ *       SamCryptoContextPrefetcher} while the next card is being selected.
+ * </ul>
+ *
+ * <p>The card and SAM readers add a simulated cost to each exchange and to each APDU in order to
+ * approach the timing of real readers.
+ *
+ * <p>Any unexpected behavior will result in runtime exceptions.
+ */
+public class Main_PerformanceMeasurement_ChallengePrefetch_Stub {
+  private static final Logger logger =
+      LoggerFactory.getLogger(Main_PerformanceMeasurement_ChallengePrefetch_Stub.class);
+
+  static final String CARD_READER_NAME = "Stub card reader";
+  static final String SAM_READER_NAME = "Stub SAM reader";
+
+  // Seed of the simulated latencies, so that the runs are repeatable.
+  private static final long LATENCY_SEED = 12;
+
+  private static final int NB_WARMUP_TRANSACTIONS = 5;
+  private static final int NB_TRANSACTIONS = 50;
+  private static final long ACQUIRE_TIMEOUT_MILLIS = 1000;
+  // Simulated time needed to detect and select the next card, since the selection is done with
+  // the stub reader itself.
+  private static final long CARD_DETECTION_AND_SELECTION_MILLIS = 15;
+  private static final int COUNTER_DECREMENT = 1;
+  private static final byte[] NEW_EVENT_RECORD =
+      HexUtil.toByteArray("1122334455667788112233445566778811223344556677881122334455");
+
+  // The reader used to select the card.
+  private static CardReader cardReader;
+  // The reader used by the transactions to communicate with the card.
+  private static LatencyInjectingCardReader transactionCardReader;
+
+  public static void main(String[] args) throws InterruptedException {
+
+    logger.info(
+        "= UseCase Calypso #12: gate-to-gate time with SAM challenge prefetching (Stub) ========");
+
+    // Initialize the context
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+    Plugin plugin =
+        smartCardService.registerPlugin(
+            StubPluginFactoryBuilder.builder()
+                .withStubReader(
+                    CARD_READER_NAME, true, StubSmartCardFactory.createValidationStubCard())
+                .withStubReader(
+                    SAM_READER_NAME, false, StubSmartCardFactory.createValidationStubSam())
+                .build());
+    smartCardService.checkCardExtension(CalypsoExtensionService.getInstance());
+
+    cardReader = plugin.getReader(CARD_READER_NAME);
+    transactionCardReader =
+        new LatencyInjectingCardReader(
+            cardReader, StubSmartCardFactory.createValidationCardLatencyModel(LATENCY_SEED));
+
+    CardReader samReader = plugin.getReader(SAM_READER_NAME);
+    LegacySam sam = ValidationTransactionUtil.selectSam(samReader);
+    SymmetricCryptoSecuritySetting securitySetting =
+        ValidationTransactionUtil.createSecuritySetting(
+            new LatencyInjectingCardReader(
+                samReader, StubSmartCardFactory.createValidationSamLatencyModel(LATENCY_SEED)),
+            sam);
+
+    // Synchronous mode
+    runSynchronous(securitySetting, NB_WARMUP_TRANSACTIONS);
+    double synchronousMillis = runSynchronous(securitySetting, NB_TRANSACTIONS);
+
+    // Prefetched mode: the security setting is now handled by the prefetcher only, its challenge
+    // being already loaded by the last synchronous transaction
+    SamCryptoContextPrefetcher prefetcher = new SamCryptoContextPrefetcher(1);
+    prefetcher.addSam(SAM_READER_NAME, securitySetting, true);
+    runPrefetched(prefetcher, NB_WARMUP_TRANSACTIONS);
+    double prefetchedMillis = runPrefetched(prefetcher, NB_TRANSACTIONS);
+    prefetcher.shutdown();
+
+    logger.info(
+        "Mean gate-to-gate time over {} transactions: synchronous = {} ms, prefetched = {} ms",
+        NB_TRANSACTIONS,
+        String.format("%.2f", synchronousMillis),
+        String.format("%.2f", prefetchedMillis));
+
+    smartCardService.unregisterPlugin(plugin.getName());
+
+    logger.info("Exit program.");
+  }
+
+  /**
+   * Executes back-to-back transactions, loading the SAM challenge at the end of each of them.
+   *
+   * @param securitySetting The security setting.
+   * @param nbTransactions The number of transactions.
+   * @return The mean gate-to-gate time, in milliseconds.
+   * @throws InterruptedException If the current thread was interrupted.
+   */
+  private static double runSynchronous(
+      SymmetricCryptoSecuritySetting securitySetting, int nbTransactions)
+      throws InterruptedException {
+    long start = System.nanoTime();
+    for (int i = 0; i < nbTransactions; i++) {
+      CalypsoCard calypsoCard = selectNextCard();
+      ValidationTransactionUtil.executeValidation(
+          transactionCardReader, calypsoCard, securitySetting, COUNTER_DECREMENT, NEW_EVENT_RECORD);
+      securitySetting.initCryptoContextForNextTransaction();
+    }
+    return (System.nanoTime() - start) / 1000000.0 / nbTransactions;
+  }
+
+  /**
+   * Executes back-to-back transactions, the SAM challenge being loaded in the background.
+   *
+   * @param prefetcher The prefetcher.
+   * @param nbTransactions The number of transactions.
+   * @return The mean gate-to-gate time, in milliseconds.
+   * @throws InterruptedException If the current thread was interrupted.
+   */
+  private static double runPrefetched(SamCryptoContextPrefetcher prefetcher, int nbTransactions)
+      throws InterruptedException {
+    long start = System.nanoTime();
+    for (int i = 0; i < nbTransactions; i++) {
+      // The card is detected and selected (CARD_MATCHED)...
+      CalypsoCard calypsoCard = selectNextCard();
+      // ...then a ready context is taken and the transaction starts immediately.
+      PrefetchedCryptoContext context = prefetcher.acquire(ACQUIRE_TIMEOUT_MILLIS);
+      try {
+        ValidationTransactionUtil.executeValidation(
+            transactionCardReader,
+            calypsoCard,
+            context.getSecuritySetting(),
+            COUNTER_DECREMENT,
+            NEW_EVENT_RECORD);
+      } finally {
+        prefetcher.release(context);
+      }
+    }
+    return (System.nanoTime() - start) / 1000000.0 / nbTransactions;
+  }
+
+  /**
+   * Waits for the simulated detection of the next card and selects it.
+   *
+   * @return The selected card.
+   * @throws InterruptedException If the current thread was interrupted.
+   */
+  private static CalypsoCard selectNextCard() throws InterruptedException {
+    Thread.sleep(CARD_DETECTION_AND_SELECTION_MILLIS);
+    return ValidationTransactionUtil.selectCard(cardReader, ValidationTransactionUtil.AID);
+  }
+}
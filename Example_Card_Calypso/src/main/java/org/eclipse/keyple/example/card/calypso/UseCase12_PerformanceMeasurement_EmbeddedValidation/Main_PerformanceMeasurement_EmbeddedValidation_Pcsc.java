@@ -23,6 +23,14 @@
 import org.eclipse.keyple.card.calypso.crypto.legacysam.LegacySamUtil;
 import org.eclipse.keyple.core.service.*;
 import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.ApduTraceRecorder;
+import org.eclipse.keyple.example.card.calypso.common.NoOpMetricsRegistry;
+import org.eclipse.keyple.example.card.calypso.common.PrometheusMetricsRegistry;
+import org.eclipse.keyple.example.card.calypso.common.SamCryptoContextPrefetcher;
+import org.eclipse.keyple.example.card.calypso.common.SamCryptoContextPrefetcher.PrefetchedCryptoContext;
+import org.eclipse.keyple.example.card.calypso.common.SamReaderObserver;
+import org.eclipse.keyple.example.card.calypso.common.TracingCardReader;
+import org.eclipse.keyple.example.card.calypso.common.TransactionMetrics;
 import org.eclipse.keyple.plugin.pcsc.*;
 import org.eclipse.keypop.calypso.card.CalypsoCardApiFactory;
 import org.eclipse.keypop.calypso.card.card.CalypsoCard;
@@ -34,6 +42,7 @@
 import org.eclipse.keypop.reader.CardReader;
 import org.eclipse.keypop.reader.ChannelControl;
 import org.eclipse.keypop.reader.ConfigurableCardReader;
+import org.eclipse.keypop.reader.ObservableCardReader;
 import org.eclipse.keypop.reader.ReaderApiFactory;
 import org.eclipse.keypop.reader.selection.CardSelectionManager;
 import org.eclipse.keypop.reader.selection.CardSelectionResult;
@@ -71,8 +80,19 @@ public class Main_PerformanceMeasurement_EmbeddedValidation_Pcsc {
   private static ReaderApiFactory readerApiFactory;
   // The Calypso factory used to create the selection extension and transaction managers.
   private static CalypsoCardApiFactory calypsoCardApiFactory;
-  // The security settings for the card transaction.
-  private static SymmetricCryptoSecuritySetting symmetricCryptoSecuritySetting;
+  // The prefetcher providing the security settings for the card transactions.
+  private static SamCryptoContextPrefetcher samCryptoContextPrefetcher;
+  // The registry of the transaction metrics, null if the metrics are disabled.
+  private static PrometheusMetricsRegistry metricsRegistry;
+  // The instruments of the transaction phases.
+  private static TransactionMetrics transactionMetrics;
+  // The card reader decorated by the transaction metrics, used by the transaction manager.
+  private static CardReader transactionCardReader;
+  // The recorder of the APDU trace, null if the trace is disabled.
+  private static ApduTraceRecorder apduTraceRecorder;
+  // The card and SAM readers decorated by the APDU trace recorder, null if the trace is disabled.
+  private static TracingCardReader tracingCardReader;
+  private static TracingCardReader tracingSamReader;
 
   // operating parameters
   private static String cardReaderRegex;
@@ -80,6 +100,8 @@ public class Main_PerformanceMeasurement_EmbeddedValidation_Pcsc {
   private static String cardAid;
   private static int counterDecrement;
   private static String logLevel;
+  private static boolean isMetricsEnabled;
+  private static String traceFileName;
   private static byte[] newEventRecord;
   private static String builtDate;
   private static String builtTime;
@@ -88,6 +110,8 @@ public class Main_PerformanceMeasurement_EmbeddedValidation_Pcsc {
   private static final String ISO_CARD_PROTOCOL = "ISO_14443_4_CARD";
   // The logical name of the protocol for communicating with the SAM (optional).
   private static final String SAM_PROTOCOL = "ISO_7816_3_T0";
+  // The number of APDUs the trace ring buffer can hold while waiting to be written.
+  private static final int TRACE_CAPACITY = 4096;
 
   private static final byte SFI_ENVIRONMENT_AND_HOLDER = (byte) 0x07;
   private static final byte SFI_EVENT_LOG = (byte) 0x08;
@@ -95,8 +119,10 @@ public class Main_PerformanceMeasurement_EmbeddedValidation_Pcsc {
   private static final byte SFI_CONTRACTS = (byte) 0x09;
   private static final byte SFI_COUNTERS = (byte) 0x19;
   private static final int RECORD_SIZE = 29;
+  // The maximum time waited for the SAM crypto context, when the card comes before it is ready.
+  private static final long CRYPTO_CONTEXT_TIMEOUT_MILLIS = 1000;
 
-  public static void main(String[] args) throws IOException {
+  public static void main(String[] args) throws IOException, InterruptedException {
 
     // load operating parameters
     readConfigurationFile();
@@ -116,6 +142,8 @@ public static void main(String[] args) throws IOException {
     System.out.printf("  AID=%s\n", cardAid);
     System.out.printf("  Counter decrement=%d\n", counterDecrement);
     System.out.printf("  log level=%s\n", logLevel);
+    System.out.printf("  metrics=%s\n", isMetricsEnabled);
+    System.out.printf("  trace=%s\n", traceFileName != null ? traceFileName : "");
     System.out.printf("Build date: %s %s%s\n", builtDate, builtTime, ANSI_RESET);
 
     // Initialize the context
@@ -123,6 +151,8 @@ public static void main(String[] args) throws IOException {
     initCalypsoCardExtensionService();
     initCardReader();
     initSamReader();
+    initApduTrace();
+    initTransactionMetrics();
     initSecuritySetting();
 
     BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(System.in));
@@ -136,6 +166,9 @@ public static void main(String[] args) throws IOException {
       System.out.printf(
           "%s## (or press 'q' + ENTER to exit)                     ##%s\n",
           ANSI_YELLOW, ANSI_RESET);
+      System.out.printf(
+          "%s## (or 'm' + ENTER to print the metrics)              ##%s\n",
+          ANSI_YELLOW, ANSI_RESET);
       System.out.printf(
           "%s########################################################%s\n",
           ANSI_YELLOW, ANSI_RESET);
@@ -147,7 +180,14 @@ public static void main(String[] args) throws IOException {
         break;
       }
 
+      if (input.toLowerCase().contains("m")) {
+        printMetrics();
+        continue;
+      }
+
       if (cardReader.isCardPresent()) {
+        long startNanos = System.nanoTime();
+        PrefetchedCryptoContext cryptoContext = null;
         try {
           logger.info("Starting validation transaction...");
           logger.info("Select application with AID = '{}'", cardAid);
@@ -159,6 +199,14 @@ public static void main(String[] args) throws IOException {
           if (calypsoCard == null) {
             throw new IllegalStateException("Card selection failed!");
           }
+          transactionMetrics.recordSelection(System.nanoTime() - startNanos);
+          if (tracingCardReader != null) {
+            tracingCardReader.recordSelection(calypsoCard, startNanos);
+          }
+
+          // Get the security setting whose SAM challenge has been loaded since the previous
+          // transaction.
+          cryptoContext = samCryptoContextPrefetcher.acquire(CRYPTO_CONTEXT_TIMEOUT_MILLIS);
 
           // Create a transaction manager, open a Secure Session, read Environment and Event Log.
           // Specifying expected response lengths in read commands serves as a protective measure
@@ -166,7 +214,7 @@ public static void main(String[] args) throws IOException {
           SecureRegularModeTransactionManager cardTransactionManager =
               calypsoCardApiFactory
                   .createSecureRegularModeTransactionManager(
-                      cardReader, calypsoCard, symmetricCryptoSecuritySetting)
+                      transactionCardReader, calypsoCard, cryptoContext.getSecuritySetting())
                   .prepareOpenSecureSession(DEBIT)
                   .prepareReadRecords(SFI_ENVIRONMENT_AND_HOLDER, 1, 1, RECORD_SIZE)
                   .processCommands(ChannelControl.KEEP_OPEN);
@@ -232,22 +280,35 @@ public static void main(String[] args) throws IOException {
               .prepareAppendRecord(SFI_EVENT_LOG, newEventRecord)
               .prepareCloseSecureSession()
               .processCommands(ChannelControl.KEEP_OPEN);
+          transactionMetrics.recordTransaction(System.nanoTime() - startNanos, true);
 
           // display transaction time
           System.out.printf(
               "%sTransaction succeeded. Execution time: %d ms%s\n",
               ANSI_GREEN, System.currentTimeMillis() - timeStamp, ANSI_RESET);
-
-          // Optimization: preload the SAM challenge for the next transaction
-          symmetricCryptoSecuritySetting.initCryptoContextForNextTransaction();
         } catch (Exception e) {
+          transactionMetrics.recordTransaction(System.nanoTime() - startNanos, false);
           System.out.printf(
               "%sTransaction failed with exception: %s%s", ANSI_RED, e.getMessage(), ANSI_RESET);
+        } finally {
+          // Optimization: preload the SAM challenge for the next transaction in the background,
+          // while the user presents the next card
+          if (cryptoContext != null) {
+            samCryptoContextPrefetcher.release(cryptoContext);
+          }
         }
       } else {
         System.out.printf("%sNo card detected%s", ANSI_RED, ANSI_RESET);
       }
     }
+    samCryptoContextPrefetcher.shutdown();
+    printMetrics();
+    if (apduTraceRecorder != null) {
+      apduTraceRecorder.close();
+      System.out.printf(
+          "APDU trace written to %s (%d APDUs lost)\n",
+          traceFileName, apduTraceRecorder.getNbLostApdus());
+    }
     logger.info("Exiting the program on user's request.");
   }
 
@@ -267,6 +328,11 @@ private static void readConfigurationFile() throws IOException {
       counterDecrement = Integer.parseInt(prop.getProperty("validation.decrement"));
       newEventRecord = HexUtil.toByteArray(prop.getProperty("validation.event"));
       logLevel = prop.getProperty("validation.log");
+      isMetricsEnabled = Boolean.parseBoolean(prop.getProperty("validation.metrics", "false"));
+      traceFileName = prop.getProperty("validation.trace", "").trim();
+      if (traceFileName.isEmpty()) {
+        traceFileName = null;
+      }
       InputStream stream =
           Main_PerformanceMeasurement_EmbeddedValidation_Pcsc.class.getResourceAsStream(
               "/META-INF/MANIFEST.MF");
@@ -333,23 +399,79 @@ private static void initSamReader() {
             SAM_PROTOCOL);
   }
 
+  /**
+   * Initializes the APDU trace recorder and decorates the card and SAM readers, if a trace file is
+   * configured.
+   *
+   * <p>The trace, including the selections, can be replayed without hardware by {@code
+   * Main_PerformanceMeasurement_TraceReplay_Stub} (Use Case Calypso 12).
+   *
+   * @throws IOException If the trace file cannot be created.
+   */
+  private static void initApduTrace() throws IOException {
+    if (traceFileName != null) {
+      apduTraceRecorder = new ApduTraceRecorder(traceFileName, TRACE_CAPACITY);
+      tracingCardReader = apduTraceRecorder.traceCardReader(cardReader);
+      tracingSamReader = apduTraceRecorder.traceSamReader(samReader);
+    }
+  }
+
+  /**
+   * Initializes the transaction metrics and decorates the card reader used by the transaction
+   * manager.
+   *
+   * <p>When the metrics are disabled, the {@link NoOpMetricsRegistry} is used so that the
+   * decorators add no processing to the transaction.
+   */
+  private static void initTransactionMetrics() {
+    if (isMetricsEnabled) {
+      metricsRegistry = new PrometheusMetricsRegistry();
+      transactionMetrics = new TransactionMetrics(metricsRegistry);
+    } else {
+      transactionMetrics = new TransactionMetrics(NoOpMetricsRegistry.INSTANCE);
+    }
+    transactionCardReader =
+        transactionMetrics.meterCardReader(
+            tracingCardReader != null ? tracingCardReader : cardReader);
+  }
+
+  /** Prints the transaction metrics in the Prometheus text format, if enabled. */
+  private static void printMetrics() {
+    if (metricsRegistry != null) {
+      System.out.printf("%s%s%s", ANSI_YELLOW, metricsRegistry.scrape(), ANSI_RESET);
+    }
+  }
+
   /**
    * Initializes the security settings for the transaction.
    *
    * <p>Prepares the SAM reader, selects the SAM, and sets up the symmetric crypto security setting
    * for securing the transaction.
+   *
+   * <p>The security setting is handed over to a {@link SamCryptoContextPrefetcher}, which loads the
+   * SAM challenge in the background before each transaction, and the SAM reader is observed so that
+   * the SAM is removed from the prefetcher when it is withdrawn.
    */
   private static void initSecuritySetting() {
+    long samSelectionStartNanos = System.nanoTime();
     LegacySam sam = selectSam(samReader);
-    symmetricCryptoSecuritySetting =
+    if (tracingSamReader != null) {
+      tracingSamReader.recordSelection(sam, samSelectionStartNanos);
+    }
+    SymmetricCryptoSecuritySetting symmetricCryptoSecuritySetting =
         calypsoCardApiFactory
             .createSymmetricCryptoSecuritySetting(
                 LegacySamExtensionService.getInstance()
                     .getLegacySamApiFactory()
-                    .createSymmetricCryptoCardTransactionManagerFactory(samReader, sam))
+                    .createSymmetricCryptoCardTransactionManagerFactory(
+                        transactionMetrics.meterSamReader(
+                            tracingSamReader != null ? tracingSamReader : samReader),
+                        sam))
             .enableRatificationMechanism();
-    // Optimization: preload the SAM challenge for the next transaction
-    symmetricCryptoSecuritySetting.initCryptoContextForNextTransaction();
+    // Optimization: preload the SAM challenge for the next transaction in the background
+    samCryptoContextPrefetcher = new SamCryptoContextPrefetcher(1);
+    samCryptoContextPrefetcher.addSam(samReader.getName(), symmetricCryptoSecuritySetting);
+    new SamReaderObserver(samCryptoContextPrefetcher).observe((ObservableCardReader) samReader);
   }
 
   /**
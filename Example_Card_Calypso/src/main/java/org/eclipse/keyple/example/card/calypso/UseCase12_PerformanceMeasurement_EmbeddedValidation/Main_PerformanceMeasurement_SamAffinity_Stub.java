@@ -0,0 +1,412 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.UseCase12_PerformanceMeasurement_EmbeddedValidation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
+import org.eclipse.keyple.card.calypso.crypto.legacysam.LegacySamExtensionService;
+import org.eclipse.keyple.core.service.Plugin;
+import org.eclipse.keyple.core.service.SmartCardService;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.core.service.resource.CardResource;
+import org.eclipse.keyple.core.service.resource.CardResourceProfileConfigurator;
+import org.eclipse.keyple.core.service.resource.CardResourceService;
+import org.eclipse.keyple.core.service.resource.CardResourceServiceConfigurator;
+import org.eclipse.keyple.core.service.resource.CardResourceServiceProvider;
+import org.eclipse.keyple.core.service.resource.PluginsConfigurator;
+import org.eclipse.keyple.core.service.resource.spi.ReaderConfiguratorSpi;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.AffinitySamPool;
+import org.eclipse.keyple.example.card.calypso.common.AffinitySamPool.PooledSam;
+import org.eclipse.keyple.example.card.calypso.common.LatencyInjectingCardReader;
+import org.eclipse.keyple.example.card.calypso.common.StubSmartCardFactory;
+import org.eclipse.keyple.example.card.calypso.common.ValidationTransactionUtil;
+import org.eclipse.keyple.plugin.stub.StubPluginFactoryBuilder;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.crypto.legacysam.sam.LegacySam;
+import org.eclipse.keypop.reader.CardReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Use Case Calypso 12 – Performance measurement: SAMs of the Card Resource Service shared by
+ * several gates, with and without thread affinity (Stub)
+ *
+ * <p>Simulates a station hosting several gates: N card readers are served concurrently by N
+ * threads, each one executing validation transactions in a loop, while M SAMs are managed by the
+ * Card Resource Service. Two modes are compared:
+ *
+ * <ul>
+ *   <li>per-transaction: as done by {@code Main_CardAuthentication_Pcsc_SamResourceService}, a SAM
+ *       card resource is allocated for each transaction (blocking allocation mode), a security
+ *       setting is created for it and its challenge is loaded before the transaction starts, then
+ *       the card resource is released,
+ *   <li>affinity: the SAMs are held by an {@link AffinitySamPool}, which pins them to the gates,
+ *       lets a gate steal an available SAM when its own is busy, and loads the challenge of the
+ *       next transaction in the background.
+ * </ul>
+ *
+ * <p>For each combination of N and M, the program logs the number of transactions per second, the
+ * mean duration of a transaction from the SAM request to the end of the card session, and the
+ * proportion of transactions executed with another SAM than the previous transaction of the same
+ * gate.
+ *
+ * <p>The card and SAM readers add a simulated cost to each exchange and to each APDU in order to
+ * approach the timing of real readers.
+ *
+ * <p>Any unexpected behavior will result in runtime exceptions.
+ */
+public class Main_PerformanceMeasurement_SamAffinity_Stub {
+  private static final Logger logger =
+      LoggerFactory.getLogger(Main_PerformanceMeasurement_SamAffinity_Stub.class);
+
+  private static final String CARD_READER_NAME_PREFIX = "Stub card reader ";
+  private static final String SAM_READER_NAME_PREFIX = "Stub SAM reader ";
+  private static final String SAM_PROFILE_NAME = "SAM C1";
+
+  // The combinations of numbers of card readers (N) and SAMs (M) to measure.
+  private static final int[][] NB_CARD_READERS_AND_SAMS = {{4, 4}, {8, 4}, {16, 4}};
+
+  // Seed of the simulated latencies, so that the runs are repeatable.
+  private static final long LATENCY_SEED = 12;
+
+  private static final long WARMUP_DURATION_MILLIS = 1000;
+  private static final long MEASUREMENT_DURATION_MILLIS = 5000;
+  // Simulated time needed to detect and select the next card, since the selection is done with
+  // the stub reader itself.
+  private static final long CARD_DETECTION_AND_SELECTION_MILLIS = 15;
+  // Cycle and timeout of the blocking allocation mode of the per-transaction mode.
+  private static final int ALLOCATION_CYCLE_DURATION_MILLIS = 2;
+  private static final int ALLOCATION_TIMEOUT_MILLIS = 5000;
+  private static final long ACQUIRE_TIMEOUT_MILLIS = 5000;
+  private static final int COUNTER_DECREMENT = 1;
+  private static final byte[] NEW_EVENT_RECORD =
+      HexUtil.toByteArray("1122334455667788112233445566778811223344556677881122334455");
+
+  public static void main(String[] args) throws Exception {
+
+    logger.info(
+        "= UseCase Calypso #12: SAM affinity with N card readers and M SAMs (Stub) =============");
+
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+    smartCardService.checkCardExtension(CalypsoExtensionService.getInstance());
+
+    List<String> results = new ArrayList<String>();
+    for (int[] nbCardReadersAndSams : NB_CARD_READERS_AND_SAMS) {
+      for (boolean isAffinity : new boolean[] {false, true}) {
+        results.add(
+            measure(
+                smartCardService, nbCardReadersAndSams[0], nbCardReadersAndSams[1], isAffinity));
+      }
+    }
+
+    logger.info("= Summary ====================================================================");
+    logger.info("            mode |  N |  M |    TPS | mean tx (ms) | SAM switches");
+    for (String result : results) {
+      logger.info(result);
+    }
+
+    logger.info("Exit program.");
+  }
+
+  /**
+   * Registers a Stub plugin with the provided numbers of card and SAM readers, starts the card
+   * resource service, runs the validation transactions concurrently and returns the measurement
+   * summary.
+   *
+   * @param smartCardService The smart card service.
+   * @param nbCardReaders The number of card readers (gates).
+   * @param nbSams The number of SAMs.
+   * @param isAffinity true to share the SAMs with an {@link AffinitySamPool}, false to allocate a
+   *     SAM card resource for each transaction.
+   * @return A summary line.
+   * @throws Exception If a transaction failed.
+   */
+  private static String measure(
+      SmartCardService smartCardService, int nbCardReaders, int nbSams, boolean isAffinity)
+      throws Exception {
+
+    String mode = isAffinity ? "affinity" : "per-transaction";
+
+    StubPluginFactoryBuilder.Builder pluginFactoryBuilder = StubPluginFactoryBuilder.builder();
+    for (int i = 0; i < nbCardReaders; i++) {
+      pluginFactoryBuilder.withStubReader(
+          CARD_READER_NAME_PREFIX + i, true, StubSmartCardFactory.createValidationStubCard());
+    }
+    for (int i = 0; i < nbSams; i++) {
+      pluginFactoryBuilder.withStubReader(
+          SAM_READER_NAME_PREFIX + i, false, StubSmartCardFactory.createValidationStubSam());
+    }
+    Plugin plugin = smartCardService.registerPlugin(pluginFactoryBuilder.build());
+
+    CardResourceService cardResourceService = CardResourceServiceProvider.getService();
+    CardResourceServiceConfigurator configurator = cardResourceService.getConfigurator();
+    if (!isAffinity) {
+      configurator.withBlockingAllocationMode(
+          ALLOCATION_CYCLE_DURATION_MILLIS, ALLOCATION_TIMEOUT_MILLIS);
+    }
+    configurator
+        .withPlugins(
+            PluginsConfigurator.builder().addPlugin(plugin, new ReaderConfigurator()).build())
+        .withCardResourceProfiles(
+            CardResourceProfileConfigurator.builder(
+                    SAM_PROFILE_NAME,
+                    LegacySamExtensionService.getInstance()
+                        .createLegacySamResourceProfileExtension(
+                            LegacySamExtensionService.getInstance()
+                                .getLegacySamApiFactory()
+                                .createLegacySamSelectionExtension()))
+                .withReaderNameRegex(SAM_READER_NAME_PREFIX + ".*")
+                .build())
+        .configure();
+    cardResourceService.start();
+
+    AffinitySamPool samPool = null;
+    try {
+      if (isAffinity) {
+        samPool =
+            new AffinitySamPool(
+                cardResourceService,
+                SAM_PROFILE_NAME,
+                new AffinitySamPool.SecuritySettingFactory() {
+                  @Override
+                  public SymmetricCryptoSecuritySetting createSecuritySetting(
+                      CardReader samReader, LegacySam sam) {
+                    return createLatencyInjectingSecuritySetting(samReader, sam);
+                  }
+                });
+      }
+
+      Statistics statistics = new Statistics();
+      ExecutorService executorService = Executors.newFixedThreadPool(nbCardReaders);
+      try {
+        long start = System.currentTimeMillis();
+        long measurementStart = start + WARMUP_DURATION_MILLIS;
+        long end = measurementStart + MEASUREMENT_DURATION_MILLIS;
+        List<Future<?>> futures = new ArrayList<Future<?>>(nbCardReaders);
+        for (int i = 0; i < nbCardReaders; i++) {
+          futures.add(
+              executorService.submit(
+                  new Gate(
+                      plugin.getReader(CARD_READER_NAME_PREFIX + i),
+                      cardResourceService,
+                      samPool,
+                      statistics,
+                      measurementStart,
+                      end)));
+        }
+        for (Future<?> future : futures) {
+          // Propagates the exception of a failed transaction, if any.
+          future.get();
+        }
+      } finally {
+        executorService.shutdownNow();
+      }
+      if (samPool != null) {
+        logger.info("{}", samPool);
+      }
+
+      long nbTransactions = statistics.nbTransactions.get();
+      String result =
+          String.format(
+              "%16s | %2d | %2d | %6.1f | %12.2f | %11.1f%%",
+              mode,
+              nbCardReaders,
+              nbSams,
+              nbTransactions * 1000.0 / MEASUREMENT_DURATION_MILLIS,
+              nbTransactions == 0
+                  ? 0.0
+                  : statistics.transactionNanos.get() / (double) nbTransactions / 1000000.0,
+              nbTransactions == 0 ? 0.0 : statistics.nbSamSwitches.get() * 100.0 / nbTransactions);
+      logger.info("N = {} card readers, M = {} SAMs: {}", nbCardReaders, nbSams, result);
+      return result;
+    } finally {
+      if (samPool != null) {
+        samPool.close();
+      }
+      cardResourceService.stop();
+      smartCardService.unregisterPlugin(plugin.getName());
+    }
+  }
+
+  /**
+   * Creates the security setting of a SAM, the SAM reader adding a simulated cost to each exchange
+   * and to each APDU.
+   *
+   * @param samReader The reader of the SAM.
+   * @param sam The selected SAM.
+   * @return A new security setting whose challenge is already loaded.
+   */
+  private static SymmetricCryptoSecuritySetting createLatencyInjectingSecuritySetting(
+      CardReader samReader, LegacySam sam) {
+    return ValidationTransactionUtil.createSecuritySetting(
+        new LatencyInjectingCardReader(
+            samReader, StubSmartCardFactory.createValidationSamLatencyModel(LATENCY_SEED)),
+        sam);
+  }
+
+  /**
+   * Reader configurator used by the card resource service to set up the SAM readers with the
+   * required settings.
+   */
+  private static class ReaderConfigurator implements ReaderConfiguratorSpi {
+
+    /** Constructor. */
+    private ReaderConfigurator() {}
+
+    /** {@inheritDoc} */
+    @Override
+    public void setupReader(CardReader cardReader) {
+      // No specific configuration in the case of a Stub reader.
+    }
+  }
+
+  /** Statistics shared by all the gates of a measurement. */
+  private static class Statistics {
+    private final AtomicLong nbTransactions = new AtomicLong();
+    private final AtomicLong transactionNanos = new AtomicLong();
+    private final AtomicLong nbSamSwitches = new AtomicLong();
+  }
+
+  /**
+   * A validation gate: executes validation transactions in a loop on its card reader, with a SAM
+   * allocated for each transaction or taken from the SAM pool.
+   */
+  private static class Gate implements Runnable {
+
+    private final CardReader cardReader;
+    private final LatencyInjectingCardReader transactionCardReader;
+    private final CardResourceService cardResourceService;
+    private final AffinitySamPool samPool;
+    private final Statistics statistics;
+    private final long measurementStart;
+    private final long end;
+    private String lastSamReaderName;
+
+    /**
+     * Constructor.
+     *
+     * @param cardReader The card reader of the gate.
+     * @param cardResourceService The card resource service.
+     * @param samPool The SAM pool, null to allocate a SAM card resource for each transaction.
+     * @param statistics The shared statistics.
+     * @param measurementStart The time from which the transactions are taken into account.
+     * @param end The time at which the gate stops.
+     */
+    private Gate(
+        CardReader cardReader,
+        CardResourceService cardResourceService,
+        AffinitySamPool samPool,
+        Statistics statistics,
+        long measurementStart,
+        long end) {
+      this.cardReader = cardReader;
+      this.transactionCardReader =
+          new LatencyInjectingCardReader(
+              cardReader, StubSmartCardFactory.createValidationCardLatencyModel(LATENCY_SEED));
+      this.cardResourceService = cardResourceService;
+      this.samPool = samPool;
+      this.statistics = statistics;
+      this.measurementStart = measurementStart;
+      this.end = end;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      try {
+        while (System.currentTimeMillis() < end) {
+          // The card is detected and selected before any SAM is needed.
+          Thread.sleep(CARD_DETECTION_AND_SELECTION_MILLIS);
+          CalypsoCard calypsoCard =
+              ValidationTransactionUtil.selectCard(cardReader, ValidationTransactionUtil.AID);
+
+          long transactionStart = System.nanoTime();
+          String samReaderName =
+              samPool != null
+                  ? executeWithPooledSam(calypsoCard)
+                  : executeWithAllocatedSam(calypsoCard);
+          long transactionNanos = System.nanoTime() - transactionStart;
+
+          boolean isSamSwitch = !samReaderName.equals(lastSamReaderName);
+          lastSamReaderName = samReaderName;
+          long now = System.currentTimeMillis();
+          if (now >= measurementStart && now < end) {
+            statistics.nbTransactions.incrementAndGet();
+            statistics.transactionNanos.addAndGet(transactionNanos);
+            if (isSamSwitch) {
+              statistics.nbSamSwitches.incrementAndGet();
+            }
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * Executes the transaction with a SAM card resource allocated for it.
+     *
+     * @param calypsoCard The selected card.
+     * @return The name of the reader of the SAM used.
+     */
+    private String executeWithAllocatedSam(CalypsoCard calypsoCard) {
+      CardResource samResource = cardResourceService.getCardResource(SAM_PROFILE_NAME);
+      if (samResource == null) {
+        throw new IllegalStateException("No SAM card resource available in time.");
+      }
+      try {
+        SymmetricCryptoSecuritySetting securitySetting =
+            createLatencyInjectingSecuritySetting(
+                samResource.getReader(), (LegacySam) samResource.getSmartCard());
+        ValidationTransactionUtil.executeValidation(
+            transactionCardReader,
+            calypsoCard,
+            securitySetting,
+            COUNTER_DECREMENT,
+            NEW_EVENT_RECORD);
+        return samResource.getReader().getName();
+      } finally {
+        cardResourceService.releaseCardResource(samResource);
+      }
+    }
+
+    /**
+     * Executes the transaction with a SAM of the pool, its challenge being already loaded.
+     *
+     * @param calypsoCard The selected card.
+     * @return The name of the reader of the SAM used.
+     * @throws InterruptedException If the current thread was interrupted.
+     */
+    private String executeWithPooledSam(CalypsoCard calypsoCard) throws InterruptedException {
+      PooledSam pooledSam = samPool.acquire(ACQUIRE_TIMEOUT_MILLIS);
+      try {
+        ValidationTransactionUtil.executeValidation(
+            transactionCardReader,
+            calypsoCard,
+            pooledSam.getSecuritySetting(),
+            COUNTER_DECREMENT,
+            NEW_EVENT_RECORD);
+        return pooledSam.getSamReaderName();
+      } finally {
+        samPool.release(pooledSam);
+      }
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.UseCase12_PerformanceMeasurement_EmbeddedValidation;
+
+import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
+import org.eclipse.keyple.core.service.Plugin;
+import org.eclipse.keyple.core.service.SmartCardService;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.LatencyInjectingCardReader;
+import org.eclipse.keyple.example.card.calypso.common.StubSmartCardFactory;
+import org.eclipse.keyple.example.card.calypso.common.ValidationTransactionUtil;
+import org.eclipse.keyple.plugin.stub.StubPluginFactoryBuilder;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.crypto.legacysam.sam.LegacySam;
+import org.eclipse.keypop.reader.CardReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Use Case Calypso 12 – Performance measurement: comparison of the regular and speculative embedded
+ * validation transactions (Stub)
+ *
+ * <p>The regular validation transaction exchanges once with the card for each step of the analysis
+ * (six card exchanges in total), whereas the speculative validation transaction reads all the data
+ * at the opening of the secure session and closes it with a second exchange.
+ *
+ * <p>Both variants are executed against a simulated card and SAM whose readers add a simulated cost
+ * to each card exchange and to each APDU, then the number of card exchanges and the mean
+ * transaction time of each variant are logged.
+ *
+ * <p>Any unexpected behavior will result in runtime exceptions.
+ */
+public class Main_PerformanceMeasurement_SpeculativeValidation_Stub {
+  private static final Logger logger =
+      LoggerFactory.getLogger(Main_PerformanceMeasurement_SpeculativeValidation_Stub.class);
+
+  static final String CARD_READER_NAME = "Stub card reader";
+  static final String SAM_READER_NAME = "Stub SAM reader";
+
+  // Seed of the simulated latencies, so that the runs are repeatable.
+  private static final long LATENCY_SEED = 12;
+
+  private static final int NB_WARMUP_TRANSACTIONS = 5;
+  private static final int NB_TRANSACTIONS = 20;
+  private static final int COUNTER_DECREMENT = 1;
+  private static final byte[] NEW_EVENT_RECORD =
+      HexUtil.toByteArray("1122334455667788112233445566778811223344556677881122334455");
+
+  // The plugin used to manage the readers.
+  private static Plugin plugin;
+  // The reader used to select the card.
+  private static CardReader cardReader;
+  // The reader used by the transactions to communicate with the card.
+  private static LatencyInjectingCardReader transactionCardReader;
+  // The reader used by the transactions to communicate with the SAM.
+  private static LatencyInjectingCardReader transactionSamReader;
+  // The security settings for the card transaction.
+  private static SymmetricCryptoSecuritySetting symmetricCryptoSecuritySetting;
+
+  public static void main(String[] args) {
+
+    logger.info(
+        "= UseCase Calypso #12: regular vs speculative validation transaction (Stub) ===========");
+
+    // Initialize the context
+    initKeypleService();
+    initCalypsoCardExtensionService();
+    initReaders();
+    initSecuritySetting();
+
+    measure("Regular", false);
+    measure("Speculative", true);
+
+    SmartCardServiceProvider.getService().unregisterPlugin(plugin.getName());
+
+    logger.info("Exit program.");
+  }
+
+  /**
+   * Executes the validation transactions of the provided variant and logs the measurements.
+   *
+   * @param label The name of the variant.
+   * @param isSpeculative true to execute the speculative variant.
+   */
+  private static void measure(String label, boolean isSpeculative) {
+    for (int i = 0; i < NB_WARMUP_TRANSACTIONS; i++) {
+      executeTransaction(isSpeculative);
+    }
+    transactionCardReader.resetCounters();
+    transactionSamReader.resetCounters();
+    long start = System.nanoTime();
+    for (int i = 0; i < NB_TRANSACTIONS; i++) {
+      executeTransaction(isSpeculative);
+    }
+    long elapsedMicros = (System.nanoTime() - start) / 1000;
+    logger.info(
+        "{} validation: {} transactions, card exchanges/transaction = {}, card APDUs/transaction ="
+            + " {}, SAM exchanges/transaction = {}, mean time = {} ms",
+        label,
+        NB_TRANSACTIONS,
+        transactionCardReader.getExchangeCount() / (double) NB_TRANSACTIONS,
+        transactionCardReader.getApduCount() / (double) NB_TRANSACTIONS,
+        transactionSamReader.getExchangeCount() / (double) NB_TRANSACTIONS,
+        elapsedMicros / NB_TRANSACTIONS / 1000.0);
+  }
+
+  /**
+   * Selects the card and executes a validation transaction of the provided variant.
+   *
+   * @param isSpeculative true to execute the speculative variant.
+   */
+  private static void executeTransaction(boolean isSpeculative) {
+    CalypsoCard calypsoCard =
+        ValidationTransactionUtil.selectCard(cardReader, ValidationTransactionUtil.AID);
+    if (isSpeculative) {
+      ValidationTransactionUtil.executeSpeculativeValidation(
+          transactionCardReader,
+          calypsoCard,
+          symmetricCryptoSecuritySetting,
+          COUNTER_DECREMENT,
+          NEW_EVENT_RECORD);
+    } else {
+      ValidationTransactionUtil.executeValidation(
+          transactionCardReader,
+          calypsoCard,
+          symmetricCryptoSecuritySetting,
+          COUNTER_DECREMENT,
+          NEW_EVENT_RECORD);
+    }
+    // Optimization: preload the SAM challenge for the next transaction
+    symmetricCryptoSecuritySetting.initCryptoContextForNextTransaction();
+  }
+
+  /**
+   * Initializes the Keyple service.
+   *
+   * <p>Gets an instance of the smart card service and registers the Stub plugin with a card reader
+   * and a SAM reader.
+   */
+  private static void initKeypleService() {
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+    plugin =
+        smartCardService.registerPlugin(
+            StubPluginFactoryBuilder.builder()
+                .withStubReader(
+                    CARD_READER_NAME, true, StubSmartCardFactory.createValidationStubCard())
+                .withStubReader(
+                    SAM_READER_NAME, false, StubSmartCardFactory.createValidationStubSam())
+                .build());
+  }
+
+  /** Initializes the Calypso card extension service. */
+  private static void initCalypsoCardExtensionService() {
+    SmartCardServiceProvider.getService().checkCardExtension(CalypsoExtensionService.getInstance());
+  }
+
+  /** Retrieves the stub readers and wraps them to simulate the timing of real readers. */
+  private static void initReaders() {
+    cardReader = plugin.getReader(CARD_READER_NAME);
+    transactionCardReader =
+        new LatencyInjectingCardReader(
+            cardReader, StubSmartCardFactory.createValidationCardLatencyModel(LATENCY_SEED));
+    transactionSamReader =
+        new LatencyInjectingCardReader(
+            plugin.getReader(SAM_READER_NAME),
+            StubSmartCardFactory.createValidationSamLatencyModel(LATENCY_SEED));
+  }
+
+  /**
+   * Initializes the security settings for the transaction.
+   *
+   * <p>Selects the SAM, and sets up the symmetric crypto security setting using the SAM reader
+   * simulating the timing of a real reader.
+   */
+  private static void initSecuritySetting() {
+    LegacySam sam = ValidationTransactionUtil.selectSam(plugin.getReader(SAM_READER_NAME));
+    symmetricCryptoSecuritySetting =
+        ValidationTransactionUtil.createSecuritySetting(transactionSamReader, sam);
+  }
+}
@@ -0,0 +1,320 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.UseCase12_PerformanceMeasurement_EmbeddedValidation;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
+import org.eclipse.keyple.core.service.Plugin;
+import org.eclipse.keyple.core.service.SmartCardService;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.ApduTraceRecorder;
+import org.eclipse.keyple.example.card.calypso.common.LatencyInjectingCardReader;
+import org.eclipse.keyple.example.card.calypso.common.ReplayCardReader;
+import org.eclipse.keyple.example.card.calypso.common.StubSmartCardFactory;
+import org.eclipse.keyple.example.card.calypso.common.TraceReplay;
+import org.eclipse.keyple.example.card.calypso.common.TracingCardReader;
+import org.eclipse.keyple.example.card.calypso.common.ValidationTransactionUtil;
+import org.eclipse.keyple.plugin.stub.StubPluginFactoryBuilder;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.crypto.legacysam.sam.LegacySam;
+import org.eclipse.keypop.reader.CardReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Use Case Calypso 12 – Performance measurement: load test replaying a recorded trace (Stub)
+ *
+ * <p>Replays an APDU trace recorded by {@code Main_PerformanceMeasurement_EmbeddedValidation_Pcsc}
+ * with the {@code validation.trace} property, i.e. the real card and SAM of the production profile
+ * with their real timings, on N simulated gates running validation transactions concurrently, and
+ * logs for each N the number of transactions per second, the mean transaction time and the number
+ * of commands answered from the trace.
+ *
+ * <p>The trace file is given as first argument. Without argument, a trace is first recorded from
+ * the simulated card and SAM of {@link StubSmartCardFactory} so that the program can run without
+ * hardware.
+ *
+ * <p>The cards and SAMs are selected on Stub readers built from the selections of the trace, then
+ * the transactions are executed on {@link ReplayCardReader}s; each gate has its own SAM.
+ *
+ * <p>Any unexpected behavior will result in runtime exceptions.
+ */
+public class Main_PerformanceMeasurement_TraceReplay_Stub {
+  private static final Logger logger =
+      LoggerFactory.getLogger(Main_PerformanceMeasurement_TraceReplay_Stub.class);
+
+  private static final String CARD_READER_NAME_PREFIX = "Stub card reader ";
+  private static final String SAM_READER_NAME_PREFIX = "Stub SAM reader ";
+
+  // The trace recorded from the simulated card and SAM when no trace file is provided.
+  private static final String SIMULATED_TRACE_FILE_NAME = "validation_trace_simulated.bin";
+  private static final int TRACE_CAPACITY = 4096;
+  private static final int NB_RECORDED_TRANSACTIONS = 20;
+  // Seed of the simulated latencies of the recorded trace.
+  private static final long LATENCY_SEED = 12;
+
+  // The numbers of gates (N) to measure.
+  private static final int[] NB_GATES = {1, 2, 4, 8};
+
+  private static final long WARMUP_DURATION_MILLIS = 1000;
+  private static final long MEASUREMENT_DURATION_MILLIS = 5000;
+  private static final int COUNTER_DECREMENT = 1;
+  private static final byte[] NEW_EVENT_RECORD =
+      HexUtil.toByteArray("1122334455667788112233445566778811223344556677881122334455");
+
+  public static void main(String[] args) throws Exception {
+
+    logger.info(
+        "= UseCase Calypso #12: validation load test replaying a recorded trace (Stub) ========");
+
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+    smartCardService.checkCardExtension(CalypsoExtensionService.getInstance());
+
+    String traceFileName;
+    if (args.length > 0) {
+      traceFileName = args[0];
+    } else {
+      traceFileName = SIMULATED_TRACE_FILE_NAME;
+      recordSimulatedTrace(smartCardService, traceFileName);
+    }
+
+    TraceReplay traceReplay = TraceReplay.load(traceFileName);
+    logger.info(
+        "Trace {} loaded: {} distinct card commands, {} distinct SAM commands",
+        new File(traceFileName).getAbsolutePath(),
+        traceReplay.getNbCardCommands(),
+        traceReplay.getNbSamCommands());
+
+    List<String> results = new ArrayList<String>();
+    for (int nbGates : NB_GATES) {
+      results.add(measure(smartCardService, traceReplay, nbGates));
+    }
+
+    logger.info("= Summary ====================================================================");
+    logger.info("  N |    TPS | mean tx (ms) | exact matches | header matches | misses");
+    for (String result : results) {
+      logger.info(result);
+    }
+
+    logger.info("Exit program.");
+  }
+
+  /**
+   * Records a trace of validation transactions executed with the simulated card and SAM, their
+   * readers adding simulated latencies.
+   *
+   * @param smartCardService The smart card service.
+   * @param traceFileName The name of the trace file.
+   * @throws Exception If the trace file cannot be written.
+   */
+  private static void recordSimulatedTrace(SmartCardService smartCardService, String traceFileName)
+      throws Exception {
+
+    logger.info(
+        "No trace file provided, recording {} simulated transactions...", NB_RECORDED_TRANSACTIONS);
+    Plugin plugin =
+        smartCardService.registerPlugin(
+            StubPluginFactoryBuilder.builder()
+                .withStubReader(
+                    CARD_READER_NAME_PREFIX + "recording",
+                    true,
+                    StubSmartCardFactory.createValidationStubCard())
+                .withStubReader(
+                    SAM_READER_NAME_PREFIX + "recording",
+                    false,
+                    StubSmartCardFactory.createValidationStubSam())
+                .build());
+    ApduTraceRecorder recorder = new ApduTraceRecorder(traceFileName, TRACE_CAPACITY);
+    try {
+      CardReader cardReader = plugin.getReader(CARD_READER_NAME_PREFIX + "recording");
+      CardReader samReader = plugin.getReader(SAM_READER_NAME_PREFIX + "recording");
+      TracingCardReader tracingCardReader =
+          recorder.traceCardReader(
+              new LatencyInjectingCardReader(
+                  cardReader, StubSmartCardFactory.createValidationCardLatencyModel(LATENCY_SEED)));
+      TracingCardReader tracingSamReader =
+          recorder.traceSamReader(
+              new LatencyInjectingCardReader(
+                  samReader, StubSmartCardFactory.createValidationSamLatencyModel(LATENCY_SEED)));
+
+      long samSelectionStart = System.nanoTime();
+      LegacySam sam = ValidationTransactionUtil.selectSam(samReader);
+      tracingSamReader.recordSelection(sam, samSelectionStart);
+      SymmetricCryptoSecuritySetting securitySetting =
+          ValidationTransactionUtil.createSecuritySetting(tracingSamReader, sam);
+
+      for (int i = 0; i < NB_RECORDED_TRANSACTIONS; i++) {
+        long selectionStart = System.nanoTime();
+        CalypsoCard calypsoCard =
+            ValidationTransactionUtil.selectCard(cardReader, ValidationTransactionUtil.AID);
+        tracingCardReader.recordSelection(calypsoCard, selectionStart);
+        ValidationTransactionUtil.executeValidation(
+            tracingCardReader, calypsoCard, securitySetting, COUNTER_DECREMENT, NEW_EVENT_RECORD);
+        // Optimization: preload the SAM challenge for the next transaction
+        securitySetting.initCryptoContextForNextTransaction();
+      }
+    } finally {
+      recorder.close();
+      smartCardService.unregisterPlugin(plugin.getName());
+    }
+  }
+
+  /**
+   * Registers a Stub plugin with the cards and SAMs of the trace, runs the validation transactions
+   * concurrently on the replay readers and returns the measurement summary.
+   *
+   * @param smartCardService The smart card service.
+   * @param traceReplay The trace to replay.
+   * @param nbGates The number of gates.
+   * @return A summary line.
+   * @throws Exception If a transaction failed.
+   */
+  private static String measure(
+      SmartCardService smartCardService, TraceReplay traceReplay, int nbGates) throws Exception {
+
+    StubPluginFactoryBuilder.Builder pluginFactoryBuilder = StubPluginFactoryBuilder.builder();
+    for (int i = 0; i < nbGates; i++) {
+      pluginFactoryBuilder.withStubReader(
+          CARD_READER_NAME_PREFIX + i, true, traceReplay.createStubCard());
+      pluginFactoryBuilder.withStubReader(
+          SAM_READER_NAME_PREFIX + i, false, traceReplay.createStubSam());
+    }
+    Plugin plugin = smartCardService.registerPlugin(pluginFactoryBuilder.build());
+
+    try {
+      Statistics statistics = new Statistics();
+      List<Gate> gates = new ArrayList<Gate>(nbGates);
+      for (int i = 0; i < nbGates; i++) {
+        gates.add(new Gate(plugin, traceReplay, i, statistics));
+      }
+
+      ExecutorService executorService = Executors.newFixedThreadPool(nbGates);
+      try {
+        long start = System.currentTimeMillis();
+        long measurementStart = start + WARMUP_DURATION_MILLIS;
+        long end = measurementStart + MEASUREMENT_DURATION_MILLIS;
+        List<Future<?>> futures = new ArrayList<Future<?>>(nbGates);
+        for (Gate gate : gates) {
+          gate.measurementStart = measurementStart;
+          gate.end = end;
+          futures.add(executorService.submit(gate));
+        }
+        for (Future<?> future : futures) {
+          // Propagates the exception of a failed transaction, if any.
+          future.get();
+        }
+      } finally {
+        executorService.shutdownNow();
+      }
+
+      long nbExactMatches = 0;
+      long nbHeaderMatches = 0;
+      long nbMisses = 0;
+      for (Gate gate : gates) {
+        for (ReplayCardReader replayReader :
+            new ReplayCardReader[] {gate.replayCardReader, gate.replaySamReader}) {
+          nbExactMatches += replayReader.getNbExactMatches();
+          nbHeaderMatches += replayReader.getNbHeaderMatches();
+          nbMisses += replayReader.getNbMisses();
+        }
+      }
+
+      long nbTransactions = statistics.nbTransactions.get();
+      String result =
+          String.format(
+              "%3d | %6.1f | %12.2f | %13d | %14d | %6d",
+              nbGates,
+              nbTransactions * 1000.0 / MEASUREMENT_DURATION_MILLIS,
+              nbTransactions == 0
+                  ? 0.0
+                  : statistics.transactionNanos.get() / (double) nbTransactions / 1000000.0,
+              nbExactMatches,
+              nbHeaderMatches,
+              nbMisses);
+      logger.info("N = {} gates: {}", nbGates, result);
+      return result;
+    } finally {
+      smartCardService.unregisterPlugin(plugin.getName());
+    }
+  }
+
+  /** Statistics shared by all the gates of a measurement. */
+  private static class Statistics {
+    private final AtomicLong nbTransactions = new AtomicLong();
+    private final AtomicLong transactionNanos = new AtomicLong();
+  }
+
+  /**
+   * A validation gate: selects the card on its Stub reader and executes the validation transactions
+   * in a loop on its replay readers.
+   */
+  private static class Gate implements Runnable {
+
+    private final CardReader cardReader;
+    private final ReplayCardReader replayCardReader;
+    private final ReplayCardReader replaySamReader;
+    private final SymmetricCryptoSecuritySetting securitySetting;
+    private final Statistics statistics;
+    private long measurementStart;
+    private long end;
+
+    /**
+     * Constructor.
+     *
+     * <p>Selects the SAM of the gate and creates its security setting.
+     *
+     * @param plugin The Stub plugin.
+     * @param traceReplay The trace to replay.
+     * @param index The index of the gate.
+     * @param statistics The shared statistics.
+     */
+    private Gate(Plugin plugin, TraceReplay traceReplay, int index, Statistics statistics) {
+      this.cardReader = plugin.getReader(CARD_READER_NAME_PREFIX + index);
+      this.replayCardReader = traceReplay.createCardReader(CARD_READER_NAME_PREFIX + index);
+      this.replaySamReader = traceReplay.createSamReader(SAM_READER_NAME_PREFIX + index);
+      LegacySam sam =
+          ValidationTransactionUtil.selectSam(plugin.getReader(SAM_READER_NAME_PREFIX + index));
+      this.securitySetting = ValidationTransactionUtil.createSecuritySetting(replaySamReader, sam);
+      this.statistics = statistics;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      while (System.currentTimeMillis() < end) {
+        long start = System.nanoTime();
+        CalypsoCard calypsoCard =
+            ValidationTransactionUtil.selectCard(cardReader, ValidationTransactionUtil.AID);
+        ValidationTransactionUtil.executeValidation(
+            replayCardReader, calypsoCard, securitySetting, COUNTER_DECREMENT, NEW_EVENT_RECORD);
+        long transactionNanos = System.nanoTime() - start;
+        // Optimization: preload the SAM challenge for the next transaction
+        securitySetting.initCryptoContextForNextTransaction();
+
+        long now = System.currentTimeMillis();
+        if (now >= measurementStart && now < end) {
+          statistics.nbTransactions.incrementAndGet();
+          statistics.transactionNanos.addAndGet(transactionNanos);
+        }
+      }
+    }
+  }
+}
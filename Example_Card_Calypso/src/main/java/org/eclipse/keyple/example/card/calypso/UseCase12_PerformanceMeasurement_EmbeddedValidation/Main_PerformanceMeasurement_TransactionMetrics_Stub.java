@@ -0,0 +1,175 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.UseCase12_PerformanceMeasurement_EmbeddedValidation;
+
+import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
+import org.eclipse.keyple.core.service.Plugin;
+import org.eclipse.keyple.core.service.SmartCardService;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.LatencyInjectingCardReader;
+import org.eclipse.keyple.example.card.calypso.common.MetricsRegistry;
+import org.eclipse.keyple.example.card.calypso.common.NoOpMetricsRegistry;
+import org.eclipse.keyple.example.card.calypso.common.PrometheusMetricsRegistry;
+import org.eclipse.keyple.example.card.calypso.common.StubSmartCardFactory;
+import org.eclipse.keyple.example.card.calypso.common.TransactionMetrics;
+import org.eclipse.keyple.example.card.calypso.common.ValidationTransactionUtil;
+import org.eclipse.keyple.plugin.stub.StubPluginFactoryBuilder;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.crypto.legacysam.sam.LegacySam;
+import org.eclipse.keypop.reader.CardReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Use Case Calypso 12 – Performance measurement: metrics of the transaction phases (Stub)
+ *
+ * <p>Executes validation transactions with the card and SAM readers decorated by the {@link
+ * TransactionMetrics}, first with the metrics disabled ({@link NoOpMetricsRegistry}), then recorded
+ * in a {@link PrometheusMetricsRegistry}, and logs the mean transaction time of both runs followed
+ * by the metrics in the Prometheus text format: duration of the selection, the opening of the
+ * session, each read batch, the SAM digest and challenge exchanges and the closing of the session,
+ * number of APDUs and bytes exchanged in each direction.
+ *
+ * <p>The card and SAM readers add a simulated cost to each exchange and to each APDU in order to
+ * approach the timing of real readers.
+ *
+ * <p>Any unexpected behavior will result in runtime exceptions.
+ */
+public class Main_PerformanceMeasurement_TransactionMetrics_Stub {
+  private static final Logger logger =
+      LoggerFactory.getLogger(Main_PerformanceMeasurement_TransactionMetrics_Stub.class);
+
+  static final String CARD_READER_NAME = "Stub card reader";
+  static final String SAM_READER_NAME = "Stub SAM reader";
+
+  // Seed of the simulated latencies, so that the runs are repeatable.
+  private static final long LATENCY_SEED = 12;
+
+  private static final int NB_WARMUP_TRANSACTIONS = 5;
+  private static final int NB_TRANSACTIONS = 50;
+  private static final int COUNTER_DECREMENT = 1;
+  private static final byte[] NEW_EVENT_RECORD =
+      HexUtil.toByteArray("1122334455667788112233445566778811223344556677881122334455");
+
+  public static void main(String[] args) {
+
+    logger.info(
+        "= UseCase Calypso #12: metrics of the validation transaction phases (Stub) ============");
+
+    // Initialize the context
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+    Plugin plugin =
+        smartCardService.registerPlugin(
+            StubPluginFactoryBuilder.builder()
+                .withStubReader(
+                    CARD_READER_NAME, true, StubSmartCardFactory.createValidationStubCard())
+                .withStubReader(
+                    SAM_READER_NAME, false, StubSmartCardFactory.createValidationStubSam())
+                .build());
+    smartCardService.checkCardExtension(CalypsoExtensionService.getInstance());
+
+    CardReader cardReader = plugin.getReader(CARD_READER_NAME);
+    CardReader samReader = plugin.getReader(SAM_READER_NAME);
+    LegacySam sam = ValidationTransactionUtil.selectSam(samReader);
+
+    // Metrics disabled
+    double noOpMillis = run(NoOpMetricsRegistry.INSTANCE, cardReader, samReader, sam);
+
+    // Metrics recorded
+    PrometheusMetricsRegistry registry = new PrometheusMetricsRegistry();
+    double prometheusMillis = run(registry, cardReader, samReader, sam);
+
+    logger.info(
+        "Mean transaction time over {} transactions: metrics disabled = {} ms, metrics recorded ="
+            + " {} ms",
+        NB_TRANSACTIONS,
+        String.format("%.2f", noOpMillis),
+        String.format("%.2f", prometheusMillis));
+    logger.info("Metrics:\n{}", registry.scrape());
+
+    smartCardService.unregisterPlugin(plugin.getName());
+
+    logger.info("Exit program.");
+  }
+
+  /**
+   * Executes validation transactions with the readers decorated by the metrics of the provided
+   * registry. The warm-up transactions are recorded as well.
+   *
+   * @param registry The metrics registry.
+   * @param cardReader The card reader.
+   * @param samReader The SAM reader.
+   * @param sam The selected SAM.
+   * @return The mean transaction time, selection included, in milliseconds.
+   */
+  private static double run(
+      MetricsRegistry registry, CardReader cardReader, CardReader samReader, LegacySam sam) {
+
+    TransactionMetrics metrics = new TransactionMetrics(registry);
+    CardReader transactionCardReader =
+        metrics.meterCardReader(
+            new LatencyInjectingCardReader(
+                cardReader, StubSmartCardFactory.createValidationCardLatencyModel(LATENCY_SEED)));
+    SymmetricCryptoSecuritySetting securitySetting =
+        ValidationTransactionUtil.createSecuritySetting(
+            metrics.meterSamReader(
+                new LatencyInjectingCardReader(
+                    samReader, StubSmartCardFactory.createValidationSamLatencyModel(LATENCY_SEED))),
+            sam);
+
+    for (int i = 0; i < NB_WARMUP_TRANSACTIONS; i++) {
+      executeTransaction(metrics, cardReader, transactionCardReader, securitySetting);
+    }
+    long totalNanos = 0;
+    for (int i = 0; i < NB_TRANSACTIONS; i++) {
+      totalNanos += executeTransaction(metrics, cardReader, transactionCardReader, securitySetting);
+    }
+    return totalNanos / 1000000.0 / NB_TRANSACTIONS;
+  }
+
+  /**
+   * Selects the card and executes a validation transaction, recording the duration of the selection
+   * and of the whole transaction.
+   *
+   * @param metrics The metrics.
+   * @param cardReader The card reader, used for the selection.
+   * @param transactionCardReader The decorated card reader, used for the transaction.
+   * @param securitySetting The security setting.
+   * @return The duration of the transaction, in nanoseconds.
+   */
+  private static long executeTransaction(
+      TransactionMetrics metrics,
+      CardReader cardReader,
+      CardReader transactionCardReader,
+      SymmetricCryptoSecuritySetting securitySetting) {
+    long start = System.nanoTime();
+    boolean isSuccessful = false;
+    long durationNanos;
+    try {
+      CalypsoCard calypsoCard =
+          ValidationTransactionUtil.selectCard(cardReader, ValidationTransactionUtil.AID);
+      metrics.recordSelection(System.nanoTime() - start);
+      ValidationTransactionUtil.executeValidation(
+          transactionCardReader, calypsoCard, securitySetting, COUNTER_DECREMENT, NEW_EVENT_RECORD);
+      isSuccessful = true;
+    } finally {
+      durationNanos = System.nanoTime() - start;
+      metrics.recordTransaction(durationNanos, isSuccessful);
+    }
+    // Optimization: preload the SAM challenge for the next transaction
+    securitySetting.initCryptoContextForNextTransaction();
+    return durationNanos;
+  }
+}
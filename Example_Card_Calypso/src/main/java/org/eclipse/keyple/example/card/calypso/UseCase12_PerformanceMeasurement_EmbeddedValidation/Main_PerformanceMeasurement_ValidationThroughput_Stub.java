@@ -0,0 +1,276 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.UseCase12_PerformanceMeasurement_EmbeddedValidation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
+import org.eclipse.keyple.core.service.Plugin;
+import org.eclipse.keyple.core.service.SmartCardService;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.LatencyInjectingCardReader;
+import org.eclipse.keyple.example.card.calypso.common.StubSmartCardFactory;
+import org.eclipse.keyple.example.card.calypso.common.ValidationTransactionUtil;
+import org.eclipse.keyple.plugin.stub.StubPluginFactoryBuilder;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.crypto.legacysam.sam.LegacySam;
+import org.eclipse.keypop.reader.CardReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Use Case Calypso 12 – Performance measurement: throughput of several validation gates sharing a
+ * pool of SAMs (Stub)
+ *
+ * <p>Simulates a station hosting several gates: N card readers are served concurrently by N
+ * threads, each one executing validation transactions in a loop, while M SAMs are shared between
+ * them through a pool. Each SAM has its own security setting, which is taken from the pool for the
+ * duration of a transaction and then given back once the challenge of the next transaction has been
+ * preloaded.
+ *
+ * <p>For each combination of N and M, the program logs the number of transactions per second and
+ * the SAM contention, i.e. the proportion of transactions that had to wait for a SAM and the mean
+ * waiting time.
+ *
+ * <p>The card and SAM readers add a simulated cost to each exchange and to each APDU in order to
+ * approach the timing of real readers.
+ *
+ * <p>Any unexpected behavior will result in runtime exceptions.
+ */
+public class Main_PerformanceMeasurement_ValidationThroughput_Stub {
+  private static final Logger logger =
+      LoggerFactory.getLogger(Main_PerformanceMeasurement_ValidationThroughput_Stub.class);
+
+  private static final String CARD_READER_NAME_PREFIX = "Stub card reader ";
+  private static final String SAM_READER_NAME_PREFIX = "Stub SAM reader ";
+
+  // The numbers of card readers (N) and SAMs (M) to combine.
+  private static final int[] NB_CARD_READERS = {1, 2, 4, 8};
+  private static final int[] NB_SAMS = {1, 2, 4};
+
+  // Seed of the simulated latencies, so that the runs are repeatable.
+  private static final long LATENCY_SEED = 12;
+
+  private static final long WARMUP_DURATION_MILLIS = 1000;
+  private static final long MEASUREMENT_DURATION_MILLIS = 5000;
+  private static final int COUNTER_DECREMENT = 1;
+  private static final byte[] NEW_EVENT_RECORD =
+      HexUtil.toByteArray("1122334455667788112233445566778811223344556677881122334455");
+
+  public static void main(String[] args) throws Exception {
+
+    logger.info(
+        "= UseCase Calypso #12: validation throughput with N card readers and M SAMs (Stub) ====");
+
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+    smartCardService.checkCardExtension(CalypsoExtensionService.getInstance());
+
+    List<String> results = new ArrayList<String>();
+    for (int nbCardReaders : NB_CARD_READERS) {
+      for (int nbSams : NB_SAMS) {
+        results.add(measure(smartCardService, nbCardReaders, nbSams));
+      }
+    }
+
+    logger.info("= Summary ====================================================================");
+    logger.info("  N |  M |    TPS | waiting transactions | mean SAM wait (ms)");
+    for (String result : results) {
+      logger.info(result);
+    }
+
+    logger.info("Exit program.");
+  }
+
+  /**
+   * Registers a Stub plugin with the provided numbers of card and SAM readers, runs the validation
+   * transactions concurrently and returns the measurement summary.
+   *
+   * @param smartCardService The smart card service.
+   * @param nbCardReaders The number of card readers (gates).
+   * @param nbSams The number of SAMs in the pool.
+   * @return A summary line.
+   * @throws Exception If a transaction failed.
+   */
+  private static String measure(SmartCardService smartCardService, int nbCardReaders, int nbSams)
+      throws Exception {
+
+    StubPluginFactoryBuilder.Builder pluginFactoryBuilder = StubPluginFactoryBuilder.builder();
+    for (int i = 0; i < nbCardReaders; i++) {
+      pluginFactoryBuilder.withStubReader(
+          CARD_READER_NAME_PREFIX + i, true, StubSmartCardFactory.createValidationStubCard());
+    }
+    for (int i = 0; i < nbSams; i++) {
+      pluginFactoryBuilder.withStubReader(
+          SAM_READER_NAME_PREFIX + i, false, StubSmartCardFactory.createValidationStubSam());
+    }
+    Plugin plugin = smartCardService.registerPlugin(pluginFactoryBuilder.build());
+
+    try {
+      // Build the SAM pool: one security setting per SAM.
+      BlockingQueue<SymmetricCryptoSecuritySetting> samPool =
+          new ArrayBlockingQueue<SymmetricCryptoSecuritySetting>(nbSams);
+      for (int i = 0; i < nbSams; i++) {
+        CardReader samReader = plugin.getReader(SAM_READER_NAME_PREFIX + i);
+        LegacySam sam = ValidationTransactionUtil.selectSam(samReader);
+        samPool.add(
+            ValidationTransactionUtil.createSecuritySetting(
+                new LatencyInjectingCardReader(
+                    samReader, StubSmartCardFactory.createValidationSamLatencyModel(LATENCY_SEED)),
+                sam));
+      }
+
+      Statistics statistics = new Statistics();
+      ExecutorService executorService = Executors.newFixedThreadPool(nbCardReaders);
+      try {
+        long start = System.currentTimeMillis();
+        long measurementStart = start + WARMUP_DURATION_MILLIS;
+        long end = measurementStart + MEASUREMENT_DURATION_MILLIS;
+        List<Future<?>> futures = new ArrayList<Future<?>>(nbCardReaders);
+        for (int i = 0; i < nbCardReaders; i++) {
+          futures.add(
+              executorService.submit(
+                  new Gate(
+                      plugin.getReader(CARD_READER_NAME_PREFIX + i),
+                      samPool,
+                      statistics,
+                      measurementStart,
+                      end)));
+        }
+        for (Future<?> future : futures) {
+          // Propagates the exception of a failed transaction, if any.
+          future.get();
+        }
+      } finally {
+        executorService.shutdownNow();
+      }
+
+      long nbTransactions = statistics.nbTransactions.get();
+      String result =
+          String.format(
+              "%3d | %2d | %6.1f | %19.1f%% | %18.2f",
+              nbCardReaders,
+              nbSams,
+              nbTransactions * 1000.0 / MEASUREMENT_DURATION_MILLIS,
+              nbTransactions == 0
+                  ? 0.0
+                  : statistics.nbWaitingTransactions.get() * 100.0 / nbTransactions,
+              nbTransactions == 0
+                  ? 0.0
+                  : statistics.samWaitNanos.get() / (double) nbTransactions / 1000000.0);
+      logger.info("N = {} card readers, M = {} SAMs: {}", nbCardReaders, nbSams, result);
+      return result;
+    } finally {
+      smartCardService.unregisterPlugin(plugin.getName());
+    }
+  }
+
+  /** Statistics shared by all the gates of a measurement. */
+  private static class Statistics {
+    private final AtomicLong nbTransactions = new AtomicLong();
+    private final AtomicLong nbWaitingTransactions = new AtomicLong();
+    private final AtomicLong samWaitNanos = new AtomicLong();
+  }
+
+  /**
+   * A validation gate: executes validation transactions in a loop on its card reader, borrowing a
+   * SAM from the pool for each of them.
+   */
+  private static class Gate implements Runnable {
+
+    private final CardReader cardReader;
+    private final LatencyInjectingCardReader transactionCardReader;
+    private final BlockingQueue<SymmetricCryptoSecuritySetting> samPool;
+    private final Statistics statistics;
+    private final long measurementStart;
+    private final long end;
+
+    /**
+     * Constructor.
+     *
+     * @param cardReader The card reader of the gate.
+     * @param samPool The pool of security settings, one per SAM.
+     * @param statistics The shared statistics.
+     * @param measurementStart The time from which the transactions are taken into account.
+     * @param end The time at which the gate stops.
+     */
+    private Gate(
+        CardReader cardReader,
+        BlockingQueue<SymmetricCryptoSecuritySetting> samPool,
+        Statistics statistics,
+        long measurementStart,
+        long end) {
+      this.cardReader = cardReader;
+      this.transactionCardReader =
+          new LatencyInjectingCardReader(
+              cardReader, StubSmartCardFactory.createValidationCardLatencyModel(LATENCY_SEED));
+      this.samPool = samPool;
+      this.statistics = statistics;
+      this.measurementStart = measurementStart;
+      this.end = end;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      while (System.currentTimeMillis() < end) {
+        // The card is selected before any SAM is needed.
+        CalypsoCard calypsoCard =
+            ValidationTransactionUtil.selectCard(cardReader, ValidationTransactionUtil.AID);
+
+        // Borrow a SAM from the pool, waiting if none is available.
+        long waitStart = System.nanoTime();
+        SymmetricCryptoSecuritySetting securitySetting = samPool.poll();
+        boolean hasWaited = securitySetting == null;
+        if (hasWaited) {
+          try {
+            securitySetting = samPool.take();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+        }
+        long waitNanos = System.nanoTime() - waitStart;
+
+        try {
+          ValidationTransactionUtil.executeValidation(
+              transactionCardReader,
+              calypsoCard,
+              securitySetting,
+              COUNTER_DECREMENT,
+              NEW_EVENT_RECORD);
+          // Optimization: preload the SAM challenge for the next transaction
+          securitySetting.initCryptoContextForNextTransaction();
+        } finally {
+          samPool.add(securitySetting);
+        }
+
+        long now = System.currentTimeMillis();
+        if (now >= measurementStart && now < end) {
+          statistics.nbTransactions.incrementAndGet();
+          statistics.samWaitNanos.addAndGet(waitNanos);
+          if (hasWaited) {
+            statistics.nbWaitingTransactions.incrementAndGet();
+          }
+        }
+      }
+    }
+  }
+}
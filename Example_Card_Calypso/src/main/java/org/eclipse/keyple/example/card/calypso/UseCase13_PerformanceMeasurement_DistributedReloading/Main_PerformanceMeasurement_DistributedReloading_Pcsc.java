@@ -23,6 +23,11 @@
 import org.eclipse.keyple.card.calypso.crypto.legacysam.LegacySamUtil;
 import org.eclipse.keyple.core.service.*;
 import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.ApduTraceRecorder;
+import org.eclipse.keyple.example.card.calypso.common.NoOpMetricsRegistry;
+import org.eclipse.keyple.example.card.calypso.common.PrometheusMetricsRegistry;
+import org.eclipse.keyple.example.card.calypso.common.TracingCardReader;
+import org.eclipse.keyple.example.card.calypso.common.TransactionMetrics;
 import org.eclipse.keyple.plugin.pcsc.*;
 import org.eclipse.keypop.calypso.card.CalypsoCardApiFactory;
 import org.eclipse.keypop.calypso.card.card.CalypsoCard;
@@ -74,6 +79,17 @@ public class Main_PerformanceMeasurement_DistributedReloading_Pcsc {
   private static CalypsoCardApiFactory calypsoCardApiFactory;
   // The security settings for the card transaction.
   private static SymmetricCryptoSecuritySetting symmetricCryptoSecuritySetting;
+  // The registry of the transaction metrics, null if the metrics are disabled.
+  private static PrometheusMetricsRegistry metricsRegistry;
+  // The instruments of the transaction phases.
+  private static TransactionMetrics transactionMetrics;
+  // The card reader decorated by the transaction metrics, used by the transaction manager.
+  private static CardReader transactionCardReader;
+  // The recorder of the APDU trace, null if the trace is disabled.
+  private static ApduTraceRecorder apduTraceRecorder;
+  // The card and SAM readers decorated by the APDU trace recorder, null if the trace is disabled.
+  private static TracingCardReader tracingCardReader;
+  private static TracingCardReader tracingSamReader;
 
   // operating parameters
   private static String cardReaderRegex;
@@ -81,6 +97,8 @@ public class Main_PerformanceMeasurement_DistributedReloading_Pcsc {
   private static String cardAid;
   private static int counterIncrement;
   private static String logLevel;
+  private static boolean isMetricsEnabled;
+  private static String traceFileName;
   private static byte[] newContractListRecord;
   private static byte[] newContractRecord;
   private static String builtDate;
@@ -90,6 +108,8 @@ public class Main_PerformanceMeasurement_DistributedReloading_Pcsc {
   private static final String ISO_CARD_PROTOCOL = "ISO_14443_4_CARD";
   // The logical name of the protocol for communicating with the SAM (optional).
   private static final String SAM_PROTOCOL = "ISO_7816_3_T0";
+  // The number of APDUs the trace ring buffer can hold while waiting to be written.
+  private static final int TRACE_CAPACITY = 4096;
 
   private static final byte SFI_ENVIRONMENT_AND_HOLDER = (byte) 0x07;
   private static final byte SFI_CONTRACT_LIST = (byte) 0x1E;
@@ -97,7 +117,7 @@ public class Main_PerformanceMeasurement_DistributedReloading_Pcsc {
   private static final byte SFI_COUNTERS = (byte) 0x19;
   private static final int RECORD_SIZE = 29;
 
-  public static void main(String[] args) throws IOException {
+  public static void main(String[] args) throws IOException, InterruptedException {
 
     // load operating parameters
     readConfigurationFile();
@@ -117,6 +137,8 @@ public static void main(String[] args) throws IOException {
     System.out.printf("  AID=%s\n", cardAid);
     System.out.printf("  Counter decrement=%d\n", counterIncrement);
     System.out.printf("  log level=%s\n", logLevel);
+    System.out.printf("  metrics=%s\n", isMetricsEnabled);
+    System.out.printf("  trace=%s\n", traceFileName != null ? traceFileName : "");
     System.out.printf("Build date: %s %s%s\n", builtDate, builtTime, ANSI_RESET);
 
     // Initialize the context
@@ -124,6 +146,8 @@ public static void main(String[] args) throws IOException {
     initCalypsoCardExtensionService();
     initCardReader();
     initSamReader();
+    initApduTrace();
+    initTransactionMetrics();
     initSecuritySetting();
 
     BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(System.in));
@@ -137,6 +161,9 @@ public static void main(String[] args) throws IOException {
       System.out.printf(
           "%s## (or press 'q' + ENTER to exit)                     ##%s\n",
           ANSI_YELLOW, ANSI_RESET);
+      System.out.printf(
+          "%s## (or 'm' + ENTER to print the metrics)              ##%s\n",
+          ANSI_YELLOW, ANSI_RESET);
       System.out.printf(
           "%s########################################################%s\n",
           ANSI_YELLOW, ANSI_RESET);
@@ -148,7 +175,13 @@ public static void main(String[] args) throws IOException {
         break;
       }
 
+      if (input.toLowerCase().contains("m")) {
+        printMetrics();
+        continue;
+      }
+
       if (cardReader.isCardPresent()) {
+        long startNanos = System.nanoTime();
         try {
           logger.info("Starting reloading transaction...");
           logger.info("Select application with AID = '{}'", cardAid);
@@ -160,6 +193,10 @@ public static void main(String[] args) throws IOException {
           if (calypsoCard == null) {
             throw new IllegalStateException("Card selection failed!");
           }
+          transactionMetrics.recordSelection(System.nanoTime() - startNanos);
+          if (tracingCardReader != null) {
+            tracingCardReader.recordSelection(calypsoCard, startNanos);
+          }
 
           byte[] environmentAndHolderData =
               calypsoCard.getFileBySfi(SFI_ENVIRONMENT_AND_HOLDER).getData().getContent(1);
@@ -175,7 +212,7 @@ public static void main(String[] args) throws IOException {
           SecureRegularModeTransactionManager cardTransactionManager =
               calypsoCardApiFactory
                   .createSecureRegularModeTransactionManager(
-                      cardReader, calypsoCard, symmetricCryptoSecuritySetting)
+                      transactionCardReader, calypsoCard, symmetricCryptoSecuritySetting)
                   .prepareOpenSecureSession(LOAD)
                   .prepareReadRecords(SFI_ENVIRONMENT_AND_HOLDER, 1, 1, RECORD_SIZE)
                   .prepareReadRecords(SFI_CONTRACT_LIST, 1, 1, RECORD_SIZE)
@@ -214,12 +251,14 @@ public static void main(String[] args) throws IOException {
               .prepareIncreaseCounter(SFI_COUNTERS, 1, counterIncrement)
               .prepareCloseSecureSession()
               .processCommands(ChannelControl.CLOSE_AFTER);
+          transactionMetrics.recordTransaction(System.nanoTime() - startNanos, true);
 
           // display transaction time
           System.out.printf(
               "%sTransaction succeeded. Execution time: %d ms%s\n",
               ANSI_GREEN, System.currentTimeMillis() - timeStamp, ANSI_RESET);
         } catch (Exception e) {
+          transactionMetrics.recordTransaction(System.nanoTime() - startNanos, false);
           System.out.printf(
               "%sTransaction failed with exception: %s%s", ANSI_RED, e.getMessage(), ANSI_RESET);
         }
@@ -227,6 +266,13 @@ public static void main(String[] args) throws IOException {
         System.out.printf("%sNo card detected%s", ANSI_RED, ANSI_RESET);
       }
     }
+    printMetrics();
+    if (apduTraceRecorder != null) {
+      apduTraceRecorder.close();
+      System.out.printf(
+          "APDU trace written to %s (%d APDUs lost)\n",
+          traceFileName, apduTraceRecorder.getNbLostApdus());
+    }
     logger.info("Exiting the program on user's request.");
   }
 
@@ -247,6 +293,11 @@ private static void readConfigurationFile() throws IOException {
       newContractListRecord = HexUtil.toByteArray(prop.getProperty("reloading.contractlist"));
       newContractRecord = HexUtil.toByteArray(prop.getProperty("reloading.contract"));
       logLevel = prop.getProperty("reloading.log");
+      isMetricsEnabled = Boolean.parseBoolean(prop.getProperty("reloading.metrics", "false"));
+      traceFileName = prop.getProperty("reloading.trace", "").trim();
+      if (traceFileName.isEmpty()) {
+        traceFileName = null;
+      }
       InputStream stream =
           Main_PerformanceMeasurement_DistributedReloading_Pcsc.class.getResourceAsStream(
               "/META-INF/MANIFEST.MF");
@@ -313,6 +364,49 @@ private static void initSamReader() {
             SAM_PROTOCOL);
   }
 
+  /**
+   * Initializes the APDU trace recorder and decorates the card and SAM readers, if a trace file is
+   * configured.
+   *
+   * <p>The trace, including the selections, can be replayed without hardware by {@code
+   * Main_PerformanceMeasurement_TraceReplay_Stub} (Use Case Calypso 12).
+   *
+   * @throws IOException If the trace file cannot be created.
+   */
+  private static void initApduTrace() throws IOException {
+    if (traceFileName != null) {
+      apduTraceRecorder = new ApduTraceRecorder(traceFileName, TRACE_CAPACITY);
+      tracingCardReader = apduTraceRecorder.traceCardReader(cardReader);
+      tracingSamReader = apduTraceRecorder.traceSamReader(samReader);
+    }
+  }
+
+  /**
+   * Initializes the transaction metrics and decorates the card reader used by the transaction
+   * manager.
+   *
+   * <p>When the metrics are disabled, the {@link NoOpMetricsRegistry} is used so that the
+   * decorators add no processing to the transaction.
+   */
+  private static void initTransactionMetrics() {
+    if (isMetricsEnabled) {
+      metricsRegistry = new PrometheusMetricsRegistry();
+      transactionMetrics = new TransactionMetrics(metricsRegistry);
+    } else {
+      transactionMetrics = new TransactionMetrics(NoOpMetricsRegistry.INSTANCE);
+    }
+    transactionCardReader =
+        transactionMetrics.meterCardReader(
+            tracingCardReader != null ? tracingCardReader : cardReader);
+  }
+
+  /** Prints the transaction metrics in the Prometheus text format, if enabled. */
+  private static void printMetrics() {
+    if (metricsRegistry != null) {
+      System.out.printf("%s%s%s", ANSI_YELLOW, metricsRegistry.scrape(), ANSI_RESET);
+    }
+  }
+
   /**
    * Initializes the security settings for the transaction.
    *
@@ -320,13 +414,20 @@ private static void initSamReader() {
    * for securing the transaction.
    */
   private static void initSecuritySetting() {
+    long samSelectionStartNanos = System.nanoTime();
     LegacySam sam = selectSam(samReader);
+    if (tracingSamReader != null) {
+      tracingSamReader.recordSelection(sam, samSelectionStartNanos);
+    }
     symmetricCryptoSecuritySetting =
         calypsoCardApiFactory
             .createSymmetricCryptoSecuritySetting(
                 LegacySamExtensionService.getInstance()
                     .getLegacySamApiFactory()
-                    .createSymmetricCryptoCardTransactionManagerFactory(samReader, sam))
+                    .createSymmetricCryptoCardTransactionManagerFactory(
+                        transactionMetrics.meterSamReader(
+                            tracingSamReader != null ? tracingSamReader : samReader),
+                        sam))
             .enableRatificationMechanism();
   }
 
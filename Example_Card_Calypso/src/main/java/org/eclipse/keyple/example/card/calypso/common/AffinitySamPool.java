@@ -0,0 +1,428 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.keyple.core.service.resource.CardResource;
+import org.eclipse.keyple.core.service.resource.CardResourceService;
+import org.eclipse.keyple.example.card.calypso.common.SamCryptoContextPrefetcher.PrefetchedCryptoContext;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.crypto.legacysam.sam.LegacySam;
+import org.eclipse.keypop.reader.CardReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of SAMs shared by several worker threads (e.g. one per gate), pinning each SAM to the same
+ * threads as much as possible.
+ *
+ * <p>The SAMs are allocated once from the {@link CardResourceService} and kept for the lifetime of
+ * the pool, each one with its own security setting: there is no allocation, selection or security
+ * setting creation per transaction. At the end of a transaction, the SAM is given back with {@link
+ * #release(PooledSam)} and the challenge of its next transaction is loaded in the background by a
+ * {@link SamCryptoContextPrefetcher}, so that the crypto context of an available SAM is always
+ * ready.
+ *
+ * <p>Each worker thread is pinned to a home SAM on its first {@link #acquire(long)}, the SAMs being
+ * distributed evenly among the threads. A thread whose home SAM is not available steals an
+ * available SAM pinned to other threads instead of waiting, and waits only if no SAM is available
+ * at all. The threads which have ended are unpinned when a new thread is pinned.
+ *
+ * <p>When a SAM fails, {@link #discard(PooledSam)} removes it from the pool and from the card
+ * resource service; the threads pinned to it are pinned again on their next acquisition.
+ *
+ * <p>The pool counts the acquisitions, the ones served by the home SAM, the steals and the waits.
+ */
+public class AffinitySamPool {
+  private static final Logger logger = LoggerFactory.getLogger(AffinitySamPool.class);
+
+  private final CardResourceService cardResourceService;
+  private final List<PooledSam> pooledSams = new ArrayList<PooledSam>();
+  private final SamCryptoContextPrefetcher prefetcher;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition samReady = lock.newCondition();
+
+  // Guarded by lock.
+  private final Map<PrefetchedCryptoContext, PooledSam> pooledSamsByContext =
+      new HashMap<PrefetchedCryptoContext, PooledSam>();
+  private final Map<Thread, PooledSam> homeSams = new HashMap<Thread, PooledSam>();
+  private long nbAcquisitions;
+  private long nbHomeAcquisitions;
+  private long nbSteals;
+  private long nbWaits;
+  private long nbTimeouts;
+
+  /** Creates the security settings of the SAMs allocated by the pool. */
+  public interface SecuritySettingFactory {
+
+    /**
+     * Creates the security setting dedicated to a SAM, with the SAM challenge of the first
+     * transaction already loaded (e.g. with {@link
+     * ValidationTransactionUtil#createSecuritySetting}).
+     *
+     * @param samReader The reader of the SAM.
+     * @param sam The SAM selected by the card resource service.
+     * @return A new security setting whose crypto context is initialized.
+     */
+    SymmetricCryptoSecuritySetting createSecuritySetting(CardReader samReader, LegacySam sam);
+  }
+
+  /**
+   * Constructor.
+   *
+   * <p>Allocates all the card resources of the profile available in the card resource service and
+   * creates the security setting of each SAM.
+   *
+   * @param cardResourceService The started card resource service.
+   * @param samProfileName The name of the card resource profile of the SAMs.
+   * @param securitySettingFactory The factory of the security settings.
+   * @throws IllegalStateException If no card resource of the profile is available.
+   */
+  public AffinitySamPool(
+      CardResourceService cardResourceService,
+      String samProfileName,
+      SecuritySettingFactory securitySettingFactory) {
+    this.cardResourceService = cardResourceService;
+    List<CardResource> cardResources = new ArrayList<CardResource>();
+    CardResource cardResource;
+    while ((cardResource = cardResourceService.getCardResource(samProfileName)) != null) {
+      cardResources.add(cardResource);
+    }
+    if (cardResources.isEmpty()) {
+      throw new IllegalStateException(
+          "No card resource available for the profile " + samProfileName);
+    }
+    prefetcher =
+        new SamCryptoContextPrefetcher(
+            cardResources.size(),
+            new SamCryptoContextPrefetcher.PrefetchListener() {
+              @Override
+              public void onContextReady(PrefetchedCryptoContext context) {
+                onSamReady(context);
+              }
+
+              @Override
+              public void onContextFailed(PrefetchedCryptoContext context) {
+                discard(getPooledSam(context));
+              }
+            });
+    lock.lock();
+    try {
+      // The SAMs become available once their context is provided by the prefetcher.
+      for (CardResource samResource : cardResources) {
+        SymmetricCryptoSecuritySetting securitySetting =
+            securitySettingFactory.createSecuritySetting(
+                samResource.getReader(), (LegacySam) samResource.getSmartCard());
+        PooledSam pooledSam =
+            new PooledSam(
+                samResource,
+                prefetcher.addSam(samResource.getReader().getName(), securitySetting, true));
+        pooledSams.add(pooledSam);
+        pooledSamsByContext.put(pooledSam.context, pooledSam);
+      }
+    } finally {
+      lock.unlock();
+    }
+    logger.info("SAM pool created with {} SAMs", pooledSams.size());
+  }
+
+  /**
+   * Gets a SAM ready for a transaction: the home SAM of the current thread if available, otherwise
+   * any available SAM, waiting if none is available.
+   *
+   * @param timeoutMillis The maximum waiting time, in milliseconds.
+   * @return A SAM whose challenge is already loaded.
+   * @throws IllegalStateException If no SAM became available in time, or if all the SAMs were
+   *     discarded.
+   * @throws InterruptedException If the current thread was interrupted while waiting.
+   */
+  public PooledSam acquire(long timeoutMillis) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    Thread thread = Thread.currentThread();
+    lock.lock();
+    try {
+      boolean hasWaited = false;
+      while (true) {
+        PooledSam homeSam = homeSams.get(thread);
+        if (homeSam == null || homeSam.state == State.DISCARDED) {
+          homeSam = pin(thread, homeSam);
+        }
+        PooledSam pooledSam = homeSam.state == State.READY ? homeSam : findReadySam(homeSam);
+        if (pooledSam != null) {
+          pooledSam.state = State.IN_USE;
+          pooledSam.nbTransactions++;
+          nbAcquisitions++;
+          if (pooledSam == homeSam) {
+            nbHomeAcquisitions++;
+          } else {
+            nbSteals++;
+          }
+          if (hasWaited) {
+            nbWaits++;
+          }
+          return pooledSam;
+        }
+        long remainingNanos = deadline - System.nanoTime();
+        if (remainingNanos <= 0) {
+          nbTimeouts++;
+          throw new IllegalStateException("No SAM available in time.");
+        }
+        hasWaited = true;
+        samReady.awaitNanos(remainingNanos);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gives back a SAM at the end of a transaction (successful or not). The challenge of its next
+   * transaction is loaded in the background, after which the SAM is available again.
+   *
+   * @param pooledSam The SAM obtained by {@link #acquire(long)}.
+   */
+  public void release(PooledSam pooledSam) {
+    lock.lock();
+    try {
+      if (pooledSam.state != State.IN_USE) {
+        return;
+      }
+      pooledSam.state = State.REFRESHING;
+    } finally {
+      lock.unlock();
+    }
+    prefetcher.release(pooledSam.context);
+  }
+
+  /**
+   * Removes a failing SAM from the pool and from the card resource service.
+   *
+   * @param pooledSam The SAM obtained by {@link #acquire(long)}.
+   */
+  public void discard(PooledSam pooledSam) {
+    lock.lock();
+    try {
+      if (pooledSam.state == State.DISCARDED) {
+        return;
+      }
+      pooledSam.state = State.DISCARDED;
+      prefetcher.removeSam(pooledSam.getSamReaderName());
+      cardResourceService.removeCardResource(pooledSam.cardResource);
+      // Wakes up the waiting threads pinned to this SAM so that they are pinned again.
+      samReady.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    logger.info("SAM discarded: {}", pooledSam.getSamReaderName());
+  }
+
+  /**
+   * Stops the background threads and gives the card resources of the SAMs not discarded back to the
+   * card resource service.
+   */
+  public void close() {
+    prefetcher.shutdown();
+    lock.lock();
+    try {
+      for (PooledSam pooledSam : pooledSams) {
+        if (pooledSam.state != State.DISCARDED) {
+          pooledSam.state = State.DISCARDED;
+          cardResourceService.releaseCardResource(pooledSam.cardResource);
+        }
+      }
+      samReady.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    lock.lock();
+    try {
+      StringBuilder nbTransactionsPerSam = new StringBuilder();
+      for (PooledSam pooledSam : pooledSams) {
+        if (nbTransactionsPerSam.length() > 0) {
+          nbTransactionsPerSam.append(", ");
+        }
+        nbTransactionsPerSam
+            .append(pooledSam.getSamReaderName())
+            .append('=')
+            .append(pooledSam.nbTransactions);
+      }
+      return "AffinitySamPool{"
+          + "nbAcquisitions="
+          + nbAcquisitions
+          + ", nbHomeAcquisitions="
+          + nbHomeAcquisitions
+          + ", nbSteals="
+          + nbSteals
+          + ", nbWaits="
+          + nbWaits
+          + ", nbTimeouts="
+          + nbTimeouts
+          + ", nbTransactionsPerSam={"
+          + nbTransactionsPerSam
+          + "}}";
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the SAM of a context of the prefetcher.
+   *
+   * @param context The context.
+   * @return A not null reference.
+   */
+  private PooledSam getPooledSam(PrefetchedCryptoContext context) {
+    lock.lock();
+    try {
+      return pooledSamsByContext.get(context);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Makes a SAM available again once the challenge of its next transaction is loaded.
+   *
+   * @param context The context of the SAM in the prefetcher.
+   */
+  private void onSamReady(PrefetchedCryptoContext context) {
+    lock.lock();
+    try {
+      PooledSam pooledSam = pooledSamsByContext.get(context);
+      if (pooledSam.state == State.REFRESHING) {
+        pooledSam.state = State.READY;
+        samReady.signalAll();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Pins a thread to the valid SAM having the fewest pinned threads, after unpinning the threads
+   * which have ended. The lock must be held.
+   *
+   * @param thread The thread.
+   * @param previousHomeSam The previous home SAM of the thread, null if none.
+   * @return The new home SAM.
+   * @throws IllegalStateException If all the SAMs were discarded.
+   */
+  private PooledSam pin(Thread thread, PooledSam previousHomeSam) {
+    if (previousHomeSam != null) {
+      previousHomeSam.nbPinnedThreads--;
+    }
+    Iterator<Map.Entry<Thread, PooledSam>> iterator = homeSams.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Thread, PooledSam> entry = iterator.next();
+      if (!entry.getKey().isAlive()) {
+        entry.getValue().nbPinnedThreads--;
+        iterator.remove();
+      }
+    }
+    PooledSam homeSam = null;
+    for (PooledSam pooledSam : pooledSams) {
+      if (pooledSam.state != State.DISCARDED
+          && (homeSam == null || pooledSam.nbPinnedThreads < homeSam.nbPinnedThreads)) {
+        homeSam = pooledSam;
+      }
+    }
+    if (homeSam == null) {
+      homeSams.remove(thread);
+      throw new IllegalStateException("All the SAMs of the pool were discarded.");
+    }
+    homeSam.nbPinnedThreads++;
+    homeSams.put(thread, homeSam);
+    return homeSam;
+  }
+
+  /**
+   * Finds an available SAM to steal, the one having the fewest pinned threads first. The lock must
+   * be held.
+   *
+   * @param homeSam The home SAM of the current thread, not available.
+   * @return Null if no SAM is available.
+   */
+  private PooledSam findReadySam(PooledSam homeSam) {
+    PooledSam readySam = null;
+    for (PooledSam pooledSam : pooledSams) {
+      if (pooledSam != homeSam
+          && pooledSam.state == State.READY
+          && (readySam == null || pooledSam.nbPinnedThreads < readySam.nbPinnedThreads)) {
+        readySam = pooledSam;
+      }
+    }
+    return readySam;
+  }
+
+  /** The states of a SAM of the pool. */
+  private enum State {
+    READY,
+    IN_USE,
+    REFRESHING,
+    DISCARDED
+  }
+
+  /** A SAM of the pool, with its security setting. */
+  public static final class PooledSam {
+
+    private final CardResource cardResource;
+    private final PrefetchedCryptoContext context;
+
+    // Guarded by the lock of the pool.
+    private State state = State.REFRESHING;
+    private int nbPinnedThreads;
+    private long nbTransactions;
+
+    /**
+     * Constructor.
+     *
+     * @param cardResource The card resource of the SAM.
+     * @param context The context of the SAM in the prefetcher.
+     */
+    private PooledSam(CardResource cardResource, PrefetchedCryptoContext context) {
+      this.cardResource = cardResource;
+      this.context = context;
+    }
+
+    /**
+     * Returns the name of the reader of the SAM.
+     *
+     * @return A not null reference.
+     */
+    public String getSamReaderName() {
+      return cardResource.getReader().getName();
+    }
+
+    /**
+     * Returns the security setting to use for the transaction.
+     *
+     * @return A not null reference.
+     */
+    public SymmetricCryptoSecuritySetting getSecuritySetting() {
+      return context.getSecuritySetting();
+    }
+  }
+}
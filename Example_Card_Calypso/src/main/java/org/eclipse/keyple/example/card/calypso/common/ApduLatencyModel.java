@@ -0,0 +1,196 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import java.util.Random;
+
+/**
+ * Timing model of a simulated card or SAM, used by {@link LatencyInjectingCardReader}.
+ *
+ * <p>The model defines the fixed cost of a card exchange (i.e. of a card request, whatever the
+ * number of APDUs it contains) and the processing time of each APDU, which can depend on the
+ * instruction byte (INS) of the command: an Open Secure Session (0x8A) is for example much slower
+ * than a Read Record (0xB2).
+ *
+ * <p>The model is immutable and can be shared between several readers. Each reader draws its
+ * latencies from its own generator, created with {@link #newRandom(String)}, so that the runs are
+ * repeatable for a given seed.
+ */
+public final class ApduLatencyModel {
+
+  private static final LatencyDistribution NO_LATENCY = LatencyDistribution.fixed(0);
+
+  private final long seed;
+  private final LatencyDistribution exchangeLatency;
+  private final LatencyDistribution defaultApduLatency;
+  private final LatencyDistribution[] apduLatencyByIns;
+
+  /**
+   * Constructor.
+   *
+   * @param builder The builder.
+   */
+  private ApduLatencyModel(Builder builder) {
+    this.seed = builder.seed;
+    this.exchangeLatency = builder.exchangeLatency;
+    this.defaultApduLatency = builder.defaultApduLatency;
+    this.apduLatencyByIns = builder.apduLatencyByIns.clone();
+  }
+
+  /**
+   * Creates a builder of model without any latency and with the seed 0.
+   *
+   * @return A new builder.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Creates a model with a fixed latency per exchange and per APDU.
+   *
+   * @param apduLatencyMicros The processing time of each APDU, in microseconds.
+   * @param exchangeLatencyMicros The fixed cost of each card exchange, in microseconds.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If a latency is negative.
+   */
+  public static ApduLatencyModel fixed(long apduLatencyMicros, long exchangeLatencyMicros) {
+    return builder()
+        .withExchangeLatency(LatencyDistribution.fixed(exchangeLatencyMicros))
+        .withDefaultApduLatency(LatencyDistribution.fixed(apduLatencyMicros))
+        .build();
+  }
+
+  /**
+   * Creates the random generator of a reader.
+   *
+   * <p>The generator is derived from the seed of the model and from the name of the reader, so that
+   * the readers sharing the same model do not draw the same sequence of latencies.
+   *
+   * @param readerName The name of the reader.
+   * @return A new generator.
+   */
+  public Random newRandom(String readerName) {
+    return new Random(seed * 31 + readerName.hashCode());
+  }
+
+  /**
+   * Draws the fixed cost of a card exchange.
+   *
+   * @param random The random generator of the reader.
+   * @return A positive or zero latency, in nanoseconds.
+   */
+  public long nextExchangeLatencyNanos(Random random) {
+    return exchangeLatency.nextNanos(random);
+  }
+
+  /**
+   * Draws the processing time of an APDU.
+   *
+   * @param apdu The command APDU.
+   * @param random The random generator of the reader.
+   * @return A positive or zero latency, in nanoseconds.
+   */
+  public long nextApduLatencyNanos(byte[] apdu, Random random) {
+    LatencyDistribution distribution =
+        apdu.length > 1 ? apduLatencyByIns[apdu[1] & 0xFF] : defaultApduLatency;
+    return distribution.nextNanos(random);
+  }
+
+  /** Builder of {@link ApduLatencyModel}. */
+  public static final class Builder {
+
+    private long seed;
+    private LatencyDistribution exchangeLatency = NO_LATENCY;
+    private LatencyDistribution defaultApduLatency = NO_LATENCY;
+    private final LatencyDistribution[] apduLatencyByIns = new LatencyDistribution[256];
+    private final boolean[] isInsLatencyDefined = new boolean[256];
+
+    /** Constructor */
+    private Builder() {}
+
+    /**
+     * Sets the seed of the random generators.
+     *
+     * @param seed The seed.
+     * @return The builder instance.
+     */
+    public Builder withSeed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * Sets the distribution of the fixed cost of each card exchange.
+     *
+     * @param distribution The distribution.
+     * @return The builder instance.
+     * @throws IllegalArgumentException If the distribution is null.
+     */
+    public Builder withExchangeLatency(LatencyDistribution distribution) {
+      checkNotNull(distribution);
+      this.exchangeLatency = distribution;
+      return this;
+    }
+
+    /**
+     * Sets the distribution of the processing time of the APDUs whose INS has no specific
+     * distribution.
+     *
+     * @param distribution The distribution.
+     * @return The builder instance.
+     * @throws IllegalArgumentException If the distribution is null.
+     */
+    public Builder withDefaultApduLatency(LatencyDistribution distribution) {
+      checkNotNull(distribution);
+      this.defaultApduLatency = distribution;
+      return this;
+    }
+
+    /**
+     * Sets the distribution of the processing time of the APDUs having the provided instruction
+     * byte.
+     *
+     * @param ins The instruction byte (e.g. 0x8A for Open Secure Session).
+     * @param distribution The distribution.
+     * @return The builder instance.
+     * @throws IllegalArgumentException If the distribution is null.
+     */
+    public Builder withApduLatency(byte ins, LatencyDistribution distribution) {
+      checkNotNull(distribution);
+      apduLatencyByIns[ins & 0xFF] = distribution;
+      isInsLatencyDefined[ins & 0xFF] = true;
+      return this;
+    }
+
+    /**
+     * Creates the model.
+     *
+     * @return A new model.
+     */
+    public ApduLatencyModel build() {
+      for (int i = 0; i < 256; i++) {
+        if (!isInsLatencyDefined[i]) {
+          apduLatencyByIns[i] = defaultApduLatency;
+        }
+      }
+      return new ApduLatencyModel(this);
+    }
+
+    private static void checkNotNull(LatencyDistribution distribution) {
+      if (distribution == null) {
+        throw new IllegalArgumentException("The distribution must not be null.");
+      }
+    }
+  }
+}
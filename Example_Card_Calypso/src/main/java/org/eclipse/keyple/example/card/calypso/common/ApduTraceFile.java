@@ -0,0 +1,355 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary format of the APDU trace files written by the {@link ApduTraceRecorder}, and reader of
+ * these files.
+ *
+ * <p>A file starts with a header (magic number, version, wall clock time in milliseconds and {@link
+ * System#nanoTime()} at the creation of the recorder), followed by records of four types, all the
+ * values being big endian:
+ *
+ * <ul>
+ *   <li>reader: identifier (short), SAM flag (byte), name (modified UTF-8),
+ *   <li>APDU: reader identifier (short), start and end of the reader exchange (long nanoseconds),
+ *       APDU description (modified UTF-8, empty if unknown), then for the command and the response:
+ *       length of the APDU (int), number of bytes stored (int) and the stored bytes,
+ *   <li>selection: same layout as an APDU record, without description, the command being the
+ *       power-on data of the card and the response the response to the Select Application command
+ *       (empty for a SAM),
+ *   <li>lost records: number of APDUs not recorded because the ring buffer was full (long).
+ * </ul>
+ *
+ * <p>A reader record is always written before the first APDU or selection record of the reader.
+ */
+public final class ApduTraceFile {
+
+  static final int MAGIC = 0x4B415054; // "KAPT"
+  static final short VERSION = 1;
+  static final byte RECORD_READER = 1;
+  static final byte RECORD_APDU = 2;
+  static final byte RECORD_LOST = 3;
+  static final byte RECORD_SELECTION = 4;
+
+  /** Constructor */
+  private ApduTraceFile() {}
+
+  /**
+   * Reads a trace file.
+   *
+   * <p>A file truncated in the middle of a record (e.g. because the application was killed) is read
+   * up to the last complete record.
+   *
+   * @param fileName The name of the file.
+   * @return A not null trace.
+   * @throws IOException If the file cannot be read or is not a trace file.
+   */
+  public static Trace read(String fileName) throws IOException {
+    DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(fileName)));
+    try {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not an APDU trace file: " + fileName);
+      }
+      short version = in.readShort();
+      if (version != VERSION) {
+        throw new IOException("Unsupported APDU trace file version: " + version);
+      }
+      Trace trace = new Trace(in.readLong(), in.readLong());
+      try {
+        while (true) {
+          byte recordType = in.readByte();
+          if (recordType == RECORD_READER) {
+            short readerId = in.readShort();
+            boolean isSam = in.readByte() != 0;
+            String readerName = in.readUTF();
+            while (trace.readers.size() <= readerId) {
+              trace.readers.add(null);
+            }
+            trace.readers.set(readerId, new TracedReader(readerName, isSam));
+          } else if (recordType == RECORD_APDU) {
+            trace.apdus.add(readApdu(in, trace));
+          } else if (recordType == RECORD_SELECTION) {
+            trace.selections.add(readApdu(in, trace));
+          } else if (recordType == RECORD_LOST) {
+            trace.nbLostApdus += in.readLong();
+          } else {
+            throw new IOException("Unknown APDU trace record type: " + recordType);
+          }
+        }
+      } catch (EOFException e) {
+        // End of the trace.
+      }
+      return trace;
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Reads an APDU or a selection record.
+   *
+   * @param in The input stream.
+   * @param trace The trace being read.
+   * @return A not null APDU.
+   * @throws IOException If the record cannot be read or refers to an unknown reader.
+   */
+  private static TracedApdu readApdu(DataInputStream in, Trace trace) throws IOException {
+    short readerId = in.readShort();
+    if (readerId >= trace.readers.size() || trace.readers.get(readerId) == null) {
+      throw new IOException("APDU trace record of an unknown reader: " + readerId);
+    }
+    long startNanos = in.readLong();
+    long endNanos = in.readLong();
+    String info = in.readUTF();
+    int commandLength = in.readInt();
+    byte[] command = new byte[in.readInt()];
+    in.readFully(command);
+    int responseLength = in.readInt();
+    byte[] response = new byte[in.readInt()];
+    in.readFully(response);
+    return new TracedApdu(
+        trace.readers.get(readerId),
+        startNanos - trace.originNanos,
+        endNanos - startNanos,
+        info.length() != 0 ? info : null,
+        command,
+        commandLength,
+        response,
+        responseLength);
+  }
+
+  /** The content of a trace file. */
+  public static final class Trace {
+
+    private final long originWallClockMillis;
+    private final long originNanos;
+    private final List<TracedReader> readers = new ArrayList<TracedReader>();
+    private final List<TracedApdu> apdus = new ArrayList<TracedApdu>();
+    private final List<TracedApdu> selections = new ArrayList<TracedApdu>();
+    private long nbLostApdus;
+
+    /**
+     * Constructor.
+     *
+     * @param originWallClockMillis The wall clock time at the creation of the recorder.
+     * @param originNanos The nano time at the creation of the recorder.
+     */
+    private Trace(long originWallClockMillis, long originNanos) {
+      this.originWallClockMillis = originWallClockMillis;
+      this.originNanos = originNanos;
+    }
+
+    /**
+     * Returns the wall clock time at the creation of the recorder, the origin of the APDU times.
+     *
+     * @return A number of milliseconds since the epoch.
+     */
+    public long getOriginWallClockMillis() {
+      return originWallClockMillis;
+    }
+
+    /**
+     * Returns the APDUs in the order they were recorded.
+     *
+     * @return A not null list.
+     */
+    public List<TracedApdu> getApdus() {
+      return apdus;
+    }
+
+    /**
+     * Returns the card and SAM selections in the order they were recorded.
+     *
+     * <p>A selection is represented as an APDU whose command is the power-on data of the card and
+     * whose response is the response to the Select Application command (empty for a SAM).
+     *
+     * @return A not null list.
+     */
+    public List<TracedApdu> getSelections() {
+      return selections;
+    }
+
+    /**
+     * Returns the number of APDUs lost because the ring buffer of the recorder was full.
+     *
+     * @return A positive number.
+     */
+    public long getNbLostApdus() {
+      return nbLostApdus;
+    }
+  }
+
+  /** A reader of a trace. */
+  public static final class TracedReader {
+
+    private final String name;
+    private final boolean isSam;
+
+    /**
+     * Constructor.
+     *
+     * @param name The name of the reader.
+     * @param isSam true if the reader is used to communicate with a SAM.
+     */
+    private TracedReader(String name, boolean isSam) {
+      this.name = name;
+      this.isSam = isSam;
+    }
+
+    /**
+     * Returns the name of the reader.
+     *
+     * @return A not null string.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Indicates whether the reader is used to communicate with a SAM.
+     *
+     * @return true for a SAM reader, false for a card reader.
+     */
+    public boolean isSam() {
+      return isSam;
+    }
+  }
+
+  /** An APDU of a trace. */
+  public static final class TracedApdu {
+
+    private final TracedReader reader;
+    private final long startNanos;
+    private final long exchangeNanos;
+    private final String info;
+    private final byte[] command;
+    private final int commandLength;
+    private final byte[] response;
+    private final int responseLength;
+
+    /**
+     * Constructor.
+     *
+     * @param reader The reader.
+     * @param startNanos The start of the reader exchange, relative to the origin of the trace.
+     * @param exchangeNanos The duration of the reader exchange.
+     * @param info The description of the APDU, null if unknown.
+     * @param command The stored bytes of the command.
+     * @param commandLength The length of the command.
+     * @param response The stored bytes of the response.
+     * @param responseLength The length of the response.
+     */
+    private TracedApdu(
+        TracedReader reader,
+        long startNanos,
+        long exchangeNanos,
+        String info,
+        byte[] command,
+        int commandLength,
+        byte[] response,
+        int responseLength) {
+      this.reader = reader;
+      this.startNanos = startNanos;
+      this.exchangeNanos = exchangeNanos;
+      this.info = info;
+      this.command = command;
+      this.commandLength = commandLength;
+      this.response = response;
+      this.responseLength = responseLength;
+    }
+
+    /**
+     * Returns the reader the APDU was exchanged with.
+     *
+     * @return A not null reference.
+     */
+    public TracedReader getReader() {
+      return reader;
+    }
+
+    /**
+     * Returns the start of the reader exchange containing the APDU, relative to the origin of the
+     * trace.
+     *
+     * @return A number of nanoseconds.
+     */
+    public long getStartNanos() {
+      return startNanos;
+    }
+
+    /**
+     * Returns the duration of the reader exchange containing the APDU. The APDUs transmitted in the
+     * same card request share the same start and duration.
+     *
+     * @return A number of nanoseconds.
+     */
+    public long getExchangeNanos() {
+      return exchangeNanos;
+    }
+
+    /**
+     * Returns the description of the APDU provided by the card extension.
+     *
+     * @return Null if unknown.
+     */
+    public String getInfo() {
+      return info;
+    }
+
+    /**
+     * Returns the bytes of the command, truncated if longer than the slots of the recorder.
+     *
+     * @return A not null array.
+     */
+    public byte[] getCommand() {
+      return command;
+    }
+
+    /**
+     * Returns the length of the command, which may be greater than the number of bytes stored.
+     *
+     * @return A positive number.
+     */
+    public int getCommandLength() {
+      return commandLength;
+    }
+
+    /**
+     * Returns the bytes of the response, truncated if longer than the slots of the recorder.
+     *
+     * @return A not null array, empty if no response was received.
+     */
+    public byte[] getResponse() {
+      return response;
+    }
+
+    /**
+     * Returns the length of the response, which may be greater than the number of bytes stored.
+     *
+     * @return A positive number.
+     */
+    public int getResponseLength() {
+      return responseLength;
+    }
+  }
+}
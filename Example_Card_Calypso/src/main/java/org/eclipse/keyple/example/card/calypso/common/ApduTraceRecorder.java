@@ -0,0 +1,448 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.eclipse.keypop.card.ApduResponseApi;
+import org.eclipse.keypop.card.CardResponseApi;
+import org.eclipse.keypop.card.spi.ApduRequestSpi;
+import org.eclipse.keypop.card.spi.CardRequestSpi;
+import org.eclipse.keypop.reader.CardReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Always-on recorder of the APDUs exchanged with the card and SAM readers, written to a binary
+ * trace file (see {@link ApduTraceFile}).
+ *
+ * <p>The APDUs are recorded by the {@link TracingCardReader} decorators, created with {@link
+ * #traceCardReader(CardReader)} and {@link #traceSamReader(CardReader)}, into a ring buffer whose
+ * slots are all allocated at construction. Recording an APDU only claims a slot with a
+ * compare-and-set, copies the command and response bytes into it and publishes it: it neither
+ * locks, allocates, formats nor performs any I/O. A background thread drains the published slots
+ * periodically and writes them to the file.
+ *
+ * <p>When the ring buffer is full because the background thread cannot keep up, the new APDUs are
+ * dropped rather than slowing down the transactions; their number is written to the file. The
+ * commands and responses longer than {@link #MAX_APDU_LENGTH} bytes are truncated.
+ *
+ * <p>The trace files are rendered by {@code Main_SessionTrace_TN313_Report} (Use Case Calypso 10).
+ */
+public class ApduTraceRecorder {
+  private static final Logger logger = LoggerFactory.getLogger(ApduTraceRecorder.class);
+
+  /** The maximum number of bytes stored for a command or a response (short APDU). */
+  public static final int MAX_APDU_LENGTH = 261;
+
+  private static final long FLUSH_PERIOD_MILLIS = 100;
+
+  private final int capacity;
+  private final int mask;
+
+  // The slots. Slot i holds the record of the sequences i, i + capacity, i + 2 * capacity...
+  private final byte[] recordTypes;
+  private final int[] readerIds;
+  private final long[] startNanos;
+  private final long[] endNanos;
+  private final String[] infos;
+  private final int[] commandLengths;
+  private final int[] responseLengths;
+  // The command bytes of slot i start at i * 2 * MAX_APDU_LENGTH, followed by the response bytes.
+  private final byte[] apduBytes;
+  // Sequence + 1 of the record published in each slot, 0 if none.
+  private final AtomicLongArray publishedSequences;
+
+  // Next sequence to be claimed by a producer.
+  private final AtomicLong writeSequence = new AtomicLong();
+  // Next sequence to be written to the file, only updated by the flushing thread.
+  private volatile long readSequence;
+  private final AtomicLong nbLostApdus = new AtomicLong();
+
+  // Guarded by itself.
+  private final List<TracedReaderInfo> readers = new ArrayList<TracedReaderInfo>();
+
+  // Only used by the flushing thread, then by close().
+  private final DataOutputStream out;
+  private int nbReadersWritten;
+  private long nbLostApdusWritten;
+  private boolean isWriteFailed;
+
+  private final ScheduledExecutorService flushExecutor;
+
+  /**
+   * Constructor.
+   *
+   * <p>Creates the trace file, allocates the ring buffer and starts the background thread.
+   *
+   * @param fileName The name of the trace file, overwritten if it exists.
+   * @param capacity The number of APDUs the ring buffer can hold, rounded up to a power of two.
+   *     Each slot takes about {@code 2 * MAX_APDU_LENGTH} bytes.
+   * @throws IllegalArgumentException If the capacity is not between 1 and 2^20.
+   * @throws IOException If the trace file cannot be created.
+   */
+  public ApduTraceRecorder(String fileName, int capacity) throws IOException {
+    if (capacity <= 0 || capacity > (1 << 20)) {
+      throw new IllegalArgumentException("The capacity must be between 1 and 2^20.");
+    }
+    this.capacity = roundUp(capacity);
+    mask = this.capacity - 1;
+    recordTypes = new byte[this.capacity];
+    readerIds = new int[this.capacity];
+    startNanos = new long[this.capacity];
+    endNanos = new long[this.capacity];
+    infos = new String[this.capacity];
+    commandLengths = new int[this.capacity];
+    responseLengths = new int[this.capacity];
+    apduBytes = new byte[this.capacity * 2 * MAX_APDU_LENGTH];
+    publishedSequences = new AtomicLongArray(this.capacity);
+
+    out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName), 65536));
+    out.writeInt(ApduTraceFile.MAGIC);
+    out.writeShort(ApduTraceFile.VERSION);
+    out.writeLong(System.currentTimeMillis());
+    out.writeLong(System.nanoTime());
+
+    flushExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactory() {
+              @Override
+              public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "apdu-trace-flusher");
+                thread.setDaemon(true);
+                return thread;
+              }
+            });
+    flushExecutor.scheduleWithFixedDelay(
+        new Runnable() {
+          @Override
+          public void run() {
+            flush();
+          }
+        },
+        FLUSH_PERIOD_MILLIS,
+        FLUSH_PERIOD_MILLIS,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Rounds a capacity up to the next power of two.
+   *
+   * @param capacity The requested capacity.
+   * @return A power of two.
+   */
+  private static int roundUp(int capacity) {
+    int powerOfTwo = Integer.highestOneBit(capacity);
+    return powerOfTwo == capacity ? capacity : powerOfTwo << 1;
+  }
+
+  /**
+   * Decorates a card reader to record its APDUs.
+   *
+   * @param cardReader The card reader (a Keyple reader, possibly already decorated).
+   * @return A new decorator to provide to the transaction managers in place of the card reader.
+   * @throws IllegalArgumentException If the reader is not a Keyple reader.
+   */
+  public TracingCardReader traceCardReader(CardReader cardReader) {
+    return new TracingCardReader(cardReader, this, registerReader(cardReader.getName(), false));
+  }
+
+  /**
+   * Decorates a SAM reader to record its APDUs.
+   *
+   * @param samReader The SAM reader (a Keyple reader, possibly already decorated).
+   * @return A new decorator to provide to the security setting in place of the SAM reader.
+   * @throws IllegalArgumentException If the reader is not a Keyple reader.
+   */
+  public TracingCardReader traceSamReader(CardReader samReader) {
+    return new TracingCardReader(samReader, this, registerReader(samReader.getName(), true));
+  }
+
+  /**
+   * Registers a traced reader.
+   *
+   * @param readerName The name of the reader.
+   * @param isSam true if the reader is used to communicate with a SAM.
+   * @return The identifier of the reader in the trace.
+   */
+  private int registerReader(String readerName, boolean isSam) {
+    synchronized (readers) {
+      readers.add(new TracedReaderInfo(readerName, isSam));
+      return readers.size() - 1;
+    }
+  }
+
+  /**
+   * Records the APDUs of a reader exchange.
+   *
+   * <p>All the APDUs of the exchange share its start and end times.
+   *
+   * @param readerId The identifier of the reader.
+   * @param cardRequest The card request.
+   * @param cardResponse The card response, possibly partial, null if none.
+   * @param isInterrupted true if the exchange was interrupted by a communication failure, in which
+   *     case the first unanswered command is recorded with an empty response.
+   * @param exchangeStartNanos The start of the exchange.
+   * @param exchangeEndNanos The end of the exchange.
+   */
+  void recordExchange(
+      int readerId,
+      CardRequestSpi cardRequest,
+      CardResponseApi cardResponse,
+      boolean isInterrupted,
+      long exchangeStartNanos,
+      long exchangeEndNanos) {
+    List<ApduRequestSpi> apduRequests = cardRequest.getApduRequests();
+    List<ApduResponseApi> apduResponses =
+        cardResponse != null ? cardResponse.getApduResponses() : null;
+    int nbResponses = apduResponses != null ? apduResponses.size() : 0;
+    for (int i = 0; i < nbResponses; i++) {
+      ApduRequestSpi apduRequest = apduRequests.get(i);
+      record(
+          ApduTraceFile.RECORD_APDU,
+          readerId,
+          exchangeStartNanos,
+          exchangeEndNanos,
+          apduRequest.getInfo(),
+          apduRequest.getApdu(),
+          apduResponses.get(i).getApdu());
+    }
+    if (isInterrupted && nbResponses < apduRequests.size()) {
+      ApduRequestSpi apduRequest = apduRequests.get(nbResponses);
+      record(
+          ApduTraceFile.RECORD_APDU,
+          readerId,
+          exchangeStartNanos,
+          exchangeEndNanos,
+          apduRequest.getInfo(),
+          apduRequest.getApdu(),
+          null);
+    }
+  }
+
+  /**
+   * Records the result of a card selection.
+   *
+   * @param readerId The identifier of the reader.
+   * @param selectionStartNanos The start of the selection.
+   * @param selectionEndNanos The end of the selection.
+   * @param powerOnData The power-on data of the card.
+   * @param selectApplicationResponse The response to the Select Application command, null if none.
+   */
+  void recordSelection(
+      int readerId,
+      long selectionStartNanos,
+      long selectionEndNanos,
+      byte[] powerOnData,
+      byte[] selectApplicationResponse) {
+    record(
+        ApduTraceFile.RECORD_SELECTION,
+        readerId,
+        selectionStartNanos,
+        selectionEndNanos,
+        null,
+        powerOnData,
+        selectApplicationResponse);
+  }
+
+  /**
+   * Records an APDU or a selection in the ring buffer, or drops it if the buffer is full.
+   *
+   * @param recordType The type of record.
+   * @param readerId The identifier of the reader.
+   * @param exchangeStartNanos The start of the exchange.
+   * @param exchangeEndNanos The end of the exchange.
+   * @param info The description of the APDU, null if unknown.
+   * @param command The command, or the power-on data of a selection.
+   * @param response The response, or the select application response of a selection, null if none.
+   */
+  private void record(
+      byte recordType,
+      int readerId,
+      long exchangeStartNanos,
+      long exchangeEndNanos,
+      String info,
+      byte[] command,
+      byte[] response) {
+    long sequence;
+    do {
+      sequence = writeSequence.get();
+      if (sequence - readSequence >= capacity) {
+        nbLostApdus.incrementAndGet();
+        return;
+      }
+    } while (!writeSequence.compareAndSet(sequence, sequence + 1));
+
+    // The slot is now owned by this thread until it is published.
+    int slot = (int) (sequence & mask);
+    int offset = slot * 2 * MAX_APDU_LENGTH;
+    recordTypes[slot] = recordType;
+    readerIds[slot] = readerId;
+    startNanos[slot] = exchangeStartNanos;
+    endNanos[slot] = exchangeEndNanos;
+    infos[slot] = info;
+    commandLengths[slot] = command.length;
+    System.arraycopy(command, 0, apduBytes, offset, Math.min(command.length, MAX_APDU_LENGTH));
+    if (response != null) {
+      responseLengths[slot] = response.length;
+      System.arraycopy(
+          response,
+          0,
+          apduBytes,
+          offset + MAX_APDU_LENGTH,
+          Math.min(response.length, MAX_APDU_LENGTH));
+    } else {
+      responseLengths[slot] = 0;
+    }
+    publishedSequences.lazySet(slot, sequence + 1);
+  }
+
+  /**
+   * Writes the published records to the trace file, in the order of their sequences.
+   *
+   * <p>Called by the background thread, then once by {@link #close()} after it stopped.
+   */
+  private void flush() {
+    try {
+      long sequence = readSequence;
+      long claimedSequence = writeSequence.get();
+      while (sequence < claimedSequence) {
+        int slot = (int) (sequence & mask);
+        if (publishedSequences.get(slot) != sequence + 1) {
+          // Still being written by a producer, will be written at the next flush.
+          break;
+        }
+        // After a write failure, the ring buffer is still drained so that it never stays full.
+        if (!isWriteFailed) {
+          writeApdu(slot);
+        }
+        infos[slot] = null;
+        sequence++;
+        readSequence = sequence;
+      }
+      long nbLost = nbLostApdus.get();
+      if (!isWriteFailed && nbLost != nbLostApdusWritten) {
+        out.writeByte(ApduTraceFile.RECORD_LOST);
+        out.writeLong(nbLost - nbLostApdusWritten);
+        nbLostApdusWritten = nbLost;
+      }
+      if (!isWriteFailed) {
+        out.flush();
+      }
+    } catch (IOException e) {
+      isWriteFailed = true;
+      logger.error("Failed to write the APDU trace, tracing stopped", e);
+    }
+  }
+
+  /**
+   * Writes the APDU or selection record of a slot, preceded by the records of the readers not
+   * written yet.
+   *
+   * @param slot The slot.
+   * @throws IOException If the write fails.
+   */
+  private void writeApdu(int slot) throws IOException {
+    int readerId = readerIds[slot];
+    if (readerId >= nbReadersWritten) {
+      synchronized (readers) {
+        while (nbReadersWritten < readers.size()) {
+          TracedReaderInfo reader = readers.get(nbReadersWritten);
+          out.writeByte(ApduTraceFile.RECORD_READER);
+          out.writeShort(nbReadersWritten);
+          out.writeByte(reader.isSam ? 1 : 0);
+          out.writeUTF(reader.name);
+          nbReadersWritten++;
+        }
+      }
+    }
+    int offset = slot * 2 * MAX_APDU_LENGTH;
+    out.writeByte(recordTypes[slot]);
+    out.writeShort(readerId);
+    out.writeLong(startNanos[slot]);
+    out.writeLong(endNanos[slot]);
+    out.writeUTF(infos[slot] != null ? infos[slot] : "");
+    writeBytes(commandLengths[slot], offset);
+    writeBytes(responseLengths[slot], offset + MAX_APDU_LENGTH);
+  }
+
+  /**
+   * Writes the length and the stored bytes of a command or a response.
+   *
+   * @param length The length of the APDU.
+   * @param offset The offset of the stored bytes.
+   * @throws IOException If the write fails.
+   */
+  private void writeBytes(int length, int offset) throws IOException {
+    int nbStoredBytes = Math.min(length, MAX_APDU_LENGTH);
+    out.writeInt(length);
+    out.writeInt(nbStoredBytes);
+    out.write(apduBytes, offset, nbStoredBytes);
+  }
+
+  /**
+   * Returns the number of APDUs dropped so far because the ring buffer was full.
+   *
+   * @return A positive number.
+   */
+  public long getNbLostApdus() {
+    return nbLostApdus.get();
+  }
+
+  /**
+   * Stops the background thread, writes the remaining records and closes the trace file.
+   *
+   * <p>The APDUs recorded after the call are lost.
+   *
+   * @throws InterruptedException If the current thread was interrupted while waiting for the
+   *     background thread.
+   */
+  public void close() throws InterruptedException {
+    flushExecutor.shutdown();
+    flushExecutor.awaitTermination(1, TimeUnit.SECONDS);
+    flush();
+    try {
+      out.close();
+    } catch (IOException e) {
+      logger.error("Failed to close the APDU trace", e);
+    }
+  }
+
+  /** A registered reader. */
+  private static final class TracedReaderInfo {
+
+    private final String name;
+    private final boolean isSam;
+
+    /**
+     * Constructor.
+     *
+     * @param name The name of the reader.
+     * @param isSam true if the reader is used to communicate with a SAM.
+     */
+    private TracedReaderInfo(String name, boolean isSam) {
+      this.name = name;
+      this.isSam = isSam;
+    }
+  }
+}
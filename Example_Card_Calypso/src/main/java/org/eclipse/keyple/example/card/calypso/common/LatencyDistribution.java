@@ -0,0 +1,108 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistical distribution of a simulated latency, used by {@link ApduLatencyModel}.
+ *
+ * <p>Instances are immutable and are created with the static factory methods. The random values are
+ * drawn from the generator provided by the caller, so that a seeded generator produces repeatable
+ * runs.
+ */
+public abstract class LatencyDistribution {
+
+  // Quantile of the standard normal distribution at 99%.
+  private static final double Z_99 = 2.326348;
+
+  /** Constructor */
+  private LatencyDistribution() {}
+
+  /**
+   * Draws a latency.
+   *
+   * @param random The random generator to use.
+   * @return A positive or zero latency, in nanoseconds.
+   */
+  public abstract long nextNanos(Random random);
+
+  /**
+   * Creates a distribution always returning the same latency.
+   *
+   * @param latencyMicros The latency, in microseconds.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the latency is negative.
+   */
+  public static LatencyDistribution fixed(long latencyMicros) {
+    if (latencyMicros < 0) {
+      throw new IllegalArgumentException("The latency must be positive or zero.");
+    }
+    final long latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+    return new LatencyDistribution() {
+      @Override
+      public long nextNanos(Random random) {
+        return latencyNanos;
+      }
+    };
+  }
+
+  /**
+   * Creates a normal (Gaussian) distribution. The negative values are truncated to zero.
+   *
+   * @param meanMicros The mean latency, in microseconds.
+   * @param standardDeviationMicros The standard deviation, in microseconds.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If a value is negative.
+   */
+  public static LatencyDistribution normal(long meanMicros, long standardDeviationMicros) {
+    if (meanMicros < 0 || standardDeviationMicros < 0) {
+      throw new IllegalArgumentException("The mean and the standard deviation must be positive.");
+    }
+    final long meanNanos = TimeUnit.MICROSECONDS.toNanos(meanMicros);
+    final long standardDeviationNanos = TimeUnit.MICROSECONDS.toNanos(standardDeviationMicros);
+    return new LatencyDistribution() {
+      @Override
+      public long nextNanos(Random random) {
+        return Math.max(0, meanNanos + (long) (standardDeviationNanos * random.nextGaussian()));
+      }
+    };
+  }
+
+  /**
+   * Creates a long-tail (log-normal) distribution defined by its median and its 99th percentile,
+   * reproducing the occasional slow exchanges observed with real readers (e.g. RF retries or card
+   * anti-tearing processing).
+   *
+   * @param medianMicros The median latency, in microseconds.
+   * @param p99Micros The 99th percentile latency, in microseconds.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the median is not strictly positive or if the 99th
+   *     percentile is less than the median.
+   */
+  public static LatencyDistribution longTail(long medianMicros, long p99Micros) {
+    if (medianMicros <= 0 || p99Micros < medianMicros) {
+      throw new IllegalArgumentException(
+          "The median must be strictly positive and less than or equal to the 99th percentile.");
+    }
+    final double medianNanos = TimeUnit.MICROSECONDS.toNanos(medianMicros);
+    final double sigma = Math.log((double) p99Micros / medianMicros) / Z_99;
+    return new LatencyDistribution() {
+      @Override
+      public long nextNanos(Random random) {
+        return (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+      }
+    };
+  }
+}
@@ -0,0 +1,195 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.eclipse.keypop.card.CardBrokenCommunicationException;
+import org.eclipse.keypop.card.CardResponseApi;
+import org.eclipse.keypop.card.ChannelControl;
+import org.eclipse.keypop.card.ProxyReaderApi;
+import org.eclipse.keypop.card.ReaderBrokenCommunicationException;
+import org.eclipse.keypop.card.UnexpectedStatusWordException;
+import org.eclipse.keypop.card.spi.ApduRequestSpi;
+import org.eclipse.keypop.card.spi.CardRequestSpi;
+import org.eclipse.keypop.reader.CardReader;
+
+/**
+ * Card reader decorator adding a simulated transmission time to each APDU exchanged with the card.
+ *
+ * <p>The Stub plugin answers every simulated APDU instantly. Wrapping a stub reader with this
+ * decorator makes it possible to reproduce the timing of a real reader when measuring the
+ * performance of a transaction without any hardware.
+ *
+ * <p>The timing is defined by an {@link ApduLatencyModel}: a cost per card exchange (i.e. per card
+ * request, whatever the number of APDUs it contains), which represents the round trip overhead of
+ * the reader, and a processing time per APDU depending on its instruction byte, each one following
+ * a fixed, normal or long-tail distribution. The decorator also counts the exchanges and the APDUs
+ * transmitted.
+ *
+ * <p>The decorator must be provided to the transaction managers (card or SAM side) in place of the
+ * wrapped reader. The card selection must still be done with the wrapped reader.
+ */
+public class LatencyInjectingCardReader implements CardReader, ProxyReaderApi {
+
+  private final CardReader cardReader;
+  private final ProxyReaderApi proxyReader;
+  private final ApduLatencyModel latencyModel;
+  private final Random random;
+  private final AtomicLong exchangeCount = new AtomicLong();
+  private final AtomicLong apduCount = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param cardReader The reader to decorate, provided by the Keyple service.
+   * @param apduLatencyMicros The simulated transmission time of each APDU, in microseconds.
+   * @throws IllegalArgumentException If the reader is not a Keyple reader or if the latency is
+   *     negative.
+   */
+  public LatencyInjectingCardReader(CardReader cardReader, long apduLatencyMicros) {
+    this(cardReader, apduLatencyMicros, 0);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param cardReader The reader to decorate, provided by the Keyple service.
+   * @param apduLatencyMicros The simulated transmission time of each APDU, in microseconds.
+   * @param exchangeLatencyMicros The simulated fixed cost of each card exchange, in microseconds.
+   * @throws IllegalArgumentException If the reader is not a Keyple reader or if a latency is
+   *     negative.
+   */
+  public LatencyInjectingCardReader(
+      CardReader cardReader, long apduLatencyMicros, long exchangeLatencyMicros) {
+    this(cardReader, ApduLatencyModel.fixed(apduLatencyMicros, exchangeLatencyMicros));
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param cardReader The reader to decorate, provided by the Keyple service.
+   * @param latencyModel The timing model of the card.
+   * @throws IllegalArgumentException If the reader is not a Keyple reader or if the model is null.
+   */
+  public LatencyInjectingCardReader(CardReader cardReader, ApduLatencyModel latencyModel) {
+    if (!(cardReader instanceof ProxyReaderApi)) {
+      throw new IllegalArgumentException("The provided reader must implement 'ProxyReaderApi'.");
+    }
+    if (latencyModel == null) {
+      throw new IllegalArgumentException("The latency model must not be null.");
+    }
+    this.cardReader = cardReader;
+    this.proxyReader = (ProxyReaderApi) cardReader;
+    this.latencyModel = latencyModel;
+    this.random = latencyModel.newRandom(cardReader.getName());
+  }
+
+  /**
+   * Returns the number of card exchanges (round trips) transmitted since the creation or the last
+   * reset.
+   *
+   * @return A positive or zero value.
+   */
+  public long getExchangeCount() {
+    return exchangeCount.get();
+  }
+
+  /**
+   * Returns the number of APDUs exchanged since the creation or the last reset.
+   *
+   * @return A positive or zero value.
+   */
+  public long getApduCount() {
+    return apduCount.get();
+  }
+
+  /** Resets the exchange and APDU counters. */
+  public void resetCounters() {
+    exchangeCount.set(0);
+    apduCount.set(0);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String getName() {
+    return cardReader.getName();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isContactless() {
+    return cardReader.isContactless();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isCardPresent() {
+    return cardReader.isCardPresent();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The request is transmitted to the wrapped reader, then the calling thread is paused during
+   * the simulated cost of the exchange and the simulated transmission time of each APDU exchanged.
+   */
+  @Override
+  public CardResponseApi transmitCardRequest(
+      CardRequestSpi cardRequest, ChannelControl channelControl)
+      throws ReaderBrokenCommunicationException,
+          CardBrokenCommunicationException,
+          UnexpectedStatusWordException {
+    CardResponseApi cardResponse;
+    try {
+      cardResponse = proxyReader.transmitCardRequest(cardRequest, channelControl);
+    } catch (UnexpectedStatusWordException e) {
+      if (e.getCardResponse() != null) {
+        pause(cardRequest, e.getCardResponse().getApduResponses().size());
+      }
+      throw e;
+    }
+    pause(cardRequest, cardResponse.getApduResponses().size());
+    return cardResponse;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void releaseChannel() throws ReaderBrokenCommunicationException {
+    proxyReader.releaseChannel();
+  }
+
+  /**
+   * Updates the counters and pauses the current thread during the simulated cost of the exchange of
+   * the first APDUs of the provided card request.
+   *
+   * @param cardRequest The card request.
+   * @param nbApdus The number of APDUs actually exchanged.
+   */
+  private void pause(CardRequestSpi cardRequest, int nbApdus) {
+    exchangeCount.incrementAndGet();
+    apduCount.addAndGet(nbApdus);
+    long latencyNanos = latencyModel.nextExchangeLatencyNanos(random);
+    List<ApduRequestSpi> apduRequests = cardRequest.getApduRequests();
+    for (int i = 0; i < nbApdus; i++) {
+      latencyNanos += latencyModel.nextApduLatencyNanos(apduRequests.get(i).getApdu(), random);
+    }
+    long deadline = System.nanoTime() + latencyNanos;
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import org.eclipse.keypop.card.CardBrokenCommunicationException;
+import org.eclipse.keypop.card.CardResponseApi;
+import org.eclipse.keypop.card.ChannelControl;
+import org.eclipse.keypop.card.ProxyReaderApi;
+import org.eclipse.keypop.card.ReaderBrokenCommunicationException;
+import org.eclipse.keypop.card.UnexpectedStatusWordException;
+import org.eclipse.keypop.card.spi.CardRequestSpi;
+import org.eclipse.keypop.reader.CardReader;
+
+/**
+ * Card reader decorator recording the duration, the APDUs and the bytes of each exchange in the
+ * {@link TransactionMetrics}.
+ *
+ * <p>As the transaction managers and the security settings send all their commands through the
+ * reader they were created with, decorating the card and SAM readers is enough to instrument all
+ * the phases of a transaction, whatever the transaction manager used. The decorator must be
+ * provided to the transaction managers (card side) or to the security setting (SAM side) in place
+ * of the wrapped reader; the card selection must still be done with the wrapped reader.
+ *
+ * <p>The decorators are created with {@link TransactionMetrics#meterCardReader(CardReader)} and
+ * {@link TransactionMetrics#meterSamReader(CardReader)}. They can wrap a {@link
+ * LatencyInjectingCardReader}.
+ */
+public class MeteredCardReader implements CardReader, ProxyReaderApi {
+
+  private final CardReader cardReader;
+  private final ProxyReaderApi proxyReader;
+  private final TransactionMetrics metrics;
+  private final boolean isSam;
+
+  /**
+   * Constructor.
+   *
+   * @param cardReader The reader to decorate.
+   * @param metrics The metrics.
+   * @param isSam true if the reader is used to communicate with a SAM.
+   * @throws IllegalArgumentException If the reader is not a Keyple reader.
+   */
+  MeteredCardReader(CardReader cardReader, TransactionMetrics metrics, boolean isSam) {
+    if (!(cardReader instanceof ProxyReaderApi)) {
+      throw new IllegalArgumentException("The provided reader must implement 'ProxyReaderApi'.");
+    }
+    this.cardReader = cardReader;
+    this.proxyReader = (ProxyReaderApi) cardReader;
+    this.metrics = metrics;
+    this.isSam = isSam;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String getName() {
+    return cardReader.getName();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isContactless() {
+    return cardReader.isContactless();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isCardPresent() {
+    return cardReader.isCardPresent();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The request is transmitted to the wrapped reader and the exchange is recorded, including
+   * when the card answers with an unexpected status word.
+   */
+  @Override
+  public CardResponseApi transmitCardRequest(
+      CardRequestSpi cardRequest, ChannelControl channelControl)
+      throws ReaderBrokenCommunicationException,
+          CardBrokenCommunicationException,
+          UnexpectedStatusWordException {
+    if (!metrics.isEnabled()) {
+      return proxyReader.transmitCardRequest(cardRequest, channelControl);
+    }
+    long start = System.nanoTime();
+    CardResponseApi cardResponse;
+    try {
+      cardResponse = proxyReader.transmitCardRequest(cardRequest, channelControl);
+    } catch (UnexpectedStatusWordException e) {
+      metrics.recordExchange(cardRequest, e.getCardResponse(), System.nanoTime() - start, isSam);
+      throw e;
+    }
+    metrics.recordExchange(cardRequest, cardResponse, System.nanoTime() - start, isSam);
+    return cardResponse;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void releaseChannel() throws ReaderBrokenCommunicationException {
+    proxyReader.releaseChannel();
+  }
+}
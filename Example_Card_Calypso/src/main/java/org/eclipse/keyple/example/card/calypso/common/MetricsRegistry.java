@@ -0,0 +1,71 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+/**
+ * Registry of the timers and counters recorded by the instrumented transactions.
+ *
+ * <p>The instruments are identified by a metric name and a single label, and are meant to be looked
+ * up once, when the instrumentation is set up, then recorded on the hot path. Recording must be
+ * thread-safe.
+ *
+ * <p>Two implementations are provided: {@link NoOpMetricsRegistry}, whose instruments do nothing,
+ * and {@link PrometheusMetricsRegistry}, which exports the values in the Prometheus text format.
+ * Another implementation may bridge the instruments to a monitoring library of the application.
+ */
+public interface MetricsRegistry {
+
+  /**
+   * Returns the timer identified by a metric name and a label, creating it if needed.
+   *
+   * @param name The metric name, e.g. "calypso_transaction_phase_seconds".
+   * @param help The description of the metric.
+   * @param labelName The name of the label, e.g. "phase".
+   * @param labelValue The value of the label, e.g. "open_session".
+   * @return A not null reference.
+   */
+  Timer timer(String name, String help, String labelName, String labelValue);
+
+  /**
+   * Returns the counter identified by a metric name and a label, creating it if needed.
+   *
+   * @param name The metric name, e.g. "calypso_apdus_total".
+   * @param help The description of the metric.
+   * @param labelName The name of the label, e.g. "reader".
+   * @param labelValue The value of the label, e.g. "card".
+   * @return A not null reference.
+   */
+  Counter counter(String name, String help, String labelName, String labelValue);
+
+  /** A timer recording durations. */
+  interface Timer {
+
+    /**
+     * Records a duration.
+     *
+     * @param durationNanos The duration, in nanoseconds.
+     */
+    void record(long durationNanos);
+  }
+
+  /** A monotonic counter. */
+  interface Counter {
+
+    /**
+     * Increments the counter.
+     *
+     * @param amount The positive or zero amount to add.
+     */
+    void increment(long amount);
+  }
+}
@@ -0,0 +1,57 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+/**
+ * Metrics registry discarding all the values.
+ *
+ * <p>All the instruments are shared stateless instances, so that the instrumentation neither
+ * allocates nor computes anything on the hot path when the metrics are disabled (see {@link
+ * TransactionMetrics#isEnabled()}).
+ */
+public final class NoOpMetricsRegistry implements MetricsRegistry {
+
+  /** The unique instance. */
+  public static final NoOpMetricsRegistry INSTANCE = new NoOpMetricsRegistry();
+
+  private static final Timer NO_OP_TIMER =
+      new Timer() {
+        @Override
+        public void record(long durationNanos) {
+          // Nothing to record.
+        }
+      };
+
+  private static final Counter NO_OP_COUNTER =
+      new Counter() {
+        @Override
+        public void increment(long amount) {
+          // Nothing to record.
+        }
+      };
+
+  /** Constructor */
+  private NoOpMetricsRegistry() {}
+
+  /** {@inheritDoc} */
+  @Override
+  public Timer timer(String name, String help, String labelName, String labelValue) {
+    return NO_OP_TIMER;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Counter counter(String name, String help, String labelName, String labelValue) {
+    return NO_OP_COUNTER;
+  }
+}
@@ -0,0 +1,226 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory metrics registry exporting its values in the Prometheus text exposition format.
+ *
+ * <p>The timers are exported as histograms in seconds, with fixed buckets from 1 ms to 1 s suited
+ * to the card exchanges, and the counters as counters. The recording is lock-free and does not
+ * allocate; only the creation of the instruments and {@link #scrape()} are synchronized.
+ *
+ * <p>The text returned by {@link #scrape()} can be logged, written to a file read by a node
+ * exporter, or served on a "/metrics" endpoint.
+ */
+public class PrometheusMetricsRegistry implements MetricsRegistry {
+
+  private static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000};
+  private static final String HISTOGRAM = "histogram";
+  private static final String COUNTER = "counter";
+
+  // Guarded by this.
+  private final Map<String, Family> families = new LinkedHashMap<String, Family>();
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized Timer timer(String name, String help, String labelName, String labelValue) {
+    Family family = getFamily(name, help, HISTOGRAM);
+    String labels = formatLabel(labelName, labelValue);
+    Object timer = family.instruments.get(labels);
+    if (timer == null) {
+      timer = new HistogramTimer();
+      family.instruments.put(labels, timer);
+    }
+    return (Timer) timer;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized Counter counter(
+      String name, String help, String labelName, String labelValue) {
+    Family family = getFamily(name, help, COUNTER);
+    String labels = formatLabel(labelName, labelValue);
+    Object counter = family.instruments.get(labels);
+    if (counter == null) {
+      counter = new AtomicCounter();
+      family.instruments.put(labels, counter);
+    }
+    return (Counter) counter;
+  }
+
+  /**
+   * Returns the current values of all the instruments in the Prometheus text exposition format.
+   *
+   * @return A not null string, empty if no instrument was created.
+   */
+  public synchronized String scrape() {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, Family> familyEntry : families.entrySet()) {
+      String name = familyEntry.getKey();
+      Family family = familyEntry.getValue();
+      sb.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+      sb.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+      for (Map.Entry<String, Object> instrumentEntry : family.instruments.entrySet()) {
+        String labels = instrumentEntry.getKey();
+        Object instrument = instrumentEntry.getValue();
+        if (instrument instanceof HistogramTimer) {
+          ((HistogramTimer) instrument).appendTo(sb, name, labels);
+        } else {
+          sb.append(name)
+              .append('{')
+              .append(labels)
+              .append("} ")
+              .append(((AtomicCounter) instrument).value.get())
+              .append('\n');
+        }
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Returns the family of a metric name, creating it if needed. The lock must be held.
+   *
+   * @param name The metric name.
+   * @param help The description of the metric.
+   * @param type The Prometheus type of the metric.
+   * @return A not null reference.
+   * @throws IllegalArgumentException If the name is already used by a metric of another type.
+   */
+  private Family getFamily(String name, String help, String type) {
+    Family family = families.get(name);
+    if (family == null) {
+      family = new Family(help, type);
+      families.put(name, family);
+    } else if (!family.type.equals(type)) {
+      throw new IllegalArgumentException(
+          "The metric " + name + " is already registered as a " + family.type);
+    }
+    return family;
+  }
+
+  /**
+   * Formats a label as expected by the Prometheus text format.
+   *
+   * @param labelName The name of the label.
+   * @param labelValue The value of the label.
+   * @return The label, e.g. {@code phase="open_session"}.
+   */
+  private static String formatLabel(String labelName, String labelValue) {
+    return labelName
+        + "=\""
+        + labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+        + '"';
+  }
+
+  /** The instruments sharing a metric name. */
+  private static final class Family {
+
+    private final String help;
+    private final String type;
+    private final Map<String, Object> instruments = new LinkedHashMap<String, Object>();
+
+    /**
+     * Constructor.
+     *
+     * @param help The description of the metric.
+     * @param type The Prometheus type of the metric.
+     */
+    private Family(String help, String type) {
+      this.help = help;
+      this.type = type;
+    }
+  }
+
+  /** A timer exported as a histogram. */
+  private static final class HistogramTimer implements Timer {
+
+    // The last bucket counts the durations above the highest bound.
+    private final AtomicLongArray bucketCounts =
+        new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumNanos = new AtomicLong();
+
+    /** {@inheritDoc} */
+    @Override
+    public void record(long durationNanos) {
+      int bucket = 0;
+      while (bucket < BUCKET_BOUNDS_MILLIS.length
+          && durationNanos > TimeUnit.MILLISECONDS.toNanos(BUCKET_BOUNDS_MILLIS[bucket])) {
+        bucket++;
+      }
+      bucketCounts.incrementAndGet(bucket);
+      count.incrementAndGet();
+      sumNanos.addAndGet(durationNanos);
+    }
+
+    /**
+     * Appends the lines of the histogram.
+     *
+     * @param sb The target.
+     * @param name The metric name.
+     * @param labels The formatted label.
+     */
+    private void appendTo(StringBuilder sb, String name, String labels) {
+      long cumulativeCount = 0;
+      for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+        cumulativeCount += bucketCounts.get(i);
+        sb.append(name)
+            .append("_bucket{")
+            .append(labels)
+            .append(",le=\"")
+            .append(BUCKET_BOUNDS_MILLIS[i] / 1000.0)
+            .append("\"} ")
+            .append(cumulativeCount)
+            .append('\n');
+      }
+      cumulativeCount += bucketCounts.get(BUCKET_BOUNDS_MILLIS.length);
+      sb.append(name)
+          .append("_bucket{")
+          .append(labels)
+          .append(",le=\"+Inf\"} ")
+          .append(cumulativeCount)
+          .append('\n');
+      sb.append(name)
+          .append("_sum{")
+          .append(labels)
+          .append("} ")
+          .append(sumNanos.get() / 1e9)
+          .append('\n');
+      sb.append(name)
+          .append("_count{")
+          .append(labels)
+          .append("} ")
+          .append(count.get())
+          .append('\n');
+    }
+  }
+
+  /** A counter. */
+  private static final class AtomicCounter implements Counter {
+
+    private final AtomicLong value = new AtomicLong();
+
+    /** {@inheritDoc} */
+    @Override
+    public void increment(long amount) {
+      value.addAndGet(amount);
+    }
+  }
+}
@@ -0,0 +1,246 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.eclipse.keypop.card.ApduResponseApi;
+import org.eclipse.keypop.card.CardBrokenCommunicationException;
+import org.eclipse.keypop.card.CardResponseApi;
+import org.eclipse.keypop.card.ChannelControl;
+import org.eclipse.keypop.card.ProxyReaderApi;
+import org.eclipse.keypop.card.ReaderBrokenCommunicationException;
+import org.eclipse.keypop.card.UnexpectedStatusWordException;
+import org.eclipse.keypop.card.spi.ApduRequestSpi;
+import org.eclipse.keypop.card.spi.CardRequestSpi;
+import org.eclipse.keypop.reader.CardReader;
+
+/**
+ * Card reader answering the APDUs with the responses and latencies of a recorded trace, without any
+ * card or underlying reader.
+ *
+ * <p>The readers are created by {@link TraceReplay#createCardReader(String)} and {@link
+ * TraceReplay#createSamReader(String)}, and are provided to the transaction managers (card side) or
+ * to the security setting (SAM side) in place of a real reader. Several readers can replay the same
+ * trace concurrently.
+ *
+ * <p>As a real reader, the replay reader throws an {@link UnexpectedStatusWordException} when a
+ * status word is not one of the expected ones and the request requires to stop in this case.
+ */
+public class ReplayCardReader implements CardReader, ProxyReaderApi {
+
+  private static final byte[] SW_INS_NOT_SUPPORTED = {(byte) 0x6D, (byte) 0x00};
+
+  private final String name;
+  private final boolean isContactless;
+  private final TraceReplay.ResponseIndex responseIndex;
+  private final AtomicLong nbExactMatches = new AtomicLong();
+  private final AtomicLong nbHeaderMatches = new AtomicLong();
+  private final AtomicLong nbMisses = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param name The name of the reader.
+   * @param isContactless true for a card reader, false for a SAM reader.
+   * @param responseIndex The recorded responses.
+   */
+  ReplayCardReader(String name, boolean isContactless, TraceReplay.ResponseIndex responseIndex) {
+    this.name = name;
+    this.isContactless = isContactless;
+    this.responseIndex = responseIndex;
+  }
+
+  /**
+   * Returns the number of commands answered with a response recorded for the exact same command.
+   *
+   * @return A positive number.
+   */
+  public long getNbExactMatches() {
+    return nbExactMatches.get();
+  }
+
+  /**
+   * Returns the number of commands answered with a response recorded for another command with the
+   * same header.
+   *
+   * @return A positive number.
+   */
+  public long getNbHeaderMatches() {
+    return nbHeaderMatches.get();
+  }
+
+  /**
+   * Returns the number of commands absent from the trace, answered with the status word 6D00h.
+   *
+   * @return A positive number.
+   */
+  public long getNbMisses() {
+    return nbMisses.get();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isContactless() {
+    return isContactless;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isCardPresent() {
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Each APDU is answered from the trace, then the thread waits for the sum of the recorded
+   * latencies of the answered APDUs.
+   */
+  @Override
+  public CardResponseApi transmitCardRequest(
+      CardRequestSpi cardRequest, ChannelControl channelControl)
+      throws ReaderBrokenCommunicationException,
+          CardBrokenCommunicationException,
+          UnexpectedStatusWordException {
+    List<ApduRequestSpi> apduRequests = cardRequest.getApduRequests();
+    List<ApduResponseApi> apduResponses = new ArrayList<ApduResponseApi>(apduRequests.size());
+    boolean isLogicalChannelOpen = channelControl == ChannelControl.KEEP_OPEN;
+    long latencyNanos = 0;
+    for (ApduRequestSpi apduRequest : apduRequests) {
+      byte[] command = apduRequest.getApdu();
+      TraceReplay.RecordedResponse recordedResponse = responseIndex.findByCommand(command);
+      if (recordedResponse != null) {
+        nbExactMatches.incrementAndGet();
+      } else {
+        recordedResponse = responseIndex.findByHeader(command);
+        if (recordedResponse != null) {
+          nbHeaderMatches.incrementAndGet();
+        } else {
+          nbMisses.incrementAndGet();
+        }
+      }
+      ReplayedApduResponse apduResponse;
+      if (recordedResponse != null) {
+        apduResponse = new ReplayedApduResponse(recordedResponse.response);
+        latencyNanos += recordedResponse.latencyNanos;
+      } else {
+        apduResponse = new ReplayedApduResponse(SW_INS_NOT_SUPPORTED);
+      }
+      apduResponses.add(apduResponse);
+      if (cardRequest.stopOnUnsuccessfulStatusWord()
+          && !apduRequest.getSuccessfulStatusWords().contains(apduResponse.getStatusWord())) {
+        pause(latencyNanos);
+        throw new UnexpectedStatusWordException(
+            new ReplayedCardResponse(apduResponses, isLogicalChannelOpen),
+            apduResponses.size() == apduRequests.size(),
+            "Unexpected status word.");
+      }
+    }
+    pause(latencyNanos);
+    return new ReplayedCardResponse(apduResponses, isLogicalChannelOpen);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void releaseChannel() throws ReaderBrokenCommunicationException {
+    // No physical channel.
+  }
+
+  /**
+   * Waits for the replayed latency.
+   *
+   * @param latencyNanos The latency.
+   */
+  private static void pause(long latencyNanos) {
+    long deadline = System.nanoTime() + latencyNanos;
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(remaining);
+    }
+  }
+
+  /** A replayed APDU response. */
+  private static final class ReplayedApduResponse implements ApduResponseApi {
+
+    private final byte[] apdu;
+
+    /**
+     * Constructor.
+     *
+     * @param apdu The response, including the status word.
+     */
+    private ReplayedApduResponse(byte[] apdu) {
+      this.apdu = apdu;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public byte[] getApdu() {
+      return apdu;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public byte[] getDataOut() {
+      byte[] dataOut = new byte[apdu.length - 2];
+      System.arraycopy(apdu, 0, dataOut, 0, dataOut.length);
+      return dataOut;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getStatusWord() {
+      return ((apdu[apdu.length - 2] & 0xFF) << 8) | (apdu[apdu.length - 1] & 0xFF);
+    }
+  }
+
+  /** A replayed card response. */
+  private static final class ReplayedCardResponse implements CardResponseApi {
+
+    private final List<ApduResponseApi> apduResponses;
+    private final boolean isLogicalChannelOpen;
+
+    /**
+     * Constructor.
+     *
+     * @param apduResponses The APDU responses.
+     * @param isLogicalChannelOpen true if the logical channel is left open.
+     */
+    private ReplayedCardResponse(
+        List<ApduResponseApi> apduResponses, boolean isLogicalChannelOpen) {
+      this.apduResponses = apduResponses;
+      this.isLogicalChannelOpen = isLogicalChannelOpen;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<ApduResponseApi> getApduResponses() {
+      return apduResponses;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isLogicalChannelOpen() {
+      return isLogicalChannelOpen;
+    }
+  }
+}
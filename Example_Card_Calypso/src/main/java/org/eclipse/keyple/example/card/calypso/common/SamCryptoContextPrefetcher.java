@@ -0,0 +1,290 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the crypto contexts of a set of SAMs ready for the next transactions.
+ *
+ * <p>Instead of calling {@link
+ * SymmetricCryptoSecuritySetting#initCryptoContextForNextTransaction()} synchronously at the end of
+ * each transaction, the security setting is given back to the prefetcher with {@link
+ * #release(PrefetchedCryptoContext)}, which preloads the SAM challenge in the background and then
+ * puts the security setting back in the queue of ready contexts. A transaction starting when a card
+ * is detected (e.g. on a CARD_MATCHED event) gets a ready context immediately with {@link
+ * #acquire(long)}, as long as the SAM had time to prepare it.
+ *
+ * <p>A SAM only keeps its last challenge, so at most one context per SAM can be prepared in
+ * advance: the queue of ready contexts is therefore bounded by the number of SAMs.
+ *
+ * <p>When a SAM is removed, {@link #removeSam(String)} invalidates its context, whether it is
+ * ready, being prepared or in use.
+ *
+ * <p>A {@link PrefetchListener} may take over the contexts once prepared instead of the queue, e.g.
+ * to choose the SAM of each transaction itself (see {@link AffinitySamPool}).
+ */
+public class SamCryptoContextPrefetcher {
+  private static final Logger logger = LoggerFactory.getLogger(SamCryptoContextPrefetcher.class);
+
+  private final BlockingQueue<PrefetchedCryptoContext> readyContexts =
+      new LinkedBlockingQueue<PrefetchedCryptoContext>();
+  private final Map<String, PrefetchedCryptoContext> contextsBySamReaderName =
+      new ConcurrentHashMap<String, PrefetchedCryptoContext>();
+  private final ExecutorService executorService;
+  private final PrefetchListener prefetchListener;
+
+  /** Receives the contexts prepared in the background, instead of the queue of ready contexts. */
+  public interface PrefetchListener {
+
+    /**
+     * Called from a background thread when the context of a SAM is ready for a transaction.
+     *
+     * @param context The context.
+     */
+    void onContextReady(PrefetchedCryptoContext context);
+
+    /**
+     * Called from a background thread when the context of a SAM could not be prepared, once the SAM
+     * has been removed from the prefetcher.
+     *
+     * @param context The invalidated context.
+     */
+    void onContextFailed(PrefetchedCryptoContext context);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param nbThreads The number of background threads preparing the contexts, usually the number of
+   *     SAMs.
+   */
+  public SamCryptoContextPrefetcher(int nbThreads) {
+    this(nbThreads, null);
+  }
+
+  /**
+   * Constructor providing the contexts to a listener as soon as they are ready.
+   *
+   * <p>The contexts are then not queued: {@link #acquire(long)} must not be used.
+   *
+   * @param nbThreads The number of background threads preparing the contexts, usually the number of
+   *     SAMs.
+   * @param prefetchListener The listener of the prepared contexts, null to queue them.
+   */
+  public SamCryptoContextPrefetcher(int nbThreads, PrefetchListener prefetchListener) {
+    executorService = Executors.newFixedThreadPool(nbThreads);
+    this.prefetchListener = prefetchListener;
+  }
+
+  /**
+   * Adds a SAM to the prefetcher and starts the preparation of its first context.
+   *
+   * @param samReaderName The name of the reader of the SAM, used to identify it.
+   * @param securitySetting The security setting dedicated to this SAM. It must no longer be used
+   *     outside the prefetcher.
+   * @return The context of the SAM, provided to the transactions once ready.
+   * @throws IllegalStateException If a SAM is already registered with the same reader name.
+   */
+  public PrefetchedCryptoContext addSam(
+      String samReaderName, SymmetricCryptoSecuritySetting securitySetting) {
+    return addSam(samReaderName, securitySetting, false);
+  }
+
+  /**
+   * Adds a SAM to the prefetcher, whose security setting may already be ready for a transaction.
+   *
+   * <p>A security setting whose crypto context has already been initialized (e.g. by {@link
+   * ValidationTransactionUtil#createSecuritySetting}) is provided as is, without loading a second
+   * SAM challenge that would be lost.
+   *
+   * @param samReaderName The name of the reader of the SAM, used to identify it.
+   * @param securitySetting The security setting dedicated to this SAM. It must no longer be used
+   *     outside the prefetcher.
+   * @param isContextReady true if the crypto context of the security setting is already
+   *     initialized, false to initialize it in the background.
+   * @return The context of the SAM, provided to the transactions once ready.
+   * @throws IllegalStateException If a SAM is already registered with the same reader name.
+   */
+  public PrefetchedCryptoContext addSam(
+      String samReaderName,
+      SymmetricCryptoSecuritySetting securitySetting,
+      boolean isContextReady) {
+    PrefetchedCryptoContext context = new PrefetchedCryptoContext(samReaderName, securitySetting);
+    if (contextsBySamReaderName.putIfAbsent(samReaderName, context) != null) {
+      throw new IllegalStateException("A SAM is already registered for reader " + samReaderName);
+    }
+    prefetch(context, isContextReady);
+    return context;
+  }
+
+  /**
+   * Removes a SAM and invalidates its context.
+   *
+   * <p>If the context is being used by a transaction, it will not be given back to the queue when
+   * released.
+   *
+   * @param samReaderName The name of the reader of the SAM.
+   */
+  public void removeSam(String samReaderName) {
+    PrefetchedCryptoContext context = contextsBySamReaderName.get(samReaderName);
+    if (context != null) {
+      invalidate(context);
+    }
+  }
+
+  /**
+   * Gets a ready context, waiting if none is available.
+   *
+   * @param timeoutMillis The maximum waiting time, in milliseconds.
+   * @return A context whose SAM challenge is already loaded.
+   * @throws IllegalStateException If no context became ready in time.
+   * @throws InterruptedException If the current thread was interrupted while waiting.
+   */
+  public PrefetchedCryptoContext acquire(long timeoutMillis) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    PrefetchedCryptoContext context;
+    do {
+      context = readyContexts.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      if (context == null) {
+        throw new IllegalStateException("No SAM crypto context ready in time.");
+      }
+      // A context of a removed SAM may have been queued concurrently with its invalidation.
+    } while (!context.isValid);
+    return context;
+  }
+
+  /**
+   * Gives back a context at the end of a transaction (successful or not) and starts the preparation
+   * of the next one in the background.
+   *
+   * @param context The context obtained by {@link #acquire(long)}.
+   */
+  public void release(PrefetchedCryptoContext context) {
+    if (context.isValid) {
+      prefetch(context, false);
+    }
+  }
+
+  /** Stops the background threads and invalidates all the contexts. */
+  public void shutdown() {
+    for (String samReaderName : contextsBySamReaderName.keySet()) {
+      removeSam(samReaderName);
+    }
+    executorService.shutdownNow();
+  }
+
+  /**
+   * Invalidates a context and unregisters its SAM, unless the SAM has since been registered again
+   * with a new context.
+   *
+   * @param context The context to invalidate.
+   */
+  private void invalidate(PrefetchedCryptoContext context) {
+    context.isValid = false;
+    readyContexts.remove(context);
+    if (contextsBySamReaderName.remove(context.samReaderName, context)) {
+      logger.info("SAM context invalidated: {}", context.samReaderName);
+    }
+  }
+
+  /**
+   * Prepares the context in the background then puts it in the queue of ready contexts.
+   *
+   * @param context The context to prepare.
+   * @param isContextReady true if the crypto context is already initialized and only has to be
+   *     provided.
+   */
+  private void prefetch(final PrefetchedCryptoContext context, final boolean isContextReady) {
+    executorService.execute(
+        new Runnable() {
+          @Override
+          public void run() {
+            if (!context.isValid) {
+              return;
+            }
+            if (!isContextReady) {
+              try {
+                context.securitySetting.initCryptoContextForNextTransaction();
+              } catch (RuntimeException e) {
+                logger.error(
+                    "Unable to prepare the crypto context of SAM {}: {}",
+                    context.samReaderName,
+                    e.getMessage());
+                // Only this context is invalidated, the SAM may have been added again meanwhile.
+                invalidate(context);
+                if (prefetchListener != null) {
+                  prefetchListener.onContextFailed(context);
+                }
+                return;
+              }
+            }
+            if (!context.isValid) {
+              return;
+            }
+            if (prefetchListener != null) {
+              prefetchListener.onContextReady(context);
+            } else {
+              readyContexts.add(context);
+            }
+          }
+        });
+  }
+
+  /** A security setting bound to a SAM, whose crypto context is ready for a transaction. */
+  public static final class PrefetchedCryptoContext {
+
+    private final String samReaderName;
+    private final SymmetricCryptoSecuritySetting securitySetting;
+    private volatile boolean isValid = true;
+
+    /**
+     * Constructor.
+     *
+     * @param samReaderName The name of the reader of the SAM.
+     * @param securitySetting The security setting dedicated to the SAM.
+     */
+    private PrefetchedCryptoContext(
+        String samReaderName, SymmetricCryptoSecuritySetting securitySetting) {
+      this.samReaderName = samReaderName;
+      this.securitySetting = securitySetting;
+    }
+
+    /**
+     * Returns the name of the reader of the SAM.
+     *
+     * @return A not null reference.
+     */
+    public String getSamReaderName() {
+      return samReaderName;
+    }
+
+    /**
+     * Returns the security setting to use for the transaction.
+     *
+     * @return A not null reference.
+     */
+    public SymmetricCryptoSecuritySetting getSecuritySetting() {
+      return securitySetting;
+    }
+  }
+}
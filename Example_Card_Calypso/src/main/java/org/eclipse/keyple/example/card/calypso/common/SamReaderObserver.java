@@ -0,0 +1,86 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import org.eclipse.keypop.reader.CardReaderEvent;
+import org.eclipse.keypop.reader.ObservableCardReader;
+import org.eclipse.keypop.reader.spi.CardReaderObservationExceptionHandlerSpi;
+import org.eclipse.keypop.reader.spi.CardReaderObserverSpi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Observes the reader of a SAM registered in a {@link SamCryptoContextPrefetcher} and removes the
+ * SAM from the prefetcher as soon as it is withdrawn, so that no transaction gets a context which
+ * can no longer be used.
+ *
+ * <p>The card processing is never finalized, since it would close the channel opened by the
+ * selection of the SAM: the removal of the SAM is notified while its processing is in progress.
+ */
+public class SamReaderObserver
+    implements CardReaderObserverSpi, CardReaderObservationExceptionHandlerSpi {
+
+  private static final Logger logger = LoggerFactory.getLogger(SamReaderObserver.class);
+
+  private final SamCryptoContextPrefetcher prefetcher;
+  // Only accessed by the observation thread of the reader.
+  private boolean isSamRemoved;
+
+  /**
+   * Constructor.
+   *
+   * @param prefetcher The prefetcher in which the SAM is registered with the name of its reader.
+   */
+  public SamReaderObserver(SamCryptoContextPrefetcher prefetcher) {
+    this.prefetcher = prefetcher;
+  }
+
+  /**
+   * Adds the observer to the reader of the SAM and starts the detection of its removal.
+   *
+   * @param samReader The observable reader of the SAM, the SAM being already selected.
+   */
+  public void observe(ObservableCardReader samReader) {
+    samReader.setReaderObservationExceptionHandler(this);
+    samReader.addObserver(this);
+    samReader.startCardDetection(ObservableCardReader.DetectionMode.REPEATING);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void onReaderEvent(CardReaderEvent event) {
+    switch (event.getType()) {
+      case CARD_INSERTED:
+        if (isSamRemoved) {
+          // The SAM must be selected again before being added back to the prefetcher.
+          logger.warn(
+              "SAM inserted in reader '{}': restart the application to use it",
+              event.getReaderName());
+        }
+        break;
+      case CARD_REMOVED:
+        isSamRemoved = true;
+        logger.warn("SAM removed from reader '{}'", event.getReaderName());
+        prefetcher.removeSam(event.getReaderName());
+        break;
+      default:
+        break;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void onReaderObservationError(String pluginName, String readerName, Throwable e) {
+    logger.error("An exception occurred in plugin '{}', reader '{}'", pluginName, readerName, e);
+  }
+}
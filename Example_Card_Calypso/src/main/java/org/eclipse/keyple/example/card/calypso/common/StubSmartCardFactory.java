@@ -60,6 +60,13 @@ public class StubSmartCardFactory {
           .withSimulatedCommand("808200000487654321", "9000")
           .build();
 
+  // Content of the records returned by the validation card profile.
+  private static final String RECORD_CONTENT =
+      "00112233445566778899AABBCCDDEEFF00112233445566778899AABBCC";
+  // Counter record returned by the validation card profile (counter #1 = 100).
+  private static final String COUNTER_RECORD_CONTENT =
+      "0000640000000000000000000000000000000000000000000000000000";
+
   /** Constructor */
   private StubSmartCardFactory() {}
 
@@ -80,4 +87,135 @@ public static StubSmartCard getStubCard() {
   public static StubSmartCard getStubSam() {
     return stubSam;
   }
+
+  /**
+   * Creates a new stub smart card for a Calypso card able to process the complete embedded
+   * validation transaction (open session in DEBIT mode, reading of the environment, event log,
+   * contract list, contract and counter files, decrease of the counter, appending of an event and
+   * closing of the session).
+   *
+   * <p>The simulated commands are defined by regular expressions in order to remain independent of
+   * the expected lengths and of the SAM challenge.
+   *
+   * <p>A new instance is returned at each call since a stub card cannot be inserted in several
+   * readers at the same time.
+   *
+   * @return A new instance.
+   */
+  public static StubSmartCard createValidationStubCard() {
+    return StubSmartCard.builder()
+        .withPowerOnData(HexUtil.toByteArray(CARD_POWER_ON_DATA))
+        .withProtocol(ISO_CARD_PROTOCOL)
+        // select application
+        .withSimulatedCommand(
+            "00A4040009315449432E4943413100",
+            "6F238409315449432E49434131A516BF0C13C70800000000AABBCCDD53070A3C23051410019000")
+        // open secure session (DEBIT key) + read environment and holder (SFI 07h)
+        .withSimulatedCommand(
+            "008A0B3904[0-9A-F]{8}00", "0308D1810030791D" + RECORD_CONTENT + "9000")
+        // read environment and holder (SFI 07h) out of session
+        .withSimulatedCommand("00B2013C[0-9A-F]{2}", RECORD_CONTENT + "9000")
+        // read event log (SFI 08h)
+        .withSimulatedCommand("00B20144[0-9A-F]{2}", RECORD_CONTENT + "9000")
+        // read contract list (SFI 1Eh)
+        .withSimulatedCommand("00B201F4[0-9A-F]{2}", RECORD_CONTENT + "9000")
+        // read contracts (SFI 09h)
+        .withSimulatedCommand("00B2014C[0-9A-F]{2}", RECORD_CONTENT + "9000")
+        // read counters (SFI 19h)
+        .withSimulatedCommand("00B201CC[0-9A-F]{2}", COUNTER_RECORD_CONTENT + "9000")
+        // decrease counter #1 (SFI 19h)
+        .withSimulatedCommand("003001C803[0-9A-F]{6}00", "0000639000")
+        // append record in event log (SFI 08h)
+        .withSimulatedCommand("00E200401D[0-9A-F]{58}", "9000")
+        // close secure session (with or without ratification)
+        .withSimulatedCommand("008E[08]00004[0-9A-F]{8}00", "876543219000")
+        // ratification command
+        .withSimulatedCommand("00B2000000", "6B00")
+        // ping command (used by the card removal procedure)
+        .withSimulatedCommand("00C0000000", "9000")
+        .build();
+  }
+
+  /**
+   * Creates a new stub smart card for a Calypso SAM able to secure the complete embedded validation
+   * transaction provided by {@link #createValidationStubCard()}.
+   *
+   * <p>A new instance is returned at each call since a stub SAM cannot be inserted in several
+   * readers at the same time.
+   *
+   * @return A new instance.
+   */
+  public static StubSmartCard createValidationStubSam() {
+    return StubSmartCard.builder()
+        .withPowerOnData(HexUtil.toByteArray(SAM_POWER_ON_DATA))
+        .withProtocol(SAM_PROTOCOL)
+        // select diversifier
+        .withSimulatedCommand("8014000008[0-9A-F]{16}", "9000")
+        // get challenge
+        .withSimulatedCommand("8084000004", "001122339000")
+        // digest init
+        .withSimulatedCommand("808A00FF[0-9A-F]+", "9000")
+        // digest update / digest update multiple
+        .withSimulatedCommand("808C[0-9A-F]+", "9000")
+        // digest close
+        .withSimulatedCommand("808E000004", "123456789000")
+        // digest authenticate
+        .withSimulatedCommand("808200000487654321", "9000")
+        .build();
+  }
+
+  /**
+   * Creates a timing model approaching a contactless Calypso card in a validator, to be used with a
+   * {@link LatencyInjectingCardReader} wrapping a reader of {@link #createValidationStubCard()}.
+   *
+   * <p>The RF round trip follows a long-tail distribution (occasional retries), the session
+   * commands and the write commands are slower than the read commands.
+   *
+   * @param seed The seed of the random generators.
+   * @return A new model.
+   */
+  public static ApduLatencyModel createValidationCardLatencyModel(long seed) {
+    return ApduLatencyModel.builder()
+        .withSeed(seed)
+        .withExchangeLatency(LatencyDistribution.longTail(3000, 12000))
+        .withDefaultApduLatency(LatencyDistribution.fixed(1000))
+        // select application
+        .withApduLatency((byte) 0xA4, LatencyDistribution.fixed(2000))
+        // read record
+        .withApduLatency((byte) 0xB2, LatencyDistribution.fixed(1500))
+        // open secure session
+        .withApduLatency((byte) 0x8A, LatencyDistribution.normal(9000, 1000))
+        // decrease
+        .withApduLatency((byte) 0x30, LatencyDistribution.normal(4000, 500))
+        // append record
+        .withApduLatency((byte) 0xE2, LatencyDistribution.normal(5000, 500))
+        // close secure session
+        .withApduLatency((byte) 0x8E, LatencyDistribution.normal(7000, 800))
+        .build();
+  }
+
+  /**
+   * Creates a timing model approaching a Calypso SAM in a contact reader, to be used with a {@link
+   * LatencyInjectingCardReader} wrapping a reader of {@link #createValidationStubSam()}.
+   *
+   * @param seed The seed of the random generators.
+   * @return A new model.
+   */
+  public static ApduLatencyModel createValidationSamLatencyModel(long seed) {
+    return ApduLatencyModel.builder()
+        .withSeed(seed)
+        .withExchangeLatency(LatencyDistribution.fixed(500))
+        .withDefaultApduLatency(LatencyDistribution.fixed(500))
+        // get challenge
+        .withApduLatency((byte) 0x84, LatencyDistribution.fixed(1500))
+        // digest init
+        .withApduLatency((byte) 0x8A, LatencyDistribution.normal(1500, 200))
+        // digest update
+        .withApduLatency((byte) 0x8C, LatencyDistribution.fixed(800))
+        // digest close
+        .withApduLatency((byte) 0x8E, LatencyDistribution.normal(3000, 300))
+        // digest authenticate
+        .withApduLatency((byte) 0x82, LatencyDistribution.normal(2500, 300))
+        .build();
+  }
 }
@@ -0,0 +1,360 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.card.calypso.common.ApduTraceFile.TracedApdu;
+import org.eclipse.keyple.plugin.stub.StubSmartCard;
+
+/**
+ * Simulation of a card and a SAM replaying an APDU trace recorded by an {@link ApduTraceRecorder},
+ * e.g. during a real PC/SC run of the Use Case Calypso 12 or 13 tools.
+ *
+ * <p>The recorded responses are indexed by command bytes in hash maps, so that a command is
+ * answered in constant time whatever the size of the trace, unlike the {@link StubSmartCard} whose
+ * simulated commands are regular expressions evaluated one after the other. Each recorded response
+ * is replayed with the latency observed for its APDU (the duration of the reader exchange divided
+ * by its number of APDUs).
+ *
+ * <p>A command is answered as follows:
+ *
+ * <ul>
+ *   <li>if the exact same command was recorded, with its recorded responses in turn (e.g. the
+ *       successive challenges returned by Get Challenge),
+ *   <li>otherwise, with the responses recorded for the same header (CLA, INS, P1, P2), which keeps
+ *       the card profile usable when the application data differ from the recorded ones,
+ *   <li>otherwise, with the status word 6D00h.
+ * </ul>
+ *
+ * <p>The selections are not replayed by the {@link ReplayCardReader}s: they are done on Stub
+ * readers holding the cards built by {@link #createStubCard()} and {@link #createStubSam()} from
+ * the recorded power-on data and Select Application response. The trace must therefore contain the
+ * selections recorded with {@link TracingCardReader#recordSelection}.
+ *
+ * <p>The instances are immutable and can be shared by any number of replay readers and threads.
+ */
+public class TraceReplay {
+
+  private static final String ISO_CARD_PROTOCOL = "ISO_14443_4_CARD";
+  private static final String SAM_PROTOCOL = "ISO_7816_3_T0";
+
+  private final ResponseIndex cardResponseIndex = new ResponseIndex();
+  private final ResponseIndex samResponseIndex = new ResponseIndex();
+  private final TracedApdu cardSelection;
+  private final TracedApdu samSelection;
+
+  /**
+   * Constructor.
+   *
+   * @param trace The trace to replay.
+   */
+  private TraceReplay(ApduTraceFile.Trace trace) {
+    List<TracedApdu> apdus = trace.getApdus();
+    int exchangeStart = 0;
+    for (int i = 1; i <= apdus.size(); i++) {
+      // The APDUs of a reader exchange are consecutive and share the same reader and start.
+      if (i == apdus.size()
+          || apdus.get(i).getReader() != apdus.get(exchangeStart).getReader()
+          || apdus.get(i).getStartNanos() != apdus.get(exchangeStart).getStartNanos()) {
+        long apduLatencyNanos = apdus.get(exchangeStart).getExchangeNanos() / (i - exchangeStart);
+        for (int j = exchangeStart; j < i; j++) {
+          TracedApdu apdu = apdus.get(j);
+          (apdu.getReader().isSam() ? samResponseIndex : cardResponseIndex)
+              .add(apdu, apduLatencyNanos);
+        }
+        exchangeStart = i;
+      }
+    }
+    cardResponseIndex.freeze();
+    samResponseIndex.freeze();
+
+    TracedApdu firstCardSelection = null;
+    TracedApdu firstSamSelection = null;
+    for (TracedApdu selection : trace.getSelections()) {
+      if (selection.getReader().isSam()) {
+        firstSamSelection = firstSamSelection != null ? firstSamSelection : selection;
+      } else {
+        firstCardSelection = firstCardSelection != null ? firstCardSelection : selection;
+      }
+    }
+    cardSelection = firstCardSelection;
+    samSelection = firstSamSelection;
+  }
+
+  /**
+   * Loads a trace file.
+   *
+   * @param fileName The name of the trace file.
+   * @return A new instance.
+   * @throws IOException If the file cannot be read.
+   */
+  public static TraceReplay load(String fileName) throws IOException {
+    return new TraceReplay(ApduTraceFile.read(fileName));
+  }
+
+  /**
+   * Returns the number of distinct card commands recorded.
+   *
+   * @return A positive number.
+   */
+  public int getNbCardCommands() {
+    return cardResponseIndex.responsesByCommand.size();
+  }
+
+  /**
+   * Returns the number of distinct SAM commands recorded.
+   *
+   * @return A positive number.
+   */
+  public int getNbSamCommands() {
+    return samResponseIndex.responsesByCommand.size();
+  }
+
+  /**
+   * Builds a Stub card answering the Select Application command with the recorded response, to be
+   * used for the selection of the card.
+   *
+   * @return A new Stub card.
+   * @throws IllegalStateException If the trace contains no card selection.
+   */
+  public StubSmartCard createStubCard() {
+    if (cardSelection == null || cardSelection.getResponse().length == 0) {
+      throw new IllegalStateException("The trace contains no card selection.");
+    }
+    return StubSmartCard.builder()
+        .withPowerOnData(cardSelection.getCommand())
+        .withProtocol(ISO_CARD_PROTOCOL)
+        // select application, whatever the AID
+        .withSimulatedCommand("00A404[0-9A-F]+", HexUtil.toHex(cardSelection.getResponse()))
+        // ping command (used by the card removal procedure)
+        .withSimulatedCommand("00C0000000", "9000")
+        .build();
+  }
+
+  /**
+   * Builds a Stub SAM with the recorded power-on data, to be used for the selection of the SAM.
+   *
+   * @return A new Stub SAM.
+   * @throws IllegalStateException If the trace contains no SAM selection.
+   */
+  public StubSmartCard createStubSam() {
+    if (samSelection == null) {
+      throw new IllegalStateException("The trace contains no SAM selection.");
+    }
+    return StubSmartCard.builder()
+        .withPowerOnData(samSelection.getCommand())
+        .withProtocol(SAM_PROTOCOL)
+        .build();
+  }
+
+  /**
+   * Creates a reader replaying the card side of the trace, to be provided to the transaction
+   * managers.
+   *
+   * @param readerName The name of the reader.
+   * @return A new reader.
+   */
+  public ReplayCardReader createCardReader(String readerName) {
+    return new ReplayCardReader(readerName, true, cardResponseIndex);
+  }
+
+  /**
+   * Creates a reader replaying the SAM side of the trace, to be provided to the security setting.
+   *
+   * @param readerName The name of the reader.
+   * @return A new reader.
+   */
+  public ReplayCardReader createSamReader(String readerName) {
+    return new ReplayCardReader(readerName, false, samResponseIndex);
+  }
+
+  /** The recorded responses of a card or a SAM, indexed by command and by header. */
+  static final class ResponseIndex {
+
+    private final Map<CommandKey, RecordedResponses> responsesByCommand =
+        new HashMap<CommandKey, RecordedResponses>();
+    private final Map<Integer, RecordedResponses> responsesByHeader =
+        new HashMap<Integer, RecordedResponses>();
+
+    /**
+     * Adds a recorded APDU. The truncated commands are only indexed by header and the truncated
+     * responses are ignored.
+     *
+     * @param apdu The recorded APDU.
+     * @param latencyNanos The latency of the APDU.
+     */
+    private void add(TracedApdu apdu, long latencyNanos) {
+      byte[] command = apdu.getCommand();
+      byte[] response = apdu.getResponse();
+      if (command.length < 4
+          || response.length < 2
+          || response.length != apdu.getResponseLength()) {
+        return;
+      }
+      RecordedResponse recordedResponse = new RecordedResponse(response, latencyNanos);
+      if (command.length == apdu.getCommandLength()) {
+        CommandKey key = new CommandKey(command);
+        RecordedResponses responses = responsesByCommand.get(key);
+        if (responses == null) {
+          responses = new RecordedResponses();
+          responsesByCommand.put(key, responses);
+        }
+        responses.add(recordedResponse);
+      }
+      Integer header = getHeader(command);
+      RecordedResponses responses = responsesByHeader.get(header);
+      if (responses == null) {
+        responses = new RecordedResponses();
+        responsesByHeader.put(header, responses);
+      }
+      responses.add(recordedResponse);
+    }
+
+    /** Makes the index ready for concurrent lookups. */
+    private void freeze() {
+      for (RecordedResponses responses : responsesByCommand.values()) {
+        responses.freeze();
+      }
+      for (RecordedResponses responses : responsesByHeader.values()) {
+        responses.freeze();
+      }
+    }
+
+    /**
+     * Finds the response to an exact command.
+     *
+     * @param command The command.
+     * @return Null if the command was not recorded.
+     */
+    RecordedResponse findByCommand(byte[] command) {
+      RecordedResponses responses = responsesByCommand.get(new CommandKey(command));
+      return responses != null ? responses.next() : null;
+    }
+
+    /**
+     * Finds a response to a command with the same header.
+     *
+     * @param command The command.
+     * @return Null if no command with this header was recorded.
+     */
+    RecordedResponse findByHeader(byte[] command) {
+      if (command.length < 4) {
+        return null;
+      }
+      RecordedResponses responses = responsesByHeader.get(getHeader(command));
+      return responses != null ? responses.next() : null;
+    }
+
+    /**
+     * Returns the header (CLA, INS, P1, P2) of a command.
+     *
+     * @param command The command, at least 4 bytes long.
+     * @return The header as an int.
+     */
+    private static int getHeader(byte[] command) {
+      return ((command[0] & 0xFF) << 24)
+          | ((command[1] & 0xFF) << 16)
+          | ((command[2] & 0xFF) << 8)
+          | (command[3] & 0xFF);
+    }
+  }
+
+  /** A recorded response with its latency. */
+  static final class RecordedResponse {
+
+    final byte[] response;
+    final long latencyNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param response The response.
+     * @param latencyNanos The latency of the APDU.
+     */
+    private RecordedResponse(byte[] response, long latencyNanos) {
+      this.response = response;
+      this.latencyNanos = latencyNanos;
+    }
+  }
+
+  /** The responses recorded for a command, replayed in turn. */
+  private static final class RecordedResponses {
+
+    private final List<RecordedResponse> responseList = new ArrayList<RecordedResponse>();
+    private RecordedResponse[] responses;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+
+    /**
+     * Adds a response.
+     *
+     * @param response The response.
+     */
+    private void add(RecordedResponse response) {
+      responseList.add(response);
+    }
+
+    /** Converts the responses into an array. */
+    private void freeze() {
+      responses = responseList.toArray(new RecordedResponse[0]);
+      responseList.clear();
+    }
+
+    /**
+     * Returns the next response.
+     *
+     * @return A not null reference.
+     */
+    private RecordedResponse next() {
+      if (responses.length == 1) {
+        return responses[0];
+      }
+      return responses[(nextIndex.getAndIncrement() & Integer.MAX_VALUE) % responses.length];
+    }
+  }
+
+  /** Key of the command map, comparing the content of the commands. */
+  private static final class CommandKey {
+
+    private final byte[] command;
+    private final int hashCode;
+
+    /**
+     * Constructor.
+     *
+     * @param command The command.
+     */
+    private CommandKey(byte[] command) {
+      this.command = command;
+      this.hashCode = Arrays.hashCode(command);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CommandKey && Arrays.equals(command, ((CommandKey) o).command);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
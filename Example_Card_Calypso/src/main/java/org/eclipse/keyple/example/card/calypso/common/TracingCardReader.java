@@ -0,0 +1,141 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keypop.card.AbstractApduException;
+import org.eclipse.keypop.card.CardBrokenCommunicationException;
+import org.eclipse.keypop.card.CardResponseApi;
+import org.eclipse.keypop.card.ChannelControl;
+import org.eclipse.keypop.card.ProxyReaderApi;
+import org.eclipse.keypop.card.ReaderBrokenCommunicationException;
+import org.eclipse.keypop.card.UnexpectedStatusWordException;
+import org.eclipse.keypop.card.spi.CardRequestSpi;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.selection.spi.IsoSmartCard;
+import org.eclipse.keypop.reader.selection.spi.SmartCard;
+
+/**
+ * Card reader decorator recording the command and response of each APDU, with the start and end
+ * times of the reader exchange, in an {@link ApduTraceRecorder}.
+ *
+ * <p>As for the {@link MeteredCardReader}, the decorator must be provided to the transaction
+ * managers (card side) or to the security setting (SAM side) in place of the wrapped reader; the
+ * APDUs of the card selection, done with the wrapped reader, are not recorded, but its result can
+ * be recorded with {@link #recordSelection(SmartCard, long)}.
+ *
+ * <p>The decorators are created with {@link ApduTraceRecorder#traceCardReader(CardReader)} and
+ * {@link ApduTraceRecorder#traceSamReader(CardReader)}.
+ */
+public class TracingCardReader implements CardReader, ProxyReaderApi {
+
+  private final CardReader cardReader;
+  private final ProxyReaderApi proxyReader;
+  private final ApduTraceRecorder recorder;
+  private final int readerId;
+
+  /**
+   * Constructor.
+   *
+   * @param cardReader The reader to decorate.
+   * @param recorder The recorder.
+   * @param readerId The identifier of the reader in the recorder.
+   * @throws IllegalArgumentException If the reader is not a Keyple reader.
+   */
+  TracingCardReader(CardReader cardReader, ApduTraceRecorder recorder, int readerId) {
+    if (!(cardReader instanceof ProxyReaderApi)) {
+      throw new IllegalArgumentException("The provided reader must implement 'ProxyReaderApi'.");
+    }
+    this.cardReader = cardReader;
+    this.proxyReader = (ProxyReaderApi) cardReader;
+    this.recorder = recorder;
+    this.readerId = readerId;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String getName() {
+    return cardReader.getName();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isContactless() {
+    return cardReader.isContactless();
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isCardPresent() {
+    return cardReader.isCardPresent();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The request is transmitted to the wrapped reader and its APDUs are recorded, including when
+   * the card answers with an unexpected status word or when the communication is broken.
+   */
+  @Override
+  public CardResponseApi transmitCardRequest(
+      CardRequestSpi cardRequest, ChannelControl channelControl)
+      throws ReaderBrokenCommunicationException,
+          CardBrokenCommunicationException,
+          UnexpectedStatusWordException {
+    long start = System.nanoTime();
+    CardResponseApi cardResponse;
+    try {
+      cardResponse = proxyReader.transmitCardRequest(cardRequest, channelControl);
+    } catch (AbstractApduException e) {
+      recorder.recordExchange(
+          readerId,
+          cardRequest,
+          e.getCardResponse(),
+          !(e instanceof UnexpectedStatusWordException),
+          start,
+          System.nanoTime());
+      throw e;
+    }
+    recorder.recordExchange(readerId, cardRequest, cardResponse, false, start, System.nanoTime());
+    return cardResponse;
+  }
+
+  /**
+   * Records the result of a selection done with the wrapped reader: the power-on data of the card
+   * and, for an ISO card, the response to the Select Application command.
+   *
+   * <p>This makes the trace sufficient to simulate the card, see {@link TraceReplay}.
+   *
+   * @param smartCard The selected card.
+   * @param selectionStartNanos The value of {@link System#nanoTime()} at the start of the
+   *     selection.
+   */
+  public void recordSelection(SmartCard smartCard, long selectionStartNanos) {
+    long selectionEndNanos = System.nanoTime();
+    String powerOnData = smartCard.getPowerOnData();
+    recorder.recordSelection(
+        readerId,
+        selectionStartNanos,
+        selectionEndNanos,
+        powerOnData != null ? HexUtil.toByteArray(powerOnData) : new byte[0],
+        smartCard instanceof IsoSmartCard
+            ? ((IsoSmartCard) smartCard).getSelectApplicationResponse()
+            : null);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void releaseChannel() throws ReaderBrokenCommunicationException {
+    proxyReader.releaseChannel();
+  }
+}
@@ -0,0 +1,270 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import java.util.List;
+import org.eclipse.keypop.card.ApduResponseApi;
+import org.eclipse.keypop.card.CardResponseApi;
+import org.eclipse.keypop.card.spi.ApduRequestSpi;
+import org.eclipse.keypop.card.spi.CardRequestSpi;
+import org.eclipse.keypop.reader.CardReader;
+
+/**
+ * Instruments of the Calypso transactions, resolved once from a {@link MetricsRegistry}.
+ *
+ * <p>The following metrics are recorded:
+ *
+ * <ul>
+ *   <li>{@code calypso_transaction_seconds{outcome}}: the whole transactions, selection included,
+ *       recorded by the application with {@link #recordTransaction(long, boolean)},
+ *   <li>{@code calypso_transaction_phase_seconds{phase}}: the card selection, recorded by the
+ *       application with {@link #recordSelection(long)}, and the reader exchanges of the other
+ *       phases, recorded by the {@link MeteredCardReader} decorators: "open_session", "read" (each
+ *       read batch), "modify", "close_session" and "card_other" on the card side, "sam_challenge",
+ *       "sam_digest" and "sam_other" on the SAM side,
+ *   <li>{@code calypso_apdus_total{reader}}: the APDUs exchanged with the "card" and the "sam",
+ *   <li>{@code calypso_bytes_total{direction}}: the bytes of the APDUs sent to and received from
+ *       the card ("card_sent", "card_received") and the SAM ("sam_sent", "sam_received").
+ * </ul>
+ *
+ * <p>A card exchange is classified according to the instruction bytes of its APDUs: containing a
+ * Close Secure Session, starting with an Open Secure Session, containing only read commands, or
+ * containing modifications. A SAM exchange containing a Get Challenge is a challenge exchange, and
+ * one containing Digest commands is a digest exchange. The phase timers only measure the reader
+ * exchanges, the processing of the library between them being part of the transaction timer.
+ *
+ * <p>When the registry is the {@link NoOpMetricsRegistry}, the metrics are disabled and the
+ * decorators do not even read the clock.
+ */
+public class TransactionMetrics {
+
+  private static final String TRANSACTION_METRIC = "calypso_transaction_seconds";
+  private static final String PHASE_METRIC = "calypso_transaction_phase_seconds";
+  private static final String APDU_METRIC = "calypso_apdus_total";
+  private static final String BYTE_METRIC = "calypso_bytes_total";
+
+  private static final String TRANSACTION_HELP = "Duration of the transactions.";
+  private static final String PHASE_HELP = "Duration of the transaction phases.";
+  private static final String APDU_HELP = "Number of APDUs exchanged.";
+  private static final String BYTE_HELP = "Number of APDU bytes exchanged.";
+
+  // Instruction bytes
+  private static final byte INS_SELECT_FILE = (byte) 0xA4;
+  private static final byte INS_GET_DATA = (byte) 0xCA;
+  private static final byte INS_GET_CHALLENGE = (byte) 0x84;
+  private static final byte INS_READ_BINARY = (byte) 0xB0;
+  private static final byte INS_READ_RECORDS = (byte) 0xB2;
+  private static final byte INS_READ_RECORD_MULTIPLE = (byte) 0xB3;
+  private static final byte INS_SEARCH_RECORD_MULTIPLE = (byte) 0xA2;
+  private static final byte INS_OPEN_SECURE_SESSION = (byte) 0x8A;
+  private static final byte INS_CLOSE_SECURE_SESSION = (byte) 0x8E;
+  private static final byte INS_DIGEST_INIT = (byte) 0x8A;
+  private static final byte INS_DIGEST_UPDATE = (byte) 0x8C;
+  private static final byte INS_DIGEST_CLOSE = (byte) 0x8E;
+  private static final byte INS_DIGEST_AUTHENTICATE = (byte) 0x82;
+
+  private final boolean isEnabled;
+  private final MetricsRegistry.Timer successfulTransactionTimer;
+  private final MetricsRegistry.Timer failedTransactionTimer;
+  private final MetricsRegistry.Timer selectionTimer;
+  private final MetricsRegistry.Timer openSessionTimer;
+  private final MetricsRegistry.Timer readTimer;
+  private final MetricsRegistry.Timer modifyTimer;
+  private final MetricsRegistry.Timer closeSessionTimer;
+  private final MetricsRegistry.Timer cardOtherTimer;
+  private final MetricsRegistry.Timer samChallengeTimer;
+  private final MetricsRegistry.Timer samDigestTimer;
+  private final MetricsRegistry.Timer samOtherTimer;
+  private final MetricsRegistry.Counter cardApduCounter;
+  private final MetricsRegistry.Counter samApduCounter;
+  private final MetricsRegistry.Counter cardSentByteCounter;
+  private final MetricsRegistry.Counter cardReceivedByteCounter;
+  private final MetricsRegistry.Counter samSentByteCounter;
+  private final MetricsRegistry.Counter samReceivedByteCounter;
+
+  /**
+   * Constructor.
+   *
+   * @param registry The registry, {@link NoOpMetricsRegistry#INSTANCE} to disable the metrics.
+   */
+  public TransactionMetrics(MetricsRegistry registry) {
+    isEnabled = registry != NoOpMetricsRegistry.INSTANCE;
+    successfulTransactionTimer =
+        registry.timer(TRANSACTION_METRIC, TRANSACTION_HELP, "outcome", "success");
+    failedTransactionTimer =
+        registry.timer(TRANSACTION_METRIC, TRANSACTION_HELP, "outcome", "failure");
+    selectionTimer = registry.timer(PHASE_METRIC, PHASE_HELP, "phase", "selection");
+    openSessionTimer = registry.timer(PHASE_METRIC, PHASE_HELP, "phase", "open_session");
+    readTimer = registry.timer(PHASE_METRIC, PHASE_HELP, "phase", "read");
+    modifyTimer = registry.timer(PHASE_METRIC, PHASE_HELP, "phase", "modify");
+    closeSessionTimer = registry.timer(PHASE_METRIC, PHASE_HELP, "phase", "close_session");
+    cardOtherTimer = registry.timer(PHASE_METRIC, PHASE_HELP, "phase", "card_other");
+    samChallengeTimer = registry.timer(PHASE_METRIC, PHASE_HELP, "phase", "sam_challenge");
+    samDigestTimer = registry.timer(PHASE_METRIC, PHASE_HELP, "phase", "sam_digest");
+    samOtherTimer = registry.timer(PHASE_METRIC, PHASE_HELP, "phase", "sam_other");
+    cardApduCounter = registry.counter(APDU_METRIC, APDU_HELP, "reader", "card");
+    samApduCounter = registry.counter(APDU_METRIC, APDU_HELP, "reader", "sam");
+    cardSentByteCounter = registry.counter(BYTE_METRIC, BYTE_HELP, "direction", "card_sent");
+    cardReceivedByteCounter =
+        registry.counter(BYTE_METRIC, BYTE_HELP, "direction", "card_received");
+    samSentByteCounter = registry.counter(BYTE_METRIC, BYTE_HELP, "direction", "sam_sent");
+    samReceivedByteCounter = registry.counter(BYTE_METRIC, BYTE_HELP, "direction", "sam_received");
+  }
+
+  /**
+   * Indicates whether the metrics are recorded.
+   *
+   * @return false if the registry is the {@link NoOpMetricsRegistry}.
+   */
+  public boolean isEnabled() {
+    return isEnabled;
+  }
+
+  /**
+   * Decorates the reader used by the transaction managers to communicate with the card.
+   *
+   * @param cardReader The reader to decorate, provided by the Keyple service or another decorator.
+   * @return A new decorator.
+   * @throws IllegalArgumentException If the reader is not a Keyple reader.
+   */
+  public MeteredCardReader meterCardReader(CardReader cardReader) {
+    return new MeteredCardReader(cardReader, this, false);
+  }
+
+  /**
+   * Decorates the reader used by the security setting to communicate with the SAM.
+   *
+   * @param samReader The reader to decorate, provided by the Keyple service or another decorator.
+   * @return A new decorator.
+   * @throws IllegalArgumentException If the reader is not a Keyple reader.
+   */
+  public MeteredCardReader meterSamReader(CardReader samReader) {
+    return new MeteredCardReader(samReader, this, true);
+  }
+
+  /**
+   * Records the duration of a card selection.
+   *
+   * @param durationNanos The duration, in nanoseconds.
+   */
+  public void recordSelection(long durationNanos) {
+    selectionTimer.record(durationNanos);
+  }
+
+  /**
+   * Records the duration of a whole transaction.
+   *
+   * @param durationNanos The duration, in nanoseconds.
+   * @param isSuccessful false if the transaction failed.
+   */
+  public void recordTransaction(long durationNanos, boolean isSuccessful) {
+    (isSuccessful ? successfulTransactionTimer : failedTransactionTimer).record(durationNanos);
+  }
+
+  /**
+   * Records a reader exchange. Called by the {@link MeteredCardReader} decorators.
+   *
+   * @param cardRequest The card request.
+   * @param cardResponse The card response, possibly incomplete, null if none was received.
+   * @param durationNanos The duration of the exchange, in nanoseconds.
+   * @param isSam true if the exchange was done with a SAM.
+   */
+  void recordExchange(
+      CardRequestSpi cardRequest, CardResponseApi cardResponse, long durationNanos, boolean isSam) {
+    List<ApduRequestSpi> apduRequests = cardRequest.getApduRequests();
+    List<ApduResponseApi> apduResponses =
+        cardResponse != null ? cardResponse.getApduResponses() : null;
+    int nbApdus = apduResponses != null ? apduResponses.size() : 0;
+    long nbSentBytes = 0;
+    long nbReceivedBytes = 0;
+    for (int i = 0; i < nbApdus; i++) {
+      nbSentBytes += apduRequests.get(i).getApdu().length;
+      nbReceivedBytes += apduResponses.get(i).getApdu().length;
+    }
+    if (isSam) {
+      getSamPhaseTimer(apduRequests).record(durationNanos);
+      samApduCounter.increment(nbApdus);
+      samSentByteCounter.increment(nbSentBytes);
+      samReceivedByteCounter.increment(nbReceivedBytes);
+    } else {
+      getCardPhaseTimer(apduRequests).record(durationNanos);
+      cardApduCounter.increment(nbApdus);
+      cardSentByteCounter.increment(nbSentBytes);
+      cardReceivedByteCounter.increment(nbReceivedBytes);
+    }
+  }
+
+  /**
+   * Classifies a card exchange.
+   *
+   * @param apduRequests The APDUs of the card request.
+   * @return The timer of the phase.
+   */
+  private MetricsRegistry.Timer getCardPhaseTimer(List<ApduRequestSpi> apduRequests) {
+    boolean isReadOnly = true;
+    for (int i = 0; i < apduRequests.size(); i++) {
+      byte ins = getIns(apduRequests.get(i));
+      if (ins == INS_CLOSE_SECURE_SESSION) {
+        return closeSessionTimer;
+      }
+      if (i == 0 && ins == INS_OPEN_SECURE_SESSION) {
+        return openSessionTimer;
+      }
+      isReadOnly &=
+          ins == INS_READ_RECORDS
+              || ins == INS_READ_RECORD_MULTIPLE
+              || ins == INS_READ_BINARY
+              || ins == INS_SEARCH_RECORD_MULTIPLE
+              || ins == INS_SELECT_FILE
+              || ins == INS_GET_DATA
+              || ins == INS_GET_CHALLENGE;
+    }
+    if (apduRequests.isEmpty()) {
+      return cardOtherTimer;
+    }
+    return isReadOnly ? readTimer : modifyTimer;
+  }
+
+  /**
+   * Classifies a SAM exchange.
+   *
+   * @param apduRequests The APDUs of the SAM request.
+   * @return The timer of the phase.
+   */
+  private MetricsRegistry.Timer getSamPhaseTimer(List<ApduRequestSpi> apduRequests) {
+    boolean isDigest = false;
+    for (int i = 0; i < apduRequests.size(); i++) {
+      byte ins = getIns(apduRequests.get(i));
+      if (ins == INS_GET_CHALLENGE) {
+        return samChallengeTimer;
+      }
+      isDigest |=
+          ins == INS_DIGEST_INIT
+              || ins == INS_DIGEST_UPDATE
+              || ins == INS_DIGEST_CLOSE
+              || ins == INS_DIGEST_AUTHENTICATE;
+    }
+    return isDigest ? samDigestTimer : samOtherTimer;
+  }
+
+  /**
+   * Returns the instruction byte of an APDU.
+   *
+   * @param apduRequest The APDU.
+   * @return 0 if the APDU is too short.
+   */
+  private static byte getIns(ApduRequestSpi apduRequest) {
+    byte[] apdu = apduRequest.getApdu();
+    return apdu.length > 1 ? apdu[1] : 0;
+  }
+}
@@ -0,0 +1,251 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.card.calypso.common;
+
+import static org.eclipse.keypop.calypso.card.WriteAccessLevel.DEBIT;
+
+import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
+import org.eclipse.keyple.card.calypso.crypto.legacysam.LegacySamExtensionService;
+import org.eclipse.keyple.card.calypso.crypto.legacysam.LegacySamUtil;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keypop.calypso.card.CalypsoCardApiFactory;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.calypso.card.card.CalypsoCardSelectionExtension;
+import org.eclipse.keypop.calypso.card.transaction.SecureRegularModeTransactionManager;
+import org.eclipse.keypop.calypso.card.transaction.SymmetricCryptoSecuritySetting;
+import org.eclipse.keypop.calypso.crypto.legacysam.LegacySamApiFactory;
+import org.eclipse.keypop.calypso.crypto.legacysam.sam.LegacySam;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.ChannelControl;
+import org.eclipse.keypop.reader.ReaderApiFactory;
+import org.eclipse.keypop.reader.selection.CardSelectionManager;
+import org.eclipse.keypop.reader.selection.CardSelectionResult;
+import org.eclipse.keypop.reader.selection.IsoCardSelector;
+
+/**
+ * Contains the embedded validation transaction logic of the Use Case Calypso 12, shared by the
+ * performance measurement tools.
+ */
+public class ValidationTransactionUtil {
+
+  /** AID: Keyple test kit profile 1, Application 2 */
+  public static final String AID = "315449432E49434131";
+
+  public static final byte SFI_ENVIRONMENT_AND_HOLDER = (byte) 0x07;
+  public static final byte SFI_EVENT_LOG = (byte) 0x08;
+  public static final byte SFI_CONTRACT_LIST = (byte) 0x1E;
+  public static final byte SFI_CONTRACTS = (byte) 0x09;
+  public static final byte SFI_COUNTERS = (byte) 0x19;
+  public static final int RECORD_SIZE = 29;
+
+  private static final ReaderApiFactory readerApiFactory =
+      SmartCardServiceProvider.getService().getReaderApiFactory();
+  private static final CalypsoCardApiFactory calypsoCardApiFactory =
+      CalypsoExtensionService.getInstance().getCalypsoCardApiFactory();
+  private static final LegacySamApiFactory legacySamApiFactory =
+      LegacySamExtensionService.getInstance().getLegacySamApiFactory();
+
+  /** Constructor */
+  private ValidationTransactionUtil() {}
+
+  /**
+   * Selects the Calypso card for the transaction based on the specified Application Identifier
+   * (AID).
+   *
+   * @param reader The reader used to communicate with the card.
+   * @param aid The Application Identifier (AID) used to select the application on the card.
+   * @return The selected Calypso card ready for the transaction.
+   * @throws IllegalStateException if the selection of the application fails.
+   */
+  public static CalypsoCard selectCard(CardReader reader, String aid) {
+    CardSelectionManager cardSelectionManager = readerApiFactory.createCardSelectionManager();
+    IsoCardSelector cardSelector = readerApiFactory.createIsoCardSelector().filterByDfName(aid);
+    CalypsoCardSelectionExtension calypsoCardSelectionExtension =
+        calypsoCardApiFactory.createCalypsoCardSelectionExtension().acceptInvalidatedCard();
+    cardSelectionManager.prepareSelection(cardSelector, calypsoCardSelectionExtension);
+
+    CardSelectionResult selectionResult = cardSelectionManager.processCardSelectionScenario(reader);
+
+    if (selectionResult.getActiveSmartCard() == null) {
+      throw new IllegalStateException("The selection of the application " + aid + " failed.");
+    }
+
+    return (CalypsoCard) selectionResult.getActiveSmartCard();
+  }
+
+  /**
+   * Selects the SAM C1 available in the provided reader.
+   *
+   * @param samReader The reader used to communicate with the SAM.
+   * @return The selected SAM.
+   * @throws IllegalStateException if SAM selection fails.
+   */
+  public static LegacySam selectSam(CardReader samReader) {
+    CardSelectionManager samSelectionManager = readerApiFactory.createCardSelectionManager();
+    IsoCardSelector cardSelector =
+        readerApiFactory
+            .createIsoCardSelector()
+            .filterByPowerOnData(
+                LegacySamUtil.buildPowerOnDataFilter(LegacySam.ProductType.SAM_C1, null));
+    samSelectionManager.prepareSelection(
+        cardSelector, legacySamApiFactory.createLegacySamSelectionExtension());
+
+    CardSelectionResult samSelectionResult =
+        samSelectionManager.processCardSelectionScenario(samReader);
+
+    if (samSelectionResult.getActiveSmartCard() == null) {
+      throw new IllegalStateException("The selection of the SAM failed.");
+    }
+
+    return (LegacySam) samSelectionResult.getActiveSmartCard();
+  }
+
+  /**
+   * Creates the security settings of the validation transaction for the provided SAM, with the
+   * ratification mechanism enabled, and preloads the SAM challenge for the first transaction.
+   *
+   * <p>A security setting is bound to a single SAM and must not be used by several transactions at
+   * the same time.
+   *
+   * @param samReader The reader used by the transactions to communicate with the SAM.
+   * @param sam The selected SAM.
+   * @return A new security setting.
+   */
+  public static SymmetricCryptoSecuritySetting createSecuritySetting(
+      CardReader samReader, LegacySam sam) {
+    SymmetricCryptoSecuritySetting securitySetting =
+        calypsoCardApiFactory
+            .createSymmetricCryptoSecuritySetting(
+                legacySamApiFactory.createSymmetricCryptoCardTransactionManagerFactory(
+                    samReader, sam))
+            .enableRatificationMechanism();
+    // Optimization: preload the SAM challenge for the next transaction
+    securitySetting.initCryptoContextForNextTransaction();
+    return securitySetting;
+  }
+
+  /**
+   * Executes the embedded validation transaction on an already selected card, exactly as done by
+   * the Use Case Calypso 12: one card exchange per read step, then a last exchange to decrease the
+   * counter, append the new event and close the secure session.
+   *
+   * <p>The business analysis of the data read is left empty.
+   *
+   * @param cardReader The reader used to communicate with the card.
+   * @param calypsoCard The selected Calypso card.
+   * @param securitySetting The security settings of the transaction.
+   * @param counterDecrement The number of units to subtract from the counter.
+   * @param newEventRecord The event record to append to the event log.
+   * @return The value of the counter read before the decrease.
+   */
+  public static int executeValidation(
+      CardReader cardReader,
+      CalypsoCard calypsoCard,
+      SymmetricCryptoSecuritySetting securitySetting,
+      int counterDecrement,
+      byte[] newEventRecord) {
+
+    // Open the secure session and read the environment.
+    SecureRegularModeTransactionManager cardTransactionManager =
+        calypsoCardApiFactory
+            .createSecureRegularModeTransactionManager(cardReader, calypsoCard, securitySetting)
+            .prepareOpenSecureSession(DEBIT)
+            .prepareReadRecords(SFI_ENVIRONMENT_AND_HOLDER, 1, 1, RECORD_SIZE)
+            .processCommands(ChannelControl.KEEP_OPEN);
+
+    // Read the last event record.
+    cardTransactionManager
+        .prepareReadRecords(SFI_EVENT_LOG, 1, 1, RECORD_SIZE)
+        .processCommands(ChannelControl.KEEP_OPEN);
+
+    // Read the contract list.
+    cardTransactionManager
+        .prepareReadRecords(SFI_CONTRACT_LIST, 1, 1, RECORD_SIZE)
+        .processCommands(ChannelControl.KEEP_OPEN);
+
+    // Read the elected contract.
+    cardTransactionManager
+        .prepareReadRecords(SFI_CONTRACTS, 1, 1, RECORD_SIZE)
+        .processCommands(ChannelControl.KEEP_OPEN);
+
+    // Read the contract counter.
+    cardTransactionManager
+        .prepareReadCounter(SFI_COUNTERS, 1)
+        .processCommands(ChannelControl.KEEP_OPEN);
+
+    int counterValue = calypsoCard.getFileBySfi(SFI_COUNTERS).getData().getContentAsCounterValue(1);
+
+    // Add an event record and close the secure session.
+    cardTransactionManager
+        .prepareDecreaseCounter(SFI_COUNTERS, 1, counterDecrement)
+        .prepareAppendRecord(SFI_EVENT_LOG, newEventRecord)
+        .prepareCloseSecureSession()
+        .processCommands(ChannelControl.KEEP_OPEN);
+
+    return counterValue;
+  }
+
+  /**
+   * Executes the embedded validation transaction on an already selected card in "speculative" mode:
+   * all the data that may be needed for the decision is read in the same card exchange as the
+   * opening of the secure session, then the decision is taken in memory and the session is closed
+   * with a second and last exchange.
+   *
+   * <p>Compared to {@link #executeValidation(CardReader, CalypsoCard,
+   * SymmetricCryptoSecuritySetting, int, byte[])}, the number of card exchanges drops from six to
+   * two, at the cost of reading the contract list, the contract and the counter even when the
+   * analysis of the environment or of the event log would have made them useless.
+   *
+   * <p>The business analysis of the data read is left empty.
+   *
+   * @param cardReader The reader used to communicate with the card.
+   * @param calypsoCard The selected Calypso card.
+   * @param securitySetting The security settings of the transaction.
+   * @param counterDecrement The number of units to subtract from the counter.
+   * @param newEventRecord The event record to append to the event log.
+   * @return The value of the counter read before the decrease.
+   */
+  public static int executeSpeculativeValidation(
+      CardReader cardReader,
+      CalypsoCard calypsoCard,
+      SymmetricCryptoSecuritySetting securitySetting,
+      int counterDecrement,
+      byte[] newEventRecord) {
+
+    // Open the secure session and read in a single exchange everything the decision may need.
+    SecureRegularModeTransactionManager cardTransactionManager =
+        calypsoCardApiFactory
+            .createSecureRegularModeTransactionManager(cardReader, calypsoCard, securitySetting)
+            .prepareOpenSecureSession(DEBIT)
+            .prepareReadRecords(SFI_ENVIRONMENT_AND_HOLDER, 1, 1, RECORD_SIZE)
+            .prepareReadRecords(SFI_EVENT_LOG, 1, 1, RECORD_SIZE)
+            .prepareReadRecords(SFI_CONTRACT_LIST, 1, 1, RECORD_SIZE)
+            .prepareReadRecords(SFI_CONTRACTS, 1, 1, RECORD_SIZE)
+            .prepareReadCounter(SFI_COUNTERS, 1)
+            .processCommands(ChannelControl.KEEP_OPEN);
+
+    // Place here the analysis of the environment, the event log (ratification and anti-passback
+    // management), the contract list and the contract, all available in memory.
+
+    int counterValue = calypsoCard.getFileBySfi(SFI_COUNTERS).getData().getContentAsCounterValue(1);
+
+    // Add an event record and close the secure session.
+    cardTransactionManager
+        .prepareDecreaseCounter(SFI_COUNTERS, 1, counterDecrement)
+        .prepareAppendRecord(SFI_EVENT_LOG, newEventRecord)
+        .prepareCloseSecureSession()
+        .processCommands(ChannelControl.KEEP_OPEN);
+
+    return counterValue;
+  }
+}
@@ -0,0 +1,311 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.poolreaderserverside.webservice;
+
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.QuarkusApplication;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import org.eclipse.keyple.core.service.PoolPlugin;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client.AppClient;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client.CalypsoTicketingServiceUtil;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.server.AppServer;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.selection.CardSelectionResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark of the pool reader allocation, without and with the pre-selection of the allocated
+ * readers by the server (see {@link AppServer#setPreSelectionEnabled(boolean)}).
+ *
+ * <p>Concurrent simulated clients loop on: allocate a reader, select the card, read the event log
+ * file, release the reader. For each mode and each number of clients, the program logs the
+ * throughput, the latency from the allocation request to the first command of the transaction (the
+ * card selection result being available), the number of allocations rejected because all the
+ * readers were in use, and the utilization of the pool (share of the time the readers were
+ * allocated).
+ *
+ * <p>The pool has 4 readers unless the system property {@code keyple.pool.size} is set. The numbers
+ * of clients can be provided as a comma separated list in the first argument, e.g. {@code 1,4,16}.
+ * Run it from its main method, preferably with a log level lowered to WARN for the
+ * "org.eclipse.keyple" category.
+ */
+public class Main_PoolAllocationBenchmark {
+
+  private static final Logger logger = LoggerFactory.getLogger(Main_PoolAllocationBenchmark.class);
+
+  private static final String POOL_SIZE_PROPERTY = "keyple.pool.size";
+  private static final String DEFAULT_POOL_SIZE = "4";
+  private static final int[] DEFAULT_NB_CLIENTS = {1, 4, 8, 16};
+  private static final long WARMUP_DURATION_MILLIS = 1000;
+  private static final long MEASUREMENT_DURATION_MILLIS = 5000;
+  private static final long ALLOCATION_RETRY_DELAY_MILLIS = 1;
+
+  public static void main(String... args) {
+    if (System.getProperty(POOL_SIZE_PROPERTY) == null) {
+      System.setProperty(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE);
+    }
+    Quarkus.run(PoolAllocationBenchmarkApp.class, args);
+  }
+
+  /** Quarkus application running the benchmark. */
+  public static class PoolAllocationBenchmarkApp implements QuarkusApplication {
+
+    /** The server application */
+    @Inject AppServer appServer;
+
+    /** The client application */
+    @Inject AppClient appClient;
+
+    /** {@inheritDoc} */
+    @Override
+    public int run(String... args) throws Exception {
+
+      logger.info("= Pool reader allocation ==================================================");
+
+      int[] nbClientsList = args.length > 0 ? parseNbClients(args[0]) : DEFAULT_NB_CLIENTS;
+      int poolSize = Integer.parseInt(System.getProperty(POOL_SIZE_PROPERTY));
+
+      appServer.init();
+      appClient.init();
+
+      PoolPlugin poolPlugin =
+          (PoolPlugin)
+              SmartCardServiceProvider.getService().getPlugin(AppClient.REMOTE_PLUGIN_NAME);
+
+      List<String> results = new ArrayList<String>();
+      for (boolean isPreSelectionEnabled : new boolean[] {false, true}) {
+        appServer.setPreSelectionEnabled(isPreSelectionEnabled);
+        for (int nbClients : nbClientsList) {
+          results.add(measure(poolPlugin, poolSize, isPreSelectionEnabled, nbClients));
+        }
+      }
+      logger.info("Server: {}", appServer.getReaderPreSelector());
+
+      logger.info("= Summary ({} readers) =======================================", poolSize);
+      logger.info(
+          "pre-selection | clients |   TPS | alloc->cmd p50 (ms) | alloc->cmd p99 (ms) |"
+              + " rejected | utilization");
+      for (String result : results) {
+        logger.info(result);
+      }
+
+      logger.info("Exit program.");
+      return 0;
+    }
+
+    /**
+     * Runs the simulated clients concurrently and returns the measurement summary.
+     *
+     * @param poolPlugin The remote pool plugin.
+     * @param poolSize The number of readers of the pool.
+     * @param isPreSelectionEnabled true if the pre-selection is enabled.
+     * @param nbClients The number of simulated clients.
+     * @return A summary line.
+     * @throws InterruptedException If the current thread was interrupted.
+     */
+    private String measure(
+        PoolPlugin poolPlugin, int poolSize, boolean isPreSelectionEnabled, int nbClients)
+        throws InterruptedException {
+
+      Statistics statistics = new Statistics();
+      ExecutorService executorService = Executors.newFixedThreadPool(nbClients);
+      long measurementStart = System.currentTimeMillis() + WARMUP_DURATION_MILLIS;
+      long end = measurementStart + MEASUREMENT_DURATION_MILLIS;
+      for (int i = 0; i < nbClients; i++) {
+        executorService.execute(
+            new SimulatedClient(appClient, poolPlugin, statistics, measurementStart, end));
+      }
+      executorService.shutdown();
+      executorService.awaitTermination(1, TimeUnit.MINUTES);
+
+      long[] latencies = statistics.getSortedLatencies();
+      String result =
+          String.format(
+              "%13s | %7d | %5.1f | %19.2f | %19.2f | %8d | %10.1f%%",
+              isPreSelectionEnabled ? "enabled" : "disabled",
+              nbClients,
+              latencies.length * 1000.0 / MEASUREMENT_DURATION_MILLIS,
+              getPercentileMillis(latencies, 50),
+              getPercentileMillis(latencies, 99),
+              statistics.getNbRejectedAllocations(),
+              statistics.getBusyNanos()
+                  * 100.0
+                  / (poolSize * TimeUnit.MILLISECONDS.toNanos(MEASUREMENT_DURATION_MILLIS)));
+      logger.info("{} simulated clients: {}", nbClients, result);
+      return result;
+    }
+  }
+
+  /**
+   * Parses a comma separated list of numbers of clients.
+   *
+   * @param value The value to parse.
+   * @return A not empty array.
+   */
+  private static int[] parseNbClients(String value) {
+    String[] items = value.split(",");
+    int[] nbClientsList = new int[items.length];
+    for (int i = 0; i < items.length; i++) {
+      nbClientsList[i] = Integer.parseInt(items[i].trim());
+    }
+    return nbClientsList;
+  }
+
+  /**
+   * Returns a percentile of sorted latencies.
+   *
+   * @param sortedLatencies The sorted latencies, in nanoseconds.
+   * @param percentile The percentile, between 0 and 100.
+   * @return The latency in milliseconds, 0 if there is no latency.
+   */
+  private static double getPercentileMillis(long[] sortedLatencies, int percentile) {
+    if (sortedLatencies.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+    return sortedLatencies[Math.max(index, 0)] / 1000000.0;
+  }
+
+  /** Statistics shared by all the simulated clients of a measurement. */
+  private static class Statistics {
+
+    private long[] latencies = new long[1024];
+    private int nbLatencies;
+    private long busyNanos;
+    private int nbRejectedAllocations;
+
+    /**
+     * Records a transaction.
+     *
+     * @param latencyNanos The latency from the allocation request to the first command.
+     * @param allocationNanos The duration of the allocation of the reader.
+     */
+    private synchronized void record(long latencyNanos, long allocationNanos) {
+      if (nbLatencies == latencies.length) {
+        latencies = Arrays.copyOf(latencies, latencies.length * 2);
+      }
+      latencies[nbLatencies++] = latencyNanos;
+      busyNanos += allocationNanos;
+    }
+
+    /** Records an allocation rejected because all the readers were in use. */
+    private synchronized void recordRejectedAllocation() {
+      nbRejectedAllocations++;
+    }
+
+    private synchronized long getBusyNanos() {
+      return busyNanos;
+    }
+
+    private synchronized int getNbRejectedAllocations() {
+      return nbRejectedAllocations;
+    }
+
+    private synchronized long[] getSortedLatencies() {
+      long[] sortedLatencies = Arrays.copyOf(latencies, nbLatencies);
+      Arrays.sort(sortedLatencies);
+      return sortedLatencies;
+    }
+  }
+
+  /** A simulated client: allocates a reader, executes a transaction and releases it, in a loop. */
+  private static class SimulatedClient implements Runnable {
+
+    private final AppClient appClient;
+    private final PoolPlugin poolPlugin;
+    private final Statistics statistics;
+    private final long measurementStart;
+    private final long end;
+
+    /**
+     * Constructor.
+     *
+     * @param appClient The client application.
+     * @param poolPlugin The remote pool plugin.
+     * @param statistics The shared statistics.
+     * @param measurementStart The time from which the transactions are taken into account.
+     * @param end The time at which the client stops.
+     */
+    private SimulatedClient(
+        AppClient appClient,
+        PoolPlugin poolPlugin,
+        Statistics statistics,
+        long measurementStart,
+        long end) {
+      this.appClient = appClient;
+      this.poolPlugin = poolPlugin;
+      this.statistics = statistics;
+      this.measurementStart = measurementStart;
+      this.end = end;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      String groupReference = poolPlugin.getReaderGroupReferences().first();
+      while (System.currentTimeMillis() < end) {
+        long allocationStart = System.nanoTime();
+        CardReader remoteReader;
+        try {
+          remoteReader = poolPlugin.allocateReader(groupReference);
+        } catch (RuntimeException e) {
+          remoteReader = null;
+        }
+        if (remoteReader == null) {
+          // All the readers are in use.
+          if (System.currentTimeMillis() >= measurementStart) {
+            statistics.recordRejectedAllocation();
+          }
+          sleep();
+          continue;
+        }
+        long allocatedNanos = System.nanoTime();
+        long latencyNanos;
+        try {
+          CardSelectionResult cardSelectionResult = appClient.selectCard(remoteReader);
+          latencyNanos = System.nanoTime() - allocationStart;
+          CalypsoTicketingServiceUtil.readEventLog(
+              (CalypsoCard) cardSelectionResult.getActiveSmartCard(), remoteReader);
+        } catch (RuntimeException e) {
+          logger.warn(
+              "Transaction failed on reader {}: {}", remoteReader.getName(), e.getMessage());
+          latencyNanos = -1;
+        } finally {
+          poolPlugin.releaseReader(remoteReader);
+        }
+        long now = System.currentTimeMillis();
+        if (latencyNanos >= 0 && now >= measurementStart && now < end) {
+          statistics.record(latencyNanos, System.nanoTime() - allocatedNanos);
+        }
+      }
+    }
+
+    /** Waits before retrying an allocation. */
+    private static void sleep() {
+      try {
+        Thread.sleep(ALLOCATION_RETRY_DELAY_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
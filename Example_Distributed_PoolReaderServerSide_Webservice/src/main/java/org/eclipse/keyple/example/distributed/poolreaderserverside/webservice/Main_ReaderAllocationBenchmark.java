@@ -0,0 +1,317 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.poolreaderserverside.webservice;
+
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.QuarkusApplication;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import org.eclipse.keyple.core.service.PoolPlugin;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client.AppClient;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client.CalypsoTicketingServiceUtil;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client.ReaderAllocator;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.server.AppServer;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.selection.CardSelectionResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark of the allocation strategies of the {@link ReaderAllocator} on a pool of dozens of
+ * readers distributed among several groups.
+ *
+ * <p>Concurrent simulated clients, each with its own identifier for the affinity, loop on: allocate
+ * a reader through the allocator, select the card, read the event log file, release the reader. For
+ * each strategy, the program logs the throughput, the allocation wait time percentiles, the number
+ * of allocations timed out and the utilization of the pool (share of the time the readers were
+ * allocated), followed by the statistics of the allocator.
+ *
+ * <p>The pool has 48 readers in 6 groups unless the system properties {@code keyple.pool.size} and
+ * {@code keyple.pool.nb-groups} are set. The number of clients can be provided as first argument
+ * (64 by default, more than the readers so that the fair queuing is exercised). Run it from its
+ * main method, preferably with a log level lowered to WARN for the "org.eclipse.keyple" category.
+ */
+public class Main_ReaderAllocationBenchmark {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(Main_ReaderAllocationBenchmark.class);
+
+  private static final String POOL_SIZE_PROPERTY = "keyple.pool.size";
+  private static final String NB_GROUPS_PROPERTY = "keyple.pool.nb-groups";
+  private static final String DEFAULT_POOL_SIZE = "48";
+  private static final String DEFAULT_NB_GROUPS = "6";
+  private static final int DEFAULT_NB_CLIENTS = 64;
+  private static final long WARMUP_DURATION_MILLIS = 2000;
+  private static final long MEASUREMENT_DURATION_MILLIS = 10000;
+  private static final long ALLOCATION_TIMEOUT_MILLIS = 10000;
+
+  public static void main(String... args) {
+    if (System.getProperty(POOL_SIZE_PROPERTY) == null) {
+      System.setProperty(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE);
+    }
+    if (System.getProperty(NB_GROUPS_PROPERTY) == null) {
+      System.setProperty(NB_GROUPS_PROPERTY, DEFAULT_NB_GROUPS);
+    }
+    Quarkus.run(ReaderAllocationBenchmarkApp.class, args);
+  }
+
+  /** Quarkus application running the benchmark. */
+  public static class ReaderAllocationBenchmarkApp implements QuarkusApplication {
+
+    /** The server application */
+    @Inject AppServer appServer;
+
+    /** The client application */
+    @Inject AppClient appClient;
+
+    /** {@inheritDoc} */
+    @Override
+    public int run(String... args) throws Exception {
+
+      logger.info("= Pool reader allocation strategies ========================================");
+
+      int nbClients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NB_CLIENTS;
+      int poolSize = Integer.parseInt(System.getProperty(POOL_SIZE_PROPERTY));
+
+      appServer.init();
+      appClient.init();
+
+      PoolPlugin poolPlugin =
+          (PoolPlugin)
+              SmartCardServiceProvider.getService().getPlugin(AppClient.REMOTE_PLUGIN_NAME);
+
+      List<String> results = new ArrayList<String>();
+      for (ReaderAllocator.Strategy strategy : ReaderAllocator.Strategy.values()) {
+        results.add(measure(new ReaderAllocator(poolPlugin, strategy), poolSize, nbClients));
+      }
+
+      logger.info(
+          "= Summary ({} clients, {} readers, {} groups) ==========================",
+          nbClients,
+          poolSize,
+          System.getProperty(NB_GROUPS_PROPERTY));
+      logger.info(
+          "            strategy |   TPS | wait p50 (ms) | wait p99 (ms) | wait max (ms) |"
+              + " timeouts | utilization");
+      for (String result : results) {
+        logger.info(result);
+      }
+
+      logger.info("Exit program.");
+      return 0;
+    }
+
+    /**
+     * Runs the simulated clients concurrently and returns the measurement summary.
+     *
+     * @param readerAllocator The allocator.
+     * @param poolSize The number of readers of the pool.
+     * @param nbClients The number of simulated clients.
+     * @return A summary line.
+     * @throws InterruptedException If the current thread was interrupted.
+     */
+    private String measure(ReaderAllocator readerAllocator, int poolSize, int nbClients)
+        throws InterruptedException {
+
+      Statistics statistics = new Statistics();
+      ExecutorService executorService = Executors.newFixedThreadPool(nbClients);
+      long measurementStart = System.currentTimeMillis() + WARMUP_DURATION_MILLIS;
+      long end = measurementStart + MEASUREMENT_DURATION_MILLIS;
+      for (int i = 0; i < nbClients; i++) {
+        executorService.execute(
+            new SimulatedClient(
+                "client#" + i, appClient, readerAllocator, statistics, measurementStart, end));
+      }
+      executorService.shutdown();
+      executorService.awaitTermination(1, TimeUnit.MINUTES);
+
+      long[] waits = statistics.getSortedWaits();
+      String result =
+          String.format(
+              "%20s | %5.1f | %13.2f | %13.2f | %13.2f | %8d | %10.1f%%",
+              readerAllocator.getStrategy(),
+              statistics.getNbTransactions() * 1000.0 / MEASUREMENT_DURATION_MILLIS,
+              getPercentileMillis(waits, 50),
+              getPercentileMillis(waits, 99),
+              getPercentileMillis(waits, 100),
+              statistics.getNbTimeouts(),
+              statistics.getBusyNanos()
+                  * 100.0
+                  / (poolSize * TimeUnit.MILLISECONDS.toNanos(MEASUREMENT_DURATION_MILLIS)));
+      logger.info("{} simulated clients: {}", nbClients, result);
+      logger.info("Client: {}", readerAllocator);
+      return result;
+    }
+  }
+
+  /**
+   * Returns a percentile of sorted durations.
+   *
+   * @param sortedDurations The sorted durations, in nanoseconds.
+   * @param percentile The percentile, between 0 and 100.
+   * @return The duration in milliseconds, 0 if there is no duration.
+   */
+  private static double getPercentileMillis(long[] sortedDurations, int percentile) {
+    if (sortedDurations.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sortedDurations.length) - 1;
+    return sortedDurations[Math.max(index, 0)] / 1000000.0;
+  }
+
+  /** Statistics shared by all the simulated clients of a measurement. */
+  private static class Statistics {
+
+    private long[] waits = new long[1024];
+    private int nbWaits;
+    private int nbTransactions;
+    private int nbTimeouts;
+    private long busyNanos;
+
+    /**
+     * Records an allocation.
+     *
+     * @param waitNanos The allocation wait time.
+     */
+    private synchronized void recordAllocation(long waitNanos) {
+      if (nbWaits == waits.length) {
+        waits = Arrays.copyOf(waits, waits.length * 2);
+      }
+      waits[nbWaits++] = waitNanos;
+    }
+
+    /**
+     * Records a transaction.
+     *
+     * @param allocationNanos The duration of the allocation of the reader.
+     */
+    private synchronized void recordTransaction(long allocationNanos) {
+      nbTransactions++;
+      busyNanos += allocationNanos;
+    }
+
+    /** Records an allocation timed out. */
+    private synchronized void recordTimeout() {
+      nbTimeouts++;
+    }
+
+    private synchronized int getNbTransactions() {
+      return nbTransactions;
+    }
+
+    private synchronized int getNbTimeouts() {
+      return nbTimeouts;
+    }
+
+    private synchronized long getBusyNanos() {
+      return busyNanos;
+    }
+
+    private synchronized long[] getSortedWaits() {
+      long[] sortedWaits = Arrays.copyOf(waits, nbWaits);
+      Arrays.sort(sortedWaits);
+      return sortedWaits;
+    }
+  }
+
+  /** A simulated client: allocates a reader, executes a transaction and releases it, in a loop. */
+  private static class SimulatedClient implements Runnable {
+
+    private final String clientId;
+    private final AppClient appClient;
+    private final ReaderAllocator readerAllocator;
+    private final Statistics statistics;
+    private final long measurementStart;
+    private final long end;
+
+    /**
+     * Constructor.
+     *
+     * @param clientId The identifier of the client.
+     * @param appClient The client application.
+     * @param readerAllocator The allocator.
+     * @param statistics The shared statistics.
+     * @param measurementStart The time from which the transactions are taken into account.
+     * @param end The time at which the client stops.
+     */
+    private SimulatedClient(
+        String clientId,
+        AppClient appClient,
+        ReaderAllocator readerAllocator,
+        Statistics statistics,
+        long measurementStart,
+        long end) {
+      this.clientId = clientId;
+      this.appClient = appClient;
+      this.readerAllocator = readerAllocator;
+      this.statistics = statistics;
+      this.measurementStart = measurementStart;
+      this.end = end;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      try {
+        while (System.currentTimeMillis() < end) {
+          executeTransaction();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /**
+     * Allocates a reader, executes a transaction and releases the reader.
+     *
+     * @throws InterruptedException If the current thread was interrupted.
+     */
+    private void executeTransaction() throws InterruptedException {
+      long allocationStart = System.nanoTime();
+      CardReader remoteReader = readerAllocator.allocateReader(clientId, ALLOCATION_TIMEOUT_MILLIS);
+      long allocatedNanos = System.nanoTime();
+      boolean isMeasured = System.currentTimeMillis() >= measurementStart;
+      if (remoteReader == null) {
+        if (isMeasured) {
+          statistics.recordTimeout();
+        }
+        return;
+      }
+      if (isMeasured) {
+        statistics.recordAllocation(allocatedNanos - allocationStart);
+      }
+      boolean isSuccessful = false;
+      try {
+        CardSelectionResult cardSelectionResult = appClient.selectCard(remoteReader);
+        CalypsoTicketingServiceUtil.readEventLog(
+            (CalypsoCard) cardSelectionResult.getActiveSmartCard(), remoteReader);
+        isSuccessful = true;
+      } catch (RuntimeException e) {
+        logger.warn("Transaction failed on reader {}: {}", remoteReader.getName(), e.getMessage());
+      } finally {
+        readerAllocator.releaseReader(remoteReader);
+      }
+      long now = System.currentTimeMillis();
+      if (isSuccessful && isMeasured && now < end) {
+        statistics.recordTransaction(System.nanoTime() - allocatedNanos);
+      }
+    }
+  }
+}
@@ -0,0 +1,302 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.poolreaderserverside.webservice;
+
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.QuarkusApplication;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import org.eclipse.keyple.core.service.PoolPlugin;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client.AppClient;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client.CalypsoTicketingServiceUtil;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client.ReaderLeaseManager;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.server.AppServer;
+import org.eclipse.keypop.calypso.card.card.CalypsoCard;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.selection.CardSelectionResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark of the consecutive transactions of the clients of the pool, without and with the reuse
+ * of the allocated readers by a {@link ReaderLeaseManager}.
+ *
+ * <p>Concurrent simulated clients execute each a series of transactions: acquire a reader, select
+ * the card, read the event log file, return the reader. For each mode and each number of clients,
+ * the program logs the throughput, the transaction duration percentiles (allocation and release
+ * included) and the number of network round trips per transaction, counted by the server, the final
+ * release of the leased readers included.
+ *
+ * <p>The pool has 4 readers unless the system property {@code keyple.pool.size} is set. The numbers
+ * of clients can be provided as a comma separated list in the first argument, e.g. {@code 1,4}. Run
+ * it from its main method, preferably with a log level lowered to WARN for the "org.eclipse.keyple"
+ * category.
+ */
+public class Main_ReaderLeaseBenchmark {
+
+  private static final Logger logger = LoggerFactory.getLogger(Main_ReaderLeaseBenchmark.class);
+
+  private static final String POOL_SIZE_PROPERTY = "keyple.pool.size";
+  private static final String DEFAULT_POOL_SIZE = "4";
+  private static final int[] DEFAULT_NB_CLIENTS = {1, 4};
+  private static final int NB_WARMUP_TRANSACTIONS = 50;
+  private static final int NB_TRANSACTIONS_PER_CLIENT = 200;
+  private static final long LEASE_IDLE_TIMEOUT_MILLIS = 5000;
+  private static final long LEASE_RENEWAL_PERIOD_MILLIS = 1000;
+
+  public static void main(String... args) {
+    if (System.getProperty(POOL_SIZE_PROPERTY) == null) {
+      System.setProperty(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE);
+    }
+    Quarkus.run(ReaderLeaseBenchmarkApp.class, args);
+  }
+
+  /** Quarkus application running the benchmark. */
+  public static class ReaderLeaseBenchmarkApp implements QuarkusApplication {
+
+    /** The server application */
+    @Inject AppServer appServer;
+
+    /** The client application */
+    @Inject AppClient appClient;
+
+    /** {@inheritDoc} */
+    @Override
+    public int run(String... args) throws Exception {
+
+      logger.info("= Pool reader leases =======================================================");
+
+      int[] nbClientsList = args.length > 0 ? parseNbClients(args[0]) : DEFAULT_NB_CLIENTS;
+
+      appServer.init();
+      appClient.init();
+
+      PoolPlugin poolPlugin =
+          (PoolPlugin)
+              SmartCardServiceProvider.getService().getPlugin(AppClient.REMOTE_PLUGIN_NAME);
+
+      // Warms up the client and the server.
+      new SimulatedClient(appClient, poolPlugin, null, NB_WARMUP_TRANSACTIONS, new Statistics())
+          .run();
+
+      List<String> results = new ArrayList<String>();
+      for (boolean isLeaseEnabled : new boolean[] {false, true}) {
+        for (int nbClients : nbClientsList) {
+          results.add(measure(poolPlugin, isLeaseEnabled, nbClients));
+        }
+      }
+
+      logger.info(
+          "= Summary ({} readers, {} transactions per client) ===================",
+          System.getProperty(POOL_SIZE_PROPERTY),
+          NB_TRANSACTIONS_PER_CLIENT);
+      logger.info("leases | clients |   TPS | tx p50 (ms) | tx p99 (ms) | round trips/tx");
+      for (String result : results) {
+        logger.info(result);
+      }
+
+      logger.info("Exit program.");
+      return 0;
+    }
+
+    /**
+     * Runs the simulated clients concurrently and returns the measurement summary.
+     *
+     * @param poolPlugin The remote pool plugin.
+     * @param isLeaseEnabled true if the readers are reused.
+     * @param nbClients The number of simulated clients.
+     * @return A summary line.
+     * @throws InterruptedException If the current thread was interrupted.
+     */
+    private String measure(PoolPlugin poolPlugin, boolean isLeaseEnabled, int nbClients)
+        throws InterruptedException {
+
+      ReaderLeaseManager readerLeaseManager =
+          isLeaseEnabled
+              ? new ReaderLeaseManager(
+                  poolPlugin, LEASE_IDLE_TIMEOUT_MILLIS, LEASE_RENEWAL_PERIOD_MILLIS)
+              : null;
+      Statistics statistics = new Statistics();
+      long nbRequestsBefore = appServer.getNbRequests();
+      long start = System.nanoTime();
+      ExecutorService executorService = Executors.newFixedThreadPool(nbClients);
+      for (int i = 0; i < nbClients; i++) {
+        executorService.execute(
+            new SimulatedClient(
+                appClient, poolPlugin, readerLeaseManager, NB_TRANSACTIONS_PER_CLIENT, statistics));
+      }
+      executorService.shutdown();
+      executorService.awaitTermination(5, TimeUnit.MINUTES);
+      long durationNanos = System.nanoTime() - start;
+      if (readerLeaseManager != null) {
+        // Releases the leased readers, counted in the round trips.
+        readerLeaseManager.close();
+        logger.info("Client: {}", readerLeaseManager);
+      }
+      long nbRequests = appServer.getNbRequests() - nbRequestsBefore;
+
+      long[] durations = statistics.getSortedDurations();
+      int nbTransactions = durations.length;
+      String result =
+          String.format(
+              "%6s | %7d | %5.1f | %11.2f | %11.2f | %14.2f",
+              isLeaseEnabled ? "on" : "off",
+              nbClients,
+              nbTransactions * 1e9 / durationNanos,
+              getPercentileMillis(durations, 50),
+              getPercentileMillis(durations, 99),
+              nbTransactions == 0 ? 0 : (double) nbRequests / nbTransactions);
+      logger.info("{} simulated clients: {}", nbClients, result);
+      return result;
+    }
+  }
+
+  /**
+   * Parses a comma separated list of numbers of clients.
+   *
+   * @param value The value to parse.
+   * @return A not empty array.
+   */
+  private static int[] parseNbClients(String value) {
+    String[] items = value.split(",");
+    int[] nbClientsList = new int[items.length];
+    for (int i = 0; i < items.length; i++) {
+      nbClientsList[i] = Integer.parseInt(items[i].trim());
+    }
+    return nbClientsList;
+  }
+
+  /**
+   * Returns a percentile of sorted durations.
+   *
+   * @param sortedDurations The sorted durations, in nanoseconds.
+   * @param percentile The percentile, between 0 and 100.
+   * @return The duration in milliseconds, 0 if there is no duration.
+   */
+  private static double getPercentileMillis(long[] sortedDurations, int percentile) {
+    if (sortedDurations.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sortedDurations.length) - 1;
+    return sortedDurations[Math.max(index, 0)] / 1000000.0;
+  }
+
+  /** Statistics shared by all the simulated clients of a measurement. */
+  private static class Statistics {
+
+    private long[] durations = new long[1024];
+    private int nbDurations;
+
+    /**
+     * Records a successful transaction.
+     *
+     * @param durationNanos The duration of the transaction, allocation and release included.
+     */
+    private synchronized void record(long durationNanos) {
+      if (nbDurations == durations.length) {
+        durations = Arrays.copyOf(durations, durations.length * 2);
+      }
+      durations[nbDurations++] = durationNanos;
+    }
+
+    private synchronized long[] getSortedDurations() {
+      long[] sortedDurations = Arrays.copyOf(durations, nbDurations);
+      Arrays.sort(sortedDurations);
+      return sortedDurations;
+    }
+  }
+
+  /** A simulated client: executes a series of transactions. */
+  private static class SimulatedClient implements Runnable {
+
+    private final AppClient appClient;
+    private final PoolPlugin poolPlugin;
+    private final ReaderLeaseManager readerLeaseManager;
+    private final int nbTransactions;
+    private final Statistics statistics;
+
+    /**
+     * Constructor.
+     *
+     * @param appClient The client application.
+     * @param poolPlugin The remote pool plugin.
+     * @param readerLeaseManager The lease manager, null to allocate and release a reader for each
+     *     transaction.
+     * @param nbTransactions The number of transactions.
+     * @param statistics The shared statistics.
+     */
+    private SimulatedClient(
+        AppClient appClient,
+        PoolPlugin poolPlugin,
+        ReaderLeaseManager readerLeaseManager,
+        int nbTransactions,
+        Statistics statistics) {
+      this.appClient = appClient;
+      this.poolPlugin = poolPlugin;
+      this.readerLeaseManager = readerLeaseManager;
+      this.nbTransactions = nbTransactions;
+      this.statistics = statistics;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      String groupReference = poolPlugin.getReaderGroupReferences().first();
+      int nbDone = 0;
+      while (nbDone < nbTransactions) {
+        long start = System.nanoTime();
+        CardReader remoteReader;
+        try {
+          remoteReader =
+              readerLeaseManager != null
+                  ? readerLeaseManager.acquireReader(groupReference)
+                  : poolPlugin.allocateReader(groupReference);
+        } catch (RuntimeException e) {
+          remoteReader = null;
+        }
+        if (remoteReader == null) {
+          // All the readers are in use, or leased by other clients.
+          Thread.yield();
+          continue;
+        }
+        nbDone++;
+        try {
+          CardSelectionResult cardSelectionResult = appClient.selectCard(remoteReader);
+          CalypsoTicketingServiceUtil.readEventLog(
+              (CalypsoCard) cardSelectionResult.getActiveSmartCard(), remoteReader);
+        } catch (RuntimeException e) {
+          logger.warn(
+              "Transaction failed on reader {}: {}", remoteReader.getName(), e.getMessage());
+          if (readerLeaseManager != null) {
+            readerLeaseManager.discardReader(remoteReader);
+          } else {
+            poolPlugin.releaseReader(remoteReader);
+          }
+          continue;
+        }
+        if (readerLeaseManager != null) {
+          readerLeaseManager.returnReader(remoteReader);
+        } else {
+          poolPlugin.releaseReader(remoteReader);
+        }
+        statistics.record(System.nanoTime() - start);
+      }
+    }
+  }
+}
@@ -19,26 +19,43 @@
 import org.eclipse.keyple.core.service.SmartCardServiceProvider;
 import org.eclipse.keyple.distributed.RemotePluginClientFactory;
 import org.eclipse.keyple.distributed.RemotePoolPluginClientFactoryBuilder;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.common.PreSelectionUtil;
 import org.eclipse.keypop.calypso.card.card.CalypsoCard;
 import org.eclipse.keypop.reader.CardReader;
 import org.eclipse.keypop.reader.selection.CardSelectionManager;
 import org.eclipse.keypop.reader.selection.CardSelectionResult;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.rest.client.inject.RestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /** Example of a client side application. */
 @ApplicationScoped
 public class AppClient {
 
+  private static final Logger logger = LoggerFactory.getLogger(AppClient.class);
   public static final String REMOTE_PLUGIN_NAME = "REMOTE_PLUGIN_#1";
 
   /** The endpoint client */
   @Inject @RestClient EndpointClient endpointClient;
 
+  /** Time a reader is kept allocated for the next scenarios, 0 to release it at once */
+  @ConfigProperty(name = "keyple.pool.lease.idle-timeout-millis", defaultValue = "0")
+  long leaseIdleTimeoutMillis;
+
+  /** Idle time after which the lease of a reader kept allocated is renewed */
+  @ConfigProperty(name = "keyple.pool.lease.renewal-period-millis", defaultValue = "10000")
+  long leaseRenewalPeriodMillis;
+
+  /** The lease manager of the allocated readers, null if disabled */
+  private ReaderLeaseManager readerLeaseManager;
+
   /**
    * Initialize the client components :
    *
    * <ul>
-   *   <li>A pool {@link org.eclipse.keyple.distributed.RemotePluginClient} with a sync node.
+   *   <li>A pool {@link org.eclipse.keyple.distributed.RemotePluginClient} with a sync node,
+   *   <li>A {@link ReaderLeaseManager} of the allocated readers, if enabled.
    * </ul>
    */
   public void init() {
@@ -51,11 +68,32 @@ public void init() {
 
     // Register the remote plugin to the smart card service using the factory.
     SmartCardServiceProvider.getService().registerPlugin(factory);
+
+    // Init the lease manager keeping the allocated readers for the next scenarios.
+    if (leaseIdleTimeoutMillis > 0) {
+      readerLeaseManager =
+          new ReaderLeaseManager(
+              (PoolPlugin) SmartCardServiceProvider.getService().getPlugin(REMOTE_PLUGIN_NAME),
+              leaseIdleTimeoutMillis,
+              leaseRenewalPeriodMillis);
+    }
+  }
+
+  /**
+   * Returns the lease manager of the allocated readers.
+   *
+   * @return Null if the leases are disabled or if the client is not initialized.
+   */
+  public ReaderLeaseManager getReaderLeaseManager() {
+    return readerLeaseManager;
   }
 
   /**
    * Executes a simple scenario : allocate a reader, execute a transaction, release the reader.
    *
+   * <p>If the leases are enabled, the reader of a previous scenario is reused if still allocated,
+   * and the reader is kept allocated at the end of the scenario.
+   *
    * @return true if the transaction was successful
    */
   public Boolean launchScenario() {
@@ -67,22 +105,75 @@ public Boolean launchScenario() {
     // Retrieves the reader group references available.
     SortedSet<String> groupReferences = poolRemotePlugin.getReaderGroupReferences();
 
-    // Allocates a remote reader.
-    CardReader remoteReader = poolRemotePlugin.allocateReader(groupReferences.first());
+    // Allocates a remote reader, or reuses a reader kept allocated by a previous scenario.
+    CardReader remoteReader =
+        readerLeaseManager != null
+            ? readerLeaseManager.acquireReader(groupReferences.first())
+            : poolRemotePlugin.allocateReader(groupReferences.first());
+
+    String eventLog;
+    try {
+      // Execute a ticketing transaction :
+      // 1. perform a remote explicit selection, unless already done by the server
+      CardSelectionResult cardSelectionResult = selectCard(remoteReader);
 
-    // Execute a ticketing transaction :
-    // 1. perform a remote explicit selection
-    CardSelectionManager cardSelectionManager = CalypsoTicketingServiceUtil.getCardSelection();
-    CardSelectionResult cardSelectionResult =
-        cardSelectionManager.processCardSelectionScenario(remoteReader);
+      // 2. Reads the content of event log file
+      CalypsoCard calypsoCard = (CalypsoCard) cardSelectionResult.getActiveSmartCard();
+      eventLog = CalypsoTicketingServiceUtil.readEventLog(calypsoCard, remoteReader);
 
-    // 2. Reads the content of event log file
-    CalypsoCard calypsoCard = (CalypsoCard) cardSelectionResult.getActiveSmartCard();
-    String eventLog = CalypsoTicketingServiceUtil.readEventLog(calypsoCard, remoteReader);
+    } catch (RuntimeException e) {
+      // The state of the remote reader is uncertain: it is released instead of being kept.
+      if (readerLeaseManager != null) {
+        readerLeaseManager.discardReader(remoteReader);
+      } else {
+        releaseReaderQuietly(poolRemotePlugin, remoteReader);
+      }
+      throw e;
+    }
 
-    // Releases the remote reader.
-    poolRemotePlugin.releaseReader(remoteReader);
+    // Releases the remote reader, or keeps it allocated for the next scenarios.
+    if (readerLeaseManager != null) {
+      readerLeaseManager.returnReader(remoteReader);
+    } else {
+      PreSelectionFilter.discardProcessedCardSelectionScenario(remoteReader.getName());
+      poolRemotePlugin.releaseReader(remoteReader);
+    }
 
     return !eventLog.isEmpty();
   }
+
+  /**
+   * Selects the card of an allocated remote reader.
+   *
+   * <p>If the server pre-selected the card when allocating the reader, the selection result
+   * received with the allocation is used, without any exchange with the card. Otherwise, the card
+   * selection scenario is processed through the remote reader.
+   *
+   * @param remoteReader The allocated remote reader.
+   * @return The card selection result.
+   */
+  public CardSelectionResult selectCard(CardReader remoteReader) {
+    String processedCardSelectionScenario =
+        PreSelectionFilter.takeProcessedCardSelectionScenario(remoteReader.getName());
+    if (processedCardSelectionScenario != null) {
+      return CalypsoTicketingServiceUtil.importCardSelectionResult(processedCardSelectionScenario);
+    }
+    CardSelectionManager cardSelectionManager = PreSelectionUtil.getCardSelection();
+    return cardSelectionManager.processCardSelectionScenario(remoteReader);
+  }
+
+  /**
+   * Releases a remote reader after a failed transaction, without masking the failure.
+   *
+   * @param poolRemotePlugin The pool remote plugin.
+   * @param remoteReader The allocated remote reader.
+   */
+  private static void releaseReaderQuietly(PoolPlugin poolRemotePlugin, CardReader remoteReader) {
+    PreSelectionFilter.discardProcessedCardSelectionScenario(remoteReader.getName());
+    try {
+      poolRemotePlugin.releaseReader(remoteReader);
+    } catch (RuntimeException e) {
+      logger.warn("Release of reader '{}' failed: {}", remoteReader.getName(), e.getMessage());
+    }
+  }
 }
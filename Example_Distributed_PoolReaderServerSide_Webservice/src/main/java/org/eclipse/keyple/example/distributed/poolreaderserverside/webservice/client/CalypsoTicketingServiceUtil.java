@@ -12,18 +12,20 @@
  ************************************************************************************** */
 package org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client;
 
+import static org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.common.PreSelectionUtil.RECORD_NUMBER_1;
+import static org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.common.PreSelectionUtil.SFI_EnvironmentAndHolder;
+
 import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
 import org.eclipse.keyple.core.service.SmartCardServiceProvider;
 import org.eclipse.keyple.core.util.HexUtil;
 import org.eclipse.keypop.calypso.card.CalypsoCardApiFactory;
 import org.eclipse.keypop.calypso.card.card.CalypsoCard;
-import org.eclipse.keypop.calypso.card.card.CalypsoCardSelectionExtension;
 import org.eclipse.keypop.calypso.card.card.ElementaryFile;
 import org.eclipse.keypop.reader.CardReader;
 import org.eclipse.keypop.reader.ChannelControl;
 import org.eclipse.keypop.reader.ReaderApiFactory;
 import org.eclipse.keypop.reader.selection.CardSelectionManager;
-import org.eclipse.keypop.reader.selection.IsoCardSelector;
+import org.eclipse.keypop.reader.selection.CardSelectionResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,11 +34,6 @@ public class CalypsoTicketingServiceUtil {
 
   private static final Logger logger = LoggerFactory.getLogger(CalypsoTicketingServiceUtil.class);
 
-  /** AID: Keyple */
-  public static final String AID = "315449432E49434131";
-
-  public static final byte RECORD_NUMBER_1 = 1;
-  public static final byte SFI_EnvironmentAndHolder = (byte) 0x07;
   public static final byte SFI_EventLog = (byte) 0x08;
   private static final ReaderApiFactory readerApiFactory =
       SmartCardServiceProvider.getService().getReaderApiFactory();
@@ -46,30 +43,22 @@ public class CalypsoTicketingServiceUtil {
   private CalypsoTicketingServiceUtil() {}
 
   /**
-   * Prepare a Selection object ready to select Calypso card and read environment file
+   * Returns the result of a card selection processed elsewhere, e.g. by the server when allocating
+   * the reader.
    *
-   * @return instance of Selection object
+   * @param processedCardSelectionScenario The processed card selection scenario, as exported by
+   *     {@link CardSelectionManager#exportProcessedCardSelectionScenario()}.
+   * @return The card selection result.
    */
-  public static CardSelectionManager getCardSelection() {
+  public static CardSelectionResult importCardSelectionResult(
+      String processedCardSelectionScenario) {
 
     // Check the Calypso extension.
     SmartCardServiceProvider.getService().checkCardExtension(CalypsoExtensionService.getInstance());
 
-    // ISO card selection
-    IsoCardSelector cardSelector = readerApiFactory.createIsoCardSelector().filterByDfName(AID);
-
-    // Calypso additional operations
-    CalypsoCardSelectionExtension cardSelectionExtension =
-        calypsoCardApiFactory
-            .createCalypsoCardSelectionExtension()
-            .prepareReadRecord(SFI_EnvironmentAndHolder, RECORD_NUMBER_1);
-
-    // Prepare Card Selection
-    CardSelectionManager cardSelectionManager = readerApiFactory.createCardSelectionManager();
-
-    // Add the selection case to the current selection
-    cardSelectionManager.prepareSelection(cardSelector, cardSelectionExtension);
-    return cardSelectionManager;
+    return readerApiFactory
+        .createCardSelectionManager()
+        .importProcessedCardSelectionScenario(processedCardSelectionScenario);
   }
 
   /**
@@ -19,14 +19,17 @@
 import org.eclipse.keyple.distributed.MessageDto;
 import org.eclipse.keyple.distributed.spi.SyncEndpointClientSpi;
 import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.server.EndpointServer;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
 /**
  * Example of a {@link SyncEndpointClientSpi} implementation using Web Services.
  *
- * <p>Sends requests to the {@link EndpointServer}.
+ * <p>Sends requests to the {@link EndpointServer}. The selection results of the readers
+ * pre-selected by the server are collected by the {@link PreSelectionFilter}.
  */
 @RegisterRestClient(configKey = "pool-local-service-api")
+@RegisterProvider(PreSelectionFilter.class)
 public interface EndpointClient extends SyncEndpointClientSpi {
 
   @POST
@@ -0,0 +1,132 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client;
+
+import java.nio.charset.Charset;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.common.PreSelectionUtil;
+
+/**
+ * JAX-RS client filter collecting the selection results of the readers pre-selected by the server
+ * when they were allocated, returned in the headers {@link PreSelectionUtil#READER_NAME_HEADER} and
+ * {@link PreSelectionUtil#SELECTION_HEADER} of the allocation response.
+ *
+ * <p>A selection result is only valid for the allocation that returned it: it is forgotten when the
+ * reader is released (see {@link #discardProcessedCardSelectionScenario(String)}), and it expires
+ * after {@value #VALIDITY_MILLIS} ms if it is not used, e.g. when the allocating request failed
+ * after the response or the card has been removed in the meantime. A later allocation of the same
+ * reader, not pre-selected by the server, therefore never uses the result of a former card.
+ *
+ * <p>It is registered on the REST client with {@code @RegisterProvider}.
+ */
+public class PreSelectionFilter implements ClientResponseFilter {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /** The time during which a selection result can be used after the allocation, in milliseconds. */
+  static final long VALIDITY_MILLIS = 10000;
+
+  private static final long VALIDITY_NANOS = TimeUnit.MILLISECONDS.toNanos(VALIDITY_MILLIS);
+
+  /** The processed card selection scenarios not yet used, by reader name. */
+  private static final Map<String, PreSelection> preSelections =
+      new ConcurrentHashMap<String, PreSelection>();
+
+  /**
+   * Returns and forgets the processed card selection scenario of a reader pre-selected by the
+   * server.
+   *
+   * @param readerName The name of the allocated reader.
+   * @return Null if the reader was not pre-selected or if its selection result has expired.
+   */
+  public static String takeProcessedCardSelectionScenario(String readerName) {
+    PreSelection preSelection = preSelections.remove(readerName);
+    if (preSelection == null || preSelection.isExpired(System.nanoTime())) {
+      return null;
+    }
+    return preSelection.processedCardSelectionScenario;
+  }
+
+  /**
+   * Forgets the processed card selection scenario of a reader, if not used, when the reader is
+   * released.
+   *
+   * @param readerName The name of the released reader.
+   */
+  public static void discardProcessedCardSelectionScenario(String readerName) {
+    preSelections.remove(readerName);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+    long now = System.nanoTime();
+    removeExpiredPreSelections(now);
+    String readerName = responseContext.getHeaderString(PreSelectionUtil.READER_NAME_HEADER);
+    String selection = responseContext.getHeaderString(PreSelectionUtil.SELECTION_HEADER);
+    if (readerName != null && selection != null) {
+      preSelections.put(
+          readerName,
+          new PreSelection(new String(Base64.getDecoder().decode(selection), UTF_8), now));
+    }
+  }
+
+  /**
+   * Removes the selection results not used in time.
+   *
+   * @param now The current time, in nanoseconds.
+   */
+  private static void removeExpiredPreSelections(long now) {
+    Iterator<PreSelection> iterator = preSelections.values().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().isExpired(now)) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /** The selection result of a pre-selected reader, with its time of reception. */
+  private static final class PreSelection {
+
+    private final String processedCardSelectionScenario;
+    private final long receptionNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param processedCardSelectionScenario The processed card selection scenario.
+     * @param receptionNanos The time of reception of the allocation response, in nanoseconds.
+     */
+    private PreSelection(String processedCardSelectionScenario, long receptionNanos) {
+      this.processedCardSelectionScenario = processedCardSelectionScenario;
+      this.receptionNanos = receptionNanos;
+    }
+
+    /**
+     * Indicates whether the selection result is too old to be used.
+     *
+     * @param now The current time, in nanoseconds.
+     * @return true if expired.
+     */
+    private boolean isExpired(long now) {
+      return now - receptionNanos >= VALIDITY_NANOS;
+    }
+  }
+}
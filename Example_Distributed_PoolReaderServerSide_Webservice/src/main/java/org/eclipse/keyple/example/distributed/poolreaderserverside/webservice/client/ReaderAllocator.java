@@ -0,0 +1,412 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.keyple.core.service.PoolPlugin;
+import org.eclipse.keypop.reader.CardReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Allocation layer on top of a {@link PoolPlugin}, spreading the allocations across the reader
+ * groups of the pool.
+ *
+ * <p>For each allocation, the group is chosen according to a {@link Strategy}, the load of a group
+ * being the number of its readers currently allocated through this allocator. The group in which a
+ * client obtained its previous reader is tried first (affinity), unless it is full. A group is
+ * considered full when an allocation in it fails, until one of its readers is released.
+ *
+ * <p>When all the groups are full, the allocations are queued and served in arrival order (fair
+ * queuing): each released reader is handed over to the oldest waiting allocation, and a new
+ * allocation does not overtake the waiting ones. As the pool may be shared with other applications,
+ * the oldest waiting allocation also tries all the groups again periodically.
+ *
+ * <p>The allocator counts the allocations, the failed allocation attempts, the affinity hits, the
+ * queued allocations and the timeouts, and measures the wait time of the allocations.
+ */
+public class ReaderAllocator {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReaderAllocator.class);
+
+  private static final long RETRY_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final int MAX_AFFINITIES = 10000;
+
+  /** Strategy choosing the reader group of an allocation. */
+  public enum Strategy {
+    /** The groups are tried in their order, as with {@code getReaderGroupReferences().first()}. */
+    ORDERED,
+    /** The least loaded group is tried first. */
+    LEAST_LOADED,
+    /** The least loaded of two groups chosen at random is tried first. */
+    POWER_OF_TWO_CHOICES
+  }
+
+  private final PoolPlugin poolPlugin;
+  private final Strategy strategy;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  // Guarded by lock.
+  private final Map<String, GroupState> groupStates = new LinkedHashMap<String, GroupState>();
+  private final Map<CardReader, GroupState> readerGroupStates =
+      new IdentityHashMap<CardReader, GroupState>();
+  private final Map<String, String> affinities =
+      new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+          return size() > MAX_AFFINITIES;
+        }
+      };
+  private final LinkedList<Waiter> waiters = new LinkedList<Waiter>();
+  private final Random random = new Random();
+  private long releaseCount;
+  private long nbAllocations;
+  private long nbFailedAttempts;
+  private long nbAffinityHits;
+  private long nbQueuedAllocations;
+  private long nbTimeouts;
+  private long totalWaitNanos;
+  private long maxWaitNanos;
+  private int maxQueueLength;
+
+  /**
+   * Constructor.
+   *
+   * @param poolPlugin The pool plugin.
+   * @param strategy The strategy choosing the reader group of an allocation.
+   */
+  public ReaderAllocator(PoolPlugin poolPlugin, Strategy strategy) {
+    this.poolPlugin = poolPlugin;
+    this.strategy = strategy;
+    for (String groupReference : poolPlugin.getReaderGroupReferences()) {
+      groupStates.put(groupReference, new GroupState(groupReference));
+    }
+  }
+
+  /**
+   * Allocates a reader in one of the groups of the pool, waiting for a reader to be released if all
+   * the groups are full.
+   *
+   * @param clientId The identifier of the client for the affinity, null if none.
+   * @param timeoutMillis The maximum wait time, in milliseconds.
+   * @return Null if no reader could be allocated within the timeout.
+   * @throws InterruptedException If the current thread was interrupted while waiting.
+   */
+  public CardReader allocateReader(String clientId, long timeoutMillis)
+      throws InterruptedException {
+
+    long startNanos = System.nanoTime();
+    long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    Waiter waiter = null;
+    lock.lock();
+    try {
+      while (true) {
+        GroupState grantedGroupState = null;
+        boolean isAttemptAllowed;
+        if (waiter == null) {
+          // A new allocation does not overtake the waiting ones.
+          isAttemptAllowed = waiters.isEmpty();
+        } else if (waiter.grantedGroupState != null) {
+          grantedGroupState = waiter.grantedGroupState;
+          waiter.grantedGroupState = null;
+          isAttemptAllowed = true;
+        } else if (waiters.getFirst() == waiter
+            && System.nanoTime() - waiter.lastAttemptNanos >= RETRY_PERIOD_NANOS) {
+          // Readers may have been released by other applications.
+          for (GroupState groupState : groupStates.values()) {
+            groupState.isFull = false;
+          }
+          isAttemptAllowed = true;
+        } else {
+          isAttemptAllowed = false;
+        }
+        if (isAttemptAllowed) {
+          long releaseCountBefore = releaseCount;
+          CardReader reader = tryAllocateReader(clientId, grantedGroupState);
+          if (reader != null) {
+            long waitNanos = System.nanoTime() - startNanos;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+            return reader;
+          }
+          if (waiter == null && releaseCount != releaseCountBefore) {
+            // A reader was released during the attempt, before this allocation was queued.
+            continue;
+          }
+          if (waiter != null) {
+            waiter.lastAttemptNanos = System.nanoTime();
+          }
+        }
+        if (waiter == null) {
+          waiter = new Waiter(lock.newCondition());
+          waiters.addLast(waiter);
+          nbQueuedAllocations++;
+          maxQueueLength = Math.max(maxQueueLength, waiters.size());
+        }
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+          nbTimeouts++;
+          return null;
+        }
+        waiter.condition.awaitNanos(Math.min(remainingNanos, RETRY_PERIOD_NANOS));
+      }
+    } finally {
+      if (waiter != null) {
+        waiters.remove(waiter);
+        if (waiter.grantedGroupState != null) {
+          // Timeout or interruption: the granted reader goes to the next waiting allocation.
+          grantOrFree(waiter.grantedGroupState);
+        }
+      }
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Releases a reader allocated by this allocator.
+   *
+   * @param reader The reader.
+   * @throws IllegalArgumentException If the reader was not allocated by this allocator.
+   */
+  public void releaseReader(CardReader reader) {
+    GroupState groupState;
+    lock.lock();
+    try {
+      groupState = readerGroupStates.remove(reader);
+    } finally {
+      lock.unlock();
+    }
+    if (groupState == null) {
+      throw new IllegalArgumentException("Reader not allocated by this allocator.");
+    }
+    PreSelectionFilter.discardProcessedCardSelectionScenario(reader.getName());
+    try {
+      poolPlugin.releaseReader(reader);
+    } finally {
+      lock.lock();
+      try {
+        groupState.load--;
+        groupState.releaseCount++;
+        releaseCount++;
+        grantOrFree(groupState);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Returns the strategy choosing the reader group of an allocation.
+   *
+   * @return A not null reference.
+   */
+  public Strategy getStrategy() {
+    return strategy;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    lock.lock();
+    try {
+      Map<String, Long> allocationsPerGroup = new LinkedHashMap<String, Long>();
+      for (GroupState groupState : groupStates.values()) {
+        allocationsPerGroup.put(groupState.groupReference, groupState.nbAllocations);
+      }
+      return "ReaderAllocator{"
+          + "strategy="
+          + strategy
+          + ", nbAllocations="
+          + nbAllocations
+          + ", nbFailedAttempts="
+          + nbFailedAttempts
+          + ", affinityHitRatio="
+          + String.format("%.3f", nbAllocations == 0 ? 0 : (double) nbAffinityHits / nbAllocations)
+          + ", nbQueuedAllocations="
+          + nbQueuedAllocations
+          + ", maxQueueLength="
+          + maxQueueLength
+          + ", nbTimeouts="
+          + nbTimeouts
+          + ", meanWaitMicros="
+          + (nbAllocations == 0 ? 0 : totalWaitNanos / nbAllocations / 1000)
+          + ", maxWaitMicros="
+          + maxWaitNanos / 1000
+          + ", allocationsPerGroup="
+          + allocationsPerGroup
+          + '}';
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Hands over a released reader of a group to the oldest waiting allocation without a reader
+   * granted, or marks the group as not full if there is none.
+   *
+   * <p>Must be called with the lock held.
+   *
+   * @param groupState The group of the released reader.
+   */
+  private void grantOrFree(GroupState groupState) {
+    for (Waiter waiter : waiters) {
+      if (waiter.grantedGroupState == null) {
+        waiter.grantedGroupState = groupState;
+        waiter.condition.signal();
+        return;
+      }
+    }
+    groupState.isFull = false;
+  }
+
+  /**
+   * Tries to allocate a reader, in the granted group first if any, then in the groups not full in
+   * the order of the strategy.
+   *
+   * <p>Must be called with the lock held, which is released during the calls to the pool plugin.
+   *
+   * @param clientId The identifier of the client for the affinity, null if none.
+   * @param grantedGroupState The group of a reader released for this allocation, null if none.
+   * @return Null if all the groups are full.
+   */
+  private CardReader tryAllocateReader(String clientId, GroupState grantedGroupState) {
+    String affinityGroupReference = clientId == null ? null : affinities.get(clientId);
+    List<GroupState> candidates = getCandidates(affinityGroupReference);
+    if (grantedGroupState != null) {
+      candidates.remove(grantedGroupState);
+      candidates.add(0, grantedGroupState);
+    }
+    for (GroupState groupState : candidates) {
+      long releaseCountBefore = groupState.releaseCount;
+      // Reserve the slot so that the concurrent allocations spread over the other groups.
+      groupState.load++;
+      CardReader reader = null;
+      lock.unlock();
+      try {
+        reader = poolPlugin.allocateReader(groupState.groupReference);
+      } catch (RuntimeException e) {
+        logger.debug(
+            "Allocation in group '{}' failed: {}", groupState.groupReference, e.getMessage());
+      } finally {
+        lock.lock();
+      }
+      if (reader != null) {
+        readerGroupStates.put(reader, groupState);
+        groupState.nbAllocations++;
+        nbAllocations++;
+        if (groupState.groupReference.equals(affinityGroupReference)) {
+          nbAffinityHits++;
+        }
+        if (clientId != null) {
+          affinities.put(clientId, groupState.groupReference);
+        }
+        return reader;
+      }
+      groupState.load--;
+      nbFailedAttempts++;
+      // A reader released meanwhile may not have been seen by the pool plugin.
+      if (groupState.releaseCount == releaseCountBefore) {
+        groupState.isFull = true;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the groups not full, in the order in which they should be tried.
+   *
+   * @param affinityGroupReference The group of the previous allocation of the client, null if none.
+   * @return A new list.
+   */
+  private List<GroupState> getCandidates(String affinityGroupReference) {
+    List<GroupState> candidates = new ArrayList<GroupState>();
+    for (GroupState groupState : groupStates.values()) {
+      if (!groupState.isFull) {
+        candidates.add(groupState);
+      }
+    }
+    if (strategy != Strategy.ORDERED && candidates.size() > 1) {
+      // Random order between the groups equally loaded.
+      Collections.shuffle(candidates, random);
+      Comparator<GroupState> byLoad =
+          new Comparator<GroupState>() {
+            @Override
+            public int compare(GroupState groupState1, GroupState groupState2) {
+              return groupState1.load < groupState2.load
+                  ? -1
+                  : (groupState1.load == groupState2.load ? 0 : 1);
+            }
+          };
+      if (strategy == Strategy.LEAST_LOADED) {
+        Collections.sort(candidates, byLoad);
+      } else if (byLoad.compare(candidates.get(1), candidates.get(0)) < 0) {
+        // Power of two choices: the two first groups are random, the least loaded goes first.
+        Collections.swap(candidates, 0, 1);
+      }
+    }
+    GroupState affinityGroupState =
+        affinityGroupReference == null ? null : groupStates.get(affinityGroupReference);
+    if (affinityGroupState != null && candidates.remove(affinityGroupState)) {
+      candidates.add(0, affinityGroupState);
+    }
+    return candidates;
+  }
+
+  /** The allocation state of a reader group. */
+  private static final class GroupState {
+
+    private final String groupReference;
+    private int load;
+    private boolean isFull;
+    private long releaseCount;
+    private long nbAllocations;
+
+    /**
+     * Constructor.
+     *
+     * @param groupReference The reference of the group.
+     */
+    private GroupState(String groupReference) {
+      this.groupReference = groupReference;
+    }
+  }
+
+  /** A queued allocation. */
+  private static final class Waiter {
+
+    private final Condition condition;
+    private GroupState grantedGroupState;
+    private long lastAttemptNanos = System.nanoTime();
+
+    /**
+     * Constructor.
+     *
+     * @param condition The condition signaled when a reader is granted.
+     */
+    private Waiter(Condition condition) {
+      this.condition = condition;
+    }
+  }
+}
@@ -0,0 +1,370 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.service.PoolPlugin;
+import org.eclipse.keypop.reader.CardReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lease manager of the readers allocated through a remote {@link PoolPlugin}, sparing the
+ * allocation and release round trips of consecutive transactions.
+ *
+ * <p>A reader returned at the end of a transaction is not released but kept allocated (leased)
+ * during an idle timeout, and is handed over to the next transaction requesting a reader of the
+ * same group. The most recently returned reader is reused first, so that the readers in excess
+ * reach the idle timeout and are released.
+ *
+ * <p>A background task releases the readers idle for longer than the idle timeout, and renews the
+ * leases of the readers idle for longer than the renewal period: a lightweight request ({@link
+ * CardReader#isCardPresent()}) checks that the reader is still allocated on the server side, e.g.
+ * after a restart of the server, and the lease is dropped if it fails. Using a reader renews its
+ * lease implicitly.
+ *
+ * <p>The manager counts the acquisitions, the reuses, the allocations, the releases and the
+ * renewals. Each reuse spares two round trips: the allocation and the release.
+ */
+public class ReaderLeaseManager {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReaderLeaseManager.class);
+
+  private static final long MIN_HOUSEKEEPING_PERIOD_MILLIS = 10;
+
+  private final PoolPlugin poolPlugin;
+  private final long idleTimeoutNanos;
+  private final long renewalPeriodNanos;
+  private final ScheduledExecutorService housekeepingExecutor;
+
+  // Guarded by this.
+  private final Map<String, Deque<Lease>> idleLeases = new HashMap<String, Deque<Lease>>();
+  private final Map<CardReader, Lease> activeLeases = new IdentityHashMap<CardReader, Lease>();
+  private boolean isClosed;
+  private long nbAcquisitions;
+  private long nbReuses;
+  private long nbAllocations;
+  private long nbReleases;
+  private long nbRenewals;
+  private long nbLostLeases;
+
+  /**
+   * Constructor.
+   *
+   * <p>Starts the background task releasing the idle readers and renewing the leases.
+   *
+   * @param poolPlugin The remote pool plugin.
+   * @param idleTimeoutMillis The time during which a returned reader remains allocated, in
+   *     milliseconds.
+   * @param renewalPeriodMillis The idle time after which the lease of a reader is renewed, in
+   *     milliseconds; should be less than the idle timeout to have an effect.
+   * @throws IllegalArgumentException If a duration is not positive.
+   */
+  public ReaderLeaseManager(
+      PoolPlugin poolPlugin, long idleTimeoutMillis, long renewalPeriodMillis) {
+    if (idleTimeoutMillis <= 0 || renewalPeriodMillis <= 0) {
+      throw new IllegalArgumentException(
+          "Idle timeout and renewal period must be positive: "
+              + idleTimeoutMillis
+              + ", "
+              + renewalPeriodMillis);
+    }
+    this.poolPlugin = poolPlugin;
+    this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+    this.renewalPeriodNanos = TimeUnit.MILLISECONDS.toNanos(renewalPeriodMillis);
+    long housekeepingPeriodMillis =
+        Math.max(
+            Math.min(idleTimeoutMillis, renewalPeriodMillis) / 4, MIN_HOUSEKEEPING_PERIOD_MILLIS);
+    housekeepingExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactory() {
+              @Override
+              public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "reader-lease-housekeeping");
+                thread.setDaemon(true);
+                return thread;
+              }
+            });
+    housekeepingExecutor.scheduleWithFixedDelay(
+        new Runnable() {
+          @Override
+          public void run() {
+            try {
+              releaseIdleReaders();
+              renewLeases();
+            } catch (RuntimeException e) {
+              logger.warn("Reader lease housekeeping failed: {}", e.getMessage());
+            }
+          }
+        },
+        housekeepingPeriodMillis,
+        housekeepingPeriodMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns a reader of a group for a transaction: an idle leased reader if any, otherwise a reader
+   * newly allocated by the pool plugin.
+   *
+   * @param groupReference The reference of the reader group.
+   * @return The reader, to be returned with {@link #returnReader(CardReader)} or {@link
+   *     #discardReader(CardReader)} at the end of the transaction, null if the pool plugin did not
+   *     allocate any reader.
+   * @throws IllegalStateException If the manager is closed.
+   */
+  public CardReader acquireReader(String groupReference) {
+    synchronized (this) {
+      if (isClosed) {
+        throw new IllegalStateException("The reader lease manager is closed.");
+      }
+      nbAcquisitions++;
+      Deque<Lease> leases = idleLeases.get(groupReference);
+      Lease lease = leases != null ? leases.pollFirst() : null;
+      if (lease != null) {
+        nbReuses++;
+        activeLeases.put(lease.reader, lease);
+        return lease.reader;
+      }
+    }
+    // Outside of the lock: the allocation is a round trip to the server.
+    CardReader reader = poolPlugin.allocateReader(groupReference);
+    if (reader == null) {
+      return null;
+    }
+    synchronized (this) {
+      nbAllocations++;
+      activeLeases.put(reader, new Lease(reader, groupReference));
+    }
+    return reader;
+  }
+
+  /**
+   * Returns a reader at the end of a successful transaction; the reader remains allocated for the
+   * next transactions until the idle timeout.
+   *
+   * @param reader The reader provided by {@link #acquireReader(String)}.
+   * @throws IllegalArgumentException If the reader is not in use.
+   */
+  public void returnReader(CardReader reader) {
+    synchronized (this) {
+      Lease lease = removeActiveLease(reader);
+      if (!isClosed) {
+        long now = System.nanoTime();
+        lease.lastUseNanos = now;
+        lease.lastRenewalNanos = now;
+        Deque<Lease> leases = idleLeases.get(lease.groupReference);
+        if (leases == null) {
+          leases = new ArrayDeque<Lease>();
+          idleLeases.put(lease.groupReference, leases);
+        }
+        leases.addFirst(lease);
+        return;
+      }
+    }
+    release(reader);
+  }
+
+  /**
+   * Releases immediately a reader whose state is uncertain, e.g. after a failed transaction.
+   *
+   * @param reader The reader provided by {@link #acquireReader(String)}.
+   * @throws IllegalArgumentException If the reader is not in use.
+   */
+  public void discardReader(CardReader reader) {
+    synchronized (this) {
+      removeActiveLease(reader);
+    }
+    release(reader);
+  }
+
+  /**
+   * Stops the background task and releases the idle readers; the readers in use are released when
+   * returned.
+   */
+  public void close() {
+    List<Lease> leases = new ArrayList<Lease>();
+    synchronized (this) {
+      isClosed = true;
+      for (Deque<Lease> groupLeases : idleLeases.values()) {
+        leases.addAll(groupLeases);
+      }
+      idleLeases.clear();
+    }
+    housekeepingExecutor.shutdown();
+    for (Lease lease : leases) {
+      release(lease.reader);
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized String toString() {
+    int nbIdleReaders = 0;
+    for (Deque<Lease> leases : idleLeases.values()) {
+      nbIdleReaders += leases.size();
+    }
+    return "ReaderLeaseManager{"
+        + "nbAcquisitions="
+        + nbAcquisitions
+        + ", nbReuses="
+        + nbReuses
+        + ", reuseRatio="
+        + (nbAcquisitions == 0 ? 0 : (double) nbReuses / nbAcquisitions)
+        + ", nbAllocations="
+        + nbAllocations
+        + ", nbReleases="
+        + nbReleases
+        + ", nbRenewals="
+        + nbRenewals
+        + ", nbLostLeases="
+        + nbLostLeases
+        + ", savedRoundTrips="
+        + (2 * nbReuses - nbRenewals)
+        + ", nbActiveReaders="
+        + activeLeases.size()
+        + ", nbIdleReaders="
+        + nbIdleReaders
+        + '}';
+  }
+
+  /**
+   * Removes the lease of a reader in use.
+   *
+   * @param reader The reader.
+   * @return A not null lease.
+   * @throws IllegalArgumentException If the reader is not in use.
+   */
+  private Lease removeActiveLease(CardReader reader) {
+    Lease lease = activeLeases.remove(reader);
+    if (lease == null) {
+      throw new IllegalArgumentException(
+          "Reader '" + reader.getName() + "' was not acquired from this manager.");
+    }
+    return lease;
+  }
+
+  /** Releases the readers idle for longer than the idle timeout. */
+  private void releaseIdleReaders() {
+    List<Lease> expiredLeases = new ArrayList<Lease>();
+    synchronized (this) {
+      long now = System.nanoTime();
+      for (Deque<Lease> leases : idleLeases.values()) {
+        // The least recently used readers are at the end.
+        while (!leases.isEmpty() && now - leases.peekLast().lastUseNanos >= idleTimeoutNanos) {
+          expiredLeases.add(leases.pollLast());
+        }
+      }
+    }
+    for (Lease lease : expiredLeases) {
+      release(lease.reader);
+    }
+  }
+
+  /** Renews the leases of the readers idle for longer than the renewal period. */
+  private void renewLeases() {
+    List<Lease> leasesToRenew = new ArrayList<Lease>();
+    synchronized (this) {
+      long now = System.nanoTime();
+      for (Deque<Lease> leases : idleLeases.values()) {
+        Iterator<Lease> iterator = leases.iterator();
+        while (iterator.hasNext()) {
+          Lease lease = iterator.next();
+          if (now - lease.lastRenewalNanos >= renewalPeriodNanos) {
+            // Not available during the renewal.
+            iterator.remove();
+            leasesToRenew.add(lease);
+          }
+        }
+      }
+    }
+    for (Lease lease : leasesToRenew) {
+      boolean isRenewed;
+      try {
+        lease.reader.isCardPresent();
+        isRenewed = true;
+      } catch (RuntimeException e) {
+        logger.warn("Lease of reader '{}' lost: {}", lease.reader.getName(), e.getMessage());
+        isRenewed = false;
+      }
+      synchronized (this) {
+        nbRenewals++;
+        if (isRenewed && !isClosed) {
+          lease.lastRenewalNanos = System.nanoTime();
+          // Keeps its rank by last use, the deque being sorted from the most recently used.
+          Deque<Lease> leases = idleLeases.get(lease.groupReference);
+          List<Lease> moreRecentLeases = new ArrayList<Lease>();
+          while (!leases.isEmpty() && leases.peekFirst().lastUseNanos - lease.lastUseNanos > 0) {
+            moreRecentLeases.add(leases.pollFirst());
+          }
+          leases.addFirst(lease);
+          for (int i = moreRecentLeases.size() - 1; i >= 0; i--) {
+            leases.addFirst(moreRecentLeases.get(i));
+          }
+          continue;
+        }
+        if (!isRenewed) {
+          nbLostLeases++;
+        }
+      }
+      release(lease.reader);
+    }
+  }
+
+  /**
+   * Releases a reader through the pool plugin, ignoring the failures.
+   *
+   * @param reader The reader.
+   */
+  private void release(CardReader reader) {
+    PreSelectionFilter.discardProcessedCardSelectionScenario(reader.getName());
+    try {
+      poolPlugin.releaseReader(reader);
+    } catch (RuntimeException e) {
+      logger.warn("Release of reader '{}' failed: {}", reader.getName(), e.getMessage());
+    }
+    synchronized (this) {
+      nbReleases++;
+    }
+  }
+
+  /** A reader allocated by the manager. */
+  private static final class Lease {
+
+    private final CardReader reader;
+    private final String groupReference;
+    private long lastUseNanos;
+    private long lastRenewalNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param reader The allocated reader.
+     * @param groupReference The reference of its group.
+     */
+    private Lease(CardReader reader, String groupReference) {
+      this.reader = reader;
+      this.groupReference = groupReference;
+    }
+  }
+}
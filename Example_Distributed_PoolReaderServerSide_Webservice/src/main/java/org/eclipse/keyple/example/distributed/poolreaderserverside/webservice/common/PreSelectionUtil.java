@@ -0,0 +1,77 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.common;
+
+import org.eclipse.keyple.card.calypso.CalypsoExtensionService;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keypop.calypso.card.CalypsoCardApiFactory;
+import org.eclipse.keypop.calypso.card.card.CalypsoCardSelectionExtension;
+import org.eclipse.keypop.reader.ReaderApiFactory;
+import org.eclipse.keypop.reader.selection.CardSelectionManager;
+import org.eclipse.keypop.reader.selection.IsoCardSelector;
+
+/**
+ * Contains the elements shared by the client and the server for the selection of the card of a pool
+ * reader: the card selection scenario, processed either by the client through the remote reader or
+ * by the server when allocating the reader, and the HTTP headers through which the server returns
+ * the result of its selection.
+ */
+public final class PreSelectionUtil {
+
+  /** The HTTP header containing the name of the pre-selected reader. */
+  public static final String READER_NAME_HEADER = "X-Keyple-Pre-Selected-Reader";
+
+  /** The HTTP header containing the processed card selection scenario, encoded in Base64. */
+  public static final String SELECTION_HEADER = "X-Keyple-Pre-Selection";
+
+  /** AID: Keyple */
+  public static final String AID = "315449432E49434131";
+
+  public static final byte RECORD_NUMBER_1 = 1;
+  public static final byte SFI_EnvironmentAndHolder = (byte) 0x07;
+
+  private static final ReaderApiFactory readerApiFactory =
+      SmartCardServiceProvider.getService().getReaderApiFactory();
+  private static final CalypsoCardApiFactory calypsoCardApiFactory =
+      CalypsoExtensionService.getInstance().getCalypsoCardApiFactory();
+
+  /** Constructor */
+  private PreSelectionUtil() {}
+
+  /**
+   * Prepare a Selection object ready to select Calypso card and read environment file
+   *
+   * @return instance of Selection object
+   */
+  public static CardSelectionManager getCardSelection() {
+
+    // Check the Calypso extension.
+    SmartCardServiceProvider.getService().checkCardExtension(CalypsoExtensionService.getInstance());
+
+    // ISO card selection
+    IsoCardSelector cardSelector = readerApiFactory.createIsoCardSelector().filterByDfName(AID);
+
+    // Calypso additional operations
+    CalypsoCardSelectionExtension cardSelectionExtension =
+        calypsoCardApiFactory
+            .createCalypsoCardSelectionExtension()
+            .prepareReadRecord(SFI_EnvironmentAndHolder, RECORD_NUMBER_1);
+
+    // Prepare Card Selection
+    CardSelectionManager cardSelectionManager = readerApiFactory.createCardSelectionManager();
+
+    // Add the selection case to the current selection
+    cardSelectionManager.prepareSelection(cardSelector, cardSelectionExtension);
+    return cardSelectionManager;
+  }
+}
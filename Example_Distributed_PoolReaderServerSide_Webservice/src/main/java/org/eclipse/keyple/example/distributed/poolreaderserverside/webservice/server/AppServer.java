@@ -12,6 +12,8 @@
  ************************************************************************************** */
 package org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.server;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.enterprise.context.ApplicationScoped;
 import org.eclipse.keyple.core.service.PoolPlugin;
 import org.eclipse.keyple.core.service.SmartCardServiceProvider;
@@ -19,7 +21,9 @@
 import org.eclipse.keyple.distributed.LocalServiceClient;
 import org.eclipse.keyple.distributed.LocalServiceServerFactory;
 import org.eclipse.keyple.distributed.LocalServiceServerFactoryBuilder;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.common.PreSelectionUtil;
 import org.eclipse.keyple.plugin.stub.*;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,20 +37,58 @@ public class AppServer {
 
   private PoolPlugin poolPlugin;
 
+  /** Threads processing the requests: platform or virtual */
+  @ConfigProperty(name = "keyple.server.thread-mode", defaultValue = ServerExecutors.PLATFORM_MODE)
+  String threadMode;
+
+  /** Number of readers of the pool */
+  @ConfigProperty(name = "keyple.pool.size", defaultValue = "1")
+  int poolSize;
+
+  /** Number of reader groups of the pool, among which the readers are distributed */
+  @ConfigProperty(name = "keyple.pool.nb-groups", defaultValue = "1")
+  int nbPoolGroups;
+
+  /** Selection of the card of the allocated readers on the server side */
+  @ConfigProperty(name = "keyple.pool.pre-selection", defaultValue = "false")
+  volatile boolean isPreSelectionEnabled;
+
+  /** The executor processing the requests, null in platform thread mode */
+  private ExecutorService requestExecutor;
+
+  /** The pre-selector of the allocated readers */
+  private ReaderPreSelector readerPreSelector;
+
+  /** The number of requests received by the {@link EndpointServer} */
+  private final AtomicLong nbRequests = new AtomicLong();
+
   /**
    * Initialize the server components :
    *
    * <ul>
-   *   <li>A {@link PoolPlugin} with a {@link StubPoolPlugin} with a inserted card,
+   *   <li>A {@link PoolPlugin} with a {@link StubPoolPlugin} with inserted cards,
+   *   <li>A {@link ReaderPreSelector} of the allocated readers,
    *   <li>A {@link LocalServiceClient} with a sync node bind to a {@link
    *       org.eclipse.keyple.distributed.spi.SyncEndpointClientSpi} endpoint.
    * </ul>
+   *
+   * <p>In virtual thread mode, the requests are processed on virtual threads, if supported by the
+   * JVM.
    */
   public void init() {
 
+    if (ServerExecutors.isVirtualThreadModeEnabled(threadMode)) {
+      requestExecutor = ServerExecutors.newVirtualThreadPerTaskExecutor();
+    }
+
     // Init a local pool plugin.
     initStubPoolPlugin();
 
+    // Init the pre-selector with the card selection scenario of the client application.
+    readerPreSelector =
+        new ReaderPreSelector(
+            poolPlugin, PreSelectionUtil.getCardSelection().exportCardSelectionScenario());
+
     // Init the local service factory.
     LocalServiceServerFactory factory =
         LocalServiceServerFactoryBuilder.builder(LOCAL_SERVICE_NAME)
@@ -58,12 +100,54 @@ public void init() {
     SmartCardServiceProvider.getService().registerDistributedLocalService(factory);
   }
 
-  /** Init a local pool plugin with a stub pool plugin and an inserted card */
+  /**
+   * Returns the executor processing the requests received by the {@link EndpointServer}.
+   *
+   * @return Null if the requests are processed by the HTTP worker threads (platform thread mode).
+   */
+  public ExecutorService getRequestExecutor() {
+    return requestExecutor;
+  }
+
+  /**
+   * Returns the pre-selector of the allocated readers, used by the {@link EndpointServer}.
+   *
+   * @return Null if the pre-selection is disabled or if the server is not initialized.
+   */
+  public ReaderPreSelector getReaderPreSelector() {
+    return isPreSelectionEnabled ? readerPreSelector : null;
+  }
+
+  /**
+   * Enables or disables the selection of the card of the allocated readers on the server side.
+   *
+   * @param isPreSelectionEnabled true to enable the pre-selection.
+   */
+  public void setPreSelectionEnabled(boolean isPreSelectionEnabled) {
+    this.isPreSelectionEnabled = isPreSelectionEnabled;
+  }
+
+  /**
+   * Returns the number of requests received by the {@link EndpointServer}, i.e. the number of
+   * network round trips of the clients.
+   *
+   * @return A positive number.
+   */
+  public long getNbRequests() {
+    return nbRequests.get();
+  }
+
+  /** Counts a request received by the {@link EndpointServer}. */
+  void onRequestReceived() {
+    nbRequests.incrementAndGet();
+  }
+
+  /** Init a local pool plugin with a stub pool plugin and readers with an inserted card */
   private void initStubPoolPlugin() {
 
     String STUB_PLUGIN_NAME = "stubPoolPlugin";
     String STUB_READER_NAME = "stubReader";
-    String REFERENCE_GROUP = "group1";
+    String REFERENCE_GROUP_PREFIX = "group";
 
     // Registers the plugin to the smart card service.
     poolPlugin =
@@ -71,15 +155,19 @@ private void initStubPoolPlugin() {
             SmartCardServiceProvider.getService()
                 .registerPlugin(StubPoolPluginFactoryBuilder.builder().build());
 
-    // Plug manually to the plugin a local reader associated in a group reference.
-    poolPlugin
-        .getExtension(StubPoolPlugin.class)
-        .plugPoolReader(REFERENCE_GROUP, STUB_READER_NAME, getStubCard());
+    // Plug manually to the plugin the local readers associated in a group reference.
+    for (int i = 0; i < poolSize; i++) {
+      String readerName = i == 0 ? STUB_READER_NAME : STUB_READER_NAME + "_" + i;
+      String referenceGroup = REFERENCE_GROUP_PREFIX + (i % nbPoolGroups + 1);
+      poolPlugin
+          .getExtension(StubPoolPlugin.class)
+          .plugPoolReader(referenceGroup, readerName, getStubCard());
 
-    logger.info(
-        "Server - Local plugin was configured with a STUB reader : {} in group reference : {}",
-        STUB_READER_NAME,
-        REFERENCE_GROUP);
+      logger.info(
+          "Server - Local plugin was configured with a STUB reader : {} in group reference : {}",
+          readerName,
+          referenceGroup);
+    }
   }
 
   /**
@@ -12,45 +12,120 @@
  ************************************************************************************** */
 package org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.server;
 
+import java.nio.charset.Charset;
+import java.util.Base64;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import javax.inject.Inject;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import org.eclipse.keyple.core.service.SmartCardServiceProvider;
 import org.eclipse.keyple.distributed.LocalServiceServer;
 import org.eclipse.keyple.distributed.MessageDto;
 import org.eclipse.keyple.distributed.SyncNodeServer;
 import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.client.EndpointClient;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.common.PreSelectionUtil;
 
 /**
  * Example of a Server Controller.
  *
- * <p>Responds to {@link EndpointClient} requests.
+ * <p>Responds to {@link EndpointClient} requests. When a request allocates a reader and the
+ * pre-selection is enabled, the response carries the selection result of the reader in its headers
+ * (see {@link ReaderPreSelector}).
  */
 @Path("/pool-local-service")
 public class EndpointServer {
 
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /** The server application */
+  @Inject AppServer appServer;
+
   /**
    * The unique endpoint access.
    *
+   * <p>The request is processed asynchronously on the request executor of the {@link AppServer} if
+   * any (virtual thread mode), otherwise in the HTTP worker thread.
+   *
    * @param message The request.
-   * @return a list of response messages.
+   * @param asyncResponse The response, resumed with a list of response messages.
    */
   @POST
   @Produces(MediaType.APPLICATION_JSON)
   @Consumes(MediaType.APPLICATION_JSON)
-  public List<MessageDto> processMessage(MessageDto message) {
+  public void processMessage(
+      final MessageDto message, @Suspended final AsyncResponse asyncResponse) {
+
+    appServer.onRequestReceived();
+    final ReaderPreSelector readerPreSelector = appServer.getReaderPreSelector();
+    ExecutorService requestExecutor = appServer.getRequestExecutor();
+    if (requestExecutor == null) {
+      forwardMessage(message, readerPreSelector, asyncResponse);
+      return;
+    }
+    try {
+      requestExecutor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              forwardMessage(message, readerPreSelector, asyncResponse);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      asyncResponse.resume(e);
+    }
+  }
+
+  /**
+   * Forwards the message to the node and resumes the response with the messages to return to the
+   * client.
+   *
+   * <p>The call blocks until the node has messages to return.
+   *
+   * @param message The request.
+   * @param readerPreSelector The pre-selector of the allocated readers, null if disabled.
+   * @param asyncResponse The response.
+   */
+  private static void forwardMessage(
+      MessageDto message, ReaderPreSelector readerPreSelector, AsyncResponse asyncResponse) {
+    try {
+      // Retrieves the node associated to the local service.
+      SyncNodeServer node =
+          SmartCardServiceProvider.getService()
+              .getDistributedLocalService(AppServer.LOCAL_SERVICE_NAME)
+              .getExtension(LocalServiceServer.class)
+              .getSyncNode();
 
-    // Retrieves the node associated to the remote plugin.
-    SyncNodeServer node =
-        SmartCardServiceProvider.getService()
-            .getDistributedLocalService(AppServer.LOCAL_SERVICE_NAME)
-            .getExtension(LocalServiceServer.class)
-            .getSyncNode();
+      // Forwards the message to the node and returns the response to the client.
+      List<MessageDto> responses = node.onRequest(message);
+      Response.ResponseBuilder response =
+          Response.ok(new GenericEntity<List<MessageDto>>(responses) {});
 
-    // Forwards the message to the node and returns the response to the client.
-    return node.onRequest(message);
+      // Adds the selection result if the request allocated a reader.
+      if (readerPreSelector != null) {
+        ReaderPreSelector.PreSelection preSelection =
+            readerPreSelector.preSelectAllocatedReader(responses);
+        if (preSelection != null) {
+          response
+              .header(PreSelectionUtil.READER_NAME_HEADER, preSelection.getReaderName())
+              .header(
+                  PreSelectionUtil.SELECTION_HEADER,
+                  Base64.getEncoder()
+                      .encodeToString(
+                          preSelection.getProcessedCardSelectionScenario().getBytes(UTF_8)));
+        }
+      }
+      asyncResponse.resume(response.build());
+    } catch (RuntimeException e) {
+      asyncResponse.resume(e);
+    }
   }
 }
@@ -0,0 +1,198 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.server;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.keyple.core.service.PoolPlugin;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.core.util.json.JsonUtil;
+import org.eclipse.keyple.distributed.MessageDto;
+import org.eclipse.keyple.example.distributed.poolreaderserverside.webservice.common.PreSelectionUtil;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.ReaderApiFactory;
+import org.eclipse.keypop.reader.selection.CardSelectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selects the card of a pool reader on the server side, as soon as the reader is allocated.
+ *
+ * <p>The card selection scenario is processed next to the reader, without any network exchange,
+ * within the HTTP request allocating the reader. The processed scenario is then returned to the
+ * client in the headers {@link PreSelectionUtil#READER_NAME_HEADER} and {@link
+ * PreSelectionUtil#SELECTION_HEADER} of the response of the allocation, so that the client imports
+ * the selection result instead of processing the scenario through the remote reader. The logical
+ * channel remains open for the first command of the client.
+ *
+ * <p>The allocation response is identified by its action ({@value #RESPONSE_ACTION}) and by the
+ * service of its body ({@value #ALLOCATE_READER_SERVICE}), whose result is the name of the
+ * allocated reader. If the selection fails, nothing is returned and the client processes the
+ * scenario itself.
+ */
+public class ReaderPreSelector {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReaderPreSelector.class);
+
+  /** The action of the messages responding to a command of a remote plugin. */
+  static final String RESPONSE_ACTION = "RESP";
+
+  /** The service of the pool plugin allocating a reader. */
+  static final String ALLOCATE_READER_SERVICE = "ALLOCATE_READER";
+
+  private static final String SERVICE_KEY = "service";
+  private static final String RESULT_KEY = "result";
+
+  private static final ReaderApiFactory readerApiFactory =
+      SmartCardServiceProvider.getService().getReaderApiFactory();
+
+  private final PoolPlugin poolPlugin;
+  private final String cardSelectionScenario;
+
+  private final AtomicLong nbPreSelections = new AtomicLong();
+  private final AtomicLong nbFailures = new AtomicLong();
+  private final AtomicLong totalSelectionNanos = new AtomicLong();
+
+  /**
+   * Constructor.
+   *
+   * @param poolPlugin The pool plugin allocating the readers.
+   * @param cardSelectionScenario The card selection scenario, as exported by {@link
+   *     CardSelectionManager#exportCardSelectionScenario()}.
+   */
+  public ReaderPreSelector(PoolPlugin poolPlugin, String cardSelectionScenario) {
+    this.poolPlugin = poolPlugin;
+    this.cardSelectionScenario = cardSelectionScenario;
+  }
+
+  /**
+   * Selects the card of the reader allocated by a request, if any.
+   *
+   * @param responses The responses to the request.
+   * @return Null if the request did not allocate a reader or if the selection failed.
+   */
+  public PreSelection preSelectAllocatedReader(List<MessageDto> responses) {
+
+    String readerName = getAllocatedReaderName(responses);
+    if (readerName == null) {
+      return null;
+    }
+    CardReader reader = poolPlugin.getReader(readerName);
+    if (reader == null) {
+      return null;
+    }
+    long startNanos = System.nanoTime();
+    try {
+      CardSelectionManager cardSelectionManager = readerApiFactory.createCardSelectionManager();
+      cardSelectionManager.importCardSelectionScenario(cardSelectionScenario);
+      cardSelectionManager.processCardSelectionScenario(reader);
+      PreSelection preSelection =
+          new PreSelection(
+              reader.getName(), cardSelectionManager.exportProcessedCardSelectionScenario());
+      totalSelectionNanos.addAndGet(System.nanoTime() - startNanos);
+      nbPreSelections.incrementAndGet();
+      return preSelection;
+    } catch (RuntimeException e) {
+      nbFailures.incrementAndGet();
+      logger.warn("Pre-selection of reader '{}' failed: {}", reader.getName(), e.getMessage());
+      return null;
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    long nbDone = nbPreSelections.get();
+    return "ReaderPreSelector{"
+        + "nbPreSelections="
+        + nbDone
+        + ", nbFailures="
+        + nbFailures.get()
+        + ", meanSelectionMicros="
+        + (nbDone == 0 ? 0 : totalSelectionNanos.get() / nbDone / 1000)
+        + '}';
+  }
+
+  /**
+   * Returns the name of the reader allocated by a request, read from the response of the pool
+   * plugin to the allocation.
+   *
+   * @param responses The responses to the request.
+   * @return Null if the request did not allocate a reader.
+   */
+  private static String getAllocatedReaderName(List<MessageDto> responses) {
+    for (MessageDto response : responses) {
+      String body = response.getBody();
+      if (!RESPONSE_ACTION.equals(response.getAction())
+          || body == null
+          || !body.contains(ALLOCATE_READER_SERVICE)) {
+        continue;
+      }
+      try {
+        JsonObject jsonBody = JsonUtil.getParser().fromJson(body, JsonObject.class);
+        JsonElement service = jsonBody.get(SERVICE_KEY);
+        JsonElement result = jsonBody.get(RESULT_KEY);
+        if (service != null
+            && service.isJsonPrimitive()
+            && ALLOCATE_READER_SERVICE.equals(service.getAsString())
+            && result != null
+            && result.isJsonPrimitive()) {
+          return result.getAsString();
+        }
+      } catch (JsonParseException e) {
+        logger.warn("Unexpected body of the response: {}", e.getMessage());
+      }
+    }
+    return null;
+  }
+
+  /** The result of the pre-selection of a reader. */
+  public static final class PreSelection {
+
+    private final String readerName;
+    private final String processedCardSelectionScenario;
+
+    /**
+     * Constructor.
+     *
+     * @param readerName The name of the reader.
+     * @param processedCardSelectionScenario The processed card selection scenario.
+     */
+    private PreSelection(String readerName, String processedCardSelectionScenario) {
+      this.readerName = readerName;
+      this.processedCardSelectionScenario = processedCardSelectionScenario;
+    }
+
+    /**
+     * Returns the name of the reader.
+     *
+     * @return A not empty string.
+     */
+    public String getReaderName() {
+      return readerName;
+    }
+
+    /**
+     * Returns the processed card selection scenario, as exported by {@link
+     * CardSelectionManager#exportProcessedCardSelectionScenario()}.
+     *
+     * @return A JSON string.
+     */
+    public String getProcessedCardSelectionScenario() {
+      return processedCardSelectionScenario;
+    }
+  }
+}
@@ -38,6 +38,9 @@ dependencies {
   implementation("io.quarkus:quarkus-rest-client")
   testImplementation("io.quarkus:quarkus-junit5")
   testImplementation("io.rest-assured:rest-assured")
+  /* Others */
+  // Compatibility tests of MessageDtoJsonSerializer with the Keyple JSON parser
+  testImplementation("com.google.code.gson:gson:2.10.1")
 }
 
 val runExample by
@@ -0,0 +1,102 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice;
+
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.QuarkusApplication;
+import javax.inject.Inject;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.client.AppClient;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.server.AppServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the number of HTTP round trips per transaction between the client and the server on the
+ * stub card, without and with the command batching of the remote service (see {@link
+ * AppServer#setCommandBatchingEnabled(boolean)}).
+ *
+ * <p>The number of transactions executed in each mode can be provided as first argument (10 by
+ * default).
+ */
+public class Main_CommandBatching {
+
+  private static final Logger logger = LoggerFactory.getLogger(Main_CommandBatching.class);
+
+  private static final int DEFAULT_NB_TRANSACTIONS = 10;
+
+  public static void main(String... args) {
+    Quarkus.run(CommandBatchingApp.class, args);
+  }
+
+  /** Quarkus application running the comparison. */
+  public static class CommandBatchingApp implements QuarkusApplication {
+
+    /** The server application */
+    @Inject AppServer appServer;
+
+    /** The client application */
+    @Inject AppClient appClient;
+
+    /** {@inheritDoc} */
+    @Override
+    public int run(String... args) {
+
+      logger.info("= Command batching of the remote service ====================================");
+
+      int nbTransactions = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NB_TRANSACTIONS;
+
+      appServer.init();
+      appClient.init();
+
+      double unbatchedRoundTrips = measure(false, nbTransactions);
+      double batchedRoundTrips = measure(true, nbTransactions);
+
+      logger.info(
+          "HTTP round trips per transaction: {} without batching, {} with batching, {} saved",
+          unbatchedRoundTrips,
+          batchedRoundTrips,
+          unbatchedRoundTrips - batchedRoundTrips);
+
+      logger.info("Exit program.");
+      return 0;
+    }
+
+    /**
+     * Executes transactions and returns the mean number of HTTP round trips per transaction.
+     *
+     * @param isCommandBatchingEnabled true to enable the command batching.
+     * @param nbTransactions The number of transactions.
+     * @return A mean number of round trips.
+     * @throws IllegalStateException If a transaction is not successful.
+     */
+    private double measure(boolean isCommandBatchingEnabled, int nbTransactions) {
+
+      appServer.setCommandBatchingEnabled(isCommandBatchingEnabled);
+
+      long nbRequestsBefore = appServer.getNbReceivedRequests();
+      for (int i = 0; i < nbTransactions; i++) {
+        if (!appClient.launchScenario()) {
+          throw new IllegalStateException("Transaction failed");
+        }
+      }
+      double roundTrips =
+          (appServer.getNbReceivedRequests() - nbRequestsBefore) / (double) nbTransactions;
+
+      logger.info(
+          "Command batching {}: {} HTTP round trips per transaction",
+          isCommandBatchingEnabled ? "enabled" : "disabled",
+          roundTrips);
+      return roundTrips;
+    }
+  }
+}
@@ -0,0 +1,239 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.UUID;
+import org.eclipse.keyple.distributed.MessageDto;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.common.MessageCompression;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.common.MessageDtoJsonSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark of the compression of the HTTP payloads (see {@link MessageCompression}).
+ *
+ * <p>The program replays the three HTTP exchanges of a remote service transaction (remote service
+ * execution, card selection, card request), each one made of a request of the client and of the
+ * response of the server. For each content encoding, it logs the bytes on the wire per exchange and
+ * per transaction, and the CPU time spent to compress and decompress both payloads. The payloads
+ * smaller than the threshold provided as first argument (256 bytes by default) are sent
+ * uncompressed, as by the {@link
+ * org.eclipse.keyple.example.distributed.readerclientside.webservice.common.MessageCompressionFilter}.
+ *
+ * <p>This program does not need the Quarkus application: run it directly from its main method.
+ */
+public class Main_CompressionBenchmark {
+
+  private static final Logger logger = LoggerFactory.getLogger(Main_CompressionBenchmark.class);
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int DEFAULT_MIN_SIZE = 256;
+  private static final int NB_WARMUP_ITERATIONS = 20000;
+  private static final int NB_ITERATIONS = 50000;
+  private static final String[] ENCODINGS = {
+    null, MessageCompression.GZIP, MessageCompression.DICTIONARY
+  };
+
+  private static final String SESSION_ID = UUID.randomUUID().toString();
+  private static final String CLIENT_NODE_ID = UUID.randomUUID().toString();
+  private static final String SERVER_NODE_ID = UUID.randomUUID().toString();
+  private static final String REMOTE_READER_NAME = UUID.randomUUID().toString();
+
+  public static void main(String[] args) throws IOException {
+
+    int minSize = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MIN_SIZE;
+
+    // The payloads of the exchanges of a transaction: request of the client, response of the
+    // server.
+    byte[][][] exchanges = {
+      {
+        toPayload(
+            createMessage(
+                "EXECUTE_REMOTE_SERVICE",
+                "{\"coreApiLevel\":2,\"serviceId\":\"EXECUTE_CALYPSO_SESSION_FROM_REMOTE_SELECTION\","
+                    + "\"isReaderContactless\":true,\"inputData\":{\"userId\":\"test\"}}")),
+        toPayload(
+            createMessage(
+                "CMD",
+                "{\"coreApiLevel\":2,\"service\":\"TRANSMIT_CARD_SELECTION_REQUESTS\",\"parameters\":"
+                    + "{\"multiSelectionProcessing\":\"FIRST_MATCH\",\"channelControl\":"
+                    + "\"KEEP_OPEN\",\"cardSelectors\":[{\"logicalProtocolName\":"
+                    + "\"ISO_14443_4_CARD\",\"aid\":\"315449432E49434131\",\"fileOccurrence\":"
+                    + "\"FIRST\",\"fileControlInformation\":\"FCI\"}],\"cardSelectionRequests\":"
+                    + "[{\"cardRequest\":{\"apduRequests\":[{\"apdu\":\"00B2013C00\",\"successfulStatusWords\":[\"9000\"],\"info\":\"Read"
+                    + " Records - SFI:7h, REC:1\"}],\"stopOnUnsuccessfulStatusWord\":false},"
+                    + "\"successfulSelectionStatusWords\":[\"9000\"]}]}}"))
+      },
+      {
+        toPayload(
+            createMessage(
+                "RESP",
+                "{\"coreApiLevel\":2,\"service\":\"TRANSMIT_CARD_SELECTION_REQUESTS\",\"result\":"
+                    + "[{\"powerOnData\":\"3B8880010000000000718100F9\","
+                    + "\"selectApplicationResponse\":{\"apdu\":\"6F238409315449432E49434131A516BF"
+                    + "0C13C708000000001122334453070A3C23121410019000\",\"statusWord\":36864},"
+                    + "\"hasMatched\":true,\"cardResponse\":{\"apduResponses\":[{\"apdu\":"
+                    + "\"24B92848080000131A50001200000000000000000000000000000000009000\","
+                    + "\"statusWord\":36864}],\"isLogicalChannelOpen\":true}}]}")),
+        toPayload(
+            createMessage(
+                "CMD",
+                "{\"coreApiLevel\":2,\"service\":\"TRANSMIT_CARD_REQUEST\",\"parameters\":"
+                    + "{\"cardRequest\":{\"apduRequests\":[{\"apdu\":\"008A0B3904C1C2C3C400\","
+                    + "\"successfulStatusWords\":[\"9000\"],\"info\":\"Open Secure Session - KVC"
+                    + " 79 - DEBIT\"},{\"apdu\":\"00B2013C1D\",\"successfulStatusWords\":"
+                    + "[\"9000\"],\"info\":\"Read Records - SFI:7h, REC:1\"},{\"apdu\":"
+                    + "\"00B201441D\",\"successfulStatusWords\":[\"9000\"],\"info\":\"Read Records"
+                    + " - SFI:8h, REC:1\"}],\"stopOnUnsuccessfulStatusWord\":true},"
+                    + "\"channelControl\":\"KEEP_OPEN\"}}"))
+      },
+      {
+        toPayload(
+            createMessage(
+                "RESP",
+                "{\"coreApiLevel\":2,\"service\":\"TRANSMIT_CARD_REQUEST\",\"result\":"
+                    + "{\"apduResponses\":[{\"apdu\":\"0308D1810030791D00112233445566778899AABB"
+                    + "CCDDEEFF00112233445566778899AABBCC9000\",\"statusWord\":36864},{\"apdu\":"
+                    + "\"00112233445566778899AABBCCDDEEFF00112233445566778899AABBCC9000\","
+                    + "\"statusWord\":36864},{\"apdu\":\"00112233445566778899AABBCCDDEEFF00112233"
+                    + "445566778899AABBCC9000\",\"statusWord\":36864}],"
+                    + "\"isLogicalChannelOpen\":true}}")),
+        toPayload(
+            createMessage(
+                "END_REMOTE_SERVICE",
+                "{\"coreApiLevel\":2,\"outputData\":{\"userId\":\"test\",\"isSuccessful\":true}}"))
+      }
+    };
+
+    logger.info("= Compression of the HTTP payloads (threshold {} bytes) ============", minSize);
+    for (String encoding : ENCODINGS) {
+      int transactionBytes = 0;
+      long transactionNanos = 0;
+      for (int i = 0; i < exchanges.length; i++) {
+        int requestBytes = getWireSize(exchanges[i][0], encoding, minSize);
+        int responseBytes = getWireSize(exchanges[i][1], encoding, minSize);
+        measure(exchanges[i], encoding, minSize, NB_WARMUP_ITERATIONS);
+        long nanos = measure(exchanges[i], encoding, minSize, NB_ITERATIONS) / NB_ITERATIONS;
+        logger.info(
+            "{} - exchange #{}: request {} -> {} bytes, response {} -> {} bytes, {} us CPU",
+            getLabel(encoding),
+            i + 1,
+            exchanges[i][0].length,
+            requestBytes,
+            exchanges[i][1].length,
+            responseBytes,
+            String.format("%.1f", nanos / 1000.0));
+        transactionBytes += requestBytes + responseBytes;
+        transactionNanos += nanos;
+      }
+      logger.info(
+          "{} - transaction: {} bytes on the wire, {} us CPU",
+          getLabel(encoding),
+          transactionBytes,
+          String.format("%.1f", transactionNanos / 1000.0));
+    }
+  }
+
+  /**
+   * Compresses and decompresses the payloads of an exchange.
+   *
+   * @param exchange The request and response payloads.
+   * @param encoding The content encoding, null for none.
+   * @param minSize The threshold below which the payloads are not compressed.
+   * @param nbIterations The number of iterations.
+   * @return The elapsed time, in nanoseconds.
+   * @throws IOException If a payload cannot be decompressed.
+   */
+  private static long measure(byte[][] exchange, String encoding, int minSize, int nbIterations)
+      throws IOException {
+    int check = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < nbIterations; i++) {
+      for (byte[] payload : exchange) {
+        if (encoding != null && payload.length >= minSize) {
+          byte[] compressed = MessageCompression.compress(payload, encoding);
+          check += MessageCompression.decompress(compressed, encoding).length;
+        } else {
+          check += payload.length;
+        }
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    if (check == 0) {
+      throw new IllegalStateException("Unexpected empty payloads");
+    }
+    return elapsed;
+  }
+
+  /**
+   * Returns the size of a payload on the wire, checking that it is restored identically.
+   *
+   * @param payload The payload.
+   * @param encoding The content encoding, null for none.
+   * @param minSize The threshold below which the payload is not compressed.
+   * @return A number of bytes.
+   * @throws IOException If the payload cannot be decompressed.
+   */
+  private static int getWireSize(byte[] payload, String encoding, int minSize) throws IOException {
+    if (encoding == null || payload.length < minSize) {
+      return payload.length;
+    }
+    byte[] compressed = MessageCompression.compress(payload, encoding);
+    if (!Arrays.equals(payload, MessageCompression.decompress(compressed, encoding))) {
+      throw new IllegalStateException("Payload not restored with " + encoding);
+    }
+    return compressed.length;
+  }
+
+  /**
+   * Returns the label of an encoding.
+   *
+   * @param encoding The content encoding, null for none.
+   * @return A not null string.
+   */
+  private static String getLabel(String encoding) {
+    return String.format("%-19s", encoding == null ? "identity" : encoding);
+  }
+
+  /**
+   * Serializes a message as it is sent on the wire.
+   *
+   * @param message The message.
+   * @return The JSON payload.
+   */
+  private static byte[] toPayload(MessageDto message) {
+    return MessageDtoJsonSerializer.toJson(Arrays.asList(message)).getBytes(UTF_8);
+  }
+
+  /**
+   * Creates a message of the transaction.
+   *
+   * @param action The action.
+   * @param body The body.
+   * @return A new message.
+   */
+  private static MessageDto createMessage(String action, String body) {
+    return new MessageDto()
+        .setApiLevel(3)
+        .setSessionId(SESSION_ID)
+        .setAction(action)
+        .setClientNodeId(CLIENT_NODE_ID)
+        .setServerNodeId(SERVER_NODE_ID)
+        .setLocalReaderName("stubReader")
+        .setRemoteReaderName(REMOTE_READER_NAME)
+        .setBody(body);
+  }
+}
@@ -0,0 +1,288 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice;
+
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.QuarkusApplication;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.client.AppClient;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.server.AppServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load test of the server: many simulated clients call the remote service
+ * "EXECUTE_CALYPSO_SESSION_FROM_REMOTE_SELECTION" at the same time.
+ *
+ * <p>The server and the client components are started in process, as in {@link Main}. Each
+ * simulated client is a thread owning its own stub reader with a stub card, which executes the
+ * remote service in a loop through the shared local service. For each number of clients, the
+ * program logs the throughput, the latency percentiles of a remote service call, the peak number of
+ * live threads and the peak heap usage of the JVM, followed by the statistics of the {@link
+ * org.eclipse.keyple.example.distributed.readerclientside.webservice.server.RemoteServiceDispatcher}
+ * (queue and execution times) and of the {@link
+ * org.eclipse.keyple.example.distributed.readerclientside.webservice.server.CardImageCache}, if
+ * enabled.
+ *
+ * <p>The numbers of clients can be provided as a comma separated list in the first argument, e.g.
+ * {@code 1,50,200}. Run it from its main method, preferably with a log level lowered to INFO for
+ * the "org.eclipse.keyple" category.
+ */
+public class Main_LoadTest {
+
+  private static final Logger logger = LoggerFactory.getLogger(Main_LoadTest.class);
+
+  private static final String READER_NAME_PREFIX = "loadTestReader";
+  private static final int[] DEFAULT_NB_CLIENTS = {1, 10, 50, 100, 200, 400};
+  private static final long WARMUP_DURATION_MILLIS = 2000;
+  private static final long MEASUREMENT_DURATION_MILLIS = 10000;
+  private static final long SAMPLING_PERIOD_MILLIS = 100;
+
+  public static void main(String... args) {
+    Quarkus.run(LoadTestApp.class, args);
+  }
+
+  /** Quarkus application running the load test. */
+  public static class LoadTestApp implements QuarkusApplication {
+
+    /** The server application */
+    @Inject AppServer appServer;
+
+    /** The client application */
+    @Inject AppClient appClient;
+
+    /** {@inheritDoc} */
+    @Override
+    public int run(String... args) throws Exception {
+
+      logger.info("= Load test of the remote plugin server (webservice) ======================");
+
+      int[] nbClientsList = args.length > 0 ? parseNbClients(args[0]) : DEFAULT_NB_CLIENTS;
+
+      appServer.init();
+      appClient.init();
+
+      List<String> results = new ArrayList<String>();
+      int nbPluggedReaders = 0;
+      for (int nbClients : nbClientsList) {
+
+        // Plug the missing readers, the readers of the previous measurements being reused.
+        List<String> readerNames = new ArrayList<String>();
+        for (int i = nbPluggedReaders; i < nbClients; i++) {
+          readerNames.add(READER_NAME_PREFIX + i);
+        }
+        appClient.plugStubReaders(readerNames);
+        nbPluggedReaders = Math.max(nbPluggedReaders, nbClients);
+
+        results.add(measure(nbClients));
+      }
+
+      logger.info("= Summary ====================================================================");
+      logger.info(
+          "clients |    TPS | failures | p50 (ms) | p90 (ms) | p99 (ms) | max (ms) | threads |"
+              + " heap (MB)");
+      for (String result : results) {
+        logger.info(result);
+      }
+
+      logger.info("Exit program.");
+      return 0;
+    }
+
+    /**
+     * Runs the simulated clients concurrently and returns the measurement summary.
+     *
+     * @param nbClients The number of simulated clients.
+     * @return A summary line.
+     * @throws InterruptedException If the current thread was interrupted.
+     */
+    private String measure(int nbClients) throws InterruptedException {
+
+      ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+      MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+
+      Statistics statistics = new Statistics();
+      ExecutorService executorService = Executors.newFixedThreadPool(nbClients);
+      long start = System.currentTimeMillis();
+      long measurementStart = start + WARMUP_DURATION_MILLIS;
+      long end = measurementStart + MEASUREMENT_DURATION_MILLIS;
+      for (int i = 0; i < nbClients; i++) {
+        executorService.execute(
+            new SimulatedClient(
+                appClient, READER_NAME_PREFIX + i, statistics, measurementStart, end));
+      }
+
+      // Sample the threads and the heap during the measurement.
+      long peakHeapBytes = 0;
+      while (System.currentTimeMillis() < measurementStart) {
+        Thread.sleep(SAMPLING_PERIOD_MILLIS);
+      }
+      threadMXBean.resetPeakThreadCount();
+      while (System.currentTimeMillis() < end) {
+        peakHeapBytes = Math.max(peakHeapBytes, memoryMXBean.getHeapMemoryUsage().getUsed());
+        Thread.sleep(SAMPLING_PERIOD_MILLIS);
+      }
+      int peakThreadCount = threadMXBean.getPeakThreadCount();
+
+      // Let the pending calls finish.
+      executorService.shutdown();
+      executorService.awaitTermination(1, TimeUnit.MINUTES);
+
+      long[] latencies = statistics.getSortedLatencies();
+      String result =
+          String.format(
+              "%7d | %6.1f | %8d | %8.1f | %8.1f | %8.1f | %8.1f | %7d | %9d",
+              nbClients,
+              latencies.length * 1000.0 / MEASUREMENT_DURATION_MILLIS,
+              statistics.getNbFailures(),
+              getPercentileMillis(latencies, 50),
+              getPercentileMillis(latencies, 90),
+              getPercentileMillis(latencies, 99),
+              getPercentileMillis(latencies, 100),
+              peakThreadCount,
+              peakHeapBytes / (1024 * 1024));
+      logger.info("{} simulated clients: {}", nbClients, result);
+      logger.info("Server: {}", appServer.getRemoteServiceDispatcher());
+      if (appServer.getCardImageCache() != null) {
+        logger.info("Server: {}", appServer.getCardImageCache());
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Parses a comma separated list of numbers of clients.
+   *
+   * @param value The value to parse.
+   * @return A not empty array.
+   */
+  private static int[] parseNbClients(String value) {
+    String[] items = value.split(",");
+    int[] nbClientsList = new int[items.length];
+    for (int i = 0; i < items.length; i++) {
+      nbClientsList[i] = Integer.parseInt(items[i].trim());
+    }
+    return nbClientsList;
+  }
+
+  /**
+   * Returns a percentile of sorted latencies.
+   *
+   * @param sortedLatencies The sorted latencies, in nanoseconds.
+   * @param percentile The percentile, between 0 and 100.
+   * @return The latency in milliseconds, 0 if there is no latency.
+   */
+  private static double getPercentileMillis(long[] sortedLatencies, int percentile) {
+    if (sortedLatencies.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+    return sortedLatencies[Math.max(index, 0)] / 1000000.0;
+  }
+
+  /** Statistics shared by all the simulated clients of a measurement. */
+  private static class Statistics {
+
+    private long[] latencies = new long[1024];
+    private int nbLatencies;
+    private int nbFailures;
+
+    /**
+     * Records the result of a remote service call.
+     *
+     * @param latencyNanos The duration of the call, in nanoseconds.
+     * @param isSuccessful true if the call was successful.
+     */
+    private synchronized void record(long latencyNanos, boolean isSuccessful) {
+      if (!isSuccessful) {
+        nbFailures++;
+        return;
+      }
+      if (nbLatencies == latencies.length) {
+        latencies = Arrays.copyOf(latencies, latencies.length * 2);
+      }
+      latencies[nbLatencies++] = latencyNanos;
+    }
+
+    private synchronized int getNbFailures() {
+      return nbFailures;
+    }
+
+    private synchronized long[] getSortedLatencies() {
+      long[] sortedLatencies = Arrays.copyOf(latencies, nbLatencies);
+      Arrays.sort(sortedLatencies);
+      return sortedLatencies;
+    }
+  }
+
+  /** A simulated client: executes the remote service in a loop on its own reader. */
+  private static class SimulatedClient implements Runnable {
+
+    private final AppClient appClient;
+    private final String readerName;
+    private final Statistics statistics;
+    private final long measurementStart;
+    private final long end;
+
+    /**
+     * Constructor.
+     *
+     * @param appClient The client application.
+     * @param readerName The name of the reader of the client.
+     * @param statistics The shared statistics.
+     * @param measurementStart The time from which the calls are taken into account.
+     * @param end The time at which the client stops.
+     */
+    private SimulatedClient(
+        AppClient appClient,
+        String readerName,
+        Statistics statistics,
+        long measurementStart,
+        long end) {
+      this.appClient = appClient;
+      this.readerName = readerName;
+      this.statistics = statistics;
+      this.measurementStart = measurementStart;
+      this.end = end;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      while (System.currentTimeMillis() < end) {
+        long callStart = System.nanoTime();
+        boolean isSuccessful;
+        try {
+          isSuccessful = appClient.launchScenario(readerName);
+        } catch (RuntimeException e) {
+          logger.warn("Remote service failed on reader {}: {}", readerName, e.getMessage());
+          isSuccessful = false;
+        }
+        long latencyNanos = System.nanoTime() - callStart;
+        long now = System.currentTimeMillis();
+        if (now >= measurementStart && now < end) {
+          statistics.record(latencyNanos, isSuccessful);
+        }
+      }
+    }
+  }
+}
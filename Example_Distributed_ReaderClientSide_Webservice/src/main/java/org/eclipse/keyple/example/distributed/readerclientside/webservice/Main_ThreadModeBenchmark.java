@@ -0,0 +1,414 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.keyple.core.service.ObservablePlugin;
+import org.eclipse.keyple.core.service.Plugin;
+import org.eclipse.keyple.core.service.PluginEvent;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.core.service.spi.PluginObservationExceptionHandlerSpi;
+import org.eclipse.keyple.core.service.spi.PluginObserverSpi;
+import org.eclipse.keyple.distributed.LocalServiceClient;
+import org.eclipse.keyple.distributed.LocalServiceClientFactoryBuilder;
+import org.eclipse.keyple.distributed.MessageDto;
+import org.eclipse.keyple.distributed.RemotePluginServer;
+import org.eclipse.keyple.distributed.RemotePluginServerFactoryBuilder;
+import org.eclipse.keyple.distributed.SyncNodeServer;
+import org.eclipse.keyple.distributed.spi.SyncEndpointClientSpi;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.common.InputDataDto;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.common.OutputDataDto;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.server.ServerExecutors;
+import org.eclipse.keyple.plugin.stub.StubPlugin;
+import org.eclipse.keyple.plugin.stub.StubPluginFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the capacity of the server in concurrent long-polling clients with the platform and the
+ * virtual thread modes (see {@link ServerExecutors}).
+ *
+ * <p>A remote plugin server with a sync node and a local service client are started in process,
+ * without Quarkus: the endpoint of the client forwards each request directly to {@link
+ * SyncNodeServer#onRequest}, in the thread of the client, the HTTP layer being left out. Each
+ * simulated connection executes a remote service on its own stub reader in a task of the thread
+ * mode; the server holds the remote services without answering, so that the request of each
+ * connection really waits in {@link SyncNodeServer#onRequest} for the next message of its session.
+ *
+ * <p>For each mode and each number of connections, the program starts the connections, waits until
+ * the server received all of them, then logs the time needed to reach this state, the number of
+ * live platform threads and the memory used per connection (heap and resident set size, the latter
+ * including the thread stacks, Linux only), the client and server sessions included. A number of
+ * connections which cannot be reached (e.g. no more native threads, or carrier threads all pinned
+ * by the waits of the node) is reported as saturated.
+ *
+ * <p>The first argument selects the modes ({@code platform}, {@code virtual} or {@code
+ * platform,virtual} by default), the second one the comma separated numbers of connections ({@code
+ * 100,1000,5000,10000} by default). The virtual thread mode requires Java 21+. For the most
+ * accurate memory figures, run each mode in its own JVM, with the log level of the
+ * "org.eclipse.keyple" category lowered to INFO.
+ */
+public class Main_ThreadModeBenchmark {
+
+  private static final Logger logger = LoggerFactory.getLogger(Main_ThreadModeBenchmark.class);
+
+  private static final String REMOTE_PLUGIN_NAME = "BENCHMARK_REMOTE_PLUGIN";
+  private static final String LOCAL_SERVICE_NAME = "BENCHMARK_LOCAL_SERVICE";
+  private static final String SERVICE_ID = "HOLD_CONNECTION";
+  private static final String READER_NAME_PREFIX = "benchmarkReader";
+  private static final String DEFAULT_MODES =
+      ServerExecutors.PLATFORM_MODE + "," + ServerExecutors.VIRTUAL_MODE;
+  private static final String DEFAULT_NB_CONNECTIONS = "100,1000,5000,10000";
+  private static final long BLOCKING_TIMEOUT_MILLIS = 30000;
+  private static final long READER_DETECTION_TIMEOUT_MILLIS = 10000;
+
+  private static RemotePluginServer remotePluginServer;
+  private static RemoteServiceHolder remoteServiceHolder;
+  private static LocalServiceClient localServiceClient;
+  private static Plugin stubPlugin;
+
+  public static void main(String[] args) throws InterruptedException {
+
+    String[] modes = (args.length > 0 ? args[0] : DEFAULT_MODES).split(",");
+    String[] nbConnectionsList = (args.length > 1 ? args[1] : DEFAULT_NB_CONNECTIONS).split(",");
+
+    logger.info(
+        "= Thread mode benchmark (Java {}, {} processors) ==========================",
+        System.getProperty("java.version"),
+        Runtime.getRuntime().availableProcessors());
+
+    initServer();
+    initClient();
+
+    List<String> results = new ArrayList<String>();
+    int nbPluggedReaders = 0;
+    for (String mode : modes) {
+      mode = mode.trim();
+      if (ServerExecutors.VIRTUAL_MODE.equals(mode)
+          && !ServerExecutors.isVirtualThreadSupported()) {
+        logger.warn("Virtual threads not supported by this JVM, mode skipped");
+        continue;
+      }
+      for (String nbConnections : nbConnectionsList) {
+        int nbConnectionsValue = Integer.parseInt(nbConnections.trim());
+
+        // Plug the missing readers, the readers of the previous measurements being reused.
+        plugStubReaders(nbPluggedReaders, nbConnectionsValue);
+        nbPluggedReaders = Math.max(nbPluggedReaders, nbConnectionsValue);
+
+        results.add(measure(mode, nbConnectionsValue));
+      }
+    }
+
+    logger.info("= Summary ====================================================================");
+    logger.info(
+        "    mode | connections | blocked | time (ms) | threads | heap/conn (KB) | RSS/conn (KB)");
+    for (String result : results) {
+      logger.info(result);
+    }
+
+    System.exit(0);
+  }
+
+  /** Registers the remote plugin server holding the remote services. */
+  private static void initServer() {
+    ObservablePlugin plugin =
+        (ObservablePlugin)
+            SmartCardServiceProvider.getService()
+                .registerPlugin(
+                    RemotePluginServerFactoryBuilder.builder(REMOTE_PLUGIN_NAME)
+                        .withSyncNode()
+                        .build());
+    remotePluginServer = plugin.getExtension(RemotePluginServer.class);
+    remoteServiceHolder = new RemoteServiceHolder();
+    plugin.setPluginObservationExceptionHandler(remoteServiceHolder);
+    plugin.addObserver(remoteServiceHolder);
+  }
+
+  /**
+   * Registers the stub plugin providing the local readers and the local service client, whose
+   * endpoint forwards the requests to the sync node of the server.
+   */
+  private static void initClient() {
+
+    stubPlugin =
+        SmartCardServiceProvider.getService()
+            .registerPlugin(StubPluginFactoryBuilder.builder().build());
+
+    // Add a fictive plugin observer in order to update automatically the reader list.
+    ((ObservablePlugin) stubPlugin)
+        .setPluginObservationExceptionHandler(
+            new PluginObservationExceptionHandlerSpi() {
+              @Override
+              public void onPluginObservationError(String pluginName, Throwable e) {
+                // NOP
+              }
+            });
+    ((ObservablePlugin) stubPlugin)
+        .addObserver(
+            new PluginObserverSpi() {
+              @Override
+              public void onPluginEvent(PluginEvent pluginEvent) {
+                // NOP
+              }
+            });
+
+    final SyncNodeServer syncNodeServer = remotePluginServer.getSyncNode();
+    SmartCardServiceProvider.getService()
+        .registerDistributedLocalService(
+            LocalServiceClientFactoryBuilder.builder(LOCAL_SERVICE_NAME)
+                .withSyncNode(
+                    new SyncEndpointClientSpi() {
+                      @Override
+                      public List<MessageDto> sendRequest(MessageDto msg) {
+                        // Blocks until the server has a message for the session, as in the
+                        // EndpointServer.
+                        return syncNodeServer.onRequest(msg);
+                      }
+                    })
+                .build());
+    localServiceClient =
+        SmartCardServiceProvider.getService()
+            .getDistributedLocalService(LOCAL_SERVICE_NAME)
+            .getExtension(LocalServiceClient.class);
+  }
+
+  /**
+   * Plugs the stub readers of the connections whose index is in the provided range.
+   *
+   * @param fromIndex The index of the first reader to plug.
+   * @param toIndex The index following the last reader to plug.
+   * @throws IllegalStateException If a reader has not been detected in time.
+   * @throws InterruptedException If the current thread was interrupted.
+   */
+  private static void plugStubReaders(int fromIndex, int toIndex) throws InterruptedException {
+    for (int i = fromIndex; i < toIndex; i++) {
+      stubPlugin.getExtension(StubPlugin.class).plugReader(READER_NAME_PREFIX + i, true, null);
+    }
+    for (int i = fromIndex; i < toIndex; i++) {
+      long deadline = System.currentTimeMillis() + READER_DETECTION_TIMEOUT_MILLIS;
+      while (stubPlugin.getReader(READER_NAME_PREFIX + i) == null) {
+        if (System.currentTimeMillis() >= deadline) {
+          throw new IllegalStateException("Reader not detected: " + READER_NAME_PREFIX + i);
+        }
+        Thread.sleep(10);
+      }
+    }
+  }
+
+  /**
+   * Blocks the given number of connections with the given thread mode and returns the measurement
+   * summary.
+   *
+   * @param mode The thread mode.
+   * @param nbConnections The number of simulated connections.
+   * @return A summary line.
+   * @throws InterruptedException If the current thread was interrupted.
+   */
+  private static String measure(String mode, int nbConnections) throws InterruptedException {
+
+    ExecutorService executorService =
+        ServerExecutors.VIRTUAL_MODE.equals(mode)
+            ? ServerExecutors.newVirtualThreadPerTaskExecutor()
+            : Executors.newCachedThreadPool();
+
+    CountDownLatch heldLatch = remoteServiceHolder.reset(nbConnections);
+    final AtomicInteger nbFailures = new AtomicInteger();
+
+    System.gc();
+    long heapBefore = getUsedHeapBytes();
+    long rssBefore = getResidentSetBytes();
+    long start = System.nanoTime();
+
+    int nbStartedConnections = 0;
+    try {
+      for (int i = 0; i < nbConnections; i++) {
+        final String readerName = READER_NAME_PREFIX + i;
+        executorService.execute(
+            new Runnable() {
+              @Override
+              public void run() {
+                try {
+                  // Waits in the sync node of the server until the remote service is released.
+                  localServiceClient.executeRemoteService(
+                      SERVICE_ID,
+                      readerName,
+                      null,
+                      new InputDataDto().setUserId(readerName),
+                      OutputDataDto.class);
+                } catch (RuntimeException e) {
+                  nbFailures.incrementAndGet();
+                }
+              }
+            });
+        nbStartedConnections++;
+      }
+    } catch (OutOfMemoryError e) {
+      // No more native threads.
+      logger.warn("{} mode saturated after {} connections: {}", mode, nbStartedConnections, e);
+    }
+
+    boolean isSaturated =
+        nbStartedConnections < nbConnections
+            || !heldLatch.await(BLOCKING_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    long nbBlockedConnections = nbConnections - heldLatch.getCount();
+
+    System.gc();
+    long heapDelta = getUsedHeapBytes() - heapBefore;
+    long rssAfter = getResidentSetBytes();
+    int threadCount = ManagementFactory.getThreadMXBean().getThreadCount();
+
+    // End the remote services, including the ones received late, until all the connections end.
+    executorService.shutdown();
+    long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+    do {
+      remoteServiceHolder.releaseAll(remotePluginServer);
+    } while (!executorService.awaitTermination(100, TimeUnit.MILLISECONDS)
+        && System.currentTimeMillis() < deadline);
+    if (nbFailures.get() > 0) {
+      logger.warn("{} connections failed in {} mode", nbFailures.get(), mode);
+    }
+
+    String result =
+        String.format(
+            "%8s | %11d | %7s | %9d | %7d | %14.1f | %13s",
+            mode,
+            nbConnections,
+            isSaturated ? nbBlockedConnections + "!" : String.valueOf(nbBlockedConnections),
+            durationMillis,
+            threadCount,
+            perConnectionKiloBytes(heapDelta, nbBlockedConnections),
+            rssBefore < 0
+                ? "n/a"
+                : String.format(
+                    "%.1f", perConnectionKiloBytes(rssAfter - rssBefore, nbBlockedConnections)));
+    logger.info("{} connections in {} mode: {}", nbConnections, mode, result);
+    return result;
+  }
+
+  /**
+   * Returns a memory amount per connection.
+   *
+   * @param bytes The total amount, in bytes.
+   * @param nbConnections The number of connections.
+   * @return The amount in kilobytes, 0 if there is no connection.
+   */
+  private static double perConnectionKiloBytes(long bytes, long nbConnections) {
+    return nbConnections == 0 ? 0 : bytes / 1024.0 / nbConnections;
+  }
+
+  /**
+   * Returns the heap memory currently used.
+   *
+   * @return A number of bytes.
+   */
+  private static long getUsedHeapBytes() {
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  /**
+   * Returns the resident set size of the process, read from {@code /proc/self/status}.
+   *
+   * @return A number of bytes, -1 if not available on this system.
+   */
+  private static long getResidentSetBytes() {
+    File status = new File("/proc/self/status");
+    if (!status.canRead()) {
+      return -1;
+    }
+    BufferedReader reader = null;
+    try {
+      reader = new BufferedReader(new FileReader(status));
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("VmRSS:")) {
+          // e.g. "VmRSS:     123456 kB"
+          return Long.parseLong(line.substring(6).replace("kB", "").trim()) * 1024;
+        }
+      }
+      return -1;
+    } catch (IOException e) {
+      return -1;
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (IOException e) {
+          // NOP
+        }
+      }
+    }
+  }
+
+  /**
+   * Observer of the remote plugin server holding the remote services without answering the clients,
+   * until they are released.
+   */
+  private static final class RemoteServiceHolder
+      implements PluginObserverSpi, PluginObservationExceptionHandlerSpi {
+
+    private final Queue<String> heldReaderNames = new ConcurrentLinkedQueue<String>();
+    private volatile CountDownLatch heldLatch = new CountDownLatch(0);
+
+    /**
+     * Prepares the holding of the remote services of a measurement.
+     *
+     * @param nbConnections The number of expected remote services.
+     * @return The latch counting down the held remote services.
+     */
+    private CountDownLatch reset(int nbConnections) {
+      heldLatch = new CountDownLatch(nbConnections);
+      return heldLatch;
+    }
+
+    /**
+     * Ends the remote services held so far, which releases the requests waiting for them.
+     *
+     * @param remotePluginServer The remote plugin server.
+     */
+    private void releaseAll(RemotePluginServer remotePluginServer) {
+      String readerName;
+      while ((readerName = heldReaderNames.poll()) != null) {
+        remotePluginServer.endRemoteService(readerName, new OutputDataDto().setSuccessful(true));
+      }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onPluginEvent(PluginEvent event) {
+      // For a RemotePluginServer, the events can only be of type READER_CONNECTED, with one reader.
+      heldReaderNames.add(event.getReaderNames().first());
+      heldLatch.countDown();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void onPluginObservationError(String pluginName, Throwable e) {
+      logger.error("An exception occurred in plugin '{}'", pluginName, e);
+    }
+  }
+}
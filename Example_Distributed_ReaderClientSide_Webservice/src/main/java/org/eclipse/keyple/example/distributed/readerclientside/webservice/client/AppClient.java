@@ -12,6 +12,7 @@
  ************************************************************************************** */
 package org.eclipse.keyple.example.distributed.readerclientside.webservice.client;
 
+import java.util.List;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import org.eclipse.keyple.core.service.ObservablePlugin;
@@ -43,6 +44,7 @@ public class AppClient {
   private static final Logger logger = LoggerFactory.getLogger(AppClient.class);
   private static final String LOCAL_SERVICE_NAME = "LOCAL_SERVICE_#1";
   public static final String ISO_CARD_PROTOCOL = "ISO_14443_4_CARD";
+  private static final long READER_DETECTION_TIMEOUT_MILLIS = 10000;
 
   /** The endpoint client */
   @Inject @RestClient EndpointClient endpointClient;
@@ -87,6 +89,19 @@ public void init() {
    * @return true if the transaction was successful
    */
   public Boolean launchScenario() {
+    return launchScenario(reader.getName());
+  }
+
+  /**
+   * Executes the scenario on the provided local reader, e.g. on one of the readers plugged with
+   * {@link #plugStubReaders(List)}.
+   *
+   * <p>This method can be invoked concurrently on different readers.
+   *
+   * @param readerName The name of the local reader.
+   * @return true if the transaction was successful
+   */
+  public Boolean launchScenario(String readerName) {
 
     // Builds the user input data if needed.
     InputDataDto userInputData = new InputDataDto().setUserId("test");
@@ -102,7 +117,7 @@ public Boolean launchScenario() {
     OutputDataDto output =
         localService.executeRemoteService(
             "EXECUTE_CALYPSO_SESSION_FROM_REMOTE_SELECTION",
-            reader.getName(),
+            readerName,
             null,
             userInputData,
             OutputDataDto.class);
@@ -110,6 +125,44 @@ public Boolean launchScenario() {
     return output.isSuccessful();
   }
 
+  /**
+   * Plugs additional stub readers, each one with an inserted card, in order to simulate several
+   * clients. The client must have been initialized with a stub reader.
+   *
+   * @param readerNames The names of the readers to plug.
+   * @throws IllegalStateException If a reader has not been detected in time.
+   */
+  public void plugStubReaders(List<String> readerNames) {
+
+    // Plug the readers manually to the plugin.
+    for (String readerName : readerNames) {
+      plugin.getExtension(StubPlugin.class).plugReader(readerName, true, null);
+    }
+
+    for (String readerName : readerNames) {
+
+      // Wait for the reader to be detected.
+      long deadline = System.currentTimeMillis() + READER_DETECTION_TIMEOUT_MILLIS;
+      CardReader stubReader = plugin.getReader(readerName);
+      while (stubReader == null && System.currentTimeMillis() < deadline) {
+        try {
+          Thread.sleep(10);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while waiting for reader " + readerName, e);
+        }
+        stubReader = plugin.getReader(readerName);
+      }
+      if (stubReader == null) {
+        throw new IllegalStateException("Reader not detected: " + readerName);
+      }
+
+      // Activates the protocol ISO_14443_4 on the reader and insert a stub card.
+      ((ConfigurableCardReader) stubReader).activateProtocol(ISO_CARD_PROTOCOL, ISO_CARD_PROTOCOL);
+      plugin.getReaderExtension(StubReader.class, readerName).insertCard(getStubCard());
+    }
+  }
+
   /** Init a local plugin and reader with a stub reader and an inserted card */
   private void initStubReader() {
 
@@ -18,15 +18,21 @@
 import javax.ws.rs.Produces;
 import org.eclipse.keyple.distributed.MessageDto;
 import org.eclipse.keyple.distributed.spi.SyncEndpointClientSpi;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.common.MessageCompressionFilter;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.common.MessageDtoJsonProvider;
 import org.eclipse.keyple.example.distributed.readerclientside.webservice.server.EndpointServer;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
 /**
  * Example of a {@link SyncEndpointClientSpi} implementation using Web Services.
  *
- * <p>Sends requests to the {@link EndpointServer}.
+ * <p>Sends requests to the {@link EndpointServer}. The messages are serialized by the {@link
+ * MessageDtoJsonProvider} and optionally compressed by the {@link MessageCompressionFilter}.
  */
 @RegisterRestClient(configKey = "remote-plugin-api")
+@RegisterProvider(MessageDtoJsonProvider.class)
+@RegisterProvider(MessageCompressionFilter.class)
 public interface EndpointClient extends SyncEndpointClientSpi {
 
   @POST
@@ -0,0 +1,287 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import org.eclipse.keyple.distributed.MessageDto;
+
+/**
+ * Content encodings of the HTTP payloads exchanged between the endpoints.
+ *
+ * <p>Two encodings are supported:
+ *
+ * <ul>
+ *   <li>{@link #GZIP}, the standard HTTP encoding,
+ *   <li>{@link #DICTIONARY}, a zlib stream using a preset dictionary built from representative
+ *       Keyple messages (field names, actions, services, card requests and responses). Most of a
+ *       small message is then found in the dictionary, which makes it much more efficient than gzip
+ *       on the short payloads of the card exchanges.
+ * </ul>
+ *
+ * <p>The dictionary is rebuilt identically by the client and the server from the same message
+ * templates; its checksum is verified by zlib when a payload is decompressed.
+ */
+public final class MessageCompression {
+
+  /** The gzip content encoding. */
+  public static final String GZIP = "gzip";
+
+  /** The content encoding using the preset dictionary of Keyple messages. */
+  public static final String DICTIONARY = "x-keyple-dictionary";
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int MAX_DECOMPRESSED_SIZE = 4 * 1024 * 1024;
+  private static final int BUFFER_SIZE = 1024;
+  private static final byte[] DICTIONARY_BYTES = buildDictionary();
+
+  /** Constructor */
+  private MessageCompression() {}
+
+  /**
+   * Indicates whether a content encoding is supported.
+   *
+   * @param encoding The content encoding.
+   * @return true if the encoding is {@link #GZIP} or {@link #DICTIONARY}.
+   */
+  public static boolean isSupported(String encoding) {
+    return GZIP.equals(encoding) || DICTIONARY.equals(encoding);
+  }
+
+  /**
+   * Returns the first supported content encoding of an {@code Accept-Encoding} header, the
+   * encodings being listed by order of preference.
+   *
+   * @param acceptEncoding The value of the header (nullable).
+   * @return Null if none of the encodings is supported.
+   */
+  public static String negotiate(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return null;
+    }
+    for (String item : acceptEncoding.split(",")) {
+      // Ignore the optional quality value, e.g. "gzip;q=0.5".
+      int parametersIndex = item.indexOf(';');
+      String encoding = (parametersIndex < 0 ? item : item.substring(0, parametersIndex)).trim();
+      if (isSupported(encoding)) {
+        return encoding;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Compresses a payload.
+   *
+   * @param data The payload.
+   * @param encoding The content encoding, {@link #GZIP} or {@link #DICTIONARY}.
+   * @return A new array.
+   * @throws IllegalArgumentException If the encoding is not supported.
+   */
+  public static byte[] compress(byte[] data, String encoding) {
+    if (GZIP.equals(encoding)) {
+      try {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2 + 32);
+        GZIPOutputStream gzipOutput = new GZIPOutputStream(output);
+        gzipOutput.write(data);
+        gzipOutput.close();
+        return output.toByteArray();
+      } catch (IOException e) {
+        // Not possible with an in-memory stream.
+        throw new IllegalStateException(e);
+      }
+    }
+    if (DICTIONARY.equals(encoding)) {
+      Deflater deflater = new Deflater();
+      try {
+        deflater.setDictionary(DICTIONARY_BYTES);
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2 + 32);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (!deflater.finished()) {
+          output.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return output.toByteArray();
+      } finally {
+        deflater.end();
+      }
+    }
+    throw new IllegalArgumentException("Unsupported content encoding: " + encoding);
+  }
+
+  /**
+   * Decompresses a payload.
+   *
+   * @param data The compressed payload.
+   * @param encoding The content encoding, {@link #GZIP} or {@link #DICTIONARY}.
+   * @return A new array.
+   * @throws IOException If the payload is corrupted or larger than 4 MB once decompressed.
+   * @throws IllegalArgumentException If the encoding is not supported.
+   */
+  public static byte[] decompress(byte[] data, String encoding) throws IOException {
+    if (GZIP.equals(encoding)) {
+      return readAll(new GZIPInputStream(new ByteArrayInputStream(data)));
+    }
+    if (DICTIONARY.equals(encoding)) {
+      Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(data);
+        ByteArrayOutputStream output = new ByteArrayOutputStream(data.length * 4);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (!inflater.finished()) {
+          int length = inflater.inflate(buffer);
+          if (length == 0) {
+            if (inflater.needsDictionary()) {
+              inflater.setDictionary(DICTIONARY_BYTES);
+            } else if (inflater.needsInput()) {
+              throw new IOException("Truncated payload");
+            }
+          }
+          output.write(buffer, 0, length);
+          checkSize(output.size());
+        }
+        return output.toByteArray();
+      } catch (DataFormatException e) {
+        throw new IOException("Invalid payload: " + e.getMessage(), e);
+      } catch (IllegalArgumentException e) {
+        // Dictionary mismatch.
+        throw new IOException("Invalid payload: " + e.getMessage(), e);
+      } finally {
+        inflater.end();
+      }
+    }
+    throw new IllegalArgumentException("Unsupported content encoding: " + encoding);
+  }
+
+  /**
+   * Reads a stream until its end.
+   *
+   * @param inputStream The stream, closed at the end.
+   * @return A new array.
+   * @throws IOException If the stream cannot be read or is larger than 4 MB.
+   */
+  public static byte[] readAll(InputStream inputStream) throws IOException {
+    try {
+      ByteArrayOutputStream output = new ByteArrayOutputStream(BUFFER_SIZE);
+      byte[] buffer = new byte[BUFFER_SIZE];
+      int length;
+      while ((length = inputStream.read(buffer)) != -1) {
+        output.write(buffer, 0, length);
+        checkSize(output.size());
+      }
+      return output.toByteArray();
+    } finally {
+      inputStream.close();
+    }
+  }
+
+  /**
+   * Checks the size of a decompressed payload.
+   *
+   * @param size The current size.
+   * @throws IOException If the size exceeds the maximum.
+   */
+  private static void checkSize(int size) throws IOException {
+    if (size > MAX_DECOMPRESSED_SIZE) {
+      throw new IOException("Payload too large once decompressed");
+    }
+  }
+
+  /**
+   * Builds the preset dictionary by serializing representative messages as they are sent on the
+   * wire. As zlib favors the end of the dictionary, the most frequent messages (card requests and
+   * responses) are put last.
+   *
+   * @return The dictionary.
+   */
+  private static byte[] buildDictionary() {
+    List<MessageDto> messages = new ArrayList<MessageDto>();
+    messages.add(
+        createTemplate(
+            "EXECUTE_REMOTE_SERVICE",
+            "{\"coreApiLevel\":2,\"serviceId\":\"EXECUTE_CALYPSO_SESSION_FROM_REMOTE_SELECTION\","
+                + "\"isReaderContactless\":true,\"inputData\":{\"userId\":\"\"}}"));
+    messages.add(
+        createTemplate(
+            "END_REMOTE_SERVICE",
+            "{\"coreApiLevel\":2,\"outputData\":{\"userId\":\"\",\"isSuccessful\":true}}"));
+    messages.add(
+        createTemplate(
+            "CMD",
+            "{\"coreApiLevel\":2,\"service\":\"TRANSMIT_CARD_SELECTION_REQUESTS\",\"parameters\":"
+                + "{\"multiSelectionProcessing\":\"FIRST_MATCH\",\"channelControl\":\"KEEP_OPEN\","
+                + "\"cardSelectors\":[{\"logicalProtocolName\":\"ISO_14443_4_CARD\",\"aid\":"
+                + "\"315449432E49434131\",\"fileOccurrence\":\"FIRST\",\"fileControlInformation\":"
+                + "\"FCI\"}],\"cardSelectionRequests\":[{\"cardRequest\":{\"apduRequests\":[{\"apdu\":\"00B2013C00\",\"successfulStatusWords\":[\"9000\"],\"info\":\"Read"
+                + " Records - SFI:7h,"
+                + " REC:1\"}],\"stopOnUnsuccessfulStatusWord\":false},\"successfulSelectionStatusWords"
+                + "\":[\"9000\"]}]}}"));
+    messages.add(
+        createTemplate(
+            "RESP",
+            "{\"coreApiLevel\":2,\"service\":\"TRANSMIT_CARD_SELECTION_REQUESTS\",\"result\":"
+                + "[{\"powerOnData\":\"3B8880010000000000718100F9\",\"selectApplicationResponse\":"
+                + "{\"apdu\":\"6F238409315449432E49434131A516BF0C13C708000000001122334453070A3C231214"
+                + "10019000\",\"statusWord\":36864},\"hasMatched\":true,\"cardResponse\":"
+                + "{\"apduResponses\":[{\"apdu\":\"9000\",\"statusWord\":36864}],"
+                + "\"isLogicalChannelOpen\":true}}]}"));
+    messages.add(
+        createTemplate(
+            "CMD",
+            "{\"coreApiLevel\":2,\"service\":\"TRANSMIT_CARD_REQUEST\",\"parameters\":{\"cardRequest\":"
+                + "{\"apduRequests\":[{\"apdu\":\"00B2014400\",\"successfulStatusWords\":[\"9000\"],\"info\":\"Read"
+                + " Records - SFI:8h, REC:1\"}],\"stopOnUnsuccessfulStatusWord\":true},"
+                + "\"channelControl\":\"CLOSE_AFTER\"}}"));
+    messages.add(
+        createTemplate(
+            "RESP",
+            "{\"coreApiLevel\":2,\"service\":\"TRANSMIT_CARD_REQUEST\",\"result\":{\"apduResponses\":"
+                + "[{\"apdu\":\"9000\",\"statusWord\":36864}],\"isLogicalChannelOpen\":false}}"));
+    StringBuilder dictionary = new StringBuilder();
+    for (MessageDto message : messages) {
+      dictionary.append(MessageDtoJsonSerializer.toJson(Arrays.asList(message)));
+    }
+    return dictionary.toString().getBytes(UTF_8);
+  }
+
+  /**
+   * Creates a template message.
+   *
+   * @param action The action.
+   * @param body The body.
+   * @return A new message.
+   */
+  private static MessageDto createTemplate(String action, String body) {
+    return new MessageDto()
+        .setApiLevel(3)
+        .setSessionId("")
+        .setAction(action)
+        .setClientNodeId("")
+        .setServerNodeId("")
+        .setLocalReaderName("stubReader")
+        .setRemoteReaderName("")
+        .setBody(body);
+  }
+}
@@ -0,0 +1,155 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+
+/**
+ * JAX-RS filter and interceptor negotiating and applying the compression of the payloads (see
+ * {@link MessageCompression}), in both directions.
+ *
+ * <ul>
+ *   <li>The client lists the encodings configured with {@code keyple.rest.compression.encodings} by
+ *       order of preference in the {@code Accept-Encoding} header of its requests, and compresses
+ *       its requests with the first one. The compression is disabled if the property is not set.
+ *   <li>The server compresses its responses with the first encoding accepted by the client that it
+ *       supports.
+ *   <li>Both decompress the payloads according to their {@code Content-Encoding} header.
+ * </ul>
+ *
+ * <p>A payload smaller than {@code keyple.rest.compression.min-size} bytes is sent uncompressed,
+ * the compression not being worth its cost.
+ *
+ * <p>It is discovered automatically on the server side and registered on the REST client with
+ * {@code @RegisterProvider}.
+ */
+@Provider
+public class MessageCompressionFilter
+    implements ContainerRequestFilter, ClientRequestFilter, ReaderInterceptor, WriterInterceptor {
+
+  private static final String ENCODING_PROPERTY = "keyple.rest.compression.encoding";
+  private static final int DEFAULT_MIN_SIZE = 256;
+
+  private final List<String> clientEncodings = new ArrayList<String>();
+  private final String clientAcceptEncoding;
+  private final int minSize;
+
+  /** Constructor, reading the configuration. */
+  public MessageCompressionFilter() {
+    Config config = ConfigProvider.getConfig();
+    String encodings =
+        config.getOptionalValue("keyple.rest.compression.encodings", String.class).orElse("");
+    for (String encoding : encodings.split(",")) {
+      encoding = encoding.trim();
+      if (encoding.isEmpty()) {
+        continue;
+      }
+      if (!MessageCompression.isSupported(encoding)) {
+        throw new IllegalArgumentException("Unsupported content encoding: " + encoding);
+      }
+      clientEncodings.add(encoding);
+    }
+    clientAcceptEncoding = clientEncodings.isEmpty() ? null : encodings.replace(" ", "");
+    minSize =
+        config
+            .getOptionalValue("keyple.rest.compression.min-size", Integer.class)
+            .orElse(DEFAULT_MIN_SIZE);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Server side: selects the encoding of the response.
+   */
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    String encoding =
+        MessageCompression.negotiate(requestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+    if (encoding != null) {
+      requestContext.setProperty(ENCODING_PROPERTY, encoding);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Client side: announces the accepted encodings and selects the encoding of the request.
+   */
+  @Override
+  public void filter(ClientRequestContext requestContext) {
+    if (clientAcceptEncoding != null) {
+      requestContext.getHeaders().putSingle(HttpHeaders.ACCEPT_ENCODING, clientAcceptEncoding);
+      requestContext.setProperty(ENCODING_PROPERTY, clientEncodings.get(0));
+    }
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Object aroundReadFrom(ReaderInterceptorContext context)
+      throws IOException, WebApplicationException {
+    String encoding = context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+    if (MessageCompression.isSupported(encoding)) {
+      byte[] payload =
+          MessageCompression.decompress(
+              MessageCompression.readAll(context.getInputStream()), encoding);
+      context.setInputStream(new ByteArrayInputStream(payload));
+      context.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+    }
+    return context.proceed();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The payload is serialized in a buffer first, in order to compare its size with the threshold
+   * before setting the {@code Content-Encoding} header.
+   */
+  @Override
+  public void aroundWriteTo(WriterInterceptorContext context)
+      throws IOException, WebApplicationException {
+    String encoding = (String) context.getProperty(ENCODING_PROPERTY);
+    if (encoding == null) {
+      context.proceed();
+      return;
+    }
+    OutputStream outputStream = context.getOutputStream();
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    context.setOutputStream(buffer);
+    context.proceed();
+    byte[] payload = buffer.toByteArray();
+    if (payload.length >= minSize) {
+      payload = MessageCompression.compress(payload, encoding);
+      context.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+    }
+    context.setOutputStream(outputStream);
+    outputStream.write(payload);
+  }
+}
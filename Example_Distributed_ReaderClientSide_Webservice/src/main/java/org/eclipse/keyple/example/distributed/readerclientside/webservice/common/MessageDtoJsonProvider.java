@@ -0,0 +1,121 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import org.eclipse.keyple.distributed.MessageDto;
+
+/**
+ * JAX-RS provider (un)marshalling {@link MessageDto} and lists of {@link MessageDto} with the
+ * {@link MessageDtoJsonSerializer}, in place of the default JSON-B provider.
+ *
+ * <p>It is discovered automatically on the server side and registered on the REST client with
+ * {@code @RegisterProvider}.
+ */
+@Provider
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class MessageDtoJsonProvider
+    implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isReadable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return isSupported(type, genericType);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public Object readFrom(
+      Class<Object> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, String> httpHeaders,
+      InputStream entityStream)
+      throws IOException {
+    if (MessageDto.class.equals(type)) {
+      return MessageDtoJsonSerializer.readJson(entityStream);
+    }
+    return MessageDtoJsonSerializer.readJsonList(entityStream);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public boolean isWriteable(
+      Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+    return isSupported(type, genericType);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public long getSize(
+      Object value,
+      Class<?> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType) {
+    return -1;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  @SuppressWarnings("unchecked")
+  public void writeTo(
+      Object value,
+      Class<?> type,
+      Type genericType,
+      Annotation[] annotations,
+      MediaType mediaType,
+      MultivaluedMap<String, Object> httpHeaders,
+      OutputStream entityStream)
+      throws IOException {
+    if (value instanceof MessageDto) {
+      MessageDtoJsonSerializer.writeJson((MessageDto) value, entityStream);
+    } else {
+      MessageDtoJsonSerializer.writeJson((List<MessageDto>) value, entityStream);
+    }
+  }
+
+  /**
+   * Indicates whether the type is a {@link MessageDto} or a list of {@link MessageDto}.
+   *
+   * @param type The raw type.
+   * @param genericType The generic type.
+   * @return true if the type is supported.
+   */
+  private static boolean isSupported(Class<?> type, Type genericType) {
+    if (type == MessageDto.class) {
+      return true;
+    }
+    if (!List.class.isAssignableFrom(type) || !(genericType instanceof ParameterizedType)) {
+      return false;
+    }
+    Type[] typeArguments = ((ParameterizedType) genericType).getActualTypeArguments();
+    return typeArguments.length == 1 && typeArguments[0] == MessageDto.class;
+  }
+}
@@ -0,0 +1,579 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.distributed.MessageDto;
+
+/**
+ * Hand-written streaming JSON serializer of {@link MessageDto}, used by the endpoints in place of
+ * the reflective serialization.
+ *
+ * <p>The produced JSON is compatible with the one of the Keyple JSON parser: same field names and
+ * order, null fields omitted, integers written as hexadecimal strings. The reader accepts any valid
+ * JSON object and ignores the unknown fields.
+ *
+ * <p>The characters and bytes are written in buffers owned by the calling thread and reused from
+ * one message to the next, so that the serialization only allocates the resulting string or nothing
+ * at all when writing to a stream.
+ */
+public final class MessageDtoJsonSerializer {
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+  // Larger buffers are released after use, so that an exceptional message does not keep memory.
+  private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private static final String API_LEVEL = "apiLevel";
+  private static final String SESSION_ID = "sessionId";
+  private static final String ACTION = "action";
+  private static final String CLIENT_NODE_ID = "clientNodeId";
+  private static final String SERVER_NODE_ID = "serverNodeId";
+  private static final String LOCAL_READER_NAME = "localReaderName";
+  private static final String REMOTE_READER_NAME = "remoteReaderName";
+  private static final String BODY = "body";
+
+  private static final ThreadLocal<Buffers> threadBuffers =
+      new ThreadLocal<Buffers>() {
+        @Override
+        protected Buffers initialValue() {
+          return new Buffers();
+        }
+      };
+
+  /** Constructor */
+  private MessageDtoJsonSerializer() {}
+
+  /**
+   * Serializes a message.
+   *
+   * @param message The message.
+   * @return A JSON object.
+   */
+  public static String toJson(MessageDto message) {
+    CharOutput output = threadBuffers.get().getCharOutput();
+    writeMessage(output, message);
+    return output.toString();
+  }
+
+  /**
+   * Serializes a list of messages.
+   *
+   * @param messages The messages.
+   * @return A JSON array.
+   */
+  public static String toJson(List<MessageDto> messages) {
+    CharOutput output = threadBuffers.get().getCharOutput();
+    writeMessages(output, messages);
+    return output.toString();
+  }
+
+  /**
+   * Serializes a message in UTF-8 into the provided stream.
+   *
+   * @param message The message.
+   * @param outputStream The stream, which is not closed.
+   * @throws IOException If the stream failed.
+   */
+  public static void writeJson(MessageDto message, OutputStream outputStream) throws IOException {
+    Buffers buffers = threadBuffers.get();
+    CharOutput output = buffers.getCharOutput();
+    writeMessage(output, message);
+    output.writeUtf8(buffers, outputStream);
+  }
+
+  /**
+   * Serializes a list of messages in UTF-8 into the provided stream.
+   *
+   * @param messages The messages.
+   * @param outputStream The stream, which is not closed.
+   * @throws IOException If the stream failed.
+   */
+  public static void writeJson(List<MessageDto> messages, OutputStream outputStream)
+      throws IOException {
+    Buffers buffers = threadBuffers.get();
+    CharOutput output = buffers.getCharOutput();
+    writeMessages(output, messages);
+    output.writeUtf8(buffers, outputStream);
+  }
+
+  /**
+   * Deserializes a message.
+   *
+   * @param json A JSON object.
+   * @return A new message.
+   * @throws IllegalArgumentException If the JSON is malformed.
+   */
+  public static MessageDto fromJson(String json) {
+    JsonInput input = new JsonInput(json);
+    MessageDto message = readMessage(input);
+    input.expectEnd();
+    return message;
+  }
+
+  /**
+   * Deserializes a list of messages.
+   *
+   * @param json A JSON array.
+   * @return A new list.
+   * @throws IllegalArgumentException If the JSON is malformed.
+   */
+  public static List<MessageDto> listFromJson(String json) {
+    JsonInput input = new JsonInput(json);
+    List<MessageDto> messages = readMessages(input);
+    input.expectEnd();
+    return messages;
+  }
+
+  /**
+   * Deserializes a message read in UTF-8 from the provided stream.
+   *
+   * @param inputStream The stream, which is read until its end but not closed.
+   * @return A new message.
+   * @throws IOException If the stream failed.
+   * @throws IllegalArgumentException If the JSON is malformed.
+   */
+  public static MessageDto readJson(InputStream inputStream) throws IOException {
+    return fromJson(threadBuffers.get().readUtf8(inputStream));
+  }
+
+  /**
+   * Deserializes a list of messages read in UTF-8 from the provided stream.
+   *
+   * @param inputStream The stream, which is read until its end but not closed.
+   * @return A new list.
+   * @throws IOException If the stream failed.
+   * @throws IllegalArgumentException If the JSON is malformed.
+   */
+  public static List<MessageDto> readJsonList(InputStream inputStream) throws IOException {
+    return listFromJson(threadBuffers.get().readUtf8(inputStream));
+  }
+
+  private static void writeMessages(CharOutput output, List<MessageDto> messages) {
+    output.append('[');
+    for (int i = 0; i < messages.size(); i++) {
+      if (i > 0) {
+        output.append(',');
+      }
+      writeMessage(output, messages.get(i));
+    }
+    output.append(']');
+  }
+
+  private static void writeMessage(CharOutput output, MessageDto message) {
+    // Like the Keyple JSON parser, the integers are written as hexadecimal strings.
+    output.append("{\"").append(API_LEVEL).append("\":\"");
+    output.append(HexUtil.toHex(message.getApiLevel())).append('"');
+    writeField(output, SESSION_ID, message.getSessionId());
+    writeField(output, ACTION, message.getAction());
+    writeField(output, CLIENT_NODE_ID, message.getClientNodeId());
+    writeField(output, SERVER_NODE_ID, message.getServerNodeId());
+    writeField(output, LOCAL_READER_NAME, message.getLocalReaderName());
+    writeField(output, REMOTE_READER_NAME, message.getRemoteReaderName());
+    writeField(output, BODY, message.getBody());
+    output.append('}');
+  }
+
+  private static void writeField(CharOutput output, String name, String value) {
+    if (value != null) {
+      output.append(",\"").append(name).append("\":");
+      writeString(output, value);
+    }
+  }
+
+  private static void writeString(CharOutput output, String value) {
+    output.append('"');
+    int length = value.length();
+    int start = 0;
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x20 && c != '"' && c != '\\') {
+        continue;
+      }
+      output.append(value, start, i);
+      switch (c) {
+        case '"':
+          output.append("\\\"");
+          break;
+        case '\\':
+          output.append("\\\\");
+          break;
+        case '\n':
+          output.append("\\n");
+          break;
+        case '\r':
+          output.append("\\r");
+          break;
+        case '\t':
+          output.append("\\t");
+          break;
+        default:
+          output.append("\\u00").append(HEX_DIGITS[(c >> 4) & 0xF]).append(HEX_DIGITS[c & 0xF]);
+      }
+      start = i + 1;
+    }
+    output.append(value, start, length);
+    output.append('"');
+  }
+
+  private static List<MessageDto> readMessages(JsonInput input) {
+    List<MessageDto> messages = new ArrayList<MessageDto>(1);
+    input.expect('[');
+    if (!input.consumeIf(']')) {
+      do {
+        messages.add(readMessage(input));
+      } while (input.consumeIf(','));
+      input.expect(']');
+    }
+    return messages;
+  }
+
+  private static MessageDto readMessage(JsonInput input) {
+    MessageDto message = new MessageDto();
+    input.expect('{');
+    if (input.consumeIf('}')) {
+      return message;
+    }
+    do {
+      String name = input.readString();
+      input.expect(':');
+      if (API_LEVEL.equals(name)) {
+        message.setApiLevel(input.readHexInt());
+      } else if (SESSION_ID.equals(name)) {
+        message.setSessionId(input.readNullableString());
+      } else if (ACTION.equals(name)) {
+        message.setAction(input.readNullableString());
+      } else if (CLIENT_NODE_ID.equals(name)) {
+        message.setClientNodeId(input.readNullableString());
+      } else if (SERVER_NODE_ID.equals(name)) {
+        message.setServerNodeId(input.readNullableString());
+      } else if (LOCAL_READER_NAME.equals(name)) {
+        message.setLocalReaderName(input.readNullableString());
+      } else if (REMOTE_READER_NAME.equals(name)) {
+        message.setRemoteReaderName(input.readNullableString());
+      } else if (BODY.equals(name)) {
+        message.setBody(input.readNullableString());
+      } else {
+        input.skipValue();
+      }
+    } while (input.consumeIf(','));
+    input.expect('}');
+    return message;
+  }
+
+  /** Buffers reused by a thread. */
+  private static final class Buffers {
+
+    private final CharOutput charOutput = new CharOutput();
+    private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+
+    private CharOutput getCharOutput() {
+      charOutput.reset();
+      return charOutput;
+    }
+
+    private byte[] getBytes(int minLength) {
+      if (bytes.length < minLength) {
+        bytes = new byte[Math.max(minLength, bytes.length * 2)];
+      }
+      return bytes;
+    }
+
+    private byte[] growBytes() {
+      bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      return bytes;
+    }
+
+    private void releaseBytes() {
+      if (bytes.length > MAX_RETAINED_BUFFER_SIZE) {
+        bytes = new byte[INITIAL_BUFFER_SIZE];
+      }
+    }
+
+    private String readUtf8(InputStream inputStream) throws IOException {
+      byte[] buffer = getBytes(INITIAL_BUFFER_SIZE);
+      int length = 0;
+      int n;
+      while ((n = inputStream.read(buffer, length, buffer.length - length)) != -1) {
+        length += n;
+        if (length == buffer.length) {
+          // The bytes already read are kept.
+          buffer = growBytes();
+        }
+      }
+      String json = new String(buffer, 0, length, UTF_8);
+      releaseBytes();
+      return json;
+    }
+  }
+
+  /** Growable character buffer. */
+  private static final class CharOutput {
+
+    private char[] chars = new char[INITIAL_BUFFER_SIZE];
+    private int length;
+
+    private void reset() {
+      if (chars.length > MAX_RETAINED_BUFFER_SIZE) {
+        chars = new char[INITIAL_BUFFER_SIZE];
+      }
+      length = 0;
+    }
+
+    private void ensureCapacity(int extraLength) {
+      if (length + extraLength > chars.length) {
+        chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + extraLength));
+      }
+    }
+
+    private CharOutput append(char c) {
+      ensureCapacity(1);
+      chars[length++] = c;
+      return this;
+    }
+
+    private CharOutput append(String value) {
+      return append(value, 0, value.length());
+    }
+
+    private CharOutput append(String value, int start, int end) {
+      ensureCapacity(end - start);
+      value.getChars(start, end, chars, length);
+      length += end - start;
+      return this;
+    }
+
+    /**
+     * Encodes the characters in UTF-8 in the byte buffer of the thread and writes them.
+     *
+     * @param buffers The buffers of the thread.
+     * @param outputStream The stream.
+     * @throws IOException If the stream failed.
+     */
+    private void writeUtf8(Buffers buffers, OutputStream outputStream) throws IOException {
+      byte[] bytes = buffers.getBytes(length * 3);
+      int n = 0;
+      for (int i = 0; i < length; i++) {
+        char c = chars[i];
+        if (c < 0x80) {
+          bytes[n++] = (byte) c;
+        } else if (c < 0x800) {
+          bytes[n++] = (byte) (0xC0 | (c >> 6));
+          bytes[n++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(chars[i + 1])) {
+          int codePoint = Character.toCodePoint(c, chars[++i]);
+          bytes[n++] = (byte) (0xF0 | (codePoint >> 18));
+          bytes[n++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+          bytes[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+          bytes[n++] = (byte) (0x80 | (codePoint & 0x3F));
+        } else {
+          bytes[n++] = (byte) (0xE0 | (c >> 12));
+          bytes[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+          bytes[n++] = (byte) (0x80 | (c & 0x3F));
+        }
+      }
+      outputStream.write(bytes, 0, n);
+      buffers.releaseBytes();
+    }
+
+    @Override
+    public String toString() {
+      return new String(chars, 0, length);
+    }
+  }
+
+  /** Streaming JSON reader over a string. */
+  private static final class JsonInput {
+
+    private final String json;
+    private int position;
+
+    private JsonInput(String json) {
+      this.json = json;
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException(message + " at position " + position + " of " + json);
+    }
+
+    private void skipWhitespaces() {
+      while (position < json.length()) {
+        char c = json.charAt(position);
+        if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+          return;
+        }
+        position++;
+      }
+    }
+
+    private void expect(char c) {
+      if (!consumeIf(c)) {
+        throw error("'" + c + "' expected");
+      }
+    }
+
+    private boolean consumeIf(char c) {
+      skipWhitespaces();
+      if (position < json.length() && json.charAt(position) == c) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private void expectEnd() {
+      skipWhitespaces();
+      if (position != json.length()) {
+        throw error("End of JSON expected");
+      }
+    }
+
+    private boolean consumeLiteral(String literal) {
+      skipWhitespaces();
+      if (json.startsWith(literal, position)) {
+        position += literal.length();
+        return true;
+      }
+      return false;
+    }
+
+    private String readNullableString() {
+      return consumeLiteral("null") ? null : readString();
+    }
+
+    private String readString() {
+      expect('"');
+      int start = position;
+      // Fast path: no escaped character.
+      while (position < json.length()) {
+        char c = json.charAt(position);
+        if (c == '"') {
+          return json.substring(start, position++);
+        }
+        if (c == '\\') {
+          break;
+        }
+        position++;
+      }
+      StringBuilder value = new StringBuilder(json.length() - start);
+      value.append(json, start, position);
+      while (position < json.length()) {
+        char c = json.charAt(position++);
+        if (c == '"') {
+          return value.toString();
+        }
+        if (c != '\\') {
+          value.append(c);
+          continue;
+        }
+        if (position >= json.length()) {
+          break;
+        }
+        char escaped = json.charAt(position++);
+        switch (escaped) {
+          case 'b':
+            value.append('\b');
+            break;
+          case 'f':
+            value.append('\f');
+            break;
+          case 'n':
+            value.append('\n');
+            break;
+          case 'r':
+            value.append('\r');
+            break;
+          case 't':
+            value.append('\t');
+            break;
+          case 'u':
+            if (position + 4 > json.length()) {
+              throw error("Truncated unicode escape");
+            }
+            try {
+              value.append((char) Integer.parseInt(json.substring(position, position + 4), 16));
+            } catch (NumberFormatException e) {
+              throw error("Malformed unicode escape");
+            }
+            position += 4;
+            break;
+          default:
+            // '"', '\\' and '/'
+            value.append(escaped);
+        }
+      }
+      throw error("Unterminated string");
+    }
+
+    private int readHexInt() {
+      skipWhitespaces();
+      boolean isQuoted = consumeIf('"');
+      int start = position;
+      while (position < json.length() && Character.digit(json.charAt(position), 16) >= 0) {
+        position++;
+      }
+      if (position == start || position - start > 8 || (isQuoted && !consumeIf('"'))) {
+        throw error("Hexadecimal integer expected");
+      }
+      return (int) Long.parseLong(json.substring(start, isQuoted ? position - 1 : position), 16);
+    }
+
+    private void skipValue() {
+      skipWhitespaces();
+      if (position >= json.length()) {
+        throw error("Value expected");
+      }
+      char c = json.charAt(position);
+      if (c == '"') {
+        readString();
+      } else if (c == '{') {
+        position++;
+        if (!consumeIf('}')) {
+          do {
+            readString();
+            expect(':');
+            skipValue();
+          } while (consumeIf(','));
+          expect('}');
+        }
+      } else if (c == '[') {
+        position++;
+        if (!consumeIf(']')) {
+          do {
+            skipValue();
+          } while (consumeIf(','));
+          expect(']');
+        }
+      } else {
+        // Number, true, false or null.
+        int start = position;
+        while (position < json.length() && ",}] \n\r\t".indexOf(json.charAt(position)) < 0) {
+          position++;
+        }
+        if (position == start) {
+          throw error("Value expected");
+        }
+      }
+    }
+  }
+}
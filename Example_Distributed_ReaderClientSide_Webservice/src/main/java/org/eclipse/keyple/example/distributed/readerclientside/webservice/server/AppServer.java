@@ -12,12 +12,15 @@
  ************************************************************************************** */
 package org.eclipse.keyple.example.distributed.readerclientside.webservice.server;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.enterprise.context.ApplicationScoped;
 import org.eclipse.keyple.core.service.ObservablePlugin;
 import org.eclipse.keyple.core.service.SmartCardServiceProvider;
 import org.eclipse.keyple.core.service.spi.PluginObservationExceptionHandlerSpi;
 import org.eclipse.keyple.distributed.RemotePluginServerFactory;
 import org.eclipse.keyple.distributed.RemotePluginServerFactoryBuilder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /** Example of a server side application. */
 @ApplicationScoped
@@ -25,13 +28,60 @@ public class AppServer {
 
   public static final String REMOTE_PLUGIN_NAME = "REMOTE_PLUGIN_#1";
 
+  /** Threads processing the requests and executing the remote services: platform or virtual */
+  @ConfigProperty(name = "keyple.server.thread-mode", defaultValue = ServerExecutors.PLATFORM_MODE)
+  String threadMode;
+
+  /** Number of worker threads executing the remote services, in platform thread mode */
+  @ConfigProperty(name = "keyple.remote-service.workers", defaultValue = "32")
+  int nbRemoteServiceWorkers;
+
+  /** Maximum number of remote services waiting or in progress */
+  @ConfigProperty(name = "keyple.remote-service.max-pending", defaultValue = "512")
+  int maxPendingRemoteServices;
+
+  /** Maximum number of concurrent executions of each remote service */
+  @ConfigProperty(name = "keyple.remote-service.max-concurrent-executions", defaultValue = "16")
+  int maxConcurrentRemoteServiceExecutions;
+
+  /** Transmission of the selection and the file reads to the client in a single exchange */
+  @ConfigProperty(name = "keyple.remote-service.command-batching", defaultValue = "false")
+  boolean isCommandBatchingEnabled;
+
+  /** Maximum number of cards in the card image cache, 0 to disable the cache */
+  @ConfigProperty(name = "keyple.card-image-cache.max-size", defaultValue = "0")
+  int cardImageCacheMaxSize;
+
+  /** Time to live of a card image, in milliseconds */
+  @ConfigProperty(name = "keyple.card-image-cache.ttl-millis", defaultValue = "60000")
+  long cardImageCacheTtlMillis;
+
+  /** The dispatcher executing the remote services */
+  private RemoteServiceDispatcher remoteServiceDispatcher;
+
+  /** The cache of the records read in free mode, null if disabled */
+  private CardImageCache cardImageCache;
+
+  /** The executor processing the requests, null in platform thread mode */
+  private ExecutorService requestExecutor;
+
+  /** The observer executing the remote services */
+  private RemotePluginServerObserver observer;
+
+  /** The number of requests received by the endpoint */
+  private final AtomicLong nbReceivedRequests = new AtomicLong();
+
   /**
    * Initialize the server components :
    *
    * <ul>
    *   <li>A {@link org.eclipse.keyple.distributed.RemotePluginServer} with a sync node and attach
-   *       an observer that contains all the business logic.
+   *       an observer that contains all the business logic, executed by a {@link
+   *       RemoteServiceDispatcher}, with an optional {@link CardImageCache}.
    * </ul>
+   *
+   * <p>In virtual thread mode, the requests and the remote services are processed on virtual
+   * threads, if supported by the JVM.
    */
   public void init() {
 
@@ -51,6 +101,82 @@ public void onPluginObservationError(String pluginName, Throwable e) {
             // NOP
           }
         });
-    plugin.addObserver(new RemotePluginServerObserver());
+    if (ServerExecutors.isVirtualThreadModeEnabled(threadMode)) {
+      requestExecutor = ServerExecutors.newVirtualThreadPerTaskExecutor();
+      remoteServiceDispatcher =
+          new RemoteServiceDispatcher(
+              ServerExecutors.newVirtualThreadPerTaskExecutor(),
+              maxPendingRemoteServices,
+              maxConcurrentRemoteServiceExecutions);
+    } else {
+      remoteServiceDispatcher =
+          new RemoteServiceDispatcher(
+              nbRemoteServiceWorkers,
+              maxPendingRemoteServices,
+              maxConcurrentRemoteServiceExecutions);
+    }
+    observer = new RemotePluginServerObserver(remoteServiceDispatcher);
+    observer.setCommandBatchingEnabled(isCommandBatchingEnabled);
+    if (cardImageCacheMaxSize > 0) {
+      cardImageCache = new CardImageCache(cardImageCacheMaxSize, cardImageCacheTtlMillis);
+      observer.setCardImageCache(cardImageCache);
+    }
+    plugin.addObserver(observer);
+  }
+
+  /**
+   * Returns the cache of the records read in free mode, e.g. to log its statistics.
+   *
+   * @return Null if the cache is disabled or if the server is not initialized.
+   */
+  public CardImageCache getCardImageCache() {
+    return cardImageCache;
+  }
+
+  /**
+   * Returns the dispatcher executing the remote services, e.g. to log its statistics.
+   *
+   * @return Null if the server is not initialized.
+   */
+  public RemoteServiceDispatcher getRemoteServiceDispatcher() {
+    return remoteServiceDispatcher;
+  }
+
+  /**
+   * Returns the executor processing the requests received by the {@link EndpointServer}.
+   *
+   * @return Null if the requests are processed by the HTTP worker threads (platform thread mode).
+   */
+  public ExecutorService getRequestExecutor() {
+    return requestExecutor;
+  }
+
+  /**
+   * Enables or disables the command batching of the remote services (see {@link
+   * RemotePluginServerObserver#setCommandBatchingEnabled(boolean)}).
+   *
+   * @param isCommandBatchingEnabled true to enable the command batching.
+   */
+  public void setCommandBatchingEnabled(boolean isCommandBatchingEnabled) {
+    observer.setCommandBatchingEnabled(isCommandBatchingEnabled);
+    if (cardImageCacheMaxSize > 0) {
+      cardImageCache = new CardImageCache(cardImageCacheMaxSize, cardImageCacheTtlMillis);
+      observer.setCardImageCache(cardImageCache);
+    }
+  }
+
+  /**
+   * Returns the number of requests received by the {@link EndpointServer} so far, i.e. the number
+   * of HTTP round trips with the clients.
+   *
+   * @return A positive or zero long.
+   */
+  public long getNbReceivedRequests() {
+    return nbReceivedRequests.get();
+  }
+
+  /** Counts a request received by the {@link EndpointServer}. */
+  void onRequestReceived() {
+    nbReceivedRequests.incrementAndGet();
   }
 }
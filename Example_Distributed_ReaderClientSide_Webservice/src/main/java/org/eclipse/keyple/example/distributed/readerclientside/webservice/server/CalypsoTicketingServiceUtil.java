@@ -19,6 +19,7 @@
 import org.eclipse.keypop.calypso.card.card.CalypsoCard;
 import org.eclipse.keypop.calypso.card.card.CalypsoCardSelectionExtension;
 import org.eclipse.keypop.calypso.card.card.ElementaryFile;
+import org.eclipse.keypop.calypso.card.transaction.FreeTransactionManager;
 import org.eclipse.keypop.reader.CardReader;
 import org.eclipse.keypop.reader.ChannelControl;
 import org.eclipse.keypop.reader.ReaderApiFactory;
@@ -73,6 +74,134 @@ public static CardSelectionManager getCardSelection() {
     return cardSelectionManager;
   }
 
+  /**
+   * Prepare a Selection object ready to select Calypso card and read both the environment and the
+   * event log files, then release the channel.
+   *
+   * <p>All the commands are transmitted to the remote reader in a single card selection request,
+   * i.e. a single exchange with the client, instead of one for the selection and one for the
+   * reading of the event log with {@link #readEventLog(CalypsoCard, CardReader)}.
+   *
+   * @return instance of Selection object
+   */
+  public static CardSelectionManager getBatchedCardSelection() {
+
+    // Check the Calypso extension.
+    SmartCardServiceProvider.getService().checkCardExtension(CalypsoExtensionService.getInstance());
+
+    // ISO card selection
+    IsoCardSelector cardSelector = readerApiFactory.createIsoCardSelector().filterByDfName(AID);
+
+    // Calypso additional operations, executed right after the selection
+    CalypsoCardSelectionExtension cardSelectionExtension =
+        calypsoCardApiFactory
+            .createCalypsoCardSelectionExtension()
+            .prepareReadRecord(SFI_EnvironmentAndHolder, RECORD_NUMBER_1)
+            .prepareReadRecord(SFI_EventLog, RECORD_NUMBER_1);
+
+    // Prepare Card Selection, closing the channel once the commands are processed
+    CardSelectionManager cardSelectionManager = readerApiFactory.createCardSelectionManager();
+    cardSelectionManager.prepareSelection(cardSelector, cardSelectionExtension);
+    cardSelectionManager.prepareReleaseChannel();
+    return cardSelectionManager;
+  }
+
+  /**
+   * Returns the content of the event log file already read during the selection of the card (see
+   * {@link #getBatchedCardSelection()}).
+   *
+   * @param calypsoCard smartcard selected with the batched selection
+   * @return content of the event log file in Hexadecimal
+   * @throws IllegalStateException If the event log file has not been read, e.g. because the card
+   *     returned an unexpected status word.
+   */
+  public static String getEventLog(CalypsoCard calypsoCard) {
+
+    ElementaryFile efEventLog = calypsoCard.getFileBySfi(SFI_EventLog);
+    if (efEventLog == null) {
+      throw new IllegalStateException("The EventLog file has not been read.");
+    }
+    String eventLog = HexUtil.toHex(efEventLog.getData().getContent());
+
+    // Logs the result.
+    logger.info("EventLog file data: {}", eventLog);
+
+    return eventLog;
+  }
+
+  /**
+   * Prepare a Selection object ready to select Calypso card without reading any file, the files
+   * being read afterwards with {@link #readEventLog(CalypsoCard, CardReader, CardImageCache)}
+   * unless cached.
+   *
+   * @return instance of Selection object
+   */
+  public static CardSelectionManager getCardSelectionWithoutRead() {
+
+    // Check the Calypso extension.
+    SmartCardServiceProvider.getService().checkCardExtension(CalypsoExtensionService.getInstance());
+
+    // ISO card selection
+    IsoCardSelector cardSelector = readerApiFactory.createIsoCardSelector().filterByDfName(AID);
+
+    // Prepare Card Selection
+    CardSelectionManager cardSelectionManager = readerApiFactory.createCardSelectionManager();
+    cardSelectionManager.prepareSelection(
+        cardSelector, calypsoCardApiFactory.createCalypsoCardSelectionExtension());
+    return cardSelectionManager;
+  }
+
+  /**
+   * Variant of {@link #readEventLog(CalypsoCard, CardReader)} reading from the card only the
+   * records of the environment and event log files not found in the cache, then closing the
+   * channel.
+   *
+   * <p>The records are read in free mode, so they can be cached: for a card handled recently, the
+   * reading commands are skipped.
+   *
+   * @param calypsoCard smartcard selected with {@link #getCardSelectionWithoutRead()}
+   * @param reader local reader where the smartcard is inserted
+   * @param cardImageCache The cache of the records read in free mode.
+   * @return content of the event log file in Hexadecimal
+   */
+  public static String readEventLog(
+      CalypsoCard calypsoCard, CardReader reader, CardImageCache cardImageCache) {
+
+    String serialNumber = HexUtil.toHex(calypsoCard.getApplicationSerialNumber());
+    byte[] environmentAndHolder =
+        cardImageCache.getRecord(serialNumber, SFI_EnvironmentAndHolder, RECORD_NUMBER_1);
+    byte[] eventLog = cardImageCache.getRecord(serialNumber, SFI_EventLog, RECORD_NUMBER_1);
+
+    // Prepares the reading of the missing records only, then closes the channel with the card.
+    FreeTransactionManager cardTransactionManager =
+        calypsoCardApiFactory.createFreeTransactionManager(reader, calypsoCard);
+    if (environmentAndHolder == null) {
+      cardTransactionManager.prepareReadRecord(SFI_EnvironmentAndHolder, RECORD_NUMBER_1);
+    }
+    if (eventLog == null) {
+      cardTransactionManager.prepareReadRecord(SFI_EventLog, RECORD_NUMBER_1);
+    }
+    cardTransactionManager.processCommands(ChannelControl.CLOSE_AFTER);
+
+    // Caches the records read.
+    if (environmentAndHolder == null) {
+      environmentAndHolder =
+          calypsoCard.getFileBySfi(SFI_EnvironmentAndHolder).getData().getContent(RECORD_NUMBER_1);
+      cardImageCache.putRecord(
+          serialNumber, SFI_EnvironmentAndHolder, RECORD_NUMBER_1, environmentAndHolder);
+    }
+    if (eventLog == null) {
+      eventLog = calypsoCard.getFileBySfi(SFI_EventLog).getData().getContent(RECORD_NUMBER_1);
+      cardImageCache.putRecord(serialNumber, SFI_EventLog, RECORD_NUMBER_1, eventLog);
+    }
+
+    // Logs the result.
+    logger.info("EnvironmentAndHolder file data: {}", HexUtil.toHex(environmentAndHolder));
+    logger.info("EventLog file data: {}", HexUtil.toHex(eventLog));
+
+    return HexUtil.toHex(eventLog);
+  }
+
   /**
    * Reads and returns content of event log file within a Portable Object Transaction.
    *
@@ -0,0 +1,189 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice.server;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the file records recently read from the cards, keyed by the application serial number of
+ * the cards.
+ *
+ * <p>Only the records read in free mode (outside a secure session) may be cached: their content is
+ * not certified by the card, so reading them again from the cache does not weaken the transaction.
+ * An image of a card expires after a time to live, which bounds the staleness of its records if the
+ * card is modified elsewhere. When the cache is full, the least recently used image is evicted.
+ *
+ * <p>The cache counts its hits, misses, evictions (cache full) and expirations.
+ */
+public class CardImageCache {
+
+  private final int maxSize;
+  private final long ttlNanos;
+  private final LinkedHashMap<String, CardImage> cardImages;
+
+  // Guarded by this.
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+  private long expirationCount;
+
+  /**
+   * Constructor.
+   *
+   * @param maxSize The maximum number of card images (at least 1).
+   * @param ttlMillis The time to live of a card image, in milliseconds.
+   */
+  public CardImageCache(int maxSize, long ttlMillis) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("The maximum size must be at least 1.");
+    }
+    this.maxSize = maxSize;
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    // Access order, for the LRU eviction.
+    this.cardImages = new LinkedHashMap<String, CardImage>(16, 0.75f, true);
+  }
+
+  /**
+   * Returns the content of a record of a card, if cached and not expired.
+   *
+   * @param serialNumber The application serial number of the card, in hexadecimal.
+   * @param sfi The SFI of the file.
+   * @param recordNumber The record number.
+   * @return Null if the record is not cached.
+   */
+  public synchronized byte[] getRecord(String serialNumber, byte sfi, int recordNumber) {
+    CardImage cardImage = cardImages.get(serialNumber);
+    if (cardImage != null && System.nanoTime() - cardImage.creationTimeNanos > ttlNanos) {
+      cardImages.remove(serialNumber);
+      expirationCount++;
+      cardImage = null;
+    }
+    byte[] content =
+        cardImage == null ? null : cardImage.records.get(getRecordKey(sfi, recordNumber));
+    if (content == null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    return content.clone();
+  }
+
+  /**
+   * Caches the content of a record read in free mode.
+   *
+   * <p>The time to live of the image of the card starts with its first record.
+   *
+   * @param serialNumber The application serial number of the card, in hexadecimal.
+   * @param sfi The SFI of the file.
+   * @param recordNumber The record number.
+   * @param content The content of the record.
+   */
+  public synchronized void putRecord(
+      String serialNumber, byte sfi, int recordNumber, byte[] content) {
+    CardImage cardImage = cardImages.get(serialNumber);
+    if (cardImage == null) {
+      cardImage = new CardImage();
+      cardImages.put(serialNumber, cardImage);
+      evictIfFull();
+    }
+    cardImage.records.put(getRecordKey(sfi, recordNumber), content.clone());
+  }
+
+  /**
+   * Removes the image of a card, e.g. after a transaction which modified it.
+   *
+   * @param serialNumber The application serial number of the card, in hexadecimal.
+   */
+  public synchronized void invalidate(String serialNumber) {
+    cardImages.remove(serialNumber);
+  }
+
+  /**
+   * Returns the ratio of the lookups which found the record.
+   *
+   * @return A value between 0 and 1, 0 if there was no lookup.
+   */
+  public synchronized double getHitRatio() {
+    long lookupCount = hitCount + missCount;
+    return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+  }
+
+  /**
+   * Returns the number of card images evicted because the cache was full.
+   *
+   * @return A positive or zero long.
+   */
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the number of card images removed because their time to live has elapsed.
+   *
+   * @return A positive or zero long.
+   */
+  public synchronized long getExpirationCount() {
+    return expirationCount;
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized String toString() {
+    return "CardImageCache{"
+        + "size="
+        + cardImages.size()
+        + ", hitCount="
+        + hitCount
+        + ", missCount="
+        + missCount
+        + ", hitRatio="
+        + String.format("%.3f", getHitRatio())
+        + ", evictionCount="
+        + evictionCount
+        + ", expirationCount="
+        + expirationCount
+        + '}';
+  }
+
+  /** Evicts the least recently used card images beyond the maximum size. */
+  private void evictIfFull() {
+    Iterator<CardImage> iterator = cardImages.values().iterator();
+    while (cardImages.size() > maxSize && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+      evictionCount++;
+    }
+  }
+
+  /**
+   * Returns the key of a record in a card image.
+   *
+   * @param sfi The SFI of the file.
+   * @param recordNumber The record number.
+   * @return An int combining the SFI and the record number.
+   */
+  private static int getRecordKey(byte sfi, int recordNumber) {
+    return (sfi & 0xFF) << 8 | recordNumber & 0xFF;
+  }
+
+  /** The records cached for a card. */
+  private static final class CardImage {
+
+    private final long creationTimeNanos = System.nanoTime();
+    private final Map<Integer, byte[]> records = new HashMap<Integer, byte[]>();
+  }
+}
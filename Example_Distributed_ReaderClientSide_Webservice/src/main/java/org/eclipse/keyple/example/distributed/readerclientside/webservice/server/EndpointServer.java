@@ -13,44 +13,94 @@
 package org.eclipse.keyple.example.distributed.readerclientside.webservice.server;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import javax.inject.Inject;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import org.eclipse.keyple.core.service.SmartCardServiceProvider;
 import org.eclipse.keyple.distributed.MessageDto;
 import org.eclipse.keyple.distributed.RemotePluginServer;
 import org.eclipse.keyple.distributed.SyncNodeServer;
 import org.eclipse.keyple.example.distributed.readerclientside.webservice.client.EndpointClient;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.common.MessageCompressionFilter;
+import org.eclipse.keyple.example.distributed.readerclientside.webservice.common.MessageDtoJsonProvider;
 
 /**
  * Example of a Server Controller.
  *
- * <p>Responds to {@link EndpointClient} requests.
+ * <p>Responds to {@link EndpointClient} requests. The messages are serialized by the {@link
+ * MessageDtoJsonProvider} and optionally compressed by the {@link MessageCompressionFilter}.
  */
 @Path("/remote-plugin")
 public class EndpointServer {
 
+  /** The server application */
+  @Inject AppServer appServer;
+
   /**
    * The unique endpoint access.
    *
+   * <p>The request is processed asynchronously on the request executor of the {@link AppServer} if
+   * any (virtual thread mode), otherwise in the HTTP worker thread.
+   *
    * @param message The request.
-   * @return a list of response messages.
+   * @param asyncResponse The response, resumed with a list of response messages.
    */
   @POST
   @Produces(MediaType.APPLICATION_JSON)
   @Consumes(MediaType.APPLICATION_JSON)
-  public List<MessageDto> processMessage(MessageDto message) {
+  public void processMessage(
+      final MessageDto message, @Suspended final AsyncResponse asyncResponse) {
 
-    // Retrieves the node associated to the remote plugin.
-    SyncNodeServer node =
-        SmartCardServiceProvider.getService()
-            .getPlugin(AppServer.REMOTE_PLUGIN_NAME)
-            .getExtension(RemotePluginServer.class)
-            .getSyncNode();
+    appServer.onRequestReceived();
+    ExecutorService requestExecutor = appServer.getRequestExecutor();
+    if (requestExecutor == null) {
+      forwardMessage(message, asyncResponse);
+      return;
+    }
+    try {
+      requestExecutor.execute(
+          new Runnable() {
+            @Override
+            public void run() {
+              forwardMessage(message, asyncResponse);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      asyncResponse.resume(e);
+    }
+  }
+
+  /**
+   * Forwards the message to the node and resumes the response with the messages to return to the
+   * client.
+   *
+   * <p>The call blocks until the node has messages to return.
+   *
+   * @param message The request.
+   * @param asyncResponse The response.
+   */
+  private static void forwardMessage(MessageDto message, AsyncResponse asyncResponse) {
+    try {
+      // Retrieves the node associated to the remote plugin.
+      SyncNodeServer node =
+          SmartCardServiceProvider.getService()
+              .getPlugin(AppServer.REMOTE_PLUGIN_NAME)
+              .getExtension(RemotePluginServer.class)
+              .getSyncNode();
 
-    // Forwards the message to the node and returns the response to the client.
-    return node.onRequest(message);
+      // Forwards the message to the node and returns the response to the client.
+      List<MessageDto> responses = node.onRequest(message);
+      asyncResponse.resume(new GenericEntity<List<MessageDto>>(responses) {});
+    } catch (RuntimeException e) {
+      asyncResponse.resume(e);
+    }
   }
 }
@@ -0,0 +1,318 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice.server;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes the remote services on a bounded pool of worker threads, so that the thread notifying
+ * the plugin events is never blocked by a card session.
+ *
+ * <p>The executions are grouped by service id: each service has a maximum number of concurrent
+ * executions, beyond which its executions wait in a FIFO queue of their own. This way, a service
+ * executed on slow cards cannot take all the workers. The total number of executions waiting or in
+ * progress is bounded too: beyond it, new executions are rejected.
+ *
+ * <p>An execution which cannot be started because the workers are shut down is aborted: its abort
+ * task is run instead, so that the remote service is still ended, and the following executions of
+ * the same service are aborted the same way rather than being lost.
+ *
+ * <p>For each service, the dispatcher measures the time spent by the executions in the queues
+ * before starting and their execution time.
+ */
+public class RemoteServiceDispatcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(RemoteServiceDispatcher.class);
+
+  private final ExecutorService executorService;
+  private final int maxPendingExecutions;
+  private final int defaultMaxConcurrentExecutions;
+  private final AtomicInteger nbPendingExecutions = new AtomicInteger();
+  private final Map<String, ServiceLane> lanes = new ConcurrentHashMap<String, ServiceLane>();
+
+  /**
+   * Constructor.
+   *
+   * @param nbWorkers The number of worker threads.
+   * @param maxPendingExecutions The maximum number of executions waiting or in progress, all
+   *     services included.
+   * @param defaultMaxConcurrentExecutions The maximum number of concurrent executions of a service,
+   *     unless set otherwise with {@link #setMaxConcurrentExecutions(String, int)}.
+   */
+  public RemoteServiceDispatcher(
+      int nbWorkers, int maxPendingExecutions, int defaultMaxConcurrentExecutions) {
+    this(
+        Executors.newFixedThreadPool(nbWorkers),
+        maxPendingExecutions,
+        defaultMaxConcurrentExecutions);
+  }
+
+  /**
+   * Constructor using the provided executor as workers, e.g. a virtual thread per task executor.
+   *
+   * <p>The number of executions running at the same time remains bounded by the maximum numbers of
+   * pending and concurrent executions.
+   *
+   * @param executorService The executor running the executions, shut down with the dispatcher.
+   * @param maxPendingExecutions The maximum number of executions waiting or in progress, all
+   *     services included.
+   * @param defaultMaxConcurrentExecutions The maximum number of concurrent executions of a service,
+   *     unless set otherwise with {@link #setMaxConcurrentExecutions(String, int)}.
+   */
+  public RemoteServiceDispatcher(
+      ExecutorService executorService,
+      int maxPendingExecutions,
+      int defaultMaxConcurrentExecutions) {
+    this.executorService = executorService;
+    this.maxPendingExecutions = maxPendingExecutions;
+    this.defaultMaxConcurrentExecutions = defaultMaxConcurrentExecutions;
+  }
+
+  /**
+   * Sets the maximum number of concurrent executions of a service.
+   *
+   * @param serviceId The service id.
+   * @param maxConcurrentExecutions The maximum number of concurrent executions (at least 1).
+   */
+  public void setMaxConcurrentExecutions(String serviceId, int maxConcurrentExecutions) {
+    if (maxConcurrentExecutions < 1) {
+      throw new IllegalArgumentException("The maximum number of executions must be at least 1.");
+    }
+    ServiceLane lane = getLane(serviceId);
+    synchronized (lane) {
+      lane.maxConcurrentExecutions = maxConcurrentExecutions;
+    }
+  }
+
+  /**
+   * Schedules the execution of a remote service and returns immediately.
+   *
+   * @param serviceId The service id.
+   * @param task The execution of the service. It must end the remote service, even in case of
+   *     error.
+   * @param abortTask The task run instead of the execution if it cannot be started. It must end the
+   *     remote service too.
+   * @throws RejectedExecutionException If too many executions are already pending.
+   */
+  public void dispatch(String serviceId, Runnable task, Runnable abortTask) {
+    if (nbPendingExecutions.incrementAndGet() > maxPendingExecutions) {
+      nbPendingExecutions.decrementAndGet();
+      ServiceLane lane = getLane(serviceId);
+      synchronized (lane) {
+        lane.nbRejectedExecutions++;
+      }
+      throw new RejectedExecutionException(
+          "Too many pending remote service executions (" + maxPendingExecutions + ")");
+    }
+    ServiceLane lane = getLane(serviceId);
+    Execution execution = new Execution(lane, task, abortTask);
+    boolean isToStart;
+    synchronized (lane) {
+      isToStart = lane.nbRunningExecutions < lane.maxConcurrentExecutions;
+      if (isToStart) {
+        lane.nbRunningExecutions++;
+      } else {
+        lane.waitingExecutions.add(execution);
+      }
+    }
+    if (isToStart) {
+      start(execution);
+    }
+  }
+
+  /**
+   * Stops the workers, interrupting the executions in progress.
+   *
+   * @param timeoutMillis The maximum time to wait for the end of the executions, in milliseconds.
+   * @throws InterruptedException If the current thread was interrupted while waiting.
+   */
+  public void shutdown(long timeoutMillis) throws InterruptedException {
+    executorService.shutdown();
+    if (!executorService.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns a summary of the statistics of each service, e.g. for logging.
+   *
+   * @return A not null string.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("RemoteServiceDispatcher{");
+    sb.append("pendingExecutions=").append(nbPendingExecutions.get());
+    for (Map.Entry<String, ServiceLane> entry : lanes.entrySet()) {
+      sb.append(", ").append(entry.getKey()).append('=').append(entry.getValue());
+    }
+    return sb.append('}').toString();
+  }
+
+  private ServiceLane getLane(String serviceId) {
+    ServiceLane lane = lanes.get(serviceId);
+    if (lane == null) {
+      ServiceLane newLane = new ServiceLane(defaultMaxConcurrentExecutions);
+      lane = lanes.putIfAbsent(serviceId, newLane);
+      if (lane == null) {
+        lane = newLane;
+      }
+    }
+    return lane;
+  }
+
+  /**
+   * Submits an execution to the workers.
+   *
+   * <p>If the workers reject it, the execution is aborted and the next waiting execution of the
+   * same service is submitted in turn, until one is accepted or the queue of the service is empty.
+   *
+   * @param execution The execution, already counted as running in its lane, null if none.
+   */
+  private void start(Execution execution) {
+    while (execution != null) {
+      try {
+        executorService.execute(execution);
+        return;
+      } catch (RejectedExecutionException e) {
+        // The dispatcher is shut down.
+        logger.error("Remote service execution rejected: {}", e.getMessage());
+        execution.abort();
+        execution = releaseSlot(execution.lane);
+      }
+    }
+  }
+
+  /**
+   * Releases the slot of an ended execution and starts the next waiting execution of the same
+   * service, if any.
+   *
+   * @param lane The lane of the service.
+   */
+  private void onExecutionEnd(ServiceLane lane) {
+    start(releaseSlot(lane));
+  }
+
+  /**
+   * Releases the slot of an ended or aborted execution.
+   *
+   * @param lane The lane of the service.
+   * @return The next waiting execution of the service, which takes over the slot, null if none.
+   */
+  private Execution releaseSlot(ServiceLane lane) {
+    nbPendingExecutions.decrementAndGet();
+    synchronized (lane) {
+      Execution nextExecution = lane.waitingExecutions.poll();
+      if (nextExecution == null) {
+        lane.nbRunningExecutions--;
+      }
+      return nextExecution;
+    }
+  }
+
+  /** The executions and the statistics of a service. */
+  private static final class ServiceLane {
+
+    private final Deque<Execution> waitingExecutions = new ArrayDeque<Execution>();
+    private int maxConcurrentExecutions;
+    private int nbRunningExecutions;
+    private long nbExecutions;
+    private long nbRejectedExecutions;
+    private long nbAbortedExecutions;
+    private long totalQueueTimeNanos;
+    private long maxQueueTimeNanos;
+    private long totalExecutionTimeNanos;
+
+    private ServiceLane(int maxConcurrentExecutions) {
+      this.maxConcurrentExecutions = maxConcurrentExecutions;
+    }
+
+    private synchronized void record(long queueTimeNanos, long executionTimeNanos) {
+      nbExecutions++;
+      totalQueueTimeNanos += queueTimeNanos;
+      maxQueueTimeNanos = Math.max(maxQueueTimeNanos, queueTimeNanos);
+      totalExecutionTimeNanos += executionTimeNanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+      return "{running="
+          + nbRunningExecutions
+          + ", waiting="
+          + waitingExecutions.size()
+          + ", executed="
+          + nbExecutions
+          + ", rejected="
+          + nbRejectedExecutions
+          + ", aborted="
+          + nbAbortedExecutions
+          + ", meanQueueTimeMicros="
+          + (nbExecutions == 0 ? 0 : totalQueueTimeNanos / nbExecutions / 1000)
+          + ", maxQueueTimeMicros="
+          + maxQueueTimeNanos / 1000
+          + ", meanExecutionTimeMicros="
+          + (nbExecutions == 0 ? 0 : totalExecutionTimeNanos / nbExecutions / 1000)
+          + '}';
+    }
+  }
+
+  /** An execution of a remote service. */
+  private final class Execution implements Runnable {
+
+    private final ServiceLane lane;
+    private final Runnable task;
+    private final Runnable abortTask;
+    private final long dispatchTimeNanos = System.nanoTime();
+
+    private Execution(ServiceLane lane, Runnable task, Runnable abortTask) {
+      this.lane = lane;
+      this.task = task;
+      this.abortTask = abortTask;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      long startTimeNanos = System.nanoTime();
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        logger.error("Remote service execution failed: {}", e.getMessage(), e);
+      } finally {
+        lane.record(startTimeNanos - dispatchTimeNanos, System.nanoTime() - startTimeNanos);
+        onExecutionEnd(lane);
+      }
+    }
+
+    /** Runs the abort task instead of the execution. */
+    private void abort() {
+      synchronized (lane) {
+        lane.nbAbortedExecutions++;
+      }
+      try {
+        abortTask.run();
+      } catch (RuntimeException e) {
+        logger.error("Remote service abortion failed: {}", e.getMessage(), e);
+      }
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice.server;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selects the threads running the blocking tasks of the server: the processing of the HTTP
+ * requests, which waits in {@link org.eclipse.keyple.distributed.SyncNodeServer#onRequest} for the
+ * next message of the session, and the execution of the remote services.
+ *
+ * <p>In the {@link #PLATFORM_MODE}, each blocked task holds a platform thread. In the {@link
+ * #VIRTUAL_MODE}, the tasks are run on virtual threads (Java 21+), which release their carrier
+ * thread while blocked. As the examples are compiled for Java 8, the virtual threads are created by
+ * reflection; on an older JVM, the platform threads are used instead and a warning is logged.
+ */
+public final class ServerExecutors {
+
+  private static final Logger logger = LoggerFactory.getLogger(ServerExecutors.class);
+
+  /** Thread mode running the blocking tasks on platform threads. */
+  public static final String PLATFORM_MODE = "platform";
+
+  /** Thread mode running the blocking tasks on virtual threads, if supported by the JVM. */
+  public static final String VIRTUAL_MODE = "virtual";
+
+  private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD =
+      getNewVirtualThreadPerTaskExecutorMethod();
+
+  /** Constructor */
+  private ServerExecutors() {}
+
+  /**
+   * Indicates whether the running JVM supports the virtual threads.
+   *
+   * @return true with Java 21+.
+   */
+  public static boolean isVirtualThreadSupported() {
+    return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD != null;
+  }
+
+  /**
+   * Resolves the configured thread mode against the running JVM.
+   *
+   * @param threadMode The configured mode, {@link #PLATFORM_MODE} or {@link #VIRTUAL_MODE}.
+   * @return true if the virtual threads must be used, false if the virtual threads are not
+   *     requested or not supported.
+   * @throws IllegalArgumentException If the mode is unknown.
+   */
+  public static boolean isVirtualThreadModeEnabled(String threadMode) {
+    if (PLATFORM_MODE.equals(threadMode)) {
+      return false;
+    }
+    if (!VIRTUAL_MODE.equals(threadMode)) {
+      throw new IllegalArgumentException(
+          "Unknown thread mode '"
+              + threadMode
+              + "', expected '"
+              + PLATFORM_MODE
+              + "' or '"
+              + VIRTUAL_MODE
+              + "'.");
+    }
+    if (!isVirtualThreadSupported()) {
+      logger.warn(
+          "Virtual threads are not supported by Java {}, falling back to platform threads",
+          System.getProperty("java.version"));
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Creates an executor starting a new virtual thread for each task.
+   *
+   * @return A new executor.
+   * @throws UnsupportedOperationException If the virtual threads are not supported.
+   */
+  public static ExecutorService newVirtualThreadPerTaskExecutor() {
+    if (!isVirtualThreadSupported()) {
+      throw new UnsupportedOperationException("Virtual threads require Java 21 or higher.");
+    }
+    try {
+      return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR_METHOD.invoke(null);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Unable to create a virtual thread executor", e);
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException("Unable to create a virtual thread executor", e.getCause());
+    }
+  }
+
+  /**
+   * Looks up {@code Executors.newVirtualThreadPerTaskExecutor()}.
+   *
+   * @return Null if the method does not exist in the running JVM.
+   */
+  private static Method getNewVirtualThreadPerTaskExecutorMethod() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
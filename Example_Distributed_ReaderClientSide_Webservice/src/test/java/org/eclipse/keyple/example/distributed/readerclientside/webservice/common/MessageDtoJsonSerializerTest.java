@@ -0,0 +1,239 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.webservice.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.google.gson.reflect.TypeToken;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.eclipse.keyple.core.util.json.JsonUtil;
+import org.eclipse.keyple.distributed.MessageDto;
+import org.junit.jupiter.api.Test;
+
+class MessageDtoJsonSerializerTest {
+
+  // Larger than the initial buffer of the serializer (1 KiB), to exercise its growth.
+  private static final int LARGE_BODY_LENGTH = 10 * 1024;
+
+  // Characters escaped differently or not at all by the serializer and by the Keyple JSON parser.
+  private static final String ESCAPED_CHARACTERS =
+      "{\"quote\":\"\\\"\",\"backslash\":\"\\\\\",\"controls\":\"\n\r\t\b\f\u0001\u001f\","
+          + "\"html\":\"<a href='x'>&=</a>\",\"unicode\":\"é€\uD83D\uDE00\u2028\"}";
+
+  private static final Type MESSAGE_LIST_TYPE = new TypeToken<List<MessageDto>>() {}.getType();
+
+  @Test
+  void writeJson_readJson_whenPayloadIsLarge_shouldRoundTrip() throws Exception {
+    MessageDto message = createMessage(LARGE_BODY_LENGTH);
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    MessageDtoJsonSerializer.writeJson(message, outputStream);
+    MessageDto result = readJsonInNewThread(outputStream.toByteArray());
+
+    assertMessageEquals(message, result);
+  }
+
+  @Test
+  void writeJson_readJsonList_whenPayloadIsLarge_shouldRoundTrip() throws Exception {
+    List<MessageDto> messages =
+        Arrays.asList(createMessage(LARGE_BODY_LENGTH), createMessage(100), createMessage(3000));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    MessageDtoJsonSerializer.writeJson(messages, outputStream);
+    final byte[] json = outputStream.toByteArray();
+    List<MessageDto> result =
+        inNewThread(
+            new Callable<List<MessageDto>>() {
+              @Override
+              public List<MessageDto> call() throws IOException {
+                return MessageDtoJsonSerializer.readJsonList(new ChunkedInputStream(json));
+              }
+            });
+
+    assertEquals(messages.size(), result.size());
+    for (int i = 0; i < messages.size(); i++) {
+      assertMessageEquals(messages.get(i), result.get(i));
+    }
+  }
+
+  @Test
+  void readJson_whenCalledAfterALargePayload_shouldReadASmallOneCorrectly() throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    MessageDtoJsonSerializer.writeJson(createMessage(LARGE_BODY_LENGTH), outputStream);
+    final byte[] largeJson = outputStream.toByteArray();
+    MessageDto message = createMessage(10);
+    outputStream.reset();
+    MessageDtoJsonSerializer.writeJson(message, outputStream);
+    final byte[] smallJson = outputStream.toByteArray();
+
+    MessageDto result =
+        inNewThread(
+            new Callable<MessageDto>() {
+              @Override
+              public MessageDto call() throws IOException {
+                MessageDtoJsonSerializer.readJson(new ChunkedInputStream(largeJson));
+                return MessageDtoJsonSerializer.readJson(new ChunkedInputStream(smallJson));
+              }
+            });
+
+    assertMessageEquals(message, result);
+  }
+
+  @Test
+  void toJson_whenFieldsArePlain_shouldWriteTheSameJsonAsTheKeypleParser() {
+    // The API level is written as a hexadecimal string, on one or several bytes.
+    for (int apiLevel : new int[] {0, 3, 0x10, 0xFF, 0x1234}) {
+      MessageDto message = createMessage(100).setApiLevel(apiLevel);
+
+      assertEquals(JsonUtil.getParser().toJson(message), MessageDtoJsonSerializer.toJson(message));
+    }
+  }
+
+  @Test
+  void toJson_whenFieldsAreNull_shouldWriteTheSameJsonAsTheKeypleParser() {
+    MessageDto message = new MessageDto().setApiLevel(3).setAction("END_REMOTE_SERVICE");
+
+    String json = MessageDtoJsonSerializer.toJson(message);
+
+    assertEquals(JsonUtil.getParser().toJson(message), json);
+    assertMessageEquals(message, JsonUtil.getParser().fromJson(json, MessageDto.class));
+    assertMessageEquals(
+        message, MessageDtoJsonSerializer.fromJson(JsonUtil.getParser().toJson(message)));
+  }
+
+  @Test
+  void toJson_whenParsedByTheKeypleParser_shouldRestoreTheMessage() {
+    MessageDto message = createMessage(100).setBody(ESCAPED_CHARACTERS);
+
+    MessageDto result =
+        JsonUtil.getParser().fromJson(MessageDtoJsonSerializer.toJson(message), MessageDto.class);
+
+    assertMessageEquals(message, result);
+  }
+
+  @Test
+  void fromJson_whenJsonIsWrittenByTheKeypleParser_shouldRestoreTheMessage() {
+    MessageDto message = createMessage(100).setBody(ESCAPED_CHARACTERS);
+
+    MessageDto result = MessageDtoJsonSerializer.fromJson(JsonUtil.getParser().toJson(message));
+
+    assertMessageEquals(message, result);
+  }
+
+  @Test
+  void toJson_listFromJson_whenListIsExchangedWithTheKeypleParser_shouldRestoreTheMessages() {
+    List<MessageDto> messages =
+        Arrays.asList(
+            createMessage(100).setBody(ESCAPED_CHARACTERS),
+            new MessageDto().setApiLevel(3).setAction("END_REMOTE_SERVICE"));
+
+    List<MessageDto> parsedByKeyple =
+        JsonUtil.getParser().fromJson(MessageDtoJsonSerializer.toJson(messages), MESSAGE_LIST_TYPE);
+    List<MessageDto> parsedBySerializer =
+        MessageDtoJsonSerializer.listFromJson(JsonUtil.getParser().toJson(messages));
+
+    assertEquals(messages.size(), parsedByKeyple.size());
+    assertEquals(messages.size(), parsedBySerializer.size());
+    for (int i = 0; i < messages.size(); i++) {
+      assertMessageEquals(messages.get(i), parsedByKeyple.get(i));
+      assertMessageEquals(messages.get(i), parsedBySerializer.get(i));
+    }
+  }
+
+  /**
+   * Reads a message in a new thread, whose buffers have their initial size: the buffers of the
+   * current thread have been enlarged by the serialization.
+   */
+  private static MessageDto readJsonInNewThread(final byte[] json) throws Exception {
+    return inNewThread(
+        new Callable<MessageDto>() {
+          @Override
+          public MessageDto call() throws IOException {
+            return MessageDtoJsonSerializer.readJson(new ChunkedInputStream(json));
+          }
+        });
+  }
+
+  private static <T> T inNewThread(Callable<T> task) throws Exception {
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      return executorService.submit(task).get();
+    } catch (ExecutionException e) {
+      throw (Exception) e.getCause();
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  private static MessageDto createMessage(int bodyLength) {
+    StringBuilder body = new StringBuilder("{\"apdu\":\"");
+    for (int i = 0; body.length() < bodyLength; i++) {
+      // Includes non-ASCII characters, encoded on several bytes.
+      body.append(i % 64 == 0 ? "é€" : Integer.toHexString(i % 16));
+    }
+    body.append("\"}");
+    MessageDto message = new MessageDto();
+    message.setApiLevel(3);
+    message.setSessionId("session-" + bodyLength);
+    message.setAction("TRANSMIT_CARD_SELECTION_REQUESTS");
+    message.setClientNodeId("client");
+    message.setServerNodeId("server");
+    message.setLocalReaderName("local reader");
+    message.setRemoteReaderName("remote reader");
+    message.setBody(body.toString());
+    return message;
+  }
+
+  private static void assertMessageEquals(MessageDto expected, MessageDto actual) {
+    assertEquals(expected.getApiLevel(), actual.getApiLevel());
+    assertEquals(expected.getSessionId(), actual.getSessionId());
+    assertEquals(expected.getAction(), actual.getAction());
+    assertEquals(expected.getClientNodeId(), actual.getClientNodeId());
+    assertEquals(expected.getServerNodeId(), actual.getServerNodeId());
+    assertEquals(expected.getLocalReaderName(), actual.getLocalReaderName());
+    assertEquals(expected.getRemoteReaderName(), actual.getRemoteReaderName());
+    assertEquals(expected.getBody(), actual.getBody());
+  }
+
+  /** Input stream returning at most a few hundred bytes per read, as a network stream does. */
+  private static final class ChunkedInputStream extends InputStream {
+
+    private static final int MAX_CHUNK_LENGTH = 333;
+
+    private final ByteArrayInputStream inputStream;
+
+    private ChunkedInputStream(byte[] bytes) {
+      inputStream = new ByteArrayInputStream(bytes);
+    }
+
+    @Override
+    public int read() {
+      return inputStream.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      return inputStream.read(b, off, Math.min(len, MAX_CHUNK_LENGTH));
+    }
+  }
+}
@@ -14,6 +14,19 @@ plugins {
 //  APP CONFIGURATION
 ///////////////////////////////////////////////////////////////////////////////
 
+// Source set dedicated to the JMH performance benchmarks (see the "jmh" task).
+sourceSets {
+  create("jmh") {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+  }
+}
+
+configurations {
+  named("jmhImplementation") { extendsFrom(configurations.implementation.get()) }
+  named("jmhRuntimeOnly") { extendsFrom(configurations.runtimeOnly.get()) }
+}
+
 dependencies {
   /* Keyple dependencies */
   // Begin Keyple configuration (generated by
@@ -39,6 +52,9 @@ dependencies {
   testImplementation("io.rest-assured:rest-assured")
   /* Others */
   implementation("com.google.code.gson:gson:2.10.1")
+  /* JMH benchmarks */
+  "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+  "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
 
 val runExample by
@@ -47,6 +63,21 @@ val runExample by
       dependsOn.add("quarkusDev")
     }
 
+tasks.register("jmh", JavaExec::class.java) {
+  group = "keyple"
+  description = "Runs the JMH performance benchmarks, with the GC profiler enabled."
+  dependsOn("jmhClasses")
+  classpath = sourceSets["jmh"].runtimeClasspath
+  mainClass.set("org.openjdk.jmh.Main")
+  val resultFile = layout.buildDirectory.file("reports/jmh/results.json").get().asFile
+  doFirst { resultFile.parentFile.mkdirs() }
+  args("-prof", "gc", "-rf", "json", "-rff", resultFile.absolutePath)
+  // Optional benchmark selection, e.g. -PjmhIncludes=MessageDtoSerialization
+  if (project.hasProperty("jmhIncludes")) {
+    args(project.property("jmhIncludes") as String)
+  }
+}
+
 ///////////////////////////////////////////////////////////////////////////////
 //  STANDARD CONFIGURATION FOR JAVA PROJECTS
 ///////////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,168 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.websocket.benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.keyple.core.util.json.JsonUtil;
+import org.eclipse.keyple.distributed.MessageDto;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.MessageDtoBinaryCodec;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.MessageDtoJsonSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of the {@link MessageDto} serializations: the Keyple JSON parser ({@link
+ * JsonUtil#getParser()}), the {@link MessageDtoJsonSerializer} and the {@link
+ * MessageDtoBinaryCodec}.
+ *
+ * <p>The throughput mode reports the number of messages serialized or deserialized per millisecond.
+ * The number of bytes allocated per message ({@code gc.alloc.rate.norm}) is reported when the
+ * benchmark is run with the GC profiler ({@code -prof gc}), which is the case with the {@code jmh}
+ * Gradle task.
+ *
+ * <p>The {@code message} parameter selects a card request sent by the server (secure session
+ * opening and reading) or the corresponding card response sent by the client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"-Dorg.slf4j.simpleLogger.defaultLogLevel=error"})
+public class MessageDtoSerializationBenchmark {
+
+  // Body of a card request transmitted by the server (secure session opening and reading).
+  private static final String CARD_REQUEST_BODY =
+      "{\"coreApiLevel\":2,\"service\":\"TRANSMIT_CARD_REQUEST\",\"parameters\":{\"cardRequest\":"
+          + "{\"apduRequests\":[{\"apdu\":\"008A0B3904C1C2C3C400\",\"successfulStatusWords\":"
+          + "[\"9000\"],\"info\":\"Open Secure Session - KVC 79 - DEBIT\"},{\"apdu\":"
+          + "\"00B2013C1D\",\"successfulStatusWords\":[\"9000\"],\"info\":\"Read Records - SFI:7h,"
+          + " REC:1\"},{\"apdu\":\"00B201441D\",\"successfulStatusWords\":[\"9000\"],\"info\":"
+          + "\"Read Records - SFI:8h, REC:1\"}],\"stopOnUnsuccessfulStatusWord\":true},"
+          + "\"channelControl\":\"KEEP_OPEN\"}}";
+
+  // Body of the corresponding card response transmitted by the client.
+  private static final String CARD_RESPONSE_BODY =
+      "{\"coreApiLevel\":2,\"service\":\"TRANSMIT_CARD_REQUEST\",\"result\":{\"apduResponses\":"
+          + "[{\"apdu\":\"0308D1810030791D00112233445566778899AABBCCDDEEFF00112233445566778899AABBCC"
+          + "9000\",\"statusWord\":36864},{\"apdu\":\"00112233445566778899AABBCCDDEEFF00112233445566"
+          + "778899AABBCC9000\",\"statusWord\":36864},{\"apdu\":\"00112233445566778899AABBCCDDEEFF"
+          + "00112233445566778899AABBCC9000\",\"statusWord\":36864}],\"isLogicalChannelOpen\":true}}";
+
+  /** The message to serialize: "request" or "response". */
+  @Param({"request", "response"})
+  public String message;
+
+  private MessageDto messageDto;
+  private String json;
+  private ByteBuffer binary;
+
+  /** Creates the message and its serialized forms. */
+  @Setup(Level.Trial)
+  public void setUp() {
+    messageDto = createMessage("request".equals(message) ? CARD_REQUEST_BODY : CARD_RESPONSE_BODY);
+    json = JsonUtil.getParser().toJson(messageDto);
+    binary = MessageDtoBinaryCodec.encode(messageDto);
+  }
+
+  /**
+   * Serializes the message with the Keyple JSON parser.
+   *
+   * @return The JSON string.
+   */
+  @Benchmark
+  public String gsonSerialize() {
+    return JsonUtil.getParser().toJson(messageDto);
+  }
+
+  /**
+   * Deserializes the message with the Keyple JSON parser.
+   *
+   * @return The message.
+   */
+  @Benchmark
+  public MessageDto gsonDeserialize() {
+    return JsonUtil.getParser().fromJson(json, MessageDto.class);
+  }
+
+  /**
+   * Serializes the message with the streaming JSON serializer.
+   *
+   * @return The JSON string.
+   */
+  @Benchmark
+  public String streamingSerialize() {
+    return MessageDtoJsonSerializer.toJson(messageDto);
+  }
+
+  /**
+   * Deserializes the message with the streaming JSON serializer.
+   *
+   * @return The message.
+   */
+  @Benchmark
+  public MessageDto streamingDeserialize() {
+    return MessageDtoJsonSerializer.fromJson(json);
+  }
+
+  /**
+   * Encodes the message with the binary codec.
+   *
+   * @return The encoded message.
+   */
+  @Benchmark
+  public ByteBuffer binaryEncode() {
+    return MessageDtoBinaryCodec.encode(messageDto);
+  }
+
+  /**
+   * Decodes the message with the binary codec.
+   *
+   * @return The message.
+   */
+  @Benchmark
+  public MessageDto binaryDecode() {
+    return MessageDtoBinaryCodec.decode(binary.duplicate());
+  }
+
+  /**
+   * Creates a message sent in the context of a remote transaction.
+   *
+   * @param body The body of the message.
+   * @return A new message.
+   */
+  private static MessageDto createMessage(String body) {
+    return new MessageDto()
+        .setApiLevel(3)
+        .setSessionId("a0b7b8a8-4b8f-4a5f-8c7e-5a9cbbf1f7d2")
+        .setAction("CMD")
+        .setClientNodeId("6a2dbb8c-1b5f-4e4d-9d4f-0c3b3f2f7a11")
+        .setServerNodeId("c3a4e1f2-7d8b-4b3a-9f1e-2d6c5b4a3f21")
+        .setLocalReaderName("stubReader")
+        .setRemoteReaderName("8e3b4c2a-5f1d-4a6b-9c7e-1d2f3a4b5c6d")
+        .setBody(body);
+  }
+}
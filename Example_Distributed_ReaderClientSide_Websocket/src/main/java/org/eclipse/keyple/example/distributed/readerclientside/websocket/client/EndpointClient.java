@@ -14,16 +14,29 @@
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Singleton;
 import javax.websocket.*;
 import org.eclipse.keyple.core.service.SmartCardServiceProvider;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 import org.eclipse.keyple.distributed.AsyncNodeClient;
 import org.eclipse.keyple.distributed.LocalServiceClient;
 import org.eclipse.keyple.distributed.MessageDto;
 import org.eclipse.keyple.distributed.spi.AsyncEndpointClientSpi;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.MessageDtoBinaryCodec;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.MessageDtoJsonSerializer;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.MessageDtoListener;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.SessionMultiplexing;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.SessionSendQueue;
 import org.eclipse.keyple.example.distributed.readerclientside.websocket.server.EndpointServer;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,8 +45,21 @@
  * using Web Sockets.
  *
  * <p>Interacts with the {@link EndpointServer}.
+ *
+ * <p>By default, a web socket connection is opened for each Keyple session. When the {@code
+ * keyple.websocket.client.multiplexed-connections} property is greater than 0, the Keyple sessions
+ * are instead multiplexed over a pool of long-lived connections (see {@link SessionMultiplexing}),
+ * which avoids a TCP connection and an HTTP upgrade handshake for each remote service call. The
+ * opening and the closing of the sessions are then emulated.
+ *
+ * <p>The {@code keyple-binary-v1} sub-protocol is proposed to the server unless the {@code
+ * keyple.websocket.client.binary-codec} property is false, the messages being then exchanged in
+ * JSON text frames (see {@link SubprotocolConfigurator}).
  */
-@ClientEndpoint
+@Singleton
+@ClientEndpoint(
+    subprotocols = MessageDtoBinaryCodec.SUBPROTOCOL,
+    configurator = EndpointClient.SubprotocolConfigurator.class)
 public class EndpointClient implements AsyncEndpointClientSpi {
 
   private static final Logger logger = LoggerFactory.getLogger(EndpointClient.class);
@@ -41,17 +67,43 @@ public class EndpointClient implements AsyncEndpointClientSpi {
   /** URI of the endpoint server */
   private static final String URI = "http://0.0.0.0:8080/remote-plugin";
 
-  /** Map of opened sessions by session id */
+  /** Map of opened web socket sessions (possibly multiplexed) by session id */
   private final Map<String, Session> openedSessions;
 
+  /** Index of the next multiplexed connection to use */
+  private final AtomicInteger nextConnectionIndex;
+
+  /** Pool of multiplexed connections, lazily opened */
+  private Session[] multiplexedConnections;
+
+  /** Number of multiplexed connections, 0 to open a connection per session */
+  @ConfigProperty(name = "keyple.websocket.client.multiplexed-connections", defaultValue = "0")
+  int nbMultiplexedConnections;
+
+  /** Maximum number of messages queued for a connection */
+  @ConfigProperty(name = "keyple.websocket.send-queue.high-water-mark", defaultValue = "32")
+  int sendQueueHighWaterMark;
+
+  /** Maximum time a sending thread is paused when the queue of a connection is full */
+  @ConfigProperty(name = "keyple.websocket.send-queue.pause-timeout-millis", defaultValue = "1000")
+  long sendQueuePauseTimeoutMillis;
+
+  /** Optional listener of the exchanged messages */
+  private volatile MessageDtoListener messageListener;
+
   /** Constructor */
   public EndpointClient() {
     openedSessions = new ConcurrentHashMap<String, Session>();
+    nextConnectionIndex = new AtomicInteger();
   }
 
   /** {@inheritDoc} */
   @Override
   public void openSession(String sessionId) {
+    if (nbMultiplexedConnections > 0) {
+      openMultiplexedSession(sessionId);
+      return;
+    }
     try {
       // Try to open a new session with the server and transmits the provided session id as a URI
       // parameter in order to access it asynchronously on the "onOpen" method.
@@ -70,22 +122,36 @@ public void openSession(String sessionId) {
   @OnOpen
   public void onOpen(Session session) {
 
+    // Attaches a send queue to the connection.
+    SessionMultiplexing.initConnection(
+        session,
+        new SessionSendQueue(
+            session,
+            session.getQueryString(),
+            sendQueueHighWaterMark,
+            sendQueuePauseTimeoutMillis));
+
+    if (SessionMultiplexing.isMultiplexed(session)) {
+      // The sessions carried by the connection are opened later.
+      logger.trace(
+          "Client - Opened multiplexed socket {} (binary codec: {})",
+          session.getQueryString(),
+          MessageDtoBinaryCodec.isNegotiated(session));
+      return;
+    }
+
     // Retrieves the session id from the query.
     String sessionId = session.getQueryString();
-    logger.trace("Client - Opened socket for sessionId {}", sessionId);
+    logger.trace(
+        "Client - Opened socket for sessionId {} (binary codec: {})",
+        sessionId,
+        MessageDtoBinaryCodec.isNegotiated(session));
 
     // Associates the server session to its session id.
     openedSessions.put(sessionId, session);
 
-    // Retrieves the async node associated to the local service.
-    AsyncNodeClient node =
-        SmartCardServiceProvider.getService()
-            .getDistributedLocalService(AppClient.LOCAL_SERVICE_NAME)
-            .getExtension(LocalServiceClient.class)
-            .getAsyncNode();
-
     // Forward the event to the node.
-    node.onOpen(sessionId);
+    getNode().onOpen(sessionId);
   }
 
   /** {@inheritDoc} */
@@ -97,12 +163,18 @@ public void sendMessage(MessageDto messageDto) {
 
     // Retrieves the opened server session using the session id.
     Session session = openedSessions.get(sessionId);
+    if (session == null) {
+      throw new IllegalStateException("No opened session for sessionId " + sessionId);
+    }
 
-    // Serialize the message to send.
-    String data = JsonUtil.getParser().toJson(messageDto);
+    SessionSendQueue sendQueue = SessionMultiplexing.getSendQueue(session);
+    MessageDtoListener listener = messageListener;
+    if (listener != null) {
+      listener.onMessageSent(messageDto, sendQueue.isBinary());
+    }
 
-    // Send the message.
-    session.getAsyncRemote().sendText(data);
+    // Serialize the message using the codec negotiated for the session and queue it.
+    sendQueue.send(messageDto);
   }
 
   /**
@@ -116,26 +188,47 @@ public void onMessage(String data) {
     logger.trace("Client - Received message {}", data);
 
     // Deserialize the incoming message.
-    MessageDto message = JsonUtil.getParser().fromJson(data, MessageDto.class);
+    MessageDto message = MessageDtoJsonSerializer.fromJson(data);
+
+    // Forward the message to the node.
+    forwardMessage(message, false);
+  }
+
+  /**
+   * Is invoked by the framework when a binary message is received from the server, i.e. when the
+   * binary codec has been negotiated for the session.
+   *
+   * @param data The incoming message.
+   */
+  @OnMessage
+  public void onMessage(ByteBuffer data) {
 
-    // Retrieves the async node associated to the local service.
-    AsyncNodeClient node =
-        SmartCardServiceProvider.getService()
-            .getDistributedLocalService(AppClient.LOCAL_SERVICE_NAME)
-            .getExtension(LocalServiceClient.class)
-            .getAsyncNode();
+    logger.trace("Client - Received binary message of {} bytes", data.remaining());
+
+    // Deserialize the incoming message.
+    MessageDto message = MessageDtoBinaryCodec.decode(data);
 
     // Forward the message to the node.
-    node.onMessage(message);
+    forwardMessage(message, true);
   }
 
   /** {@inheritDoc} */
   @Override
   public void closeSession(String sessionId) {
-    try {
-      // Retrieves the opened server session using the session id.
-      Session session = openedSessions.get(sessionId);
 
+    // Retrieves the opened server session using the session id.
+    Session session = openedSessions.get(sessionId);
+    if (session == null) {
+      logger.warn("Client - No opened session for sessionId {}", sessionId);
+      return;
+    }
+
+    if (SessionMultiplexing.isMultiplexed(session)) {
+      closeMultiplexedSession(sessionId, session);
+      return;
+    }
+
+    try {
       // Try to close the server session.
       session.close();
 
@@ -152,6 +245,17 @@ public void closeSession(String sessionId) {
   @OnClose
   public void onClose(Session session) {
 
+    closeSendQueue(session);
+
+    if (SessionMultiplexing.isMultiplexed(session)) {
+      // All the sessions carried by the connection are closed.
+      logger.trace("Client - Closed multiplexed socket {}", session.getQueryString());
+      for (String sessionId : releaseMultiplexedConnection(session)) {
+        getNode().onClose(sessionId);
+      }
+      return;
+    }
+
     // Retrieves the session id from the query.
     String sessionId = session.getQueryString();
     logger.trace("Client - Closed socket for sessionId {}", sessionId);
@@ -159,15 +263,8 @@ public void onClose(Session session) {
     // Clean the map of opened sessions.
     openedSessions.remove(sessionId);
 
-    // Retrieves the async node associated to the local service.
-    AsyncNodeClient node =
-        SmartCardServiceProvider.getService()
-            .getDistributedLocalService(AppClient.LOCAL_SERVICE_NAME)
-            .getExtension(LocalServiceClient.class)
-            .getAsyncNode();
-
     // Forward the event to the node.
-    node.onClose(sessionId);
+    getNode().onClose(sessionId);
   }
 
   /**
@@ -179,6 +276,17 @@ public void onClose(Session session) {
   @OnError
   public void onError(Session session, Throwable error) {
 
+    closeSendQueue(session);
+
+    if (SessionMultiplexing.isMultiplexed(session)) {
+      // All the sessions carried by the connection are failed.
+      logger.trace("Client - Error multiplexed socket {}", session.getQueryString());
+      for (String sessionId : releaseMultiplexedConnection(session)) {
+        getNode().onError(sessionId, error);
+      }
+      return;
+    }
+
     // Retrieves the session id from the query.
     String sessionId = session.getQueryString();
     logger.trace("Client - Error socket for sessionId {}", sessionId);
@@ -186,14 +294,180 @@ public void onError(Session session, Throwable error) {
     // Clean the map of opened sessions.
     openedSessions.remove(sessionId);
 
-    // Retrieves the async node associated to the local service.
-    AsyncNodeClient node =
-        SmartCardServiceProvider.getService()
-            .getDistributedLocalService(AppClient.LOCAL_SERVICE_NAME)
-            .getExtension(LocalServiceClient.class)
-            .getAsyncNode();
-
     // Forward the error to the node.
-    node.onError(sessionId, error);
+    getNode().onError(sessionId, error);
+  }
+
+  /**
+   * Sets the listener of the messages exchanged with the server.
+   *
+   * @param messageListener The listener, null to remove it.
+   */
+  public void setMessageListener(MessageDtoListener messageListener) {
+    this.messageListener = messageListener;
+  }
+
+  /**
+   * Forwards a deserialized message to the node.
+   *
+   * @param message The incoming message.
+   * @param isBinary true if the message was received in a binary frame.
+   */
+  private void forwardMessage(MessageDto message, boolean isBinary) {
+    MessageDtoListener listener = messageListener;
+    if (listener != null) {
+      listener.onMessageReceived(message, isBinary);
+    }
+    getNode().onMessage(message);
+  }
+
+  /**
+   * Opens a session on a multiplexed connection, opening the connection if needed, then notifies
+   * the node immediately.
+   *
+   * @param sessionId The session id.
+   */
+  private void openMultiplexedSession(String sessionId) {
+    Session connection = getMultiplexedConnection();
+    SessionMultiplexing.getSessionIds(connection).add(sessionId);
+    openedSessions.put(sessionId, connection);
+    logger.trace(
+        "Client - Opened sessionId {} on multiplexed socket {}",
+        sessionId,
+        connection.getQueryString());
+    getNode().onOpen(sessionId);
+  }
+
+  /**
+   * Closes a session carried by a multiplexed connection: notifies the server and the node, the
+   * connection remaining open.
+   *
+   * @param sessionId The session id.
+   * @param connection The multiplexed connection.
+   */
+  private void closeMultiplexedSession(String sessionId, Session connection) {
+    openedSessions.remove(sessionId);
+    if (SessionMultiplexing.getSessionIds(connection).remove(sessionId)) {
+      try {
+        SessionMultiplexing.getSendQueue(connection)
+            .send(SessionMultiplexing.createCloseSessionMessage(sessionId));
+      } catch (IllegalStateException e) {
+        // The connection is being closed, the server closes the session anyway.
+        logger.warn(
+            "Client - Unable to notify the closing of the sessionId {}: {}",
+            sessionId,
+            e.getMessage());
+      }
+    }
+    logger.trace("Client - Closed sessionId {} on multiplexed socket", sessionId);
+    getNode().onClose(sessionId);
+  }
+
+  /**
+   * Returns the next multiplexed connection of the pool (round-robin), opening it if needed.
+   *
+   * @return An opened connection.
+   */
+  private Session getMultiplexedConnection() {
+    int index =
+        (nextConnectionIndex.getAndIncrement() & Integer.MAX_VALUE) % nbMultiplexedConnections;
+    synchronized (this) {
+      if (multiplexedConnections == null) {
+        multiplexedConnections = new Session[nbMultiplexedConnections];
+      }
+      Session connection = multiplexedConnections[index];
+      if (connection == null || !connection.isOpen()) {
+        try {
+          WebSocketContainer container = ContainerProvider.getWebSocketContainer();
+          connection =
+              container.connectToServer(
+                  this, new URI(URI + "?" + SessionMultiplexing.CONNECTION_QUERY_PREFIX + index));
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+        multiplexedConnections[index] = connection;
+      }
+      return connection;
+    }
+  }
+
+  /**
+   * Removes a closed multiplexed connection from the pool and unregisters its sessions.
+   *
+   * @param connection The closed connection.
+   * @return The ids of the sessions which were carried by the connection.
+   */
+  private List<String> releaseMultiplexedConnection(Session connection) {
+    synchronized (this) {
+      for (int i = 0; multiplexedConnections != null && i < multiplexedConnections.length; i++) {
+        if (multiplexedConnections[i] == connection) {
+          multiplexedConnections[i] = null;
+        }
+      }
+    }
+    Set<String> sessionIds = SessionMultiplexing.getSessionIds(connection);
+    List<String> releasedSessionIds = new ArrayList<String>(sessionIds);
+    sessionIds.clear();
+    for (String sessionId : releasedSessionIds) {
+      openedSessions.remove(sessionId);
+    }
+    return releasedSessionIds;
+  }
+
+  /**
+   * Closes the send queue of a connection.
+   *
+   * @param session The connection.
+   */
+  private static void closeSendQueue(Session session) {
+    SessionSendQueue sendQueue = SessionMultiplexing.getSendQueue(session);
+    if (sendQueue != null) {
+      int nbDroppedMessages = sendQueue.close();
+      logger.debug(
+          "Client - Send queue closed, {} message(s) dropped: {}", nbDroppedMessages, sendQueue);
+    }
+  }
+
+  /**
+   * Retrieves the async node associated to the local service.
+   *
+   * @return A not null reference.
+   */
+  private static AsyncNodeClient getNode() {
+    return SmartCardServiceProvider.getService()
+        .getDistributedLocalService(AppClient.LOCAL_SERVICE_NAME)
+        .getExtension(LocalServiceClient.class)
+        .getAsyncNode();
+  }
+
+  /**
+   * Withdraws the {@code keyple-binary-v1} sub-protocol from the opening handshake when the {@code
+   * keyple.websocket.client.binary-codec} property is false, so that the server falls back to JSON
+   * text frames.
+   *
+   * <p>Is instantiated by the web socket container, the property is therefore read from the
+   * configuration at each handshake.
+   */
+  public static class SubprotocolConfigurator extends ClientEndpointConfig.Configurator {
+
+    private static final String SEC_WEBSOCKET_PROTOCOL_HEADER = "Sec-WebSocket-Protocol";
+
+    /** {@inheritDoc} */
+    @Override
+    public void beforeRequest(Map<String, List<String>> headers) {
+      boolean isBinaryCodecEnabled =
+          ConfigProvider.getConfig()
+              .getOptionalValue("keyple.websocket.client.binary-codec", Boolean.class)
+              .orElse(true);
+      if (isBinaryCodecEnabled) {
+        return;
+      }
+      Iterator<String> headerNames = headers.keySet().iterator();
+      while (headerNames.hasNext()) {
+        if (SEC_WEBSOCKET_PROTOCOL_HEADER.equalsIgnoreCase(headerNames.next())) {
+          headerNames.remove();
+        }
+      }
+    }
   }
 }
@@ -0,0 +1,303 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.websocket.common;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import javax.websocket.Session;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.distributed.MessageDto;
+
+/**
+ * Compact binary codec of {@link MessageDto}, used by the web socket endpoints in place of the JSON
+ * serialization when both sides support it.
+ *
+ * <p>The use of the codec is negotiated per session with the web socket sub-protocol {@link
+ * #SUBPROTOCOL}: a peer which does not propose it keeps exchanging JSON text frames.
+ *
+ * <p>Message format (binary frame):
+ *
+ * <ul>
+ *   <li>1 byte: format version,
+ *   <li>varint: API level,
+ *   <li>6 length-prefixed UTF-8 strings: session id, action, client node id, server node id, local
+ *       reader name, remote reader name (the length is incremented by one, 0 meaning null),
+ *   <li>1 byte: 1 if a body is present, 0 otherwise,
+ *   <li>body segments until the end of the frame, each one made of a type byte and of
+ *       length-prefixed content: either UTF-8 text, or raw bytes replacing a string of uppercase
+ *       hexadecimal digits (APDUs, status words, power-on data...).
+ * </ul>
+ *
+ * <p>The body, produced by the Keyple distributed libraries in JSON, is thus transmitted as is
+ * except for its hexadecimal strings, whose size is divided by two. Decoding restores exactly the
+ * original body.
+ */
+public final class MessageDtoBinaryCodec {
+
+  /** Web socket sub-protocol identifying the binary codec. */
+  public static final String SUBPROTOCOL = "keyple-binary-v1";
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final byte FORMAT_VERSION = 1;
+  private static final byte TEXT_SEGMENT = 0;
+  private static final byte HEX_SEGMENT = 1;
+  // Hexadecimal strings shorter than this are kept as text since the gain would be negligible.
+  private static final int MIN_HEX_STRING_LENGTH = 8;
+  private static final int INITIAL_BUFFER_SIZE = 256;
+
+  /** Constructor */
+  private MessageDtoBinaryCodec() {}
+
+  /**
+   * Indicates whether the binary codec has been negotiated for the provided web socket session.
+   *
+   * @param session The web socket session.
+   * @return true if the messages must be exchanged in binary frames.
+   */
+  public static boolean isNegotiated(Session session) {
+    return SUBPROTOCOL.equals(session.getNegotiatedSubprotocol());
+  }
+
+  /**
+   * Encodes a message.
+   *
+   * @param message The message to encode.
+   * @return A buffer ready to be sent.
+   */
+  public static ByteBuffer encode(MessageDto message) {
+    Output output = new Output();
+    output.writeByte(FORMAT_VERSION);
+    output.writeVarInt(message.getApiLevel());
+    output.writeString(message.getSessionId());
+    output.writeString(message.getAction());
+    output.writeString(message.getClientNodeId());
+    output.writeString(message.getServerNodeId());
+    output.writeString(message.getLocalReaderName());
+    output.writeString(message.getRemoteReaderName());
+    String body = message.getBody();
+    if (body == null) {
+      output.writeByte((byte) 0);
+    } else {
+      output.writeByte((byte) 1);
+      writeBody(output, body);
+    }
+    return output.toByteBuffer();
+  }
+
+  /**
+   * Decodes a message.
+   *
+   * @param buffer The received buffer.
+   * @return A new message.
+   * @throws IllegalArgumentException If the buffer is not a valid message.
+   */
+  public static MessageDto decode(ByteBuffer buffer) {
+    Input input = new Input(buffer);
+    byte version = input.readByte();
+    if (version != FORMAT_VERSION) {
+      throw new IllegalArgumentException("Unsupported message format version: " + version);
+    }
+    MessageDto message =
+        new MessageDto()
+            .setApiLevel(input.readVarInt())
+            .setSessionId(input.readString())
+            .setAction(input.readString())
+            .setClientNodeId(input.readString())
+            .setServerNodeId(input.readString())
+            .setLocalReaderName(input.readString())
+            .setRemoteReaderName(input.readString());
+    if (input.readByte() != 0) {
+      message.setBody(readBody(input));
+    }
+    return message;
+  }
+
+  /**
+   * Writes the body, replacing the hexadecimal strings by their raw bytes.
+   *
+   * @param output The output.
+   * @param body The body.
+   */
+  private static void writeBody(Output output, String body) {
+    int length = body.length();
+    int textStart = 0;
+    int i = body.indexOf('"');
+    while (i >= 0 && i < length - 1) {
+      // Look for a string made only of uppercase hexadecimal digits.
+      int j = i + 1;
+      while (j < length && isUpperCaseHexDigit(body.charAt(j))) {
+        j++;
+      }
+      int hexLength = j - i - 1;
+      if (j < length
+          && body.charAt(j) == '"'
+          && hexLength >= MIN_HEX_STRING_LENGTH
+          && hexLength % 2 == 0) {
+        writeTextSegment(output, body, textStart, i + 1);
+        output.writeByte(HEX_SEGMENT);
+        output.writeVarInt(hexLength / 2);
+        for (int k = i + 1; k < j; k += 2) {
+          output.writeByte(
+              (byte) ((hexDigitValue(body.charAt(k)) << 4) | hexDigitValue(body.charAt(k + 1))));
+        }
+        textStart = j;
+      }
+      i = body.indexOf('"', j);
+    }
+    writeTextSegment(output, body, textStart, length);
+  }
+
+  /**
+   * Writes a text segment if not empty.
+   *
+   * @param output The output.
+   * @param body The body.
+   * @param start The start index (inclusive).
+   * @param end The end index (exclusive).
+   */
+  private static void writeTextSegment(Output output, String body, int start, int end) {
+    if (end > start) {
+      byte[] text = body.substring(start, end).getBytes(UTF_8);
+      output.writeByte(TEXT_SEGMENT);
+      output.writeVarInt(text.length);
+      output.writeBytes(text);
+    }
+  }
+
+  /**
+   * Reads the body segments until the end of the buffer.
+   *
+   * @param input The input.
+   * @return The body.
+   */
+  private static String readBody(Input input) {
+    StringBuilder body = new StringBuilder(input.remaining() * 2);
+    while (input.remaining() > 0) {
+      byte type = input.readByte();
+      byte[] content = input.readBytes(input.readVarInt());
+      if (type == TEXT_SEGMENT) {
+        body.append(new String(content, UTF_8));
+      } else if (type == HEX_SEGMENT) {
+        body.append(HexUtil.toHex(content));
+      } else {
+        throw new IllegalArgumentException("Unknown body segment type: " + type);
+      }
+    }
+    return body.toString();
+  }
+
+  private static boolean isUpperCaseHexDigit(char c) {
+    return (c >= '0' && c <= '9') || (c >= 'A' && c <= 'F');
+  }
+
+  private static int hexDigitValue(char c) {
+    return c <= '9' ? c - '0' : c - 'A' + 10;
+  }
+
+  /** Growable output buffer. */
+  private static final class Output {
+
+    private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+    private int position;
+
+    private void ensureCapacity(int extraLength) {
+      if (position + extraLength > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + extraLength));
+      }
+    }
+
+    private void writeByte(byte value) {
+      ensureCapacity(1);
+      bytes[position++] = value;
+    }
+
+    private void writeBytes(byte[] values) {
+      ensureCapacity(values.length);
+      System.arraycopy(values, 0, bytes, position, values.length);
+      position += values.length;
+    }
+
+    private void writeVarInt(int value) {
+      while ((value & ~0x7F) != 0) {
+        writeByte((byte) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      writeByte((byte) value);
+    }
+
+    private void writeString(String value) {
+      if (value == null) {
+        writeVarInt(0);
+      } else {
+        byte[] utf8 = value.getBytes(UTF_8);
+        writeVarInt(utf8.length + 1);
+        writeBytes(utf8);
+      }
+    }
+
+    private ByteBuffer toByteBuffer() {
+      return ByteBuffer.wrap(bytes, 0, position);
+    }
+  }
+
+  /** Input buffer reader. */
+  private static final class Input {
+
+    private final ByteBuffer buffer;
+
+    private Input(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    private int remaining() {
+      return buffer.remaining();
+    }
+
+    private byte readByte() {
+      if (!buffer.hasRemaining()) {
+        throw new IllegalArgumentException("Truncated message.");
+      }
+      return buffer.get();
+    }
+
+    private byte[] readBytes(int length) {
+      if (length < 0 || length > buffer.remaining()) {
+        throw new IllegalArgumentException("Truncated message.");
+      }
+      byte[] values = new byte[length];
+      buffer.get(values);
+      return values;
+    }
+
+    private int readVarInt() {
+      int value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        if (shift > 28) {
+          throw new IllegalArgumentException("Malformed varint.");
+        }
+        b = readByte();
+        value |= (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return value;
+    }
+
+    private String readString() {
+      int length = readVarInt();
+      return length == 0 ? null : new String(readBytes(length - 1), UTF_8);
+    }
+  }
+}
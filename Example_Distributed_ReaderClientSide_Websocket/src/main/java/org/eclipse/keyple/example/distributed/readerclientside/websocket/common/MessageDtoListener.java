@@ -0,0 +1,41 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.websocket.common;
+
+import org.eclipse.keyple.distributed.MessageDto;
+
+/**
+ * Listener of the messages exchanged by a web socket endpoint, with the type of frame carrying
+ * them, e.g. to audit the exchanges or to check the codec negotiated for the sessions.
+ *
+ * <p>The methods are invoked by the threads sending and receiving the messages, they must return
+ * quickly.
+ */
+public interface MessageDtoListener {
+
+  /**
+   * Is invoked when a message is about to be queued for sending.
+   *
+   * @param messageDto The message.
+   * @param isBinary true if the message is sent in a binary frame, false in a text frame.
+   */
+  void onMessageSent(MessageDto messageDto, boolean isBinary);
+
+  /**
+   * Is invoked when a message has been received and decoded, before being forwarded to the node.
+   *
+   * @param messageDto The decoded message.
+   * @param isBinary true if the message was received in a binary frame, false in a text frame.
+   */
+  void onMessageReceived(MessageDto messageDto, boolean isBinary);
+}
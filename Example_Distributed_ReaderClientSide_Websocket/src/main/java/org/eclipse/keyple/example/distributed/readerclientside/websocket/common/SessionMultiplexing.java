@@ -0,0 +1,116 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.websocket.common;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.websocket.Session;
+import org.eclipse.keyple.distributed.MessageDto;
+
+/**
+ * Conventions shared by the endpoints for the multiplexing of several Keyple sessions over a single
+ * long-lived web socket connection.
+ *
+ * <p>A multiplexed connection is opened with the query {@link #CONNECTION_QUERY_PREFIX} followed by
+ * the index of the connection in the pool of the client, instead of a session id. The messages are
+ * routed with their session id, already present in each {@link MessageDto}. The opening of a Keyple
+ * session is implicit: the server discovers it with its first message. Its closing is notified to
+ * the server by a control message whose action is {@link #CLOSE_SESSION_ACTION}, which is not
+ * forwarded to the Keyple node. When the connection itself is closed or fails, all the sessions it
+ * carries are closed or failed.
+ *
+ * <p>The send queue of a connection and the ids of the sessions it carries are stored in the user
+ * properties of the web socket session.
+ */
+public final class SessionMultiplexing {
+
+  /** Prefix of the query identifying a multiplexed connection. */
+  public static final String CONNECTION_QUERY_PREFIX = "connection=";
+
+  /** Action of the control message closing a session carried by a multiplexed connection. */
+  public static final String CLOSE_SESSION_ACTION = "CLOSE_MULTIPLEXED_SESSION";
+
+  private static final String SEND_QUEUE_PROPERTY = "keyple.sendQueue";
+  private static final String SESSION_IDS_PROPERTY = "keyple.sessionIds";
+
+  /** Constructor */
+  private SessionMultiplexing() {}
+
+  /**
+   * Indicates whether a web socket session is a multiplexed connection.
+   *
+   * @param connection The web socket session.
+   * @return true if it carries several Keyple sessions.
+   */
+  public static boolean isMultiplexed(Session connection) {
+    String query = connection.getQueryString();
+    return query != null && query.startsWith(CONNECTION_QUERY_PREFIX);
+  }
+
+  /**
+   * Attaches a send queue and an empty set of session ids to a web socket session.
+   *
+   * @param connection The web socket session, just opened.
+   * @param sendQueue The send queue of the connection.
+   */
+  public static void initConnection(Session connection, SessionSendQueue sendQueue) {
+    connection.getUserProperties().put(SEND_QUEUE_PROPERTY, sendQueue);
+    connection
+        .getUserProperties()
+        .put(
+            SESSION_IDS_PROPERTY,
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>()));
+  }
+
+  /**
+   * Returns the send queue attached to a web socket session.
+   *
+   * @param connection The web socket session.
+   * @return Null if the connection has not been initialized.
+   */
+  public static SessionSendQueue getSendQueue(Session connection) {
+    return (SessionSendQueue) connection.getUserProperties().get(SEND_QUEUE_PROPERTY);
+  }
+
+  /**
+   * Returns the ids of the Keyple sessions carried by a web socket session.
+   *
+   * @param connection The web socket session.
+   * @return A thread-safe modifiable set, null if the connection has not been initialized.
+   */
+  @SuppressWarnings("unchecked")
+  public static Set<String> getSessionIds(Session connection) {
+    return (Set<String>) connection.getUserProperties().get(SESSION_IDS_PROPERTY);
+  }
+
+  /**
+   * Creates the control message closing a session.
+   *
+   * @param sessionId The session id.
+   * @return A new message.
+   */
+  public static MessageDto createCloseSessionMessage(String sessionId) {
+    return new MessageDto().setSessionId(sessionId).setAction(CLOSE_SESSION_ACTION);
+  }
+
+  /**
+   * Indicates whether a message is the control message closing a session.
+   *
+   * @param message The received message.
+   * @return true if the message must not be forwarded to the Keyple node.
+   */
+  public static boolean isCloseSessionMessage(MessageDto message) {
+    return CLOSE_SESSION_ACTION.equals(message.getAction());
+  }
+}
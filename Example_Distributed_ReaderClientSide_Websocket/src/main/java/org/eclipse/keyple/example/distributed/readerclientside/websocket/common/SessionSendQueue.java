@@ -0,0 +1,375 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.websocket.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import javax.websocket.CloseReason;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import org.eclipse.keyple.distributed.MessageDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Outbound queue of a web socket session, delivering the messages in order with at most one
+ * asynchronous send in progress.
+ *
+ * <p>The queue is bounded by a high-water mark. When it is reached, the sending thread is paused
+ * until a message has been delivered, for at most a configured time. If the queue is still full
+ * after this time, the client is considered too slow: the session is closed with the {@code
+ * TRY_AGAIN_LATER} code and the message is rejected, so that the heap does not grow without limit.
+ *
+ * <p>The queue also keeps statistics about its depth, the number of times the high-water mark was
+ * hit and the send latency (from the enqueuing of a message to the completion of its send). A
+ * warning with these statistics is logged each time the high-water mark is reached after the queue
+ * has drained below it.
+ */
+public class SessionSendQueue {
+
+  private static final Logger logger = LoggerFactory.getLogger(SessionSendQueue.class);
+
+  private final Session session;
+  private final String sessionId;
+  private final int highWaterMark;
+  private final long pauseTimeoutMillis;
+  private final boolean isBinary;
+  private final Deque<PendingMessage> pendingMessages = new ArrayDeque<PendingMessage>();
+  private final SendHandler sendHandler;
+
+  // Guarded by this.
+  private boolean isSending;
+  private boolean isClosed;
+  // true once the pending messages have been dropped by close()
+  private boolean isDrained;
+  private int maxDepth;
+  // true from the high-water mark being hit until the queue drains below it
+  private boolean isAtHighWaterMark;
+  private long highWaterCount;
+  private long sentCount;
+  private long failedCount;
+  private long shedCount;
+  private long totalSendLatencyNanos;
+  private long maxSendLatencyNanos;
+
+  /**
+   * Constructor.
+   *
+   * @param session The web socket session.
+   * @param sessionId The id of the session, used in logs.
+   * @param highWaterMark The maximum number of messages queued or being sent.
+   * @param pauseTimeoutMillis The maximum time a sending thread is paused when the queue is full,
+   *     in milliseconds (0 to close the session immediately).
+   */
+  public SessionSendQueue(
+      Session session, String sessionId, int highWaterMark, long pauseTimeoutMillis) {
+    if (highWaterMark < 1) {
+      throw new IllegalArgumentException("The high-water mark must be at least 1.");
+    }
+    this.session = session;
+    this.sessionId = sessionId;
+    this.highWaterMark = highWaterMark;
+    this.pauseTimeoutMillis = pauseTimeoutMillis;
+    this.isBinary = MessageDtoBinaryCodec.isNegotiated(session);
+    this.sendHandler =
+        new SendHandler() {
+          @Override
+          public void onResult(SendResult result) {
+            onSendCompleted(result);
+          }
+        };
+  }
+
+  /**
+   * Serializes the message with the codec negotiated for the session and queues it.
+   *
+   * <p>The method returns as soon as the message is queued, waiting if the queue is full.
+   *
+   * @param messageDto The message to send.
+   * @throws IllegalStateException If the session is closed, if the client is too slow (the session
+   *     is then closed) or if the thread was interrupted while waiting.
+   */
+  public void send(MessageDto messageDto) {
+
+    // Serialize out of the lock.
+    PendingMessage message =
+        isBinary
+            ? new PendingMessage(null, MessageDtoBinaryCodec.encode(messageDto))
+            : new PendingMessage(MessageDtoJsonSerializer.toJson(messageDto), null);
+
+    boolean isShed = false;
+    boolean isSendToStart = false;
+    boolean isHighWaterMarkCrossed = false;
+    synchronized (this) {
+      if (!isClosed && pendingMessages.size() >= highWaterMark) {
+        highWaterCount++;
+        isHighWaterMarkCrossed = !isAtHighWaterMark;
+        isAtHighWaterMark = true;
+      }
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pauseTimeoutMillis);
+      long remainingNanos = deadline - System.nanoTime();
+      while (!isClosed && pendingMessages.size() >= highWaterMark && remainingNanos > 0) {
+        try {
+          TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("Interrupted while waiting to send to " + sessionId, e);
+        }
+        remainingNanos = deadline - System.nanoTime();
+      }
+      if (isClosed) {
+        throw new IllegalStateException("The session " + sessionId + " is closed.");
+      }
+      if (pendingMessages.size() >= highWaterMark) {
+        // The following messages are rejected immediately, the session being closed.
+        shedCount++;
+        isShed = true;
+        isClosed = true;
+        notifyAll();
+      } else {
+        pendingMessages.add(message);
+        maxDepth = Math.max(maxDepth, pendingMessages.size());
+        if (!isSending) {
+          isSending = true;
+          isSendToStart = true;
+        }
+      }
+    }
+
+    if (isHighWaterMarkCrossed) {
+      logger.warn("High-water mark reached, pausing the sending thread: {}", this);
+    }
+    if (isShed) {
+      shed();
+      throw new IllegalStateException(
+          "Send queue of session " + sessionId + " full, the session has been closed.");
+    }
+    if (isSendToStart) {
+      transmit(message);
+    }
+  }
+
+  /**
+   * Closes the queue: the pending messages are dropped and the waiting threads are released.
+   *
+   * <p>Closing an already closed queue has no effect, e.g. when both the error and the close of the
+   * session are notified. The queue closed when shedding a slow client still drops its pending
+   * messages here.
+   *
+   * @return The number of dropped messages, 0 if the queue was already closed.
+   */
+  public synchronized int close() {
+    if (isDrained) {
+      return 0;
+    }
+    isClosed = true;
+    isDrained = true;
+    int nbDroppedMessages = pendingMessages.size() - (isSending ? 1 : 0);
+    pendingMessages.clear();
+    notifyAll();
+    return nbDroppedMessages;
+  }
+
+  /**
+   * Indicates whether the messages are sent in binary frames, i.e. whether the binary codec has
+   * been negotiated for the session.
+   *
+   * @return true if the messages are sent in binary frames, false in text frames.
+   */
+  public boolean isBinary() {
+    return isBinary;
+  }
+
+  /**
+   * Returns the number of messages queued or being sent.
+   *
+   * @return A positive or zero int.
+   */
+  public synchronized int getDepth() {
+    return pendingMessages.size();
+  }
+
+  /**
+   * Returns the maximum number of messages queued or being sent since the opening of the session.
+   *
+   * @return A positive or zero int.
+   */
+  public synchronized int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Returns the number of messages which found the queue full, whether they were then queued after
+   * a pause or rejected.
+   *
+   * @return A positive or zero long.
+   */
+  public synchronized long getHighWaterCount() {
+    return highWaterCount;
+  }
+
+  /**
+   * Returns the number of messages successfully sent.
+   *
+   * @return A positive or zero long.
+   */
+  public synchronized long getSentCount() {
+    return sentCount;
+  }
+
+  /**
+   * Returns the number of messages whose send failed.
+   *
+   * @return A positive or zero long.
+   */
+  public synchronized long getFailedCount() {
+    return failedCount;
+  }
+
+  /**
+   * Returns the number of messages rejected because the queue was full.
+   *
+   * @return A positive or zero long.
+   */
+  public synchronized long getShedCount() {
+    return shedCount;
+  }
+
+  /**
+   * Returns the mean send latency of the messages successfully sent.
+   *
+   * @return The latency in microseconds, 0 if no message has been sent.
+   */
+  public synchronized long getMeanSendLatencyMicros() {
+    return sentCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalSendLatencyNanos / sentCount);
+  }
+
+  /**
+   * Returns the maximum send latency of the messages successfully sent.
+   *
+   * @return The latency in microseconds.
+   */
+  public synchronized long getMaxSendLatencyMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(maxSendLatencyNanos);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public synchronized String toString() {
+    return "SessionSendQueue{"
+        + "sessionId='"
+        + sessionId
+        + "', depth="
+        + pendingMessages.size()
+        + ", maxDepth="
+        + maxDepth
+        + ", highWaterCount="
+        + highWaterCount
+        + ", sentCount="
+        + sentCount
+        + ", failedCount="
+        + failedCount
+        + ", shedCount="
+        + shedCount
+        + ", meanSendLatencyMicros="
+        + getMeanSendLatencyMicros()
+        + ", maxSendLatencyMicros="
+        + getMaxSendLatencyMicros()
+        + '}';
+  }
+
+  /**
+   * Starts the asynchronous send of a message.
+   *
+   * @param message The message at the head of the queue.
+   */
+  private void transmit(PendingMessage message) {
+    try {
+      if (message.binary != null) {
+        session.getAsyncRemote().sendBinary(message.binary, sendHandler);
+      } else {
+        session.getAsyncRemote().sendText(message.text, sendHandler);
+      }
+    } catch (RuntimeException e) {
+      onSendCompleted(new SendResult(e));
+    }
+  }
+
+  /**
+   * Records the result of the send in progress and starts the send of the next message, if any.
+   *
+   * @param result The result provided by the container.
+   */
+  private void onSendCompleted(SendResult result) {
+    PendingMessage nextMessage;
+    synchronized (this) {
+      // The queue may have been cleared by close() in the meantime.
+      PendingMessage message = pendingMessages.poll();
+      if (message != null) {
+        if (result.isOK()) {
+          long latencyNanos = System.nanoTime() - message.enqueuingTimeNanos;
+          sentCount++;
+          totalSendLatencyNanos += latencyNanos;
+          maxSendLatencyNanos = Math.max(maxSendLatencyNanos, latencyNanos);
+        } else {
+          failedCount++;
+        }
+      }
+      nextMessage = pendingMessages.peek();
+      isSending = nextMessage != null;
+      if (pendingMessages.size() < highWaterMark) {
+        isAtHighWaterMark = false;
+      }
+      notifyAll();
+    }
+    if (!result.isOK()) {
+      logger.error(
+          "Unable to send a message to sessionId {}: {}",
+          sessionId,
+          result.getException().getMessage());
+    }
+    if (nextMessage != null) {
+      transmit(nextMessage);
+    }
+  }
+
+  /** Closes the session of a client which does not consume its messages fast enough. */
+  private void shed() {
+    logger.warn(
+        "Send queue of sessionId {} still full after {} ms, closing the session",
+        sessionId,
+        pauseTimeoutMillis);
+    try {
+      session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Client too slow"));
+    } catch (IOException e) {
+      logger.error("Unable to close the session {}: {}", sessionId, e.getMessage());
+    }
+  }
+
+  /** A serialized message waiting to be sent. */
+  private static final class PendingMessage {
+
+    private final String text;
+    private final ByteBuffer binary;
+    private final long enqueuingTimeNanos = System.nanoTime();
+
+    private PendingMessage(String text, ByteBuffer binary) {
+      this.text = text;
+      this.binary = binary;
+    }
+  }
+}
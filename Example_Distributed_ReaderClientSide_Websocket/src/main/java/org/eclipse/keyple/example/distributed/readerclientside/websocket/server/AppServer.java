@@ -19,6 +19,7 @@
 import org.eclipse.keyple.core.service.spi.PluginObservationExceptionHandlerSpi;
 import org.eclipse.keyple.distributed.RemotePluginServerFactory;
 import org.eclipse.keyple.distributed.RemotePluginServerFactoryBuilder;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 /** Example of a server side application. */
 @ApplicationScoped
@@ -29,12 +30,39 @@ public class AppServer {
   /** The endpoint server */
   @Inject EndpointServer endpointServer;
 
+  /** Number of worker threads executing the remote services */
+  @ConfigProperty(name = "keyple.remote-service.workers", defaultValue = "32")
+  int nbRemoteServiceWorkers;
+
+  /** Maximum number of remote services waiting or in progress */
+  @ConfigProperty(name = "keyple.remote-service.max-pending", defaultValue = "512")
+  int maxPendingRemoteServices;
+
+  /** Maximum number of concurrent executions of each remote service */
+  @ConfigProperty(name = "keyple.remote-service.max-concurrent-executions", defaultValue = "16")
+  int maxConcurrentRemoteServiceExecutions;
+
+  /** Maximum number of cards in the card image cache, 0 to disable the cache */
+  @ConfigProperty(name = "keyple.card-image-cache.max-size", defaultValue = "0")
+  int cardImageCacheMaxSize;
+
+  /** Time to live of a card image, in milliseconds */
+  @ConfigProperty(name = "keyple.card-image-cache.ttl-millis", defaultValue = "60000")
+  long cardImageCacheTtlMillis;
+
+  /** The dispatcher executing the remote services */
+  private RemoteServiceDispatcher remoteServiceDispatcher;
+
+  /** The cache of the records read in free mode, null if disabled */
+  private CardImageCache cardImageCache;
+
   /**
    * Initialize the server components :
    *
    * <ul>
    *   <li>A {@link org.eclipse.keyple.distributed.RemotePluginServer} with a sync node and attach
-   *       an observer that contains all the business logic.
+   *       an observer that contains all the business logic, executed by a {@link
+   *       RemoteServiceDispatcher}, with an optional {@link CardImageCache}.
    * </ul>
    */
   public void init() {
@@ -57,6 +85,32 @@ public void onPluginObservationError(String pluginName, Throwable e) {
             // NOP
           }
         });
-    plugin.addObserver(new RemotePluginServerObserver());
+    remoteServiceDispatcher =
+        new RemoteServiceDispatcher(
+            nbRemoteServiceWorkers, maxPendingRemoteServices, maxConcurrentRemoteServiceExecutions);
+    RemotePluginServerObserver observer = new RemotePluginServerObserver(remoteServiceDispatcher);
+    if (cardImageCacheMaxSize > 0) {
+      cardImageCache = new CardImageCache(cardImageCacheMaxSize, cardImageCacheTtlMillis);
+      observer.setCardImageCache(cardImageCache);
+    }
+    plugin.addObserver(observer);
+  }
+
+  /**
+   * Returns the cache of the records read in free mode, e.g. to log its statistics.
+   *
+   * @return Null if the cache is disabled or if the server is not initialized.
+   */
+  public CardImageCache getCardImageCache() {
+    return cardImageCache;
+  }
+
+  /**
+   * Returns the dispatcher executing the remote services, e.g. to log its statistics.
+   *
+   * @return Null if the server is not initialized.
+   */
+  public RemoteServiceDispatcher getRemoteServiceDispatcher() {
+    return remoteServiceDispatcher;
   }
 }
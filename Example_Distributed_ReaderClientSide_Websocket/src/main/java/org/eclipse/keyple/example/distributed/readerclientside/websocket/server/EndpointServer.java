@@ -12,18 +12,35 @@
  ************************************************************************************** */
 package org.eclipse.keyple.example.distributed.readerclientside.websocket.server;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.websocket.*;
 import javax.websocket.server.ServerEndpoint;
 import org.eclipse.keyple.core.service.SmartCardServiceProvider;
-import org.eclipse.keyple.core.util.json.JsonUtil;
 import org.eclipse.keyple.distributed.AsyncNodeServer;
 import org.eclipse.keyple.distributed.MessageDto;
 import org.eclipse.keyple.distributed.RemotePluginServer;
 import org.eclipse.keyple.distributed.spi.AsyncEndpointServerSpi;
 import org.eclipse.keyple.example.distributed.readerclientside.websocket.client.EndpointClient;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.MessageDtoBinaryCodec;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.MessageDtoJsonSerializer;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.MessageDtoListener;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.SessionMultiplexing;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.SessionSendQueue;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,19 +49,87 @@
  * using Web Sockets.
  *
  * <p>Interacts with the {@link EndpointClient}.
+ *
+ * <p>The outgoing messages of each connection go through a {@link SessionSendQueue}, bounded by the
+ * {@code keyple.websocket.send-queue.high-water-mark} property: a client which does not consume its
+ * messages fast enough pauses the sending threads, then is disconnected. The statistics of the
+ * queues of the opened connections are logged every {@code
+ * keyple.websocket.send-queue.stats-period-millis}.
+ *
+ * <p>A connection either carries a single session, whose id is the query of the connection, or
+ * several sessions multiplexed by the client (see {@link SessionMultiplexing}).
  */
 @ApplicationScoped
-@ServerEndpoint("/remote-plugin")
+@ServerEndpoint(value = "/remote-plugin", subprotocols = MessageDtoBinaryCodec.SUBPROTOCOL)
 public class EndpointServer implements AsyncEndpointServerSpi {
 
   private static final Logger logger = LoggerFactory.getLogger(EndpointServer.class);
 
-  /** Map of opened sessions by session id */
-  private final Map<String, Session> openedSessions;
+  /** Map of the send queues of the opened sessions by session id */
+  private final Map<String, SessionSendQueue> sendQueues;
+
+  /** Maximum number of messages queued for a connection */
+  @ConfigProperty(name = "keyple.websocket.send-queue.high-water-mark", defaultValue = "32")
+  int sendQueueHighWaterMark;
+
+  /** Maximum time a sending thread is paused when the queue of a connection is full */
+  @ConfigProperty(name = "keyple.websocket.send-queue.pause-timeout-millis", defaultValue = "1000")
+  long sendQueuePauseTimeoutMillis;
+
+  /** Period of the logging of the statistics of the send queues, 0 to disable it */
+  @ConfigProperty(name = "keyple.websocket.send-queue.stats-period-millis", defaultValue = "60000")
+  long sendQueueStatsPeriodMillis;
+
+  /** Background task logging the statistics of the send queues */
+  private ScheduledExecutorService statsExecutor;
+
+  /** Optional listener of the exchanged messages */
+  private volatile MessageDtoListener messageListener;
 
   /** constructor */
   public EndpointServer() {
-    openedSessions = new ConcurrentHashMap<String, Session>();
+    sendQueues = new ConcurrentHashMap<String, SessionSendQueue>();
+  }
+
+  /** Starts the periodic logging of the statistics of the send queues, if enabled. */
+  @PostConstruct
+  void startStatsLogging() {
+    if (sendQueueStatsPeriodMillis <= 0) {
+      return;
+    }
+    statsExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactory() {
+              @Override
+              public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "send-queue-stats");
+                thread.setDaemon(true);
+                return thread;
+              }
+            });
+    statsExecutor.scheduleAtFixedRate(
+        new Runnable() {
+          @Override
+          public void run() {
+            try {
+              logSendQueueStats();
+            } catch (RuntimeException e) {
+              logger.warn(
+                  "Server - Logging of the send queue statistics failed: {}", e.getMessage());
+            }
+          }
+        },
+        sendQueueStatsPeriodMillis,
+        sendQueueStatsPeriodMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /** Stops the periodic logging of the statistics of the send queues. */
+  @PreDestroy
+  void stopStatsLogging() {
+    if (statsExecutor != null) {
+      statsExecutor.shutdownNow();
+    }
   }
 
   /**
@@ -55,12 +140,30 @@ public EndpointServer() {
   @OnOpen
   public void onOpen(Session session) {
 
+    // Attaches a send queue to the connection.
+    SessionSendQueue sendQueue =
+        new SessionSendQueue(
+            session, session.getQueryString(), sendQueueHighWaterMark, sendQueuePauseTimeoutMillis);
+    SessionMultiplexing.initConnection(session, sendQueue);
+
+    if (SessionMultiplexing.isMultiplexed(session)) {
+      // The sessions carried by the connection are registered with their first message.
+      logger.trace(
+          "Server - Opened multiplexed socket {} (binary codec: {})",
+          session.getQueryString(),
+          MessageDtoBinaryCodec.isNegotiated(session));
+      return;
+    }
+
     // Retrieves the session id from the query.
     String sessionId = session.getQueryString();
-    logger.trace("Server - Opened socket for sessionId {} : ", sessionId);
+    logger.trace(
+        "Server - Opened socket for sessionId {} (binary codec: {})",
+        sessionId,
+        MessageDtoBinaryCodec.isNegotiated(session));
 
-    // Associates the server session to its session id.
-    openedSessions.put(sessionId, session);
+    // Associates the send queue of the server session to its session id.
+    sendQueues.put(sessionId, sendQueue);
   }
 
   /** {@inheritDoc} */
@@ -70,38 +173,56 @@ public void sendMessage(MessageDto messageDto) {
     // Retrieves the session id from the provided message.
     String sessionId = messageDto.getSessionId();
 
-    // Retrieves the opened server session using the session id.
-    Session session = openedSessions.get(sessionId);
+    // Retrieves the send queue of the opened server session using the session id.
+    SessionSendQueue sendQueue = sendQueues.get(sessionId);
+    if (sendQueue == null) {
+      throw new IllegalStateException("No opened session for sessionId " + sessionId);
+    }
 
-    // Serialize the message to send.
-    String data = JsonUtil.getParser().toJson(messageDto);
+    MessageDtoListener listener = messageListener;
+    if (listener != null) {
+      listener.onMessageSent(messageDto, sendQueue.isBinary());
+    }
 
-    // Send the message.
-    session.getAsyncRemote().sendText(data);
+    // Serialize the message using the codec negotiated for the session and queue it.
+    sendQueue.send(messageDto);
   }
 
   /**
    * Is invoked by the framework when a message is received from the client.
    *
    * @param data The incoming message.
+   * @param session The server session.
    */
   @OnMessage
-  public void onMessage(String data) {
+  public void onMessage(String data, Session session) {
 
     logger.trace("Server - Received message {} : ", data);
 
     // Deserialize the incoming message.
-    MessageDto message = JsonUtil.getParser().fromJson(data, MessageDto.class);
+    MessageDto message = MessageDtoJsonSerializer.fromJson(data);
+
+    // Forward the message to the node.
+    forwardMessage(message, false, session);
+  }
 
-    // Retrieves the async node associated to the local service.
-    AsyncNodeServer node =
-        SmartCardServiceProvider.getService()
-            .getPlugin(AppServer.REMOTE_PLUGIN_NAME)
-            .getExtension(RemotePluginServer.class)
-            .getAsyncNode();
+  /**
+   * Is invoked by the framework when a binary message is received from the client, i.e. when the
+   * binary codec has been negotiated for the session.
+   *
+   * @param data The incoming message.
+   * @param session The server session.
+   */
+  @OnMessage
+  public void onMessage(ByteBuffer data, Session session) {
+
+    logger.trace("Server - Received binary message of {} bytes", data.remaining());
+
+    // Deserialize the incoming message.
+    MessageDto message = MessageDtoBinaryCodec.decode(data);
 
     // Forward the message to the node.
-    node.onMessage(message);
+    forwardMessage(message, true, session);
   }
 
   /**
@@ -112,22 +233,26 @@ public void onMessage(String data) {
   @OnClose
   public void onClose(Session session) {
 
+    closeSendQueue(session);
+
+    if (SessionMultiplexing.isMultiplexed(session)) {
+      // All the sessions carried by the connection are closed.
+      logger.trace("Server - Closed multiplexed socket {}", session.getQueryString());
+      for (String sessionId : releaseMultiplexedSessions(session)) {
+        getNode().onClose(sessionId);
+      }
+      return;
+    }
+
     // Retrieves the session id from the query.
     String sessionId = session.getQueryString();
     logger.trace("Server - Closed socket for sessionId {}", sessionId);
 
     // Clean the map of opened sessions.
-    openedSessions.remove(sessionId);
-
-    // Retrieves the async node associated to the local service.
-    AsyncNodeServer node =
-        SmartCardServiceProvider.getService()
-            .getPlugin(AppServer.REMOTE_PLUGIN_NAME)
-            .getExtension(RemotePluginServer.class)
-            .getAsyncNode();
+    sendQueues.remove(sessionId);
 
     // Forward the event to the node.
-    node.onClose(sessionId);
+    getNode().onClose(sessionId);
   }
 
   /**
@@ -139,21 +264,167 @@ public void onClose(Session session) {
   @OnError
   public void onError(Session session, Throwable error) {
 
+    closeSendQueue(session);
+
+    if (SessionMultiplexing.isMultiplexed(session)) {
+      // All the sessions carried by the connection are failed.
+      logger.trace("Server - Error multiplexed socket {}", session.getQueryString());
+      for (String sessionId : releaseMultiplexedSessions(session)) {
+        getNode().onError(sessionId, error);
+      }
+      return;
+    }
+
     // Retrieves the session id from the query.
     String sessionId = session.getQueryString();
     logger.trace("Server - Error socket for sessionId {}", sessionId);
 
     // Clean the map of opened sessions.
-    openedSessions.remove(sessionId);
-
-    // Retrieves the async node associated to the local service.
-    AsyncNodeServer node =
-        SmartCardServiceProvider.getService()
-            .getPlugin(AppServer.REMOTE_PLUGIN_NAME)
-            .getExtension(RemotePluginServer.class)
-            .getAsyncNode();
+    sendQueues.remove(sessionId);
 
     // Forward the error to the node.
-    node.onError(sessionId, error);
+    getNode().onError(sessionId, error);
+  }
+
+  /**
+   * Sets the listener of the messages exchanged with the clients.
+   *
+   * @param messageListener The listener, null to remove it.
+   */
+  public void setMessageListener(MessageDtoListener messageListener) {
+    this.messageListener = messageListener;
+  }
+
+  /**
+   * Logs the statistics of the send queues of the opened connections: aggregated at info level, and
+   * per connection at debug level.
+   *
+   * <p>The depths are the current ones, the other statistics are accumulated since the opening of
+   * each connection.
+   */
+  void logSendQueueStats() {
+    // A multiplexed connection is shared by several sessions.
+    Set<SessionSendQueue> openedSendQueues =
+        Collections.newSetFromMap(new IdentityHashMap<SessionSendQueue, Boolean>());
+    openedSendQueues.addAll(sendQueues.values());
+    if (openedSendQueues.isEmpty()) {
+      return;
+    }
+    int depth = 0;
+    int maxDepth = 0;
+    long highWaterCount = 0;
+    long shedCount = 0;
+    long sentCount = 0;
+    long failedCount = 0;
+    long totalSendLatencyMicros = 0;
+    long maxSendLatencyMicros = 0;
+    for (SessionSendQueue sendQueue : openedSendQueues) {
+      long queueSentCount = sendQueue.getSentCount();
+      depth += sendQueue.getDepth();
+      maxDepth = Math.max(maxDepth, sendQueue.getMaxDepth());
+      highWaterCount += sendQueue.getHighWaterCount();
+      shedCount += sendQueue.getShedCount();
+      sentCount += queueSentCount;
+      failedCount += sendQueue.getFailedCount();
+      totalSendLatencyMicros += sendQueue.getMeanSendLatencyMicros() * queueSentCount;
+      maxSendLatencyMicros = Math.max(maxSendLatencyMicros, sendQueue.getMaxSendLatencyMicros());
+      logger.debug("Server - {}", sendQueue);
+    }
+    logger.info(
+        "Server - Send queues of {} connection(s): depth={}, maxDepth={}, highWaterCount={},"
+            + " shedCount={}, sentCount={}, failedCount={}, meanSendLatencyMicros={},"
+            + " maxSendLatencyMicros={}",
+        openedSendQueues.size(),
+        depth,
+        maxDepth,
+        highWaterCount,
+        shedCount,
+        sentCount,
+        failedCount,
+        sentCount == 0 ? 0 : totalSendLatencyMicros / sentCount,
+        maxSendLatencyMicros);
+  }
+
+  /**
+   * Forwards a deserialized message to the node, after having handled the opening or the closing of
+   * the session when the connection is multiplexed.
+   *
+   * @param message The incoming message.
+   * @param isBinary true if the message was received in a binary frame.
+   * @param session The server session.
+   */
+  private void forwardMessage(MessageDto message, boolean isBinary, Session session) {
+
+    MessageDtoListener listener = messageListener;
+    if (listener != null) {
+      listener.onMessageReceived(message, isBinary);
+    }
+
+    if (SessionMultiplexing.isMultiplexed(session)) {
+      String sessionId = message.getSessionId();
+      Set<String> sessionIds = SessionMultiplexing.getSessionIds(session);
+      if (SessionMultiplexing.isCloseSessionMessage(message)) {
+        // Emulates the closing of the session.
+        if (sessionIds.remove(sessionId)) {
+          sendQueues.remove(sessionId);
+          logger.trace("Server - Closed sessionId {} on multiplexed socket", sessionId);
+          getNode().onClose(sessionId);
+        }
+        return;
+      }
+      if (sessionIds.add(sessionId)) {
+        // First message of the session: associates it to the send queue of the connection.
+        sendQueues.put(sessionId, SessionMultiplexing.getSendQueue(session));
+        logger.trace(
+            "Server - Opened sessionId {} on multiplexed socket {}",
+            sessionId,
+            session.getQueryString());
+      }
+    }
+
+    // Forward the message to the node.
+    getNode().onMessage(message);
+  }
+
+  /**
+   * Unregisters the sessions carried by a closed multiplexed connection.
+   *
+   * @param session The closed connection.
+   * @return The ids of the sessions which were carried by the connection.
+   */
+  private List<String> releaseMultiplexedSessions(Session session) {
+    Set<String> sessionIds = SessionMultiplexing.getSessionIds(session);
+    List<String> releasedSessionIds = new ArrayList<String>(sessionIds);
+    sessionIds.clear();
+    for (String sessionId : releasedSessionIds) {
+      sendQueues.remove(sessionId);
+    }
+    return releasedSessionIds;
+  }
+
+  /**
+   * Closes the send queue of a connection.
+   *
+   * @param session The connection.
+   */
+  private static void closeSendQueue(Session session) {
+    SessionSendQueue sendQueue = SessionMultiplexing.getSendQueue(session);
+    if (sendQueue != null) {
+      int nbDroppedMessages = sendQueue.close();
+      logger.debug(
+          "Server - Send queue closed, {} message(s) dropped: {}", nbDroppedMessages, sendQueue);
+    }
+  }
+
+  /**
+   * Retrieves the async node associated to the remote plugin.
+   *
+   * @return A not null reference.
+   */
+  private static AsyncNodeServer getNode() {
+    return SmartCardServiceProvider.getService()
+        .getPlugin(AppServer.REMOTE_PLUGIN_NAME)
+        .getExtension(RemotePluginServer.class)
+        .getAsyncNode();
   }
 }
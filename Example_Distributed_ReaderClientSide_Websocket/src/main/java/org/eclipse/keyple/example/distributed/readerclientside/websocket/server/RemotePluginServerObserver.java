@@ -12,6 +12,7 @@
  ************************************************************************************** */
 package org.eclipse.keyple.example.distributed.readerclientside.websocket.server;
 
+import java.util.concurrent.RejectedExecutionException;
 import org.eclipse.keyple.core.service.ObservablePlugin;
 import org.eclipse.keyple.core.service.PluginEvent;
 import org.eclipse.keyple.core.service.SmartCardServiceProvider;
@@ -30,12 +31,36 @@
 /**
  * Example of a {@link RemotePluginServer} observer.
  *
- * <p>It contains the business logic of the remote service execution.
+ * <p>It contains the business logic of the remote service execution, which is run by a {@link
+ * RemoteServiceDispatcher} so that the thread notifying the events is not blocked by the card
+ * sessions.
  */
 public class RemotePluginServerObserver implements PluginObserverSpi {
 
   private static final Logger logger = LoggerFactory.getLogger(RemotePluginServerObserver.class);
 
+  private final RemoteServiceDispatcher dispatcher;
+  private volatile CardImageCache cardImageCache;
+
+  /**
+   * Constructor.
+   *
+   * @param dispatcher The dispatcher executing the remote services.
+   */
+  public RemotePluginServerObserver(RemoteServiceDispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+  }
+
+  /**
+   * Sets the cache of the records read in free mode, used to skip the reading of the files of the
+   * cards handled recently.
+   *
+   * @param cardImageCache The cache, null to read the files from the card at each transaction.
+   */
+  public void setCardImageCache(CardImageCache cardImageCache) {
+    this.cardImageCache = cardImageCache;
+  }
+
   /** {@inheritDoc} */
   @Override
   public void onPluginEvent(PluginEvent event) {
@@ -51,31 +76,59 @@ public void onPluginEvent(PluginEvent event) {
     // Retrieves the remote plugin using the plugin name contains in the event.
     ObservablePlugin plugin =
         (ObservablePlugin) SmartCardServiceProvider.getService().getPlugin(event.getPluginName());
-    RemotePluginServer pluginExtension = plugin.getExtension(RemotePluginServer.class);
+    final RemotePluginServer pluginExtension = plugin.getExtension(RemotePluginServer.class);
 
     // Retrieves the name of the remote reader using the first reader name contains in the event.
     // Note that for a RemotePluginServer, there can be only one reader per event.
-    String readerName = event.getReaderNames().first();
+    final String readerName = event.getReaderNames().first();
 
-    // Retrieves the remote reader from the plugin using the reader name.
-    RemoteReaderServer readerExtension =
+    // Retrieves the remote reader extension from the plugin using the reader name.
+    final RemoteReaderServer readerExtension =
         plugin.getReaderExtension(RemoteReaderServer.class, readerName);
 
     // Analyses the Service ID contains in the reader to find which business service to execute.
     // The Service ID was specified by the client when executing the remote service.
-    Object userOutputData;
-    if ("EXECUTE_CALYPSO_SESSION_FROM_REMOTE_SELECTION".equals(readerExtension.getServiceId())) {
-
-      // Executes the business service using the remote reader.
-      CardReader reader = plugin.getReader(readerName);
-      userOutputData = executeCalypsoSessionFromRemoteSelection(reader, readerExtension);
-
-    } else {
+    String serviceId = readerExtension.getServiceId();
+    if (!"EXECUTE_CALYPSO_SESSION_FROM_REMOTE_SELECTION".equals(serviceId)) {
       throw new IllegalArgumentException("Service ID not recognized");
     }
 
-    // Terminates the business service by providing the reader name and the optional output data.
-    pluginExtension.endRemoteService(readerName, userOutputData);
+    // Executes the business service using the remote reader on a worker thread.
+    // If the execution cannot be started, the remote service is terminated immediately.
+    final CardReader reader = plugin.getReader(readerName);
+    Runnable abortTask =
+        new Runnable() {
+          @Override
+          public void run() {
+            pluginExtension.endRemoteService(
+                readerName, createUnsuccessfulOutputData(readerExtension));
+          }
+        };
+    try {
+      dispatcher.dispatch(
+          serviceId,
+          new Runnable() {
+            @Override
+            public void run() {
+              Object userOutputData;
+              try {
+                userOutputData = executeCalypsoSessionFromRemoteSelection(reader, readerExtension);
+              } catch (RuntimeException e) {
+                logger.error("Remote service failed on reader {}", readerName, e);
+                userOutputData = createUnsuccessfulOutputData(readerExtension);
+              }
+
+              // Terminates the business service by providing the reader name and the optional
+              // output data.
+              pluginExtension.endRemoteService(readerName, userOutputData);
+            }
+          },
+          abortTask);
+    } catch (RejectedExecutionException e) {
+      // The server is overloaded.
+      logger.warn("Remote service rejected on reader {}: {}", readerName, e.getMessage());
+      abortTask.run();
+    }
   }
 
   /**
@@ -89,6 +142,8 @@ public void onPluginEvent(PluginEvent event) {
    *   <li>Read the content of event log file.
    * </ol>
    *
+   * <p>With a card image cache, the files already read recently from the card are not read again.
+   *
    * @param reader The remote reader on where to execute the business logic.
    * @param readerExtension The reader extension.
    * @return a nullable reference to the user output data to transmit to the client.
@@ -100,6 +155,21 @@ private Object executeCalypsoSessionFromRemoteSelection(
     // service.
     InputDataDto userInputData = readerExtension.getInputData(InputDataDto.class);
 
+    CardImageCache cache = cardImageCache;
+    if (cache != null) {
+      // Performs a remote explicit selection, then reads only the records not cached.
+      CardSelectionResult cardSelectionResult =
+          CalypsoTicketingServiceUtil.getCardSelectionWithoutRead()
+              .processCardSelectionScenario(reader);
+      CalypsoCard calypsoCard = (CalypsoCard) cardSelectionResult.getActiveSmartCard();
+      try {
+        CalypsoTicketingServiceUtil.readEventLog(calypsoCard, reader, cache);
+        return new OutputDataDto().setUserId(userInputData.getUserId()).setSuccessful(true);
+      } catch (Exception e) {
+        return new OutputDataDto().setUserId(userInputData.getUserId()).setSuccessful(false);
+      }
+    }
+
     // Performs a remote explicit selection.
     CardSelectionManager cardSelectionManager = CalypsoTicketingServiceUtil.getCardSelection();
     CardSelectionResult cardSelectionResult =
@@ -118,4 +188,15 @@ private Object executeCalypsoSessionFromRemoteSelection(
       return new OutputDataDto().setUserId(userInputData.getUserId()).setSuccessful(false);
     }
   }
+
+  /**
+   * Creates the user output data of a remote service which could not be executed.
+   *
+   * @param readerExtension The reader extension.
+   * @return An unsuccessful transaction result.
+   */
+  private static OutputDataDto createUnsuccessfulOutputData(RemoteReaderServer readerExtension) {
+    InputDataDto userInputData = readerExtension.getInputData(InputDataDto.class);
+    return new OutputDataDto().setUserId(userInputData.getUserId()).setSuccessful(false);
+  }
 }
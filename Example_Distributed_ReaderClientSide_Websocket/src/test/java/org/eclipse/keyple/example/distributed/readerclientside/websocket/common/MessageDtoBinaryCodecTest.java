@@ -0,0 +1,134 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.websocket.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import org.eclipse.keyple.core.util.json.JsonUtil;
+import org.eclipse.keyple.distributed.MessageDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+class MessageDtoBinaryCodecTest {
+
+  // Body of a card response, with APDUs of various lengths.
+  private static final String CARD_RESPONSE_BODY =
+      "{\"coreApiLevel\":2,\"service\":\"TRANSMIT_CARD_REQUEST\",\"result\":{\"apduResponses\":"
+          + "[{\"apdu\":\"0308D1810030791D00112233445566778899AABBCCDDEEFF00112233445566778899AABBCC"
+          + "9000\",\"statusWord\":36864},{\"apdu\":\"6A82\",\"statusWord\":27266}],"
+          + "\"isLogicalChannelOpen\":true}}";
+
+  @Test
+  void encode_decode_whenBodyContainsHexStrings_shouldRoundTripInFewerBytesThanJson() {
+    MessageDto message = createMessage(CARD_RESPONSE_BODY);
+
+    ByteBuffer binary = MessageDtoBinaryCodec.encode(message);
+    int binarySize = binary.remaining();
+    MessageDto result = MessageDtoBinaryCodec.decode(binary);
+
+    assertMessageEquals(message, result);
+    assertTrue(
+        binarySize
+            < JsonUtil.getParser().toJson(message).getBytes(Charset.forName("UTF-8")).length);
+  }
+
+  @Test
+  void encode_decode_whenHexStringsAreNotEncodable_shouldRestoreThemAsText() {
+    // Lowercase, odd length and too short hexadecimal strings, non-ASCII characters.
+    MessageDto message =
+        createMessage(
+            "{\"a\":\"00112233aabbccdd\",\"b\":\"001122334\",\"c\":\"9000\",\"d\":\"é€\"}");
+
+    MessageDto result = MessageDtoBinaryCodec.decode(MessageDtoBinaryCodec.encode(message));
+
+    assertMessageEquals(message, result);
+  }
+
+  @Test
+  void encode_decode_whenFieldsAreNull_shouldRoundTrip() {
+    MessageDto message = new MessageDto().setApiLevel(3).setAction("END_REMOTE_SERVICE");
+
+    MessageDto result = MessageDtoBinaryCodec.decode(MessageDtoBinaryCodec.encode(message));
+
+    assertMessageEquals(message, result);
+  }
+
+  @Test
+  void encode_decode_shouldRestoreTheSameMessageAsTheJsonSerializer() {
+    MessageDto message = createMessage(CARD_RESPONSE_BODY);
+
+    MessageDto jsonResult =
+        MessageDtoJsonSerializer.fromJson(MessageDtoJsonSerializer.toJson(message));
+    MessageDto binaryResult = MessageDtoBinaryCodec.decode(MessageDtoBinaryCodec.encode(message));
+
+    assertMessageEquals(jsonResult, binaryResult);
+  }
+
+  @Test
+  void decode_whenFormatVersionIsUnknown_shouldThrowIAE() {
+    final ByteBuffer binary = MessageDtoBinaryCodec.encode(createMessage(CARD_RESPONSE_BODY));
+    binary.put(binary.position(), (byte) 99);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        new Executable() {
+          @Override
+          public void execute() {
+            MessageDtoBinaryCodec.decode(binary);
+          }
+        });
+  }
+
+  @Test
+  void decode_whenMessageIsTruncated_shouldThrowIAE() {
+    ByteBuffer binary = MessageDtoBinaryCodec.encode(createMessage(CARD_RESPONSE_BODY));
+    final ByteBuffer truncated =
+        ByteBuffer.wrap(binary.array(), binary.position(), binary.remaining() - 10);
+
+    assertThrows(
+        IllegalArgumentException.class,
+        new Executable() {
+          @Override
+          public void execute() {
+            MessageDtoBinaryCodec.decode(truncated);
+          }
+        });
+  }
+
+  private static MessageDto createMessage(String body) {
+    return new MessageDto()
+        .setApiLevel(3)
+        .setSessionId("a0b7b8a8-4b8f-4a5f-8c7e-5a9cbbf1f7d2")
+        .setAction("RESP")
+        .setClientNodeId("6a2dbb8c-1b5f-4e4d-9d4f-0c3b3f2f7a11")
+        .setServerNodeId("c3a4e1f2-7d8b-4b3a-9f1e-2d6c5b4a3f21")
+        .setLocalReaderName("stubReader")
+        .setRemoteReaderName("8e3b4c2a-5f1d-4a6b-9c7e-1d2f3a4b5c6d")
+        .setBody(body);
+  }
+
+  private static void assertMessageEquals(MessageDto expected, MessageDto actual) {
+    assertEquals(expected.getApiLevel(), actual.getApiLevel());
+    assertEquals(expected.getSessionId(), actual.getSessionId());
+    assertEquals(expected.getAction(), actual.getAction());
+    assertEquals(expected.getClientNodeId(), actual.getClientNodeId());
+    assertEquals(expected.getServerNodeId(), actual.getServerNodeId());
+    assertEquals(expected.getLocalReaderName(), actual.getLocalReaderName());
+    assertEquals(expected.getRemoteReaderName(), actual.getRemoteReaderName());
+    assertEquals(expected.getBody(), actual.getBody());
+  }
+}
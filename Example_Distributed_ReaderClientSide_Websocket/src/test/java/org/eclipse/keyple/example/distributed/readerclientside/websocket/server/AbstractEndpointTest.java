@@ -0,0 +1,138 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.websocket.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.inject.Inject;
+import org.eclipse.keyple.core.service.SmartCardService;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.distributed.MessageDto;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.client.AppClient;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.client.EndpointClient;
+import org.eclipse.keyple.example.distributed.readerclientside.websocket.common.MessageDtoListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+/**
+ * Executes the remote service of the example through the real {@link EndpointClient} and {@link
+ * EndpointServer}, recording the messages exchanged by each of them.
+ *
+ * <p>The Keyple components are registered before each test and unregistered after it, the smart
+ * card service outliving the Quarkus applications started for the different test profiles.
+ */
+abstract class AbstractEndpointTest {
+
+  @Inject AppServer appServer;
+
+  @Inject AppClient appClient;
+
+  @Inject EndpointServer endpointServer;
+
+  @Inject EndpointClient endpointClient;
+
+  final MessageRecorder serverRecorder = new MessageRecorder();
+  final MessageRecorder clientRecorder = new MessageRecorder();
+
+  @BeforeEach
+  void setUp() {
+    appServer.init();
+    appClient.init();
+    endpointServer.setMessageListener(serverRecorder);
+    endpointClient.setMessageListener(clientRecorder);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    endpointServer.setMessageListener(null);
+    endpointClient.setMessageListener(null);
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+    smartCardService.unregisterDistributedLocalService(AppClient.LOCAL_SERVICE_NAME);
+    for (String pluginName : new ArrayList<String>(smartCardService.getPluginNames())) {
+      smartCardService.unregisterPlugin(pluginName);
+    }
+    appServer.getRemoteServiceDispatcher().shutdown(1000);
+  }
+
+  /**
+   * Executes the remote service and checks that the messages sent by each endpoint have been
+   * received and decoded identically by the other one, all in the expected type of frame.
+   *
+   * @param isBinary true if binary frames are expected, false if text frames are expected.
+   */
+  void executeScenarioAndCheckExchanges(boolean isBinary) {
+
+    assertTrue(appClient.launchScenario());
+
+    assertFalse(clientRecorder.sentMessages.isEmpty());
+    assertFalse(serverRecorder.sentMessages.isEmpty());
+    assertFrames(isBinary, clientRecorder.sentFrameTypes);
+    assertFrames(isBinary, clientRecorder.receivedFrameTypes);
+    assertFrames(isBinary, serverRecorder.sentFrameTypes);
+    assertFrames(isBinary, serverRecorder.receivedFrameTypes);
+    assertMessagesEqual(clientRecorder.sentMessages, serverRecorder.receivedMessages);
+    assertMessagesEqual(serverRecorder.sentMessages, clientRecorder.receivedMessages);
+  }
+
+  private static void assertFrames(boolean isBinary, List<Boolean> frameTypes) {
+    for (Boolean frameType : frameTypes) {
+      assertEquals(isBinary, frameType);
+    }
+  }
+
+  private static void assertMessagesEqual(List<MessageDto> expected, List<MessageDto> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      MessageDto expectedMessage = expected.get(i);
+      MessageDto actualMessage = actual.get(i);
+      assertEquals(expectedMessage.getApiLevel(), actualMessage.getApiLevel());
+      assertEquals(expectedMessage.getSessionId(), actualMessage.getSessionId());
+      assertEquals(expectedMessage.getAction(), actualMessage.getAction());
+      assertEquals(expectedMessage.getClientNodeId(), actualMessage.getClientNodeId());
+      assertEquals(expectedMessage.getServerNodeId(), actualMessage.getServerNodeId());
+      assertEquals(expectedMessage.getLocalReaderName(), actualMessage.getLocalReaderName());
+      assertEquals(expectedMessage.getRemoteReaderName(), actualMessage.getRemoteReaderName());
+      assertEquals(expectedMessage.getBody(), actualMessage.getBody());
+    }
+  }
+
+  /** Records the messages exchanged by an endpoint, in their order of emission or reception. */
+  static final class MessageRecorder implements MessageDtoListener {
+
+    private final List<MessageDto> sentMessages =
+        Collections.synchronizedList(new ArrayList<MessageDto>());
+    private final List<Boolean> sentFrameTypes =
+        Collections.synchronizedList(new ArrayList<Boolean>());
+    private final List<MessageDto> receivedMessages =
+        Collections.synchronizedList(new ArrayList<MessageDto>());
+    private final List<Boolean> receivedFrameTypes =
+        Collections.synchronizedList(new ArrayList<Boolean>());
+
+    @Override
+    public void onMessageSent(MessageDto messageDto, boolean isBinary) {
+      sentMessages.add(messageDto);
+      sentFrameTypes.add(isBinary);
+    }
+
+    @Override
+    public void onMessageReceived(MessageDto messageDto, boolean isBinary) {
+      receivedMessages.add(messageDto);
+      receivedFrameTypes.add(isBinary);
+    }
+  }
+}
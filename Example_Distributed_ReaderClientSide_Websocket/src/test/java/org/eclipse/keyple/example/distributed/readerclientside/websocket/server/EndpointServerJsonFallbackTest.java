@@ -0,0 +1,39 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.distributed.readerclientside.websocket.server;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@TestProfile(EndpointServerJsonFallbackTest.JsonFallbackProfile.class)
+class EndpointServerJsonFallbackTest extends AbstractEndpointTest {
+
+  @Test
+  void executeRemoteService_whenBinarySubprotocolIsNotProposed_shouldExchangeJsonTextFrames() {
+    executeScenarioAndCheckExchanges(false);
+  }
+
+  /** Configures the client so that it does not propose the binary sub-protocol. */
+  public static class JsonFallbackProfile implements QuarkusTestProfile {
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+      return Collections.singletonMap("keyple.websocket.client.binary-codec", "false");
+    }
+  }
+}
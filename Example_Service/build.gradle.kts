@@ -24,7 +24,9 @@ dependencies {
   implementation("org.eclipse.keyple:keyple-service-java-lib")
   implementation("org.eclipse.keyple:keyple-card-generic-java-lib")
   implementation("org.eclipse.keyple:keyple-plugin-pcsc-java-lib")
+  implementation("org.eclipse.keyple:keyple-plugin-stub-java-lib")
   // End Keyple configuration
+  implementation("org.eclipse.keypop:keypop-card-java-api")
   implementation("org.slf4j:slf4j-simple:1.7.32")
 }
 
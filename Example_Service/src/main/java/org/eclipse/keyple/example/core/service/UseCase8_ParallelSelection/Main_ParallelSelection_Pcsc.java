@@ -0,0 +1,154 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.core.service.UseCase8_ParallelSelection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.eclipse.keyple.card.generic.GenericExtensionService;
+import org.eclipse.keyple.core.service.*;
+import org.eclipse.keyple.example.core.service.common.ConfigurationUtil;
+import org.eclipse.keyple.plugin.pcsc.PcscCardCommunicationProtocol;
+import org.eclipse.keyple.plugin.pcsc.PcscPluginFactoryBuilder;
+import org.eclipse.keyple.plugin.pcsc.PcscReader;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.ConfigurableCardReader;
+import org.eclipse.keypop.reader.ReaderApiFactory;
+import org.eclipse.keypop.reader.selection.CardSelectionManager;
+import org.eclipse.keypop.reader.selection.IsoCardSelector;
+import org.eclipse.keypop.reader.selection.spi.SmartCard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ *
+ * <h1>Use Case Generic 8 – Parallel selection on several readers (PC/SC)</h1>
+ *
+ * <p>We present here an AID based selection run in parallel on all the contactless readers of the
+ * host, e.g. the readers of a kiosk, with the {@link ParallelCardSelectionDispatcher}. The first
+ * card having an application whose DF Name starts with the provided AID is selected, the selections
+ * of the other readers being cancelled.
+ *
+ * <h2>Scenario:</h2>
+ *
+ * <ul>
+ *   <li>Get all the contactless readers, present a card in one or more of them.
+ *   <li>Run a selection scenario with the DF Name filter (here the Keyple AID prefix) on all the
+ *       readers in the first match mode.
+ *   <li>Output the reader and the collected smart card data (power-on data) of the first match.
+ * </ul>
+ *
+ * All results are logged with slf4j.
+ *
+ * <p>Any unexpected behavior will result in runtime exceptions.
+ *
+ * @since 2.0.0
+ */
+public class Main_ParallelSelection_Pcsc {
+  private static final Logger logger = LoggerFactory.getLogger(Main_ParallelSelection_Pcsc.class);
+
+  public static void main(String[] args) {
+
+    // Get the instance of the SmartCardService (singleton pattern)
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+
+    // Register the PcscPlugin with the SmartCardService, get the corresponding generic plugin in
+    // return.
+    Plugin plugin = smartCardService.registerPlugin(PcscPluginFactoryBuilder.builder().build());
+
+    // Get the generic card extension service
+    GenericExtensionService genericCardService = GenericExtensionService.getInstance();
+
+    // Verify that the extension's API level is consistent with the current service.
+    smartCardService.checkCardExtension(genericCardService);
+
+    // Get all the contactless readers whose name matches the provided regex and configure them
+    // with parameters suitable for contactless operations.
+    List<CardReader> cardReaders = new ArrayList<CardReader>();
+    for (CardReader cardReader : plugin.getReaders()) {
+      if (cardReader.getName().matches(ConfigurationUtil.CONTACTLESS_READER_NAME_REGEX)) {
+        plugin
+            .getReaderExtension(PcscReader.class, cardReader.getName())
+            .setContactless(true)
+            .setIsoProtocol(PcscReader.IsoProtocol.T1)
+            .setSharingMode(PcscReader.SharingMode.SHARED);
+        ((ConfigurableCardReader) cardReader)
+            .activateProtocol(
+                PcscCardCommunicationProtocol.ISO_14443_4.name(),
+                ConfigurationUtil.ISO_CARD_PROTOCOL);
+        cardReaders.add(cardReader);
+      }
+    }
+    if (cardReaders.isEmpty()) {
+      throw new IllegalStateException("No contactless reader found.");
+    }
+
+    logger.info("=============== UseCase Generic #8: parallel selection ==================");
+
+    logger.info(
+        "= #### Select the first card whose DF Name matches '{}' in {} readers.",
+        ConfigurationUtil.AID_KEYPLE_PREFIX,
+        cardReaders.size());
+
+    ReaderApiFactory readerApiFactory = smartCardService.getReaderApiFactory();
+    // Get the core card selection manager.
+    CardSelectionManager cardSelectionManager = readerApiFactory.createCardSelectionManager();
+
+    // Create a card selection using the generic card extension with a DF Name filter.
+    IsoCardSelector cardSelector =
+        readerApiFactory
+            .createIsoCardSelector()
+            .filterByDfName(ConfigurationUtil.AID_KEYPLE_PREFIX);
+
+    // Prepare the selection by adding the created generic selection to the card selection scenario.
+    cardSelectionManager.prepareSelection(
+        cardSelector,
+        genericCardService.getGenericCardApiFactory().createGenericCardSelectionExtension());
+
+    // The channel is kept open after the selection: the winning reader keeps it for the
+    // transaction, the dispatcher releases the one of any other reader in which a card was
+    // selected.
+
+    // One thread per reader, so that the selections are actually run in parallel.
+    ExecutorService executorService = Executors.newFixedThreadPool(cardReaders.size());
+    ParallelCardSelectionDispatcher dispatcher =
+        new ParallelCardSelectionDispatcher(
+            readerApiFactory, cardSelectionManager, executorService);
+
+    // Actual card communication: run the selection scenario on all the readers.
+    ParallelCardSelectionDispatcher.SelectionDispatch selectionDispatch =
+        dispatcher.dispatchFirstMatch(cardReaders);
+
+    // Check the selection result.
+    CardReader cardReader = selectionDispatch.getFirstMatch().join();
+    if (cardReader == null) {
+      logger.error("The selection of the card failed in all the readers.");
+      System.exit(0);
+    }
+
+    // Get the SmartCard resulting of the selection.
+    SmartCard smartCard =
+        selectionDispatch.getSelectionResults().get(cardReader).join().getActiveSmartCard();
+
+    logger.info("= Reader = {}", cardReader.getName());
+    logger.info("= SmartCard = {}", smartCard);
+
+    executorService.shutdown();
+
+    logger.info("= #### End of the generic card processing.");
+
+    System.exit(0);
+  }
+}
@@ -0,0 +1,203 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.core.service.UseCase8_ParallelSelection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.eclipse.keyple.card.generic.GenericExtensionService;
+import org.eclipse.keyple.core.service.*;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.example.core.service.common.ConfigurationUtil;
+import org.eclipse.keyple.plugin.stub.StubPluginFactoryBuilder;
+import org.eclipse.keyple.plugin.stub.StubSmartCard;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.ReaderApiFactory;
+import org.eclipse.keypop.reader.selection.CardSelectionManager;
+import org.eclipse.keypop.reader.selection.CardSelectionResult;
+import org.eclipse.keypop.reader.selection.IsoCardSelector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ *
+ * <h1>Use Case Generic 8 – Parallel selection on several readers (Stub)</h1>
+ *
+ * <p>We present here an AID based selection run in parallel on the four readers of a simulated
+ * kiosk with the {@link ParallelCardSelectionDispatcher}: the first reader is empty, the second one
+ * holds a card without the expected application and the last two ones hold a card with the expected
+ * application.
+ *
+ * <h2>Scenario:</h2>
+ *
+ * <ul>
+ *   <li>Prepare a selection scenario with the DF Name filter (here the Keyple AID prefix).
+ *   <li>Run the scenario on all the readers and output the result of each reader.
+ *   <li>Run the scenario again in the first match mode and output the reader of the selected card
+ *       and the outcome of the other readers.
+ * </ul>
+ *
+ * All results are logged with slf4j.
+ *
+ * <p>Any unexpected behavior will result in runtime exceptions.
+ *
+ * @since 2.0.0
+ */
+public class Main_ParallelSelection_Stub {
+  private static final Logger logger = LoggerFactory.getLogger(Main_ParallelSelection_Stub.class);
+
+  private static final String READER_NAME_PREFIX = "Stub reader ";
+  private static final int NB_READERS = 4;
+
+  public static void main(String[] args) {
+
+    // Get the instance of the SmartCardService (singleton pattern)
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+
+    // Register the StubPlugin with the SmartCardService, plug in the readers of the kiosk.
+    Plugin plugin =
+        smartCardService.registerPlugin(
+            StubPluginFactoryBuilder.builder()
+                .withStubReader(READER_NAME_PREFIX + 1, true, null)
+                .withStubReader(READER_NAME_PREFIX + 2, true, createStubCard(null))
+                .withStubReader(READER_NAME_PREFIX + 3, true, createStubCard("4943413131"))
+                .withStubReader(READER_NAME_PREFIX + 4, true, createStubCard("4943413232"))
+                .build());
+
+    // Get the generic card extension service
+    GenericExtensionService genericCardService = GenericExtensionService.getInstance();
+
+    // Verify that the extension's API level is consistent with the current service.
+    smartCardService.checkCardExtension(genericCardService);
+
+    List<CardReader> cardReaders = new ArrayList<CardReader>(NB_READERS);
+    for (int i = 1; i <= NB_READERS; i++) {
+      cardReaders.add(plugin.getReader(READER_NAME_PREFIX + i));
+    }
+
+    logger.info("=============== UseCase Generic #8: parallel selection ==================");
+
+    ReaderApiFactory readerApiFactory = smartCardService.getReaderApiFactory();
+    // Get the core card selection manager.
+    CardSelectionManager cardSelectionManager = readerApiFactory.createCardSelectionManager();
+
+    // Create a card selection using the generic card extension with a DF Name filter.
+    IsoCardSelector cardSelector =
+        readerApiFactory
+            .createIsoCardSelector()
+            .filterByDfName(ConfigurationUtil.AID_KEYPLE_PREFIX);
+
+    // Prepare the selection by adding the created generic selection to the card selection scenario.
+    cardSelectionManager.prepareSelection(
+        cardSelector,
+        genericCardService.getGenericCardApiFactory().createGenericCardSelectionExtension());
+
+    // close the channel after the selection
+    cardSelectionManager.prepareReleaseChannel();
+
+    // One thread per reader, so that the selections are actually run in parallel.
+    ExecutorService executorService = Executors.newFixedThreadPool(NB_READERS);
+    ParallelCardSelectionDispatcher dispatcher =
+        new ParallelCardSelectionDispatcher(
+            readerApiFactory, cardSelectionManager, executorService);
+
+    logger.info(
+        "= #### Select the cards whose DF Name matches '{}' in all the readers.",
+        ConfigurationUtil.AID_KEYPLE_PREFIX);
+
+    ParallelCardSelectionDispatcher.SelectionDispatch selectionDispatch =
+        dispatcher.dispatch(cardReaders);
+    logSelectionResults(selectionDispatch);
+
+    logger.info(
+        "= #### Select the first card whose DF Name matches '{}' in any reader.",
+        ConfigurationUtil.AID_KEYPLE_PREFIX);
+
+    selectionDispatch = dispatcher.dispatchFirstMatch(cardReaders);
+    CardReader firstMatchingReader = selectionDispatch.getFirstMatch().join();
+    if (firstMatchingReader == null) {
+      throw new IllegalStateException("No card has been selected.");
+    }
+    logger.info("= First match in reader '{}'.", firstMatchingReader.getName());
+    logSelectionResults(selectionDispatch);
+
+    executorService.shutdown();
+
+    logger.info("= #### End of the generic card processing.");
+
+    System.exit(0);
+  }
+
+  /**
+   * Waits for the selection of each reader and logs its outcome.
+   *
+   * @param selectionDispatch The dispatched selections.
+   */
+  private static void logSelectionResults(
+      ParallelCardSelectionDispatcher.SelectionDispatch selectionDispatch) {
+    for (Map.Entry<CardReader, CompletableFuture<CardSelectionResult>> entry :
+        selectionDispatch.getSelectionResults().entrySet()) {
+      String readerName = entry.getKey().getName();
+      try {
+        CardSelectionResult selectionResult = entry.getValue().join();
+        if (selectionResult.getActiveSmartCard() != null) {
+          logger.info("= {}: SmartCard = {}", readerName, selectionResult.getActiveSmartCard());
+        } else {
+          logger.info("= {}: the card does not match the selection.", readerName);
+        }
+      } catch (CancellationException e) {
+        logger.info("= {}: selection cancelled, another reader matched first.", readerName);
+      } catch (CompletionException e) {
+        logger.info("= {}: selection failed: {}", readerName, e.getCause().getMessage());
+      }
+    }
+  }
+
+  /**
+   * Creates a Stub card answering the selection of an application whose DF Name starts with the
+   * Keyple AID prefix.
+   *
+   * @param dfNameSuffix The end of the DF Name of the application, null for a card without the
+   *     application.
+   * @return A new instance.
+   */
+  private static StubSmartCard createStubCard(String dfNameSuffix) {
+    String selectApplicationResponse;
+    if (dfNameSuffix != null) {
+      String dfName = ConfigurationUtil.AID_KEYPLE_PREFIX + dfNameSuffix;
+      String dfNameTlv = "84" + HexUtil.toHex((byte) (dfName.length() / 2)) + dfName;
+      selectApplicationResponse =
+          "6F" + HexUtil.toHex((byte) (dfNameTlv.length() / 2)) + dfNameTlv + "9000";
+    } else {
+      // file not found
+      selectApplicationResponse = "6A82";
+    }
+    return StubSmartCard.builder()
+        .withPowerOnData(HexUtil.toByteArray("3B8880010000000000718100F9"))
+        .withProtocol(ConfigurationUtil.ISO_CARD_PROTOCOL)
+        // select application
+        .withSimulatedCommand(
+            "00A40400"
+                + HexUtil.toHex((byte) (ConfigurationUtil.AID_KEYPLE_PREFIX.length() / 2))
+                + ConfigurationUtil.AID_KEYPLE_PREFIX
+                + "00",
+            selectApplicationResponse)
+        .build();
+  }
+}
@@ -0,0 +1,263 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.core.service.UseCase8_ParallelSelection;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import org.eclipse.keypop.card.ProxyReaderApi;
+import org.eclipse.keypop.card.ReaderBrokenCommunicationException;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.ReaderApiFactory;
+import org.eclipse.keypop.reader.selection.CardSelectionManager;
+import org.eclipse.keypop.reader.selection.CardSelectionResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the same card selection scenario on several readers in parallel, e.g. on the contactless
+ * readers of a kiosk, and provides a {@link CompletableFuture} of the selection result of each
+ * reader.
+ *
+ * <p>The scenario is prepared once on a {@link CardSelectionManager}, then exported and imported in
+ * a new card selection manager for each reader, so that the readers never share the state of a
+ * manager.
+ *
+ * <p>Two modes are available:
+ *
+ * <ul>
+ *   <li>{@link #dispatch(List)} runs the scenario on all the readers,
+ *   <li>{@link #dispatchFirstMatch(List)} cancels the selections of the other readers as soon as
+ *       one of them has selected a card (first match wins). The selections not started yet are not
+ *       run at all; the ones already in progress on a reader are completed, but their results are
+ *       discarded and, if they selected a card, the channel of their reader is released, so that
+ *       only the winning reader keeps a channel open.
+ * </ul>
+ *
+ * <p>The selection of a reader without card fails with an {@link IllegalStateException}.
+ *
+ * @since 2.0.0
+ */
+public class ParallelCardSelectionDispatcher {
+
+  private static final Logger logger =
+      LoggerFactory.getLogger(ParallelCardSelectionDispatcher.class);
+
+  private final ReaderApiFactory readerApiFactory;
+  private final String cardSelectionScenario;
+  private final Executor executor;
+
+  /**
+   * Constructor.
+   *
+   * @param readerApiFactory The factory used to create the card selection managers of the readers.
+   * @param cardSelectionManager The card selection manager holding the prepared scenario.
+   * @param executor The executor running the selections, having ideally one thread per reader.
+   * @since 2.0.0
+   */
+  public ParallelCardSelectionDispatcher(
+      ReaderApiFactory readerApiFactory,
+      CardSelectionManager cardSelectionManager,
+      Executor executor) {
+    this.readerApiFactory = readerApiFactory;
+    this.cardSelectionScenario = cardSelectionManager.exportCardSelectionScenario();
+    this.executor = executor;
+  }
+
+  /**
+   * Runs the selection scenario on all the provided readers.
+   *
+   * @param cardReaders The readers.
+   * @return A not null reference.
+   * @since 2.0.0
+   */
+  public SelectionDispatch dispatch(List<CardReader> cardReaders) {
+    return dispatch(cardReaders, false);
+  }
+
+  /**
+   * Runs the selection scenario on the provided readers until a card is selected in one of them.
+   *
+   * <p>The future of this reader completes normally and the futures of the other readers are
+   * cancelled.
+   *
+   * @param cardReaders The readers.
+   * @return A not null reference.
+   * @since 2.0.0
+   */
+  public SelectionDispatch dispatchFirstMatch(List<CardReader> cardReaders) {
+    return dispatch(cardReaders, true);
+  }
+
+  /**
+   * Submits the selections of all the readers.
+   *
+   * @param cardReaders The readers.
+   * @param isFirstMatchWins true if the selections are cancelled after the first match.
+   * @return A not null reference.
+   */
+  private SelectionDispatch dispatch(List<CardReader> cardReaders, final boolean isFirstMatchWins) {
+
+    // The first reader in which a card is selected, claimed by its selection task as soon as the
+    // selection ends, so that a selection ending later knows that it lost.
+    final AtomicReference<CardReader> winningReader = new AtomicReference<CardReader>();
+    final Map<CardReader, CompletableFuture<CardSelectionResult>> selectionResults =
+        new LinkedHashMap<CardReader, CompletableFuture<CardSelectionResult>>();
+    for (final CardReader cardReader : cardReaders) {
+      selectionResults.put(
+          cardReader,
+          CompletableFuture.supplyAsync(
+              new Supplier<CardSelectionResult>() {
+                @Override
+                public CardSelectionResult get() {
+                  CardSelectionResult cardSelectionResult =
+                      processCardSelectionScenario(cardReader);
+                  if (cardSelectionResult.getActiveSmartCard() != null
+                      && !winningReader.compareAndSet(null, cardReader)
+                      && isFirstMatchWins) {
+                    // Another reader matched first: the result is discarded.
+                    releaseChannel(cardReader);
+                  }
+                  return cardSelectionResult;
+                }
+              },
+              executor));
+    }
+
+    // The listeners are added once all the futures exist, so that the first match can cancel all
+    // the other ones; the future of a selection not started yet is skipped by the executor.
+    final CompletableFuture<CardReader> firstMatch = new CompletableFuture<CardReader>();
+    final AtomicInteger nbPendingSelections = new AtomicInteger(cardReaders.size());
+    if (cardReaders.isEmpty()) {
+      firstMatch.complete(null);
+    }
+    for (Map.Entry<CardReader, CompletableFuture<CardSelectionResult>> entry :
+        selectionResults.entrySet()) {
+      final CardReader cardReader = entry.getKey();
+      entry
+          .getValue()
+          .whenComplete(
+              new BiConsumer<CardSelectionResult, Throwable>() {
+                @Override
+                public void accept(CardSelectionResult cardSelectionResult, Throwable throwable) {
+                  if (cardSelectionResult != null
+                      && winningReader.get() == cardReader
+                      && firstMatch.complete(cardReader)
+                      && isFirstMatchWins) {
+                    for (CompletableFuture<CardSelectionResult> selectionResult :
+                        selectionResults.values()) {
+                      selectionResult.cancel(false);
+                    }
+                  }
+                  if (nbPendingSelections.decrementAndGet() == 0) {
+                    firstMatch.complete(null);
+                  }
+                }
+              });
+    }
+    return new SelectionDispatch(selectionResults, firstMatch);
+  }
+
+  /**
+   * Runs the selection scenario on a reader with its own card selection manager.
+   *
+   * @param cardReader The reader.
+   * @return A not null reference.
+   * @throws IllegalStateException If no card is present in the reader.
+   */
+  private CardSelectionResult processCardSelectionScenario(CardReader cardReader) {
+    if (!cardReader.isCardPresent()) {
+      throw new IllegalStateException(
+          "No card is present in the reader '" + cardReader.getName() + "'.");
+    }
+    CardSelectionManager cardSelectionManager = readerApiFactory.createCardSelectionManager();
+    cardSelectionManager.importCardSelectionScenario(cardSelectionScenario);
+    return cardSelectionManager.processCardSelectionScenario(cardReader);
+  }
+
+  /**
+   * Releases the channel left open by the selection of a card in a reader that lost the first
+   * match, if the scenario does not release it itself.
+   *
+   * @param cardReader The reader.
+   */
+  private static void releaseChannel(CardReader cardReader) {
+    if (!(cardReader instanceof ProxyReaderApi)) {
+      return;
+    }
+    try {
+      ((ProxyReaderApi) cardReader).releaseChannel();
+    } catch (ReaderBrokenCommunicationException e) {
+      logger.warn(
+          "Unable to release the channel of the reader '{}': {}",
+          cardReader.getName(),
+          e.getMessage());
+    }
+  }
+
+  /**
+   * The selections submitted by a dispatch.
+   *
+   * @since 2.0.0
+   */
+  public static final class SelectionDispatch {
+
+    private final Map<CardReader, CompletableFuture<CardSelectionResult>> selectionResults;
+    private final CompletableFuture<CardReader> firstMatch;
+
+    /**
+     * Constructor.
+     *
+     * @param selectionResults The futures of the selection results, by reader.
+     * @param firstMatch The future of the first matching reader.
+     */
+    private SelectionDispatch(
+        Map<CardReader, CompletableFuture<CardSelectionResult>> selectionResults,
+        CompletableFuture<CardReader> firstMatch) {
+      this.selectionResults = Collections.unmodifiableMap(selectionResults);
+      this.firstMatch = firstMatch;
+    }
+
+    /**
+     * Returns the future of the selection result of each reader, in the order of the readers.
+     *
+     * <p>A future completes exceptionally if the selection failed, e.g. when no card is present in
+     * the reader, and is cancelled if another reader matched first in the first match mode.
+     *
+     * @return A not null unmodifiable map.
+     * @since 2.0.0
+     */
+    public Map<CardReader, CompletableFuture<CardSelectionResult>> getSelectionResults() {
+      return selectionResults;
+    }
+
+    /**
+     * Returns the future of the first reader in which a card has been selected.
+     *
+     * <p>The future completes with null if no card has been selected in any reader.
+     *
+     * @return A not null reference.
+     * @since 2.0.0
+     */
+    public CompletableFuture<CardReader> getFirstMatch() {
+      return firstMatch;
+    }
+  }
+}
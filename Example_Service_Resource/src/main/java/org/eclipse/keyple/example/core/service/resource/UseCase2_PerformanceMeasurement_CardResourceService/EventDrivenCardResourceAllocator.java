@@ -0,0 +1,370 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.core.service.resource.UseCase2_PerformanceMeasurement_CardResourceService;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.eclipse.keyple.core.service.Plugin;
+import org.eclipse.keyple.core.service.resource.CardResource;
+import org.eclipse.keyple.core.service.resource.CardResourceService;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.CardReaderEvent;
+import org.eclipse.keypop.reader.ObservableCardReader;
+import org.eclipse.keypop.reader.spi.CardReaderObserverSpi;
+
+/**
+ * Event-driven allocation of the card resources, on top of a {@link CardResourceService} configured
+ * in non-blocking allocation mode.
+ *
+ * <p>In blocking allocation mode, the card resource service checks the availability of a card
+ * resource once per cycle, so that a waiting caller obtains a released card resource with a delay
+ * of up to a cycle duration. Here, the callers waiting for a card resource of a profile are parked
+ * in a FIFO queue, and exactly one of them is woken up when a card resource of this profile is
+ * released: the oldest one not already woken up.
+ *
+ * <p>When a card is inserted in one of the readers observed by the allocator (see {@link
+ * #observeReaders(Plugin)}), the oldest waiting caller of each profile is woken up, the allocator
+ * not knowing the profiles matched by the card. As the card resources may also become available
+ * without any event (e.g. released by the card resource service at the end of the usage timeout),
+ * the oldest waiting caller of each profile checks the availability once per fallback period.
+ *
+ * <p>Each profile has its own lock, so that the allocations of unrelated profiles do not wait for
+ * each other. The card resources are released to the card resource service outside of any lock, the
+ * lock of the profile only guarding the bookkeeping of its waiting callers.
+ *
+ * <p>The allocator counts the allocations, the queued allocations, the wake-ups, the wake-ups
+ * without card resource available and the timeouts.
+ */
+public class EventDrivenCardResourceAllocator {
+
+  private final CardResourceService cardResourceService;
+  private final long fallbackPeriodNanos;
+  private final CardReaderObserverSpi cardInsertionObserver;
+
+  private final ConcurrentMap<String, ProfileQueue> profileQueues =
+      new ConcurrentHashMap<String, ProfileQueue>();
+  private final Map<CardResource, ProfileQueue> allocatedProfileQueues =
+      Collections.synchronizedMap(new IdentityHashMap<CardResource, ProfileQueue>());
+
+  /**
+   * Constructor.
+   *
+   * @param cardResourceService The card resource service, configured in non-blocking allocation
+   *     mode.
+   * @param fallbackPeriodMillis The period of the availability checks of the oldest waiting caller
+   *     of each profile, in milliseconds.
+   */
+  public EventDrivenCardResourceAllocator(
+      CardResourceService cardResourceService, long fallbackPeriodMillis) {
+    this.cardResourceService = cardResourceService;
+    this.fallbackPeriodNanos = TimeUnit.MILLISECONDS.toNanos(fallbackPeriodMillis);
+    this.cardInsertionObserver = new CardInsertionObserver();
+  }
+
+  /**
+   * Wakes up the waiting callers when a card is inserted in one of the observable readers of a
+   * plugin.
+   *
+   * <p>To be called after the start of the card resource service, so that the card resource of an
+   * inserted card is created before the waiting callers are notified.
+   *
+   * @param plugin The plugin.
+   */
+  public void observeReaders(Plugin plugin) {
+    for (CardReader reader : plugin.getReaders()) {
+      if (reader instanceof ObservableCardReader) {
+        ((ObservableCardReader) reader).addObserver(cardInsertionObserver);
+      }
+    }
+  }
+
+  /**
+   * Stops waking up the waiting callers when a card is inserted in the readers of a plugin.
+   *
+   * @param plugin The plugin.
+   */
+  public void stopObservingReaders(Plugin plugin) {
+    for (CardReader reader : plugin.getReaders()) {
+      if (reader instanceof ObservableCardReader) {
+        ((ObservableCardReader) reader).removeObserver(cardInsertionObserver);
+      }
+    }
+  }
+
+  /**
+   * Returns a card resource of a profile, waiting for one to become available if needed.
+   *
+   * <p>The callers are served in arrival order: a new caller does not overtake the waiting ones.
+   *
+   * @param cardResourceProfileName The name of the card resource profile.
+   * @param timeoutMillis The maximum wait time, in milliseconds.
+   * @return Null if no card resource became available within the timeout.
+   * @throws InterruptedException If the current thread was interrupted while waiting.
+   */
+  public CardResource getCardResource(String cardResourceProfileName, long timeoutMillis)
+      throws InterruptedException {
+
+    long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    ProfileQueue profileQueue = getProfileQueue(cardResourceProfileName);
+    LinkedList<Waiter> waiters = profileQueue.waiters;
+    profileQueue.lock.lock();
+    try {
+      if (waiters.isEmpty()) {
+        CardResource cardResource = allocate(profileQueue);
+        if (cardResource != null) {
+          return cardResource;
+        }
+      }
+
+      Waiter waiter = new Waiter(profileQueue.lock.newCondition());
+      waiters.addLast(waiter);
+      profileQueue.nbQueuedAllocations++;
+      profileQueue.maxQueueLength = Math.max(profileQueue.maxQueueLength, waiters.size());
+      long nextCheckNanos = System.nanoTime() + fallbackPeriodNanos;
+      try {
+        while (true) {
+          long now = System.nanoTime();
+          boolean isCheckDue = waiters.getFirst() == waiter && now - nextCheckNanos >= 0;
+          if (waiter.isWokenUp || isCheckDue) {
+            boolean isWokenUp = waiter.isWokenUp;
+            waiter.isWokenUp = false;
+            nextCheckNanos = now + fallbackPeriodNanos;
+            CardResource cardResource = allocate(profileQueue);
+            if (cardResource != null) {
+              if (!isWokenUp) {
+                // Found by the periodic check: other card resources may be available.
+                profileQueue.wakeUpOldest(waiter);
+              }
+              return cardResource;
+            }
+            if (isWokenUp) {
+              profileQueue.nbFailedWakeUps++;
+            }
+          }
+          now = System.nanoTime();
+          if (deadlineNanos - now <= 0) {
+            profileQueue.nbTimeouts++;
+            return null;
+          }
+          long waitNanos = deadlineNanos - now;
+          if (waiters.getFirst() == waiter) {
+            waitNanos = Math.min(waitNanos, Math.max(nextCheckNanos - now, 0));
+          }
+          waiter.condition.awaitNanos(waitNanos);
+        }
+      } finally {
+        boolean wasWokenUp = waiter.isWokenUp;
+        waiters.remove(waiter);
+        if (wasWokenUp) {
+          // Timed out or interrupted while woken up: hands the wake-up over.
+          profileQueue.wakeUpOldest(null);
+        }
+        if (!waiters.isEmpty()) {
+          // The new oldest waiter takes over the periodic checks.
+          waiters.getFirst().condition.signal();
+        }
+      }
+    } finally {
+      profileQueue.lock.unlock();
+    }
+  }
+
+  /**
+   * Releases a card resource and wakes up the oldest caller waiting for a card resource of the same
+   * profile.
+   *
+   * @param cardResource The card resource provided by {@link #getCardResource(String, long)}.
+   */
+  public void releaseCardResource(CardResource cardResource) {
+    ProfileQueue profileQueue = allocatedProfileQueues.remove(cardResource);
+    // Released before the wake-up, so that the woken up caller finds it available.
+    cardResourceService.releaseCardResource(cardResource);
+    if (profileQueue != null) {
+      profileQueue.lock.lock();
+      try {
+        profileQueue.wakeUpOldest(null);
+      } finally {
+        profileQueue.lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Removes a card resource from the card resource service, e.g. after a communication failure.
+   *
+   * @param cardResource The card resource provided by {@link #getCardResource(String, long)}.
+   */
+  public void removeCardResource(CardResource cardResource) {
+    allocatedProfileQueues.remove(cardResource);
+    cardResourceService.removeCardResource(cardResource);
+  }
+
+  /** {@inheritDoc} */
+  @Override
+  public String toString() {
+    long nbAllocations = 0;
+    long nbQueuedAllocations = 0;
+    int maxQueueLength = 0;
+    long nbWakeUps = 0;
+    long nbFailedWakeUps = 0;
+    long nbTimeouts = 0;
+    for (ProfileQueue profileQueue : profileQueues.values()) {
+      profileQueue.lock.lock();
+      try {
+        nbAllocations += profileQueue.nbAllocations;
+        nbQueuedAllocations += profileQueue.nbQueuedAllocations;
+        maxQueueLength = Math.max(maxQueueLength, profileQueue.maxQueueLength);
+        nbWakeUps += profileQueue.nbWakeUps;
+        nbFailedWakeUps += profileQueue.nbFailedWakeUps;
+        nbTimeouts += profileQueue.nbTimeouts;
+      } finally {
+        profileQueue.lock.unlock();
+      }
+    }
+    return "EventDrivenCardResourceAllocator{"
+        + "nbAllocations="
+        + nbAllocations
+        + ", nbQueuedAllocations="
+        + nbQueuedAllocations
+        + ", maxQueueLength="
+        + maxQueueLength
+        + ", nbWakeUps="
+        + nbWakeUps
+        + ", nbFailedWakeUps="
+        + nbFailedWakeUps
+        + ", nbTimeouts="
+        + nbTimeouts
+        + '}';
+  }
+
+  /**
+   * Returns the queue of the callers waiting for a card resource of a profile, creating it if
+   * needed.
+   *
+   * @param cardResourceProfileName The name of the card resource profile.
+   * @return A not null reference.
+   */
+  private ProfileQueue getProfileQueue(String cardResourceProfileName) {
+    ProfileQueue profileQueue = profileQueues.get(cardResourceProfileName);
+    if (profileQueue == null) {
+      ProfileQueue newProfileQueue = new ProfileQueue(cardResourceProfileName);
+      profileQueue = profileQueues.putIfAbsent(cardResourceProfileName, newProfileQueue);
+      if (profileQueue == null) {
+        profileQueue = newProfileQueue;
+      }
+    }
+    return profileQueue;
+  }
+
+  /**
+   * Tries to allocate a card resource from the card resource service. The lock of the profile must
+   * be held, so that the waiting callers are served in arrival order.
+   *
+   * @param profileQueue The queue of the profile.
+   * @return Null if no card resource is available.
+   */
+  private CardResource allocate(ProfileQueue profileQueue) {
+    CardResource cardResource =
+        cardResourceService.getCardResource(profileQueue.cardResourceProfileName);
+    if (cardResource != null) {
+      allocatedProfileQueues.put(cardResource, profileQueue);
+      profileQueue.nbAllocations++;
+    }
+    return cardResource;
+  }
+
+  /** The callers waiting for a card resource of a profile, and the counters of the profile. */
+  private static final class ProfileQueue {
+
+    private final String cardResourceProfileName;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock.
+    private final LinkedList<Waiter> waiters = new LinkedList<Waiter>();
+    private long nbAllocations;
+    private long nbQueuedAllocations;
+    private long nbWakeUps;
+    private long nbFailedWakeUps;
+    private long nbTimeouts;
+    private int maxQueueLength;
+
+    /**
+     * Constructor.
+     *
+     * @param cardResourceProfileName The name of the card resource profile.
+     */
+    private ProfileQueue(String cardResourceProfileName) {
+      this.cardResourceProfileName = cardResourceProfileName;
+    }
+
+    /**
+     * Wakes up the oldest waiting caller not already woken up, if any. The lock must be held.
+     *
+     * @param excludedWaiter A waiter not to wake up, null if none.
+     */
+    private void wakeUpOldest(Waiter excludedWaiter) {
+      for (Waiter waiter : waiters) {
+        if (!waiter.isWokenUp && waiter != excludedWaiter) {
+          waiter.isWokenUp = true;
+          waiter.condition.signal();
+          nbWakeUps++;
+          return;
+        }
+      }
+    }
+  }
+
+  /** A caller waiting for a card resource. */
+  private static final class Waiter {
+
+    private final Condition condition;
+    private boolean isWokenUp;
+
+    /**
+     * Constructor.
+     *
+     * @param condition The condition on which the caller waits.
+     */
+    private Waiter(Condition condition) {
+      this.condition = condition;
+    }
+  }
+
+  /** Wakes up the oldest waiting caller of each profile when a card is inserted. */
+  private class CardInsertionObserver implements CardReaderObserverSpi {
+
+    /** {@inheritDoc} */
+    @Override
+    public void onReaderEvent(CardReaderEvent readerEvent) {
+      if (readerEvent.getType() != CardReaderEvent.Type.CARD_INSERTED
+          && readerEvent.getType() != CardReaderEvent.Type.CARD_MATCHED) {
+        return;
+      }
+      for (ProfileQueue profileQueue : profileQueues.values()) {
+        profileQueue.lock.lock();
+        try {
+          profileQueue.wakeUpOldest(null);
+        } finally {
+          profileQueue.lock.unlock();
+        }
+      }
+    }
+  }
+}
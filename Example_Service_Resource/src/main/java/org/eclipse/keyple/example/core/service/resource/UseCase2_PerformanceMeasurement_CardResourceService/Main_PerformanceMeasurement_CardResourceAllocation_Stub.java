@@ -0,0 +1,487 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.core.service.resource.UseCase2_PerformanceMeasurement_CardResourceService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.eclipse.keyple.card.generic.GenericExtensionService;
+import org.eclipse.keyple.core.service.Plugin;
+import org.eclipse.keyple.core.service.SmartCardService;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.core.service.resource.CardResource;
+import org.eclipse.keyple.core.service.resource.CardResourceProfileConfigurator;
+import org.eclipse.keyple.core.service.resource.CardResourceService;
+import org.eclipse.keyple.core.service.resource.CardResourceServiceConfigurator;
+import org.eclipse.keyple.core.service.resource.CardResourceServiceProvider;
+import org.eclipse.keyple.core.service.resource.PluginsConfigurator;
+import org.eclipse.keyple.core.service.resource.spi.ReaderConfiguratorSpi;
+import org.eclipse.keyple.core.service.spi.PluginObservationExceptionHandlerSpi;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.plugin.stub.StubPluginFactoryBuilder;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubSmartCard;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.ConfigurableCardReader;
+import org.eclipse.keypop.reader.spi.CardReaderObservationExceptionHandlerSpi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.impl.SimpleLogger;
+
+/**
+ *
+ *
+ * <h1>Use Case "resource service 2" – Performance measurement: polling versus event-driven card
+ * resource allocation (Stub)</h1>
+ *
+ * <p>We compare here the acquisition latency of SAM card resources under contention, with the
+ * blocking allocation mode of the card resource service and with the {@link
+ * EventDrivenCardResourceAllocator}.
+ *
+ * <h2>Scenario:</h2>
+ *
+ * <ul>
+ *   <li>A few Stub SAM readers are shared by more threads, each one taking a SAM card resource,
+ *       using it for a few milliseconds and releasing it, in a loop.
+ *   <li>Meanwhile, a SAM card is removed from time to time and inserted back shortly after.
+ *   <li>In polling mode, the card resource service is configured in blocking allocation mode with a
+ *       100 milliseconds cycle, as in the use case 1: a waiting thread checks the availability of a
+ *       SAM once per cycle.
+ *   <li>In event-driven mode, the card resource service is configured in non-blocking allocation
+ *       mode and the threads go through the {@link EventDrivenCardResourceAllocator}, which wakes
+ *       up exactly one waiting thread when a SAM is released or inserted.
+ * </ul>
+ *
+ * <p>For each mode, the program logs the allocation throughput, the mean and the percentiles of the
+ * acquisition latency, and the number of allocations timed out.
+ *
+ * <p>The numbers of SAMs and threads can be provided as first and second arguments (8 and 32 by
+ * default). The log level of the Keyple components is lowered to WARN.
+ *
+ * <p>Any unexpected behavior will result in runtime exceptions.
+ */
+public class Main_PerformanceMeasurement_CardResourceAllocation_Stub {
+  private static Logger logger;
+
+  private static final String SAM_READER_NAME_PREFIX = "SAM_READER_";
+  private static final String RESOURCE_SAM = "RESOURCE_SAM";
+  private static final String ATR_SAM = "3B3F9600805A4880C120501711AABBCC829000";
+  private static final String ATR_REGEX_SAM = "^3B3F9600805A4880C120501711[0-9A-F]{6}829000$";
+  private static final String SAM_PROTOCOL = "ISO_7816_3_T0";
+
+  private static final int DEFAULT_NB_SAMS = 8;
+  private static final int DEFAULT_NB_THREADS = 32;
+
+  private static final long DETECTION_DELAY_MILLIS = 2000;
+  private static final long WARMUP_DURATION_MILLIS = 2000;
+  private static final long MEASUREMENT_DURATION_MILLIS = 10000;
+  private static final int CYCLE_DURATION_MILLIS = 100;
+  private static final int TIMEOUT_MILLIS = 10000;
+  private static final int USAGE_TIMEOUT_MILLIS = 5000;
+  private static final long MIN_USAGE_MICROS = 2000;
+  private static final long MAX_USAGE_MICROS = 5000;
+
+  // A SAM is removed every period and inserted back after the absence duration.
+  private static final long SAM_REMOVAL_PERIOD_MILLIS = 200;
+  private static final long SAM_ABSENCE_DURATION_MILLIS = 50;
+
+  // Seed of the random choices, so that the runs are comparable.
+  private static final long SEED = 20;
+
+  public static void main(String[] args) throws InterruptedException {
+
+    // Lower the log level of the Keyple components, very verbose under load
+    System.setProperty(SimpleLogger.LOG_KEY_PREFIX + "org.eclipse.keyple.core", "warn");
+    System.setProperty(SimpleLogger.LOG_KEY_PREFIX + "org.eclipse.keyple.plugin", "warn");
+    System.setProperty(SimpleLogger.LOG_KEY_PREFIX + "org.eclipse.keyple.card", "warn");
+
+    // Create logger
+    logger = LoggerFactory.getLogger(Main_PerformanceMeasurement_CardResourceAllocation_Stub.class);
+
+    int nbSams = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NB_SAMS;
+    int nbThreads = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NB_THREADS;
+
+    logger.info(
+        "= UseCase Resource Service #2: polling versus event-driven allocation ({} SAMs, {}"
+            + " threads)",
+        nbSams,
+        nbThreads);
+
+    // Get the instance of the SmartCardService (singleton pattern)
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+
+    // Verify that the extension's API level is consistent with the current service.
+    smartCardService.checkCardExtension(GenericExtensionService.getInstance());
+
+    // Register a Stub plugin with the SAM readers.
+    StubPluginFactoryBuilder.Builder pluginFactoryBuilder = StubPluginFactoryBuilder.builder();
+    for (int i = 0; i < nbSams; i++) {
+      pluginFactoryBuilder.withStubReader(SAM_READER_NAME_PREFIX + i, false, createSam());
+    }
+    Plugin plugin = smartCardService.registerPlugin(pluginFactoryBuilder.build());
+
+    // Create the SAM card resource profile.
+    CardResourceProfileConfigurator cardResourceProfileConfigurator =
+        CardResourceProfileConfigurator.builder(
+                RESOURCE_SAM,
+                GenericExtensionService.getInstance()
+                    .createCardResourceProfileExtension(
+                        smartCardService
+                            .getReaderApiFactory()
+                            .createIsoCardSelector()
+                            .filterByPowerOnData(ATR_REGEX_SAM),
+                        GenericExtensionService.getInstance()
+                            .getGenericCardApiFactory()
+                            .createGenericCardSelectionExtension()))
+            .build();
+
+    List<String> results = new ArrayList<String>();
+    for (boolean isEventDriven : new boolean[] {false, true}) {
+      results.add(
+          measure(plugin, cardResourceProfileConfigurator, isEventDriven, nbSams, nbThreads));
+    }
+
+    logger.info("= Summary ====================================================================");
+    logger.info(
+        "        mode | alloc/s | mean (ms) | p50 (ms) | p99 (ms) | p99.9 (ms) | max (ms) |"
+            + " timeouts");
+    for (String result : results) {
+      logger.info(result);
+    }
+
+    // unregister plugin
+    smartCardService.unregisterPlugin(plugin.getName());
+
+    logger.info("Exit program.");
+  }
+
+  /**
+   * Configures and starts the card resource service for the provided mode, runs the threads and the
+   * SAM removals, then stops the service and returns the measurement summary.
+   *
+   * @param plugin The Stub plugin.
+   * @param cardResourceProfileConfigurator The SAM card resource profile.
+   * @param isEventDriven true for the event-driven mode, false for the polling mode.
+   * @param nbSams The number of SAM readers.
+   * @param nbThreads The number of threads allocating SAM card resources.
+   * @return A summary line.
+   * @throws InterruptedException If the current thread was interrupted.
+   */
+  private static String measure(
+      Plugin plugin,
+      CardResourceProfileConfigurator cardResourceProfileConfigurator,
+      boolean isEventDriven,
+      int nbSams,
+      int nbThreads)
+      throws InterruptedException {
+
+    String mode = isEventDriven ? "event-driven" : "polling";
+    logger.info("Measuring the {} mode...", mode);
+
+    CardResourceService cardResourceService = CardResourceServiceProvider.getService();
+    PluginAndReaderExceptionHandler pluginAndReaderExceptionHandler =
+        new PluginAndReaderExceptionHandler();
+    CardResourceServiceConfigurator configurator = cardResourceService.getConfigurator();
+    if (!isEventDriven) {
+      configurator.withBlockingAllocationMode(CYCLE_DURATION_MILLIS, TIMEOUT_MILLIS);
+    }
+    configurator
+        .withPlugins(
+            PluginsConfigurator.builder()
+                .addPluginWithMonitoring(
+                    plugin,
+                    new ReaderConfigurator(),
+                    pluginAndReaderExceptionHandler,
+                    pluginAndReaderExceptionHandler)
+                .withUsageTimeout(USAGE_TIMEOUT_MILLIS)
+                .build())
+        .withCardResourceProfiles(cardResourceProfileConfigurator)
+        .configure();
+    cardResourceService.start();
+
+    EventDrivenCardResourceAllocator allocator = null;
+    if (isEventDriven) {
+      allocator = new EventDrivenCardResourceAllocator(cardResourceService, CYCLE_DURATION_MILLIS);
+      allocator.observeReaders(plugin);
+    }
+
+    // sleep for a moment to let the SAMs being detected
+    Thread.sleep(DETECTION_DELAY_MILLIS);
+
+    Statistics statistics = new Statistics();
+    long measurementStart = System.currentTimeMillis() + WARMUP_DURATION_MILLIS;
+    long end = measurementStart + MEASUREMENT_DURATION_MILLIS;
+    SamRemover samRemover = new SamRemover(plugin, nbSams, end);
+    Thread samRemoverThread = new Thread(samRemover, "sam-remover");
+    samRemoverThread.start();
+    ExecutorService executorService = Executors.newFixedThreadPool(nbThreads);
+    for (int i = 0; i < nbThreads; i++) {
+      executorService.execute(
+          new Worker(cardResourceService, allocator, statistics, measurementStart, end, SEED + i));
+    }
+    executorService.shutdown();
+    executorService.awaitTermination(1, TimeUnit.MINUTES);
+    samRemoverThread.join();
+
+    if (allocator != null) {
+      allocator.stopObservingReaders(plugin);
+      logger.info("{}", allocator);
+    }
+    cardResourceService.stop();
+
+    long[] latencies = statistics.getSortedLatencies();
+    String result =
+        String.format(
+            "%12s | %7.1f | %9.2f | %8.2f | %8.2f | %10.2f | %8.2f | %8d",
+            mode,
+            latencies.length * 1000.0 / MEASUREMENT_DURATION_MILLIS,
+            getMeanMillis(latencies),
+            getPercentileMillis(latencies, 50),
+            getPercentileMillis(latencies, 99),
+            getPercentileMillis(latencies, 99.9),
+            getPercentileMillis(latencies, 100),
+            statistics.nbTimeouts.get());
+    logger.info("{}: {}", mode, result);
+    return result;
+  }
+
+  /**
+   * Creates a SAM-like Stub card.
+   *
+   * @return A new card.
+   */
+  private static StubSmartCard createSam() {
+    return StubSmartCard.builder()
+        .withPowerOnData(HexUtil.toByteArray(ATR_SAM))
+        .withProtocol(SAM_PROTOCOL)
+        .build();
+  }
+
+  /**
+   * Returns the mean of durations.
+   *
+   * @param durations The durations, in nanoseconds.
+   * @return The mean in milliseconds, 0 if there is no duration.
+   */
+  private static double getMeanMillis(long[] durations) {
+    if (durations.length == 0) {
+      return 0;
+    }
+    double sum = 0;
+    for (long duration : durations) {
+      sum += duration;
+    }
+    return sum / durations.length / 1000000.0;
+  }
+
+  /**
+   * Returns a percentile of sorted durations.
+   *
+   * @param sortedDurations The sorted durations, in nanoseconds.
+   * @param percentile The percentile, between 0 and 100.
+   * @return The duration in milliseconds, 0 if there is no duration.
+   */
+  private static double getPercentileMillis(long[] sortedDurations, double percentile) {
+    if (sortedDurations.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sortedDurations.length) - 1;
+    return sortedDurations[Math.max(index, 0)] / 1000000.0;
+  }
+
+  /** Statistics shared by all the threads of a measurement. */
+  private static class Statistics {
+
+    private long[] latencies = new long[4096];
+    private int nbLatencies;
+    private final AtomicLong nbTimeouts = new AtomicLong();
+
+    /**
+     * Records an acquisition.
+     *
+     * @param latencyNanos The acquisition latency.
+     */
+    private synchronized void record(long latencyNanos) {
+      if (nbLatencies == latencies.length) {
+        latencies = Arrays.copyOf(latencies, latencies.length * 2);
+      }
+      latencies[nbLatencies++] = latencyNanos;
+    }
+
+    private synchronized long[] getSortedLatencies() {
+      long[] sortedLatencies = Arrays.copyOf(latencies, nbLatencies);
+      Arrays.sort(sortedLatencies);
+      return sortedLatencies;
+    }
+  }
+
+  /** A thread taking a SAM card resource, using it and releasing it, in a loop. */
+  private static class Worker implements Runnable {
+
+    private final CardResourceService cardResourceService;
+    private final EventDrivenCardResourceAllocator allocator;
+    private final Statistics statistics;
+    private final long measurementStart;
+    private final long end;
+    private final Random random;
+
+    /**
+     * Constructor.
+     *
+     * @param cardResourceService The card resource service.
+     * @param allocator The event-driven allocator, null in polling mode.
+     * @param statistics The shared statistics.
+     * @param measurementStart The time from which the acquisitions are taken into account.
+     * @param end The time at which the thread stops.
+     * @param seed The seed of the random usage durations.
+     */
+    private Worker(
+        CardResourceService cardResourceService,
+        EventDrivenCardResourceAllocator allocator,
+        Statistics statistics,
+        long measurementStart,
+        long end,
+        long seed) {
+      this.cardResourceService = cardResourceService;
+      this.allocator = allocator;
+      this.statistics = statistics;
+      this.measurementStart = measurementStart;
+      this.end = end;
+      this.random = new Random(seed);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      try {
+        while (System.currentTimeMillis() < end) {
+          long start = System.nanoTime();
+          CardResource cardResource =
+              allocator != null
+                  ? allocator.getCardResource(RESOURCE_SAM, TIMEOUT_MILLIS)
+                  : cardResourceService.getCardResource(RESOURCE_SAM);
+          long latencyNanos = System.nanoTime() - start;
+          boolean isMeasured = System.currentTimeMillis() >= measurementStart;
+          if (cardResource == null) {
+            if (isMeasured) {
+              statistics.nbTimeouts.incrementAndGet();
+            }
+            continue;
+          }
+          if (isMeasured) {
+            statistics.record(latencyNanos);
+          }
+          // Use the SAM.
+          LockSupport.parkNanos(
+              TimeUnit.MICROSECONDS.toNanos(
+                  MIN_USAGE_MICROS
+                      + (long) (random.nextDouble() * (MAX_USAGE_MICROS - MIN_USAGE_MICROS))));
+          try {
+            if (allocator != null) {
+              allocator.releaseCardResource(cardResource);
+            } else {
+              cardResourceService.releaseCardResource(cardResource);
+            }
+          } catch (RuntimeException e) {
+            // The SAM may have been removed meanwhile.
+            logger.debug("Release failed: {}", e.getMessage());
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Removes a SAM from time to time and inserts it back shortly after. */
+  private static class SamRemover implements Runnable {
+
+    private final Plugin plugin;
+    private final int nbSams;
+    private final long end;
+    private final Random random = new Random(SEED);
+
+    /**
+     * Constructor.
+     *
+     * @param plugin The Stub plugin.
+     * @param nbSams The number of SAM readers.
+     * @param end The time at which the removals stop.
+     */
+    private SamRemover(Plugin plugin, int nbSams, long end) {
+      this.plugin = plugin;
+      this.nbSams = nbSams;
+      this.end = end;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      try {
+        while (System.currentTimeMillis() < end) {
+          Thread.sleep(SAM_REMOVAL_PERIOD_MILLIS - SAM_ABSENCE_DURATION_MILLIS);
+          StubReader samReader =
+              plugin.getReaderExtension(
+                  StubReader.class, SAM_READER_NAME_PREFIX + random.nextInt(nbSams));
+          samReader.removeCard();
+          Thread.sleep(SAM_ABSENCE_DURATION_MILLIS);
+          samReader.insertCard(createSam());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Reader configurator used by the card resource service to set up the SAM reader with the
+   * required settings.
+   */
+  private static class ReaderConfigurator implements ReaderConfiguratorSpi {
+
+    /** Constructor. */
+    private ReaderConfigurator() {}
+
+    /** {@inheritDoc} */
+    @Override
+    public void setupReader(CardReader reader) {
+      try {
+        ((ConfigurableCardReader) reader).activateProtocol(SAM_PROTOCOL, SAM_PROTOCOL);
+      } catch (Exception e) {
+        logger.error("Exception raised while setting up the reader {}", reader.getName(), e);
+      }
+    }
+  }
+
+  /** Class implementing the exception handler SPIs for plugin and reader monitoring. */
+  private static class PluginAndReaderExceptionHandler
+      implements PluginObservationExceptionHandlerSpi, CardReaderObservationExceptionHandlerSpi {
+
+    @Override
+    public void onPluginObservationError(String pluginName, Throwable e) {
+      logger.error("An exception occurred while monitoring the plugin '{}'.", pluginName, e);
+    }
+
+    @Override
+    public void onReaderObservationError(String pluginName, String readerName, Throwable e) {
+      logger.error(
+          "An exception occurred while monitoring the reader '{}/{}'.", pluginName, readerName, e);
+    }
+  }
+}
@@ -0,0 +1,605 @@
+/* **************************************************************************************
+ * Copyright (c) 2026 Calypso Networks Association https://calypsonet.org/
+ *
+ * See the NOTICE file(s) distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * This program and the accompanying materials are made available under the terms of the
+ * Eclipse Distribution License 1.0 which is available at
+ * https://www.eclipse.org/org/documents/edl-v10.php
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ ************************************************************************************** */
+package org.eclipse.keyple.example.core.service.resource.UseCase2_PerformanceMeasurement_CardResourceService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.eclipse.keyple.card.generic.GenericExtensionService;
+import org.eclipse.keyple.core.service.Plugin;
+import org.eclipse.keyple.core.service.SmartCardService;
+import org.eclipse.keyple.core.service.SmartCardServiceProvider;
+import org.eclipse.keyple.core.service.resource.CardResource;
+import org.eclipse.keyple.core.service.resource.CardResourceProfileConfigurator;
+import org.eclipse.keyple.core.service.resource.CardResourceService;
+import org.eclipse.keyple.core.service.resource.CardResourceServiceConfigurator;
+import org.eclipse.keyple.core.service.resource.CardResourceServiceProvider;
+import org.eclipse.keyple.core.service.resource.PluginsConfigurator;
+import org.eclipse.keyple.core.service.resource.spi.ReaderConfiguratorSpi;
+import org.eclipse.keyple.core.service.spi.PluginObservationExceptionHandlerSpi;
+import org.eclipse.keyple.core.util.HexUtil;
+import org.eclipse.keyple.plugin.stub.StubPluginFactoryBuilder;
+import org.eclipse.keyple.plugin.stub.StubReader;
+import org.eclipse.keyple.plugin.stub.StubSmartCard;
+import org.eclipse.keypop.genericcard.GenericCardSelectionExtension;
+import org.eclipse.keypop.reader.CardReader;
+import org.eclipse.keypop.reader.ConfigurableCardReader;
+import org.eclipse.keypop.reader.ReaderApiFactory;
+import org.eclipse.keypop.reader.spi.CardReaderObservationExceptionHandlerSpi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.impl.SimpleLogger;
+
+/**
+ *
+ *
+ * <h1>Use Case "resource service 2" – Performance measurement: card resource service under load
+ * (Stub)</h1>
+ *
+ * <p>We stress here the card resource service with hundreds of Stub readers, each one holding a
+ * SAM-like Stub card of one of several card types, each card type being the target of a card
+ * resource profile.
+ *
+ * <h2>Scenario:</h2>
+ *
+ * <ul>
+ *   <li>The card resource service is configured with the monitoring of the plugin and of the
+ *       readers, and one card resource profile per card type.
+ *   <li>Many threads take a card resource of a random profile with {@code getCardResource}, use it
+ *       for a short random time and release it with {@code releaseCardResource}, in a loop.
+ *   <li>Meanwhile, a chaos thread removes cards at random and inserts them back later, a part of
+ *       the cards being absent at any time.
+ *   <li>The measurement is done with the non-blocking allocation mode, then with the blocking
+ *       allocation mode ({@code withBlockingAllocationMode}).
+ * </ul>
+ *
+ * <p>For each mode, the program logs the allocation throughput, the wait time percentiles (from the
+ * first allocation attempt to the obtaining of a card resource, retries included), the number of
+ * allocation calls returning no card resource, the fairness between the threads (Jain's index and
+ * minimum/maximum number of allocations per thread) and the number of card resources found
+ * allocated to two threads at the same time, which must be zero.
+ *
+ * <p>The numbers of readers and threads can be provided as first and second arguments (240 and 64
+ * by default). The log level of the Keyple components is lowered to WARN.
+ *
+ * <p>Any unexpected behavior will result in runtime exceptions.
+ */
+public class Main_PerformanceMeasurement_CardResourceService_Stub {
+  private static Logger logger;
+
+  private static final String READER_NAME_PREFIX = "STRESS_READER_";
+  private static final String RESOURCE_NAME_PREFIX = "RESOURCE_";
+  private static final String ATR_PREFIX = "3B3F9600805A4880C1205017";
+  private static final String ATR_SUFFIX = "AABBCC829000";
+  private static final String SAM_PROTOCOL = "ISO_7816_3_T0";
+
+  private static final int NB_PROFILES = 4;
+  private static final int DEFAULT_NB_READERS = 240;
+  private static final int DEFAULT_NB_THREADS = 64;
+
+  private static final long DETECTION_DELAY_MILLIS = 2000;
+  private static final long WARMUP_DURATION_MILLIS = 2000;
+  private static final long MEASUREMENT_DURATION_MILLIS = 10000;
+  private static final int BLOCKING_CYCLE_DURATION_MILLIS = 10;
+  private static final int BLOCKING_TIMEOUT_MILLIS = 1000;
+  private static final int USAGE_TIMEOUT_MILLIS = 5000;
+  private static final long MAX_USAGE_MICROS = 2000;
+  private static final long RETRY_DELAY_MICROS = 100;
+
+  // Chaos: a card is removed every period, and the oldest removed card is inserted back as soon as
+  // more than the maximum share of the cards are absent.
+  private static final long CHAOS_PERIOD_MILLIS = 5;
+  private static final double MAX_REMOVED_CARD_SHARE = 0.1;
+
+  // Seed of the random choices, so that the runs are comparable.
+  private static final long SEED = 19;
+
+  public static void main(String[] args) throws InterruptedException {
+
+    // Lower the log level of the Keyple components, very verbose under load
+    System.setProperty(SimpleLogger.LOG_KEY_PREFIX + "org.eclipse.keyple.core", "warn");
+    System.setProperty(SimpleLogger.LOG_KEY_PREFIX + "org.eclipse.keyple.plugin", "warn");
+    System.setProperty(SimpleLogger.LOG_KEY_PREFIX + "org.eclipse.keyple.card", "warn");
+
+    // Create logger
+    logger = LoggerFactory.getLogger(Main_PerformanceMeasurement_CardResourceService_Stub.class);
+
+    int nbReaders = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NB_READERS;
+    int nbThreads = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NB_THREADS;
+
+    logger.info(
+        "= UseCase Resource Service #2: card resource service under load ({} readers, {} threads)",
+        nbReaders,
+        nbThreads);
+
+    // Get the instance of the SmartCardService (singleton pattern)
+    SmartCardService smartCardService = SmartCardServiceProvider.getService();
+
+    // Verify that the extension's API level is consistent with the current service.
+    smartCardService.checkCardExtension(GenericExtensionService.getInstance());
+
+    // Register a Stub plugin with the readers, the reader i holding a card of the type i modulo the
+    // number of profiles.
+    StubPluginFactoryBuilder.Builder pluginFactoryBuilder = StubPluginFactoryBuilder.builder();
+    for (int i = 0; i < nbReaders; i++) {
+      pluginFactoryBuilder.withStubReader(
+          READER_NAME_PREFIX + i, false, createCard(i % NB_PROFILES));
+    }
+    Plugin plugin = smartCardService.registerPlugin(pluginFactoryBuilder.build());
+
+    // Create one card resource profile per card type.
+    CardResourceProfileConfigurator[] cardResourceProfileConfigurators =
+        new CardResourceProfileConfigurator[NB_PROFILES];
+    ReaderApiFactory readerApiFactory = smartCardService.getReaderApiFactory();
+    GenericCardSelectionExtension genericCardSelectionExtension =
+        GenericExtensionService.getInstance()
+            .getGenericCardApiFactory()
+            .createGenericCardSelectionExtension();
+    for (int profile = 0; profile < NB_PROFILES; profile++) {
+      cardResourceProfileConfigurators[profile] =
+          CardResourceProfileConfigurator.builder(
+                  RESOURCE_NAME_PREFIX + profile,
+                  GenericExtensionService.getInstance()
+                      .createCardResourceProfileExtension(
+                          readerApiFactory
+                              .createIsoCardSelector()
+                              .filterByPowerOnData(getAtrRegex(profile)),
+                          genericCardSelectionExtension))
+              .build();
+    }
+
+    List<String> results = new ArrayList<String>();
+    for (boolean isBlocking : new boolean[] {false, true}) {
+      results.add(
+          measure(plugin, cardResourceProfileConfigurators, isBlocking, nbReaders, nbThreads));
+    }
+
+    logger.info("= Summary ====================================================================");
+    logger.info(
+        "        mode | alloc/s | wait p50 (ms) | wait p99 (ms) | wait max (ms) | empty calls |"
+            + " Jain index | min/max per thread | double allocations");
+    for (String result : results) {
+      logger.info(result);
+    }
+
+    // unregister plugin
+    smartCardService.unregisterPlugin(plugin.getName());
+
+    logger.info("Exit program.");
+  }
+
+  /**
+   * Configures and starts the card resource service in the provided allocation mode, runs the
+   * threads and the chaos, then stops the service and returns the measurement summary.
+   *
+   * @param plugin The Stub plugin.
+   * @param cardResourceProfileConfigurators The card resource profiles.
+   * @param isBlocking true for the blocking allocation mode.
+   * @param nbReaders The number of readers.
+   * @param nbThreads The number of threads allocating card resources.
+   * @return A summary line.
+   * @throws InterruptedException If the current thread was interrupted.
+   */
+  private static String measure(
+      Plugin plugin,
+      CardResourceProfileConfigurator[] cardResourceProfileConfigurators,
+      boolean isBlocking,
+      int nbReaders,
+      int nbThreads)
+      throws InterruptedException {
+
+    String mode = isBlocking ? "blocking" : "non-blocking";
+    logger.info("Measuring the {} allocation mode...", mode);
+
+    CardResourceService cardResourceService = CardResourceServiceProvider.getService();
+    PluginAndReaderExceptionHandler pluginAndReaderExceptionHandler =
+        new PluginAndReaderExceptionHandler();
+    CardResourceServiceConfigurator configurator = cardResourceService.getConfigurator();
+    if (isBlocking) {
+      configurator.withBlockingAllocationMode(
+          BLOCKING_CYCLE_DURATION_MILLIS, BLOCKING_TIMEOUT_MILLIS);
+    }
+    configurator
+        .withPlugins(
+            PluginsConfigurator.builder()
+                .addPluginWithMonitoring(
+                    plugin,
+                    new ReaderConfigurator(),
+                    pluginAndReaderExceptionHandler,
+                    pluginAndReaderExceptionHandler)
+                .withUsageTimeout(USAGE_TIMEOUT_MILLIS)
+                .build())
+        .withCardResourceProfiles(cardResourceProfileConfigurators)
+        .configure();
+    cardResourceService.start();
+
+    // sleep for a moment to let the cards being detected
+    Thread.sleep(DETECTION_DELAY_MILLIS);
+
+    Statistics statistics = new Statistics(nbThreads);
+    long measurementStart = System.currentTimeMillis() + WARMUP_DURATION_MILLIS;
+    long end = measurementStart + MEASUREMENT_DURATION_MILLIS;
+    Chaos chaos = new Chaos(plugin, nbReaders, end);
+    Thread chaosThread = new Thread(chaos, "chaos");
+    chaosThread.start();
+    ExecutorService executorService = Executors.newFixedThreadPool(nbThreads);
+    for (int i = 0; i < nbThreads; i++) {
+      executorService.execute(
+          new Worker(i, cardResourceService, statistics, measurementStart, end, SEED + i));
+    }
+    executorService.shutdown();
+    executorService.awaitTermination(1, TimeUnit.MINUTES);
+    chaosThread.join();
+
+    cardResourceService.stop();
+    chaos.insertRemovedCards();
+
+    long[] waits = statistics.getSortedWaits();
+    long[] allocationsPerThread = statistics.getAllocationsPerThread();
+    long[] sortedAllocationsPerThread = Arrays.copyOf(allocationsPerThread, nbThreads);
+    Arrays.sort(sortedAllocationsPerThread);
+    String result =
+        String.format(
+            "%12s | %7.1f | %13.2f | %13.2f | %13.2f | %11d | %10.3f | %8d/%-9d | %18d",
+            mode,
+            waits.length * 1000.0 / MEASUREMENT_DURATION_MILLIS,
+            getPercentileMillis(waits, 50),
+            getPercentileMillis(waits, 99),
+            getPercentileMillis(waits, 100),
+            statistics.nbEmptyCalls.get(),
+            getJainIndex(allocationsPerThread),
+            sortedAllocationsPerThread[0],
+            sortedAllocationsPerThread[nbThreads - 1],
+            statistics.nbDoubleAllocations.get());
+    logger.info(
+        "{}: {} (card removals: {}, release errors: {})",
+        mode,
+        result,
+        chaos.getNbRemovals(),
+        statistics.nbReleaseErrors.get());
+    return result;
+  }
+
+  /**
+   * Creates a SAM-like Stub card of a card type.
+   *
+   * @param profile The index of the card type, i.e. of its card resource profile.
+   * @return A new card.
+   */
+  private static StubSmartCard createCard(int profile) {
+    return StubSmartCard.builder()
+        .withPowerOnData(HexUtil.toByteArray(ATR_PREFIX + getAtrCode(profile) + ATR_SUFFIX))
+        .withProtocol(SAM_PROTOCOL)
+        .build();
+  }
+
+  /**
+   * Returns the regular expression matching the power-on data of a card type.
+   *
+   * @param profile The index of the card type.
+   * @return A regular expression.
+   */
+  private static String getAtrRegex(int profile) {
+    return "^" + ATR_PREFIX + getAtrCode(profile) + "[0-9A-F]{6}829000$";
+  }
+
+  /**
+   * Returns the byte of the power-on data identifying a card type.
+   *
+   * @param profile The index of the card type.
+   * @return Two hexadecimal digits.
+   */
+  private static String getAtrCode(int profile) {
+    return HexUtil.toHex((byte) (0x31 + profile));
+  }
+
+  /**
+   * Returns a percentile of sorted durations.
+   *
+   * @param sortedDurations The sorted durations, in nanoseconds.
+   * @param percentile The percentile, between 0 and 100.
+   * @return The duration in milliseconds, 0 if there is no duration.
+   */
+  private static double getPercentileMillis(long[] sortedDurations, int percentile) {
+    if (sortedDurations.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * sortedDurations.length) - 1;
+    return sortedDurations[Math.max(index, 0)] / 1000000.0;
+  }
+
+  /**
+   * Returns the Jain's fairness index of the numbers of allocations of the threads.
+   *
+   * @param allocationsPerThread The numbers of allocations.
+   * @return 1 if all the threads obtained as many card resources, 1/n if a single thread did.
+   */
+  private static double getJainIndex(long[] allocationsPerThread) {
+    double sum = 0;
+    double sumOfSquares = 0;
+    for (long nbAllocations : allocationsPerThread) {
+      sum += nbAllocations;
+      sumOfSquares += (double) nbAllocations * nbAllocations;
+    }
+    return sumOfSquares == 0 ? 0 : sum * sum / (allocationsPerThread.length * sumOfSquares);
+  }
+
+  /** Statistics shared by all the threads of a measurement. */
+  private static class Statistics {
+
+    private final long[] allocationsPerThread;
+    private long[] waits = new long[4096];
+    private int nbWaits;
+    private final AtomicLong nbEmptyCalls = new AtomicLong();
+    private final AtomicLong nbDoubleAllocations = new AtomicLong();
+    private final AtomicLong nbReleaseErrors = new AtomicLong();
+
+    // The card resources currently allocated, by identity.
+    private final Set<CardResource> allocatedCardResources =
+        Collections.newSetFromMap(new IdentityHashMap<CardResource, Boolean>());
+
+    /**
+     * Constructor.
+     *
+     * @param nbThreads The number of threads.
+     */
+    private Statistics(int nbThreads) {
+      allocationsPerThread = new long[nbThreads];
+    }
+
+    /**
+     * Records an allocation.
+     *
+     * @param threadIndex The index of the thread.
+     * @param waitNanos The wait time, from the first attempt.
+     */
+    private synchronized void recordAllocation(int threadIndex, long waitNanos) {
+      if (nbWaits == waits.length) {
+        waits = Arrays.copyOf(waits, waits.length * 2);
+      }
+      waits[nbWaits++] = waitNanos;
+      allocationsPerThread[threadIndex]++;
+    }
+
+    /**
+     * Marks a card resource as allocated.
+     *
+     * @param cardResource The card resource.
+     * @return false if it was already allocated to another thread.
+     */
+    private synchronized boolean markAllocated(CardResource cardResource) {
+      return allocatedCardResources.add(cardResource);
+    }
+
+    /**
+     * Marks a card resource as released.
+     *
+     * @param cardResource The card resource.
+     */
+    private synchronized void markReleased(CardResource cardResource) {
+      allocatedCardResources.remove(cardResource);
+    }
+
+    private synchronized long[] getSortedWaits() {
+      long[] sortedWaits = Arrays.copyOf(waits, nbWaits);
+      Arrays.sort(sortedWaits);
+      return sortedWaits;
+    }
+
+    private synchronized long[] getAllocationsPerThread() {
+      return allocationsPerThread.clone();
+    }
+  }
+
+  /**
+   * A thread taking a card resource of a random profile, using it for a short random time and
+   * releasing it, in a loop.
+   */
+  private static class Worker implements Runnable {
+
+    private final int threadIndex;
+    private final CardResourceService cardResourceService;
+    private final Statistics statistics;
+    private final long measurementStart;
+    private final long end;
+    private final Random random;
+
+    /**
+     * Constructor.
+     *
+     * @param threadIndex The index of the thread.
+     * @param cardResourceService The card resource service.
+     * @param statistics The shared statistics.
+     * @param measurementStart The time from which the allocations are taken into account.
+     * @param end The time at which the thread stops.
+     * @param seed The seed of the random choices.
+     */
+    private Worker(
+        int threadIndex,
+        CardResourceService cardResourceService,
+        Statistics statistics,
+        long measurementStart,
+        long end,
+        long seed) {
+      this.threadIndex = threadIndex;
+      this.cardResourceService = cardResourceService;
+      this.statistics = statistics;
+      this.measurementStart = measurementStart;
+      this.end = end;
+      this.random = new Random(seed);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      while (System.currentTimeMillis() < end) {
+        String profileName = RESOURCE_NAME_PREFIX + random.nextInt(NB_PROFILES);
+        long start = System.nanoTime();
+        CardResource cardResource = cardResourceService.getCardResource(profileName);
+        while (cardResource == null && System.currentTimeMillis() < end) {
+          // No card resource available (non-blocking mode) or timeout (blocking mode).
+          if (System.currentTimeMillis() >= measurementStart) {
+            statistics.nbEmptyCalls.incrementAndGet();
+          }
+          LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(RETRY_DELAY_MICROS));
+          cardResource = cardResourceService.getCardResource(profileName);
+        }
+        if (cardResource == null) {
+          return;
+        }
+        long waitNanos = System.nanoTime() - start;
+        if (System.currentTimeMillis() >= measurementStart) {
+          statistics.recordAllocation(threadIndex, waitNanos);
+        }
+        if (!statistics.markAllocated(cardResource)) {
+          logger.error(
+              "Card resource of reader {} allocated twice.", cardResource.getReader().getName());
+          statistics.nbDoubleAllocations.incrementAndGet();
+        }
+        // Use the card resource.
+        LockSupport.parkNanos(
+            TimeUnit.MICROSECONDS.toNanos((long) (random.nextDouble() * MAX_USAGE_MICROS)));
+        statistics.markReleased(cardResource);
+        try {
+          cardResourceService.releaseCardResource(cardResource);
+        } catch (RuntimeException e) {
+          // The card may have been removed meanwhile.
+          statistics.nbReleaseErrors.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  /** Removes cards at random and inserts them back later. */
+  private static class Chaos implements Runnable {
+
+    private final Plugin plugin;
+    private final int nbReaders;
+    private final long end;
+    private final Random random = new Random(SEED);
+    private final boolean[] isCardRemoved;
+    private final LinkedList<Integer> removedCards = new LinkedList<Integer>();
+    private final int maxRemovedCards;
+    private volatile long nbRemovals;
+
+    /**
+     * Constructor.
+     *
+     * @param plugin The Stub plugin.
+     * @param nbReaders The number of readers.
+     * @param end The time at which the chaos stops.
+     */
+    private Chaos(Plugin plugin, int nbReaders, long end) {
+      this.plugin = plugin;
+      this.nbReaders = nbReaders;
+      this.end = end;
+      this.isCardRemoved = new boolean[nbReaders];
+      this.maxRemovedCards = (int) (nbReaders * MAX_REMOVED_CARD_SHARE);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void run() {
+      while (System.currentTimeMillis() < end) {
+        int readerIndex = random.nextInt(nbReaders);
+        if (!isCardRemoved[readerIndex]) {
+          getStubReader(readerIndex).removeCard();
+          isCardRemoved[readerIndex] = true;
+          removedCards.add(readerIndex);
+          nbRemovals++;
+        }
+        if (removedCards.size() > maxRemovedCards) {
+          insertCard(removedCards.removeFirst());
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(CHAOS_PERIOD_MILLIS));
+      }
+    }
+
+    /** Inserts back all the removed cards, once the chaos is stopped. */
+    private void insertRemovedCards() {
+      while (!removedCards.isEmpty()) {
+        insertCard(removedCards.removeFirst());
+      }
+    }
+
+    private long getNbRemovals() {
+      return nbRemovals;
+    }
+
+    /**
+     * Inserts back the card of a reader.
+     *
+     * @param readerIndex The index of the reader.
+     */
+    private void insertCard(int readerIndex) {
+      getStubReader(readerIndex).insertCard(createCard(readerIndex % NB_PROFILES));
+      isCardRemoved[readerIndex] = false;
+    }
+
+    /**
+     * Returns the Stub extension of a reader.
+     *
+     * @param readerIndex The index of the reader.
+     * @return A not null reference.
+     */
+    private StubReader getStubReader(int readerIndex) {
+      return plugin.getReaderExtension(StubReader.class, READER_NAME_PREFIX + readerIndex);
+    }
+  }
+
+  /**
+   * Reader configurator used by the card resource service to set up the SAM reader with the
+   * required settings.
+   */
+  private static class ReaderConfigurator implements ReaderConfiguratorSpi {
+
+    /** Constructor. */
+    private ReaderConfigurator() {}
+
+    /** {@inheritDoc} */
+    @Override
+    public void setupReader(CardReader reader) {
+      try {
+        ((ConfigurableCardReader) reader).activateProtocol(SAM_PROTOCOL, SAM_PROTOCOL);
+      } catch (Exception e) {
+        logger.error("Exception raised while setting up the reader {}", reader.getName(), e);
+      }
+    }
+  }
+
+  /** Class implementing the exception handler SPIs for plugin and reader monitoring. */
+  private static class PluginAndReaderExceptionHandler
+      implements PluginObservationExceptionHandlerSpi, CardReaderObservationExceptionHandlerSpi {
+
+    @Override
+    public void onPluginObservationError(String pluginName, Throwable e) {
+      logger.error("An exception occurred while monitoring the plugin '{}'.", pluginName, e);
+    }
+
+    @Override
+    public void onReaderObservationError(String pluginName, String readerName, Throwable e) {
+      logger.error(
+          "An exception occurred while monitoring the reader '{}/{}'.", pluginName, readerName, e);
+    }
+  }
+}